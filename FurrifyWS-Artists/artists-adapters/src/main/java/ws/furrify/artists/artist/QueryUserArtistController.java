@@ -5,7 +5,9 @@ import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,8 +18,13 @@ import org.springframework.web.bind.annotation.RestController;
 import ws.furrify.artists.artist.dto.query.ArtistDetailsQueryDTO;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.RecordNotFoundException;
+import ws.furrify.shared.pageable.CursorPageable;
+import ws.furrify.shared.pageable.CursorRequest;
+import ws.furrify.shared.pageable.CursorSlice;
 import ws.furrify.shared.pageable.PageableRequest;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.afford;
@@ -86,6 +93,95 @@ class QueryUserArtistController {
         return artists;
     }
 
+    @GetMapping(params = "after")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('query_user_artists') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public CollectionModel<EntityModel<ArtistDetailsQueryDTO>> getUserArtistsByCursor(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String match,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer size,
+            @RequestParam String after,
+            @RequestParam(required = false) String preferredNickname,
+            KeycloakAuthenticationToken keycloakAuthenticationToken) {
+
+        // Build cursor page from cursor information
+        CursorPageable pageable = CursorRequest.builder()
+                .order(order)
+                .sort(sort)
+                .size(size)
+                .after(after)
+                .build().toCursorPageable();
+
+        CursorSlice<ArtistDetailsQueryDTO> artistsSlice;
+
+        if (match != null) {
+            artistsSlice = artistQueryRepository.findAllByOwnerIdAndPreferredNicknameLike(userId, match, pageable);
+        } else {
+            artistsSlice = artistQueryRepository.findAllByOwnerIdAndOptionalPreferredNickname(userId, preferredNickname, pageable);
+        }
+
+        CollectionModel<EntityModel<ArtistDetailsQueryDTO>> artists = CollectionModel.of(
+                artistsSlice.getContent().stream()
+                        .map(EntityModel::of)
+                        .map(this::addArtistRelations)
+                        .toList()
+        );
+
+        // Add hateoas relation
+        var artistsRel = linkTo(methodOn(QueryUserArtistController.class).getUserArtistsByCursor(
+                userId,
+                match,
+                null,
+                null,
+                size,
+                after,
+                preferredNickname,
+                null
+        )).withSelfRel();
+
+        artists.add(artistsRel);
+
+        if (artistsSlice.hasNext()) {
+            var nextRel = linkTo(methodOn(QueryUserArtistController.class).getUserArtistsByCursor(
+                    userId,
+                    match,
+                    null,
+                    null,
+                    size,
+                    artistsSlice.getNext().encode(),
+                    preferredNickname,
+                    null
+            )).withRel(IanaLinkRelations.NEXT);
+
+            artists.add(nextRel);
+        }
+
+        return artists;
+    }
+
+    /**
+     * Resolves many artists by ids at once.
+     * Artists are returned without relations as plain list, missing ids are omitted.
+     */
+    @GetMapping(params = "ids")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('query_user_artists') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public List<ArtistDetailsQueryDTO> getUserArtistsByIds(@PathVariable UUID userId,
+                                                           @RequestParam Set<UUID> ids,
+                                                           KeycloakAuthenticationToken keycloakAuthenticationToken) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        return artistQueryRepository.findAllByOwnerIdAndArtistIdIn(userId, ids);
+    }
+
     @GetMapping("/{artistId}")
     @PreAuthorize(
             "hasRole('admin') ||" +
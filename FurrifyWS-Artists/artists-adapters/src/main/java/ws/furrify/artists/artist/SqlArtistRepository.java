@@ -8,8 +8,15 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import ws.furrify.artists.artist.dto.query.ArtistDetailsQueryDTO;
+import ws.furrify.shared.pageable.CursorPageable;
+import ws.furrify.shared.pageable.CursorQueryExecutor;
+import ws.furrify.shared.pageable.CursorSlice;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Transactional(rollbackFor = RuntimeException.class)
@@ -29,7 +36,7 @@ interface SqlArtistRepository extends Repository<ArtistSnapshot, Long> {
 }
 
 @Transactional(rollbackFor = {})
-interface SqlArtistQueryRepositoryImpl extends ArtistQueryRepository, Repository<ArtistSnapshot, Long> {
+interface SqlArtistQueryRepositoryImpl extends ArtistQueryRepository, ArtistCursorQueryRepository, Repository<ArtistSnapshot, Long> {
 
     @Override
     Optional<ArtistDetailsQueryDTO> findByOwnerIdAndArtistId(UUID ownerId, UUID artistId);
@@ -42,11 +49,59 @@ interface SqlArtistQueryRepositoryImpl extends ArtistQueryRepository, Repository
     @Query("select artist from ArtistSnapshot artist where artist.ownerId = ?1 and (?2 is null or artist.preferredNickname like %?2%)")
     Page<ArtistDetailsQueryDTO> findAllByOwnerIdAndPreferredNicknameLike(UUID ownerId, String preferredNickname, Pageable pageable);
 
+    @Override
+    List<ArtistDetailsQueryDTO> findAllByOwnerIdAndArtistIdIn(UUID ownerId, Set<UUID> artistIds);
+
     @Override
     @Query("select id from ArtistSnapshot where artistId = ?1")
     Long getIdByArtistId(UUID artistId);
 }
 
+interface ArtistCursorQueryRepository {
+    CursorSlice<ArtistDetailsQueryDTO> findAllByOwnerIdAndOptionalPreferredNickname(UUID ownerId, String preferredNickname, CursorPageable pageable);
+
+    CursorSlice<ArtistDetailsQueryDTO> findAllByOwnerIdAndPreferredNicknameLike(UUID ownerId, String preferredNickname, CursorPageable pageable);
+}
+
+@Transactional(rollbackFor = {})
+class ArtistCursorQueryRepositoryImpl implements ArtistCursorQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public CursorSlice<ArtistDetailsQueryDTO> findAllByOwnerIdAndOptionalPreferredNickname(final UUID ownerId,
+                                                                                          final String preferredNickname,
+                                                                                          final CursorPageable pageable) {
+        return new CursorQueryExecutor(entityManager).findAll(
+                ArtistSnapshot.class,
+                ArtistDetailsQueryDTO.class,
+                pageable,
+                (criteriaBuilder, artist) -> (preferredNickname == null) ?
+                        criteriaBuilder.equal(artist.get("ownerId"), ownerId) :
+                        criteriaBuilder.and(
+                                criteriaBuilder.equal(artist.get("ownerId"), ownerId),
+                                criteriaBuilder.equal(artist.get("preferredNickname"), preferredNickname)
+                        )
+        );
+    }
+
+    @Override
+    public CursorSlice<ArtistDetailsQueryDTO> findAllByOwnerIdAndPreferredNicknameLike(final UUID ownerId,
+                                                                                      final String preferredNickname,
+                                                                                      final CursorPageable pageable) {
+        return new CursorQueryExecutor(entityManager).findAll(
+                ArtistSnapshot.class,
+                ArtistDetailsQueryDTO.class,
+                pageable,
+                (criteriaBuilder, artist) -> criteriaBuilder.and(
+                        criteriaBuilder.equal(artist.get("ownerId"), ownerId),
+                        criteriaBuilder.like(artist.get("preferredNickname"), "%" + preferredNickname + "%")
+                )
+        );
+    }
+}
+
 @org.springframework.stereotype.Repository
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class ArtistRepositoryImpl implements ArtistRepository {
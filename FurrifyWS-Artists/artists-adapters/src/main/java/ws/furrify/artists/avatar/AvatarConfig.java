@@ -1,13 +1,24 @@
 package ws.furrify.artists.avatar;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import ws.furrify.artists.avatar.dto.AvatarDtoFactory;
 import ws.furrify.artists.avatar.strategy.AvatarUploadStrategy;
 import ws.furrify.artists.avatar.strategy.LocalStorageAvatarUploadStrategy;
+import ws.furrify.artists.avatar.strategy.S3AvatarUploadStrategy;
 import ws.furrify.artists.kafka.KafkaTopicEventPublisher;
 import ws.furrify.posts.avatar.AvatarEvent;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.StrategyNotFoundException;
+import ws.furrify.shared.storage.IoRateLimiter;
+import ws.furrify.shared.storage.S3ObjectStorage;
+import ws.furrify.shared.storage.ShardedLayout;
+
+import java.nio.file.Path;
+import java.time.Duration;
 
 @Configuration
 @RequiredArgsConstructor
@@ -17,6 +28,39 @@ class AvatarConfig {
     private final AvatarQueryRepository avatarQueryRepository;
     private final KafkaTopicEventPublisher<AvatarEvent> eventPublisher;
     private final ArtistServiceImpl artistServiceClient;
+    private final ObjectProvider<S3ObjectStorage> s3ObjectStorage;
+    private final ShardedLayout shardedLayout;
+    private final IoRateLimiter reclamationRateLimiter;
+
+    @Value("${furrify.storage.strategy}")
+    private String storageStrategy;
+
+    @Value("${LOCAL_STORAGE_AVATAR_PATH:/data/artist/{0}/avatar/{1}}")
+    private String localStorageAvatarPath;
+
+    @Value("${REMOTE_STORAGE_AVATAR_PATH:/artist/{0}/avatar/{1}}")
+    private String remoteStorageAvatarPath;
+
+    @Value("${furrify.storage.local.migration.workers}")
+    private int storageMigrationWorkers;
+
+    @Value("${furrify.storage.local.migration.page-size}")
+    private int storageMigrationPageSize;
+
+    @Value("${furrify.storage.reclamation.workers}")
+    private int reclamationWorkers;
+
+    @Value("${furrify.storage.reclamation.batch-size}")
+    private int reclamationBatchSize;
+
+    @Value("${furrify.storage.reclamation.min-age}")
+    private long reclamationMinAge;
+
+    @Value("${furrify.storage.reclamation.sweep-interval}")
+    private long reclamationSweepInterval;
+
+    @Value("${furrify.storage.reclamation.dry-run}")
+    private boolean reclamationDryRun;
 
     @Bean
     AvatarFacade avatarFacade() {
@@ -28,13 +72,49 @@ class AvatarConfig {
                 new DeleteAvatarImpl(avatarRepository, eventPublisher),
                 avatarRepository,
                 avatarFactory,
-                avatarDtoFactory
+                avatarDtoFactory,
+                avatarUploadStrategy(),
+                avatarStorageReclaimer()
         );
     }
 
     @Bean
     AvatarUploadStrategy avatarUploadStrategy() {
-        return new LocalStorageAvatarUploadStrategy();
+        return switch (storageStrategy) {
+            case "local" -> new LocalStorageAvatarUploadStrategy(shardedLayout);
+            case "s3" -> new S3AvatarUploadStrategy(s3ObjectStorage.getObject());
+            default -> throw new StrategyNotFoundException(Errors.STRATEGY_NOT_FOUND.getErrorMessage(storageStrategy));
+        };
+    }
+
+    @Bean
+    AvatarStorageReclaimer avatarStorageReclaimer() {
+        return new AvatarStorageReclaimer(
+                avatarRepository,
+                // Artists directory avatar directories are nested in, files in object storage are not swept
+                "local".equals(storageStrategy) ?
+                        Path.of(localStorageAvatarPath.substring(0, localStorageAvatarPath.indexOf("{0}"))) :
+                        null,
+                reclamationRateLimiter,
+                reclamationWorkers,
+                reclamationBatchSize,
+                Duration.ofMillis(reclamationMinAge),
+                Duration.ofMillis(reclamationSweepInterval),
+                reclamationDryRun
+        );
+    }
+
+    @Bean
+    AvatarStorageMigration avatarStorageMigration() {
+        return new AvatarStorageMigration(
+                avatarRepository,
+                eventPublisher,
+                shardedLayout,
+                localStorageAvatarPath,
+                remoteStorageAvatarPath,
+                storageMigrationWorkers,
+                storageMigrationPageSize
+        );
     }
 }
 
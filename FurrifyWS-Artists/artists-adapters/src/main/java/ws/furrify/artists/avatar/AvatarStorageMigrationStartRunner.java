@@ -0,0 +1,24 @@
+package ws.furrify.artists.avatar;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts migration of locally stored avatars to sharded layout on startup when it is enabled.
+ *
+ * @author Skyte
+ */
+@Component
+@ConditionalOnProperty(value = "furrify.storage.local.migration.enabled", havingValue = "true")
+@RequiredArgsConstructor
+class AvatarStorageMigrationStartRunner implements CommandLineRunner {
+
+    private final AvatarStorageMigration avatarStorageMigration;
+
+    @Override
+    public void run(final String... args) {
+        avatarStorageMigration.start();
+    }
+}
@@ -0,0 +1,22 @@
+package ws.furrify.artists.avatar;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts background deletion and periodic sweep of files of removed avatars on startup.
+ *
+ * @author Skyte
+ */
+@Component
+@RequiredArgsConstructor
+class AvatarStorageReclamationStartRunner implements CommandLineRunner {
+
+    private final AvatarStorageReclaimer avatarStorageReclaimer;
+
+    @Override
+    public void run(final String... args) {
+        avatarStorageReclaimer.start();
+    }
+}
@@ -2,12 +2,18 @@ package ws.furrify.artists.avatar;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import ws.furrify.artists.avatar.dto.query.AvatarDetailsQueryDTO;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Transactional(rollbackFor = RuntimeException.class)
@@ -23,6 +29,14 @@ interface SqlAvatarRepository extends Repository<AvatarSnapshot, Long> {
     boolean existsByOwnerIdAndArtistIdAndAvatarId(UUID ownerId, UUID artistId, UUID avatarId);
 
     Optional<AvatarSnapshot> findByOwnerIdAndArtistIdAndAvatarId(UUID ownerId, UUID artistId, UUID avatarId);
+
+    List<AvatarSnapshot> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select avatar.avatarId from AvatarSnapshot avatar where avatar.avatarId in ?1")
+    List<UUID> findAvatarIdsByAvatarIdIn(Collection<UUID> avatarIds);
+
+    @Query("select avatar.avatarId from AvatarSnapshot avatar where avatar.ownerId = ?1 and avatar.artistId = ?2")
+    List<UUID> findAvatarIdsByOwnerIdAndArtistId(UUID ownerId, UUID artistId);
 }
 
 @Transactional(rollbackFor = {})
@@ -32,7 +46,7 @@ interface SqlAvatarQueryRepositoryImpl extends AvatarQueryRepository, Repository
     Optional<AvatarDetailsQueryDTO> findByOwnerIdAndArtistIdAndAvatarId(UUID ownerId, UUID artistId, UUID avatarId);
 
     @Override
-    @Query("select id from AvatarSnapshot where artistId = ?1")
+    @Query("select id from AvatarSnapshot where avatarId = ?1")
     Long getIdByAvatarId(UUID avatarId);
 }
 
@@ -67,5 +81,22 @@ class AvatarRepositoryImpl implements AvatarRepository {
         return sqlAvatarRepository.existsByOwnerIdAndArtistIdAndAvatarId(ownerId, artistId, avatarId);
     }
 
+    @Override
+    public List<Avatar> findAllByIdGreaterThan(final long id, final int limit) {
+        return sqlAvatarRepository.findAllByIdGreaterThanOrderByIdAsc(id, PageRequest.of(0, limit)).stream()
+                .map(Avatar::restore)
+                .toList();
+    }
+
+    @Override
+    public Set<UUID> findExistingAvatarIds(final Set<UUID> ids) {
+        return new HashSet<>(sqlAvatarRepository.findAvatarIdsByAvatarIdIn(ids));
+    }
+
+    @Override
+    public List<UUID> findAvatarIdsByOwnerIdAndArtistId(final UUID ownerId, final UUID artistId) {
+        return sqlAvatarRepository.findAvatarIdsByOwnerIdAndArtistId(ownerId, artistId);
+    }
+
 
 }
\ No newline at end of file
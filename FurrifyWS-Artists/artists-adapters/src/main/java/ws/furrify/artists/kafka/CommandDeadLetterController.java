@@ -0,0 +1,27 @@
+package ws.furrify.artists.kafka;
+
+import lombok.RequiredArgsConstructor;
+import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/dead-letters")
+@RequiredArgsConstructor
+class CommandDeadLetterController {
+
+    private final EventListenerRegistry eventListenerRegistry;
+
+    @PostMapping("/{topic}/replay")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<?> replayDeadLetters(@PathVariable String topic,
+                                               KeycloakAuthenticationToken keycloakAuthenticationToken) {
+        eventListenerRegistry.replayDeadLetters(topic);
+
+        return ResponseEntity.accepted().build();
+    }
+}
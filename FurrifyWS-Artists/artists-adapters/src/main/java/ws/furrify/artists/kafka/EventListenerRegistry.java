@@ -2,72 +2,112 @@ package ws.furrify.artists.kafka;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.stereotype.Service;
 import ws.furrify.artists.artist.ArtistEvent;
 import ws.furrify.artists.artist.ArtistFacade;
 import ws.furrify.artists.avatar.AvatarFacade;
 import ws.furrify.posts.avatar.AvatarEvent;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.InvalidDataGivenException;
+import ws.furrify.shared.kafka.DeadLetterReplayer;
+import ws.furrify.shared.kafka.KeyOrderedDispatcher;
+import ws.furrify.shared.kafka.RetryTopicRouter;
 import ws.furrify.sources.source.SourceEvent;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Log
 class EventListenerRegistry {
+    private final static Set<String> TOPICS = Set.of("artist_events", "avatar_events", "source_events");
+    private final static String RETRY_LISTENER_ID = "retry";
+
     private final ArtistFacade artistFacade;
     private final AvatarFacade avatarFacade;
+    private final KeyOrderedDispatcher keyOrderedDispatcher;
+    private final RetryTopicRouter retryTopicRouter;
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+    private final DeadLetterReplayer<SpecificRecord> deadLetterReplayer;
 
     @KafkaListener(topics = "artist_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
-    )
-    public void onArtistEvent(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                              @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                              @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                              @Payload ArtistEvent artistEvent) {
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
-
-        artistFacade.handleEvent(UUID.fromString(key), artistEvent);
-        avatarFacade.handleEvent(UUID.fromString(key), artistEvent);
+    public void onArtistEvent(List<ConsumerRecord<String, ArtistEvent>> records) {
+        log.info("Events received from kafka [topic=artist_events] [size=" + records.size() + "].");
+
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
     }
 
     @KafkaListener(topics = "avatar_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
-    )
-    public void onAvatarEvent(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                              @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                              @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                              @Payload AvatarEvent avatarEvent) {
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
-
-        artistFacade.handleEvent(UUID.fromString(key), avatarEvent);
-        avatarFacade.handleEvent(UUID.fromString(key), avatarEvent);
+    public void onAvatarEvent(List<ConsumerRecord<String, AvatarEvent>> records) {
+        log.info("Events received from kafka [topic=avatar_events] [size=" + records.size() + "].");
+
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
     }
 
     @KafkaListener(topics = "source_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
+    public void on(List<ConsumerRecord<String, SourceEvent>> records) {
+        log.info("Events received from kafka [topic=source_events] [size=" + records.size() + "].");
+
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
+    }
+
+    @KafkaListener(
+            topics = {
+                    "#{@retryTopicRouter.retryTopics('artist_events')}",
+                    "#{@retryTopicRouter.retryTopics('avatar_events')}",
+                    "#{@retryTopicRouter.retryTopics('source_events')}"
+            },
+            containerFactory = "retryKafkaListenerContainerFactory",
+            id = RETRY_LISTENER_ID,
+            idIsGroup = false
     )
-    public void on(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                   @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                   @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                   @Payload SourceEvent sourceEvent) {
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
+    public void onRetry(List<ConsumerRecord<String, SpecificRecord>> records, Consumer<?, ?> consumer) {
+        log.info("Events received from kafka [topic=retry] [size=" + records.size() + "].");
+
+        retryTopicRouter.redeliver(
+                records,
+                consumer,
+                kafkaListenerEndpointRegistry.getListenerContainer(RETRY_LISTENER_ID),
+                keyOrderedDispatcher,
+                this::handle
+        );
+    }
+
+    /**
+     * Replay events of dead letter topic of given topic.
+     *
+     * Replay runs in background.
+     *
+     * @param topic Consumed topic name.
+     */
+    void replayDeadLetters(final String topic) {
+        if (!TOPICS.contains(topic)) {
+            throw new InvalidDataGivenException(Errors.TOPIC_IS_NOT_CONSUMED.getErrorMessage(topic));
+        }
+
+        deadLetterReplayer.replayAsync(retryTopicRouter.deadLetterTopic(topic), this::handle);
+    }
+
+    private void handle(final ConsumerRecord<String, ? extends SpecificRecord> record) {
+        UUID key = UUID.fromString(record.key());
 
-        artistFacade.handleEvent(UUID.fromString(key), sourceEvent);
+        if (record.value() instanceof ArtistEvent artistEvent) {
+            artistFacade.handleEvent(key, artistEvent);
+            avatarFacade.handleEvent(key, artistEvent);
+        } else if (record.value() instanceof AvatarEvent avatarEvent) {
+            artistFacade.handleEvent(key, avatarEvent);
+            avatarFacade.handleEvent(key, avatarEvent);
+        } else if (record.value() instanceof SourceEvent sourceEvent) {
+            artistFacade.handleEvent(key, sourceEvent);
+        } else {
+            throw new IllegalStateException("Unsupported event [type=" + record.value().getClass().getName() + "].");
+        }
     }
 }
@@ -2,6 +2,8 @@ package ws.furrify.artists.kafka;
 
 import io.confluent.kafka.serializers.KafkaAvroDeserializer;
 import lombok.extern.log4j.Log4j2;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,20 +11,27 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
-import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.kafka.listener.ContainerProperties;
 import ws.furrify.artists.artist.ArtistEvent;
+import ws.furrify.shared.kafka.DeadLetterReplayer;
+import ws.furrify.shared.kafka.KeyOrderedDispatcher;
+import ws.furrify.shared.kafka.RetryTopicRouter;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
-@EnableRetry
 @Log4j2
 class KafkaConsumerConfig {
 
+    private final static List<String> TOPICS = List.of("artist_events", "avatar_events", "source_events");
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
@@ -35,6 +44,12 @@ class KafkaConsumerConfig {
     @Value("${KAFKA_CONSUMER_GROUP_ID:}")
     private String groupIdRegion;
 
+    @Value("${furrify.kafka.dispatcher.lanes}")
+    private int dispatcherLanes;
+
+    @Value("${furrify.kafka.dispatcher.max-in-flight}")
+    private int dispatcherMaxInFlight;
+
     @Bean
     public Map<String, Object> consumerConfigs() {
         Map<String, Object> properties = new HashMap<>(7);
@@ -60,7 +75,42 @@ class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, ArtistEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+
+        return factory;
+    }
+
+    @Bean
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, ArtistEvent>> retryKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, ArtistEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        // Offsets are committed by retry topic router, so partitions sought back to records which are not due are not skipped
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
 
         return factory;
     }
+
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics(RetryTopicRouter retryTopicRouter) {
+        return new KafkaAdmin.NewTopics(
+                retryTopicRouter.retryAndDeadLetterTopics(TOPICS).stream()
+                        .map(topic -> TopicBuilder.name(topic).build())
+                        .toArray(NewTopic[]::new)
+        );
+    }
+
+    @Bean
+    public DeadLetterReplayer<SpecificRecord> deadLetterReplayer() {
+        return new DeadLetterReplayer<>(
+                new DefaultKafkaConsumerFactory<>(consumerConfigs()),
+                groupIdPrefix + groupIdRegion + "-dlt-replay"
+        );
+    }
+
+    @Bean
+    public KeyOrderedDispatcher keyOrderedDispatcher() {
+        return new KeyOrderedDispatcher(dispatcherLanes, dispatcherMaxInFlight);
+    }
 }
\ No newline at end of file
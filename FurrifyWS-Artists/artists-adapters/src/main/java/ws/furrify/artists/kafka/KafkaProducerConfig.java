@@ -11,6 +11,7 @@ import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import ws.furrify.artists.artist.ArtistEvent;
+import ws.furrify.shared.kafka.RetryTopicRouter;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -24,6 +25,15 @@ class KafkaProducerConfig {
     @Value("${spring.kafka.schema-registry-servers}")
     private String schemaRegistryServers;
 
+    @Value("${spring.kafka.consumer.group-id.prefix}")
+    private String groupIdPrefix;
+
+    @Value("${KAFKA_CONSUMER_GROUP_ID:}")
+    private String groupIdRegion;
+
+    @Value("${furrify.kafka.retry.delays}")
+    private long[] retryDelays;
+
     @Bean
     public Map<String, Object> producerConfigs() {
         Map<String, Object> properties = new HashMap<>(9);
@@ -50,4 +60,15 @@ class KafkaProducerConfig {
     public KafkaTemplate<String, ArtistEvent> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    @Bean
+    public RetryTopicRouter retryTopicRouter() {
+        // Own template as failed records of every consumed topic are forwarded
+        return new RetryTopicRouter(
+                new KafkaTemplate<>(new DefaultKafkaProducerFactory<String, Object>(producerConfigs())),
+                // Failed records are retried only by consumer group they failed in
+                groupIdPrefix + groupIdRegion,
+                retryDelays
+        );
+    }
 }
\ No newline at end of file
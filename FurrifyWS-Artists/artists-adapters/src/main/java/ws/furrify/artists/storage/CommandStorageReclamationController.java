@@ -0,0 +1,53 @@
+package ws.furrify.artists.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.RecordNotFoundException;
+import ws.furrify.shared.storage.StorageReclaimer;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/storage")
+@RequiredArgsConstructor
+class CommandStorageReclamationController {
+
+    private final List<StorageReclaimer> storageReclaimers;
+
+    /**
+     * Starts sweep in background, as sweep of whole storage outlasts request timeouts.
+     * Report is logged and returned by status endpoint when sweep is finished.
+     */
+    @PostMapping("/{name}/sweep")
+    @PreAuthorize("hasRole('admin')")
+    public ResponseEntity<?> sweepStorage(@PathVariable String name,
+                                          @RequestParam(defaultValue = "true") boolean dryRun,
+                                          KeycloakAuthenticationToken keycloakAuthenticationToken) {
+        findStorageReclaimer(name).sweepInBackground(dryRun);
+
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/{name}/sweep")
+    @PreAuthorize("hasRole('admin')")
+    public StorageReclaimer.SweepStatus getSweepStatus(@PathVariable String name,
+                                                       KeycloakAuthenticationToken keycloakAuthenticationToken) {
+        return findStorageReclaimer(name).getSweepStatus();
+    }
+
+    private StorageReclaimer findStorageReclaimer(final String name) {
+        return storageReclaimers.stream()
+                .filter(reclaimer -> reclaimer.getName().equals(name))
+                .findAny()
+                .orElseThrow(() -> new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(name)));
+    }
+}
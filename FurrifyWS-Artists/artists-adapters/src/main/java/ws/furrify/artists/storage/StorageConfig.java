@@ -0,0 +1,10 @@
+package ws.furrify.artists.storage;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import ws.furrify.shared.storage.ObjectStorageConfig;
+
+@Configuration
+@Import(ObjectStorageConfig.class)
+class StorageConfig {
+}
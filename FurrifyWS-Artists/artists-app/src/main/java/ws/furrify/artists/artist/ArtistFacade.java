@@ -57,7 +57,7 @@ final public class ArtistFacade {
     @SneakyThrows
     public void handleEvent(final UUID key, final AvatarEvent avatarEvent) {
         switch (DomainEventPublisher.AvatarEventType.valueOf(avatarEvent.getState())) {
-            case CREATED -> addAvatarToArtist(
+            case CREATED, UPDATED -> addAvatarToArtist(
                     key,
                     UUID.fromString(avatarEvent.getData().getArtistId()),
                     ArtistAvatar.builder()
@@ -4,7 +4,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import ws.furrify.artists.artist.dto.query.ArtistDetailsQueryDTO;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -17,5 +19,7 @@ public interface ArtistQueryRepository {
 
     Page<ArtistDetailsQueryDTO> findAllByOwnerIdAndPreferredNicknameLike(UUID ownerId, String preferredNickname, Pageable pageable);
 
+    List<ArtistDetailsQueryDTO> findAllByOwnerIdAndArtistIdIn(UUID ownerId, Set<UUID> artistIds);
+
     Long getIdByArtistId(UUID artistId);
 }
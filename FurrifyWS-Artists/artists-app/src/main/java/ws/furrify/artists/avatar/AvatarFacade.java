@@ -6,9 +6,11 @@ import org.springframework.web.multipart.MultipartFile;
 import ws.furrify.artists.artist.ArtistEvent;
 import ws.furrify.artists.avatar.dto.AvatarDTO;
 import ws.furrify.artists.avatar.dto.AvatarDtoFactory;
+import ws.furrify.artists.avatar.strategy.AvatarUploadStrategy;
 import ws.furrify.posts.avatar.AvatarEvent;
 import ws.furrify.shared.kafka.DomainEventPublisher;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -23,6 +25,8 @@ final public class AvatarFacade {
     private final AvatarRepository avatarRepository;
     private final AvatarFactory avatarFactory;
     private final AvatarDtoFactory avatarDTOFactory;
+    private final AvatarUploadStrategy avatarUploadStrategy;
+    private final AvatarStorageReclaimer avatarStorageReclaimer;
 
     /**
      * Handle incoming avatar events.
@@ -33,9 +37,10 @@ final public class AvatarFacade {
         AvatarDTO avatarDTO = avatarDTOFactory.from(key, avatarEvent);
 
         switch (DomainEventPublisher.AvatarEventType.valueOf(avatarEvent.getState())) {
-            case CREATED -> saveAvatarInDatabase(avatarDTO);
+            case CREATED, UPDATED -> saveAvatarInDatabase(avatarDTO);
             case REMOVED -> deleteAvatarByOwnerIdAndAvatarIdFromDatabase(
                     key,
+                    avatarDTO.getArtistId(),
                     avatarDTO.getAvatarId()
             );
 
@@ -91,11 +96,20 @@ final public class AvatarFacade {
         avatarRepository.save(avatarFactory.from(avatarDTO));
     }
 
-    private void deleteAvatarByOwnerIdAndAvatarIdFromDatabase(final UUID ownerId, final UUID avatarId) {
+    private void deleteAvatarByOwnerIdAndAvatarIdFromDatabase(final UUID ownerId, final UUID artistId, final UUID avatarId) {
         avatarRepository.deleteByOwnerIdAndAvatarId(ownerId, avatarId);
+
+        // Files are deleted in background after avatar, so they are never missing for stored avatar
+        avatarStorageReclaimer.enqueue(avatarId, () -> avatarUploadStrategy.deleteAvatar(artistId, avatarId));
     }
 
     private void deleteAvatarByOwnerIdAndArtistIdFromDatabase(final UUID ownerId, final UUID artistId) {
+        List<UUID> avatarIds = avatarRepository.findAvatarIdsByOwnerIdAndArtistId(ownerId, artistId);
+
         avatarRepository.deleteByOwnerIdAndArtistId(ownerId, artistId);
+
+        avatarIds.forEach(avatarId ->
+                avatarStorageReclaimer.enqueue(avatarId, () -> avatarUploadStrategy.deleteAvatar(artistId, avatarId))
+        );
     }
 }
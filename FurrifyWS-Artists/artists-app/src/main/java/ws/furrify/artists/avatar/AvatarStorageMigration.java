@@ -0,0 +1,118 @@
+package ws.furrify.artists.avatar;
+
+import ws.furrify.posts.avatar.AvatarEvent;
+import ws.furrify.shared.kafka.DomainEventPublisher;
+import ws.furrify.shared.storage.ShardedLayout;
+import ws.furrify.shared.storage.StorageMigration;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Migration of locally stored avatars from flat layout to layout sharded by artist id.
+ * Avatar directory is moved and new uris are published as avatar UPDATED event.
+ * Avatar which uris are not in flat layout of local storage is skipped, so migration can be run many times.
+ *
+ * @author Skyte
+ */
+class AvatarStorageMigration extends StorageMigration<Avatar> {
+
+    private final AvatarRepository avatarRepository;
+    private final DomainEventPublisher<AvatarEvent> domainEventPublisher;
+    private final ShardedLayout shardedLayout;
+    private final String localStoragePath;
+    private final String remoteStoragePath;
+
+    /**
+     * @param localStoragePath  Pattern of directory avatar is stored in, with artist id and avatar id arguments.
+     * @param remoteStoragePath Pattern of path avatar is available at, with artist id and avatar id arguments.
+     * @param workers           Amount of avatars migrated in parallel.
+     * @param pageSize          Amount of avatars read at once.
+     */
+    AvatarStorageMigration(final AvatarRepository avatarRepository,
+                           final DomainEventPublisher<AvatarEvent> domainEventPublisher,
+                           final ShardedLayout shardedLayout,
+                           final String localStoragePath,
+                           final String remoteStoragePath,
+                           final int workers,
+                           final int pageSize) {
+        super("avatar", workers, pageSize);
+
+        this.avatarRepository = avatarRepository;
+        this.domainEventPublisher = domainEventPublisher;
+        this.shardedLayout = shardedLayout;
+        this.localStoragePath = localStoragePath;
+        this.remoteStoragePath = remoteStoragePath;
+    }
+
+    @Override
+    protected List<Avatar> findPage(final long afterId, final int limit) {
+        return avatarRepository.findAllByIdGreaterThan(afterId, limit);
+    }
+
+    @Override
+    protected long idOf(final Avatar avatar) {
+        return avatar.getSnapshot().getId();
+    }
+
+    @Override
+    protected boolean migrate(final Avatar avatar) throws IOException {
+        AvatarSnapshot avatarSnapshot = avatar.getSnapshot();
+        UUID artistId = avatarSnapshot.getArtistId();
+        UUID avatarId = avatarSnapshot.getAvatarId();
+        String artistPath = shardedLayout.pathOf(artistId);
+
+        String sourcePrefix = MessageFormat.format(remoteStoragePath, artistId, avatarId) + "/";
+        String targetPrefix = MessageFormat.format(remoteStoragePath, artistPath, avatarId) + "/";
+
+        // Avatar is already migrated or is not stored locally
+        if (sourcePrefix.equals(targetPrefix) || !avatarSnapshot.getFileUri().getPath().startsWith(sourcePrefix)) {
+            return false;
+        }
+
+        Path sourceDirectory = Path.of(MessageFormat.format(localStoragePath, artistId, avatarId));
+
+        // Directory is moved again only if previous run was interrupted before it
+        ShardedLayout.moveDirectory(
+                sourceDirectory,
+                Path.of(MessageFormat.format(localStoragePath, artistPath, avatarId))
+        );
+        deleteEmptyParentDirectories(sourceDirectory);
+
+        avatar.replaceFileUris(
+                ShardedLayout.relocate(avatarSnapshot.getFileUri(), sourcePrefix, targetPrefix),
+                ShardedLayout.relocate(avatarSnapshot.getThumbnailUri(), sourcePrefix, targetPrefix)
+        );
+
+        domainEventPublisher.publish(
+                DomainEventPublisher.Topic.AVATAR,
+                // User userId as key
+                avatarSnapshot.getOwnerId(),
+                AvatarUtils.createAvatarEvent(
+                        DomainEventPublisher.AvatarEventType.UPDATED,
+                        avatar
+                )
+        );
+
+        return true;
+    }
+
+    /**
+     * Remove directories of artist left in flat layout when they have no more avatars.
+     */
+    private static void deleteEmptyParentDirectories(final Path directory) throws IOException {
+        Path avatarsDirectory = directory.getParent();
+
+        try {
+            Files.deleteIfExists(avatarsDirectory);
+            Files.deleteIfExists(avatarsDirectory.getParent());
+        } catch (DirectoryNotEmptyException e) {
+            // Artist has other files which are not migrated yet
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ws.furrify.artists.avatar;
+
+import ws.furrify.shared.storage.IoRateLimiter;
+import ws.furrify.shared.storage.StorageReclaimer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reclamation of files of removed avatars.
+ * Orphaned avatar directory is swept with its thumbnail, directory of artist left without avatars is swept as well.
+ *
+ * @author Skyte
+ */
+class AvatarStorageReclaimer extends StorageReclaimer {
+
+    private final AvatarRepository avatarRepository;
+
+    /**
+     * @param localStoragePath Directory artists are stored in, null when avatars are not stored locally.
+     */
+    AvatarStorageReclaimer(final AvatarRepository avatarRepository,
+                           final Path localStoragePath,
+                           final IoRateLimiter rateLimiter,
+                           final int workers,
+                           final int batchSize,
+                           final Duration minAge,
+                           final Duration sweepInterval,
+                           final boolean dryRun) {
+        super("avatar", localStoragePath, rateLimiter, workers, batchSize, minAge, sweepInterval, dryRun);
+
+        this.avatarRepository = avatarRepository;
+    }
+
+    @Override
+    protected Set<UUID> findExisting(final Set<UUID> ids) {
+        return avatarRepository.findExistingAvatarIds(ids);
+    }
+}
@@ -15,6 +15,12 @@ public interface AvatarUploadStrategy {
 
     UploadedAvatarFile uploadAvatarWithGeneratedThumbnail(final UUID artistId, final UUID avatarId, final MultipartFile fileSource);
 
+    /**
+     * Delete all files of avatar.
+     * Deleting already deleted avatar does nothing.
+     */
+    void deleteAvatar(final UUID artistId, final UUID avatarId);
+
     @Value
     class UploadedAvatarFile {
         URI fileUri;
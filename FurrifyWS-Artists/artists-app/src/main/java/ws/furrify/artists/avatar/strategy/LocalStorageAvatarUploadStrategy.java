@@ -1,6 +1,8 @@
 package ws.furrify.artists.avatar.strategy;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.multipart.MultipartFile;
@@ -8,6 +10,7 @@ import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.FileContentIsCorruptedException;
 import ws.furrify.shared.exception.FileUploadCannotCreatePathException;
 import ws.furrify.shared.exception.FileUploadFailedException;
+import ws.furrify.shared.storage.ShardedLayout;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -18,14 +21,17 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.MessageFormat;
 import java.util.UUID;
+import java.util.logging.Level;
 
 /**
  * Upload avatar file to local storage strategy.
+ * Avatars are stored in directories sharded by hash of artist id, so single directory does not hold all artists.
  * Needs to be created as bean for @Value to work.
  *
  * @author sky
  */
 @RequiredArgsConstructor
+@Log
 public class LocalStorageAvatarUploadStrategy implements AvatarUploadStrategy {
 
     @Value("${LOCAL_STORAGE_AVATAR_PATH:/data/artist/{0}/avatar/{1}}")
@@ -45,6 +51,8 @@ public class LocalStorageAvatarUploadStrategy implements AvatarUploadStrategy {
 
     private final static String THUMBNAIL_EXTENSION = ".jpg";
 
+    private final ShardedLayout shardedLayout;
+
     @Override
     public UploadedAvatarFile uploadAvatarWithGeneratedThumbnail(final UUID artistId, final UUID avatarId, final MultipartFile fileSource) {
         try (
@@ -66,8 +74,9 @@ public class LocalStorageAvatarUploadStrategy implements AvatarUploadStrategy {
             String filename = fileSource.getOriginalFilename().replaceAll("\\s+","_");
 
             // Storage paths used for file creation and CDN requests
-            String localStoragePath = MessageFormat.format(LOCAL_STORAGE_AVATAR_PATH, artistId, avatarId);
-            String remoteStoragePath = MessageFormat.format(REMOTE_STORAGE_AVATAR_PATH, artistId, avatarId);
+            String artistPath = shardedLayout.pathOf(artistId);
+            String localStoragePath = MessageFormat.format(LOCAL_STORAGE_AVATAR_PATH, artistPath, avatarId);
+            String remoteStoragePath = MessageFormat.format(REMOTE_STORAGE_AVATAR_PATH, artistPath, avatarId);
 
             // Create files
             File avatarFile = new File(localStoragePath + "/" + filename);
@@ -105,6 +114,17 @@ public class LocalStorageAvatarUploadStrategy implements AvatarUploadStrategy {
         }
     }
 
+    @Override
+    public void deleteAvatar(final UUID artistId, final UUID avatarId) {
+        try {
+            // Removes avatar file and thumbnail in current and not yet migrated flat layout
+            FileUtils.deleteDirectory(new File(MessageFormat.format(LOCAL_STORAGE_AVATAR_PATH, shardedLayout.pathOf(artistId), avatarId)));
+            FileUtils.deleteDirectory(new File(MessageFormat.format(LOCAL_STORAGE_AVATAR_PATH, artistId, avatarId)));
+        } catch (IOException e) {
+            // Leftover files are deleted by storage sweep
+            log.log(Level.WARNING, "Deleting files of [avatarId=" + avatarId + "] has failed.", e);
+        }
+    }
 
     private void writeToFile(File file, InputStream inputStream) {
         try (OutputStream outputStream = new FileOutputStream(file)) {
@@ -0,0 +1,94 @@
+package ws.furrify.artists.avatar.strategy;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.multipart.MultipartFile;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.FileContentIsCorruptedException;
+import ws.furrify.shared.storage.S3ObjectStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.text.MessageFormat;
+import java.util.UUID;
+
+/**
+ * Upload avatar file to S3 compatible storage strategy.
+ * Needs to be created as bean for @Value to work.
+ * Avatar and its thumbnail are streamed to storage without temp files.
+ *
+ * @author Skyte
+ */
+@RequiredArgsConstructor
+public class S3AvatarUploadStrategy implements AvatarUploadStrategy {
+
+    @Value("${THUMBNAIL_WIDTH:600}")
+    private int THUMBNAIL_WIDTH;
+
+    @Value("${THUMBNAIL_QUALITY:0.90}")
+    private float THUMBNAIL_QUALITY;
+
+    @Value("${THUMBNAIL_PREFIX:thumbnail_}")
+    private String THUMBNAIL_PREFIX;
+
+    private final static String AVATAR_PREFIX = "artist/{0}/avatar/{1}";
+    private final static String THUMBNAIL_EXTENSION = ".jpg";
+    private final static String THUMBNAIL_CONTENT_TYPE = "image/jpeg";
+
+    private final S3ObjectStorage objectStorage;
+
+    @Override
+    public UploadedAvatarFile uploadAvatarWithGeneratedThumbnail(final UUID artistId, final UUID avatarId, final MultipartFile fileSource) {
+        try (
+                // Generate thumbnail, it is kept in memory so its size is known
+                ByteArrayInputStream thumbnailInputStream = (ByteArrayInputStream) AvatarUploadStrategyUtils.generateThumbnail(
+                        THUMBNAIL_WIDTH,
+                        THUMBNAIL_QUALITY,
+                        fileSource.getInputStream()
+                );
+                InputStream avatarInputStream = fileSource.getInputStream()
+        ) {
+
+            // Check if filename is not null
+            if (fileSource.getOriginalFilename() == null) {
+                throw new IllegalStateException("Filename cannot be empty.");
+            }
+
+            // Sanitize filename
+            String filename = fileSource.getOriginalFilename().replaceAll("\\s+","_");
+
+            // Create thumbnail filename by removing extension from original filename
+            String thumbnailFileName = THUMBNAIL_PREFIX +
+                    filename.substring(
+                            0,
+                            filename.lastIndexOf(".")
+                    ) + THUMBNAIL_EXTENSION;
+
+            String prefix = MessageFormat.format(AVATAR_PREFIX, artistId, avatarId);
+
+            // Upload files
+            objectStorage.upload(prefix + "/" + filename, avatarInputStream, fileSource.getSize(), fileSource.getContentType());
+            objectStorage.upload(prefix + "/" + thumbnailFileName, thumbnailInputStream, thumbnailInputStream.available(), THUMBNAIL_CONTENT_TYPE);
+
+            // Return created urls
+            return new UploadedAvatarFile(
+                    // Original
+                    objectStorage.uriOf(prefix + "/" + filename),
+                    // Thumbnail
+                    objectStorage.uriOf(prefix + "/" + thumbnailFileName)
+            );
+
+        } catch (IOException | URISyntaxException e) {
+            throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
+        }
+    }
+
+    @Override
+    public void deleteAvatar(final UUID artistId, final UUID avatarId) {
+        // Removes avatar file and thumbnail
+        objectStorage.deleteAll(MessageFormat.format(AVATAR_PREFIX, artistId, avatarId) + "/");
+    }
+
+}
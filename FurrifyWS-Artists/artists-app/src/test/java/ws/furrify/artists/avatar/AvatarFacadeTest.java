@@ -79,7 +79,9 @@ class AvatarFacadeTest {
                 new DeleteAvatarImpl(avatarRepository, eventPublisher),
                 avatarRepository,
                 avatarFactory,
-                avatarDTOFactory
+                avatarDTOFactory,
+                avatarUploadStrategy,
+                mock(AvatarStorageReclaimer.class)
         );
     }
 
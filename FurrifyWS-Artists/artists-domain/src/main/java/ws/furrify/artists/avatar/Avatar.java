@@ -8,6 +8,7 @@ import lombok.ToString;
 import lombok.extern.java.Log;
 import ws.furrify.artists.avatar.vo.AvatarFile;
 
+import java.net.URI;
 import java.time.ZonedDateTime;
 import java.util.UUID;
 
@@ -24,7 +25,7 @@ class Avatar {
     @NonNull
     private final UUID ownerId;
     @NonNull
-    private final AvatarFile file;
+    private AvatarFile file;
 
     private final ZonedDateTime createDate;
 
@@ -45,6 +46,17 @@ class Avatar {
         );
     }
 
+    void replaceFileUris(@NonNull final URI fileUri,
+                         @NonNull final URI thumbnailUri) {
+        this.file = AvatarFile.builder()
+                .extension(file.getExtension())
+                .filename(file.getFilename())
+                .md5(file.getMd5())
+                .fileUri(fileUri)
+                .thumbnailUri(thumbnailUri)
+                .build();
+    }
+
     AvatarSnapshot getSnapshot() {
         return AvatarSnapshot.builder()
                 .id(id)
@@ -1,5 +1,7 @@
 package ws.furrify.artists.avatar;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 interface AvatarRepository {
@@ -13,4 +15,19 @@ interface AvatarRepository {
     boolean existsByOwnerIdAndArtistIdAndAvatarId(UUID ownerId, UUID artistId, UUID avatarId);
 
     Avatar save(Avatar avatar);
+
+    /**
+     * Find page of all avatars ordered by id.
+     */
+    List<Avatar> findAllByIdGreaterThan(long id, int limit);
+
+    /**
+     * Find which of given avatar ids are stored.
+     */
+    Set<UUID> findExistingAvatarIds(Set<UUID> ids);
+
+    /**
+     * Find ids of all avatars of artist.
+     */
+    List<UUID> findAvatarIdsByOwnerIdAndArtistId(UUID ownerId, UUID artistId);
 }
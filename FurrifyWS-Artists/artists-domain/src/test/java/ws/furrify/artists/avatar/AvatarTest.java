@@ -54,4 +54,19 @@ class AvatarTest {
         // Then get snapshot of current data in aggregate
         assertEquals(this.avatarSnapshot, avatarSnapshot, "Data was lost in snapshot.");
     }
+
+    @Test
+    @DisplayName("Replace file uris")
+    @SneakyThrows
+    void replaceFileUris() {
+        // Given new file uris
+        URI fileUri = new URI("/artist/ab/cd/test/file.png");
+        URI thumbnailUri = new URI("/artist/ab/cd/test/thumbnail_file.jpg");
+        // When replaceFileUris() method called
+        avatar.replaceFileUris(fileUri, thumbnailUri);
+        // Then uris are replaced and file details are kept
+        assertEquals(fileUri, avatar.getSnapshot().getFileUri(), "File uri was not replaced.");
+        assertEquals(thumbnailUri, avatar.getSnapshot().getThumbnailUri(), "Thumbnail uri was not replaced.");
+        assertEquals(avatarSnapshot.getMd5(), avatar.getSnapshot().getMd5(), "Md5 was changed.");
+    }
 }
\ No newline at end of file
@@ -1,13 +1,26 @@
 package ws.furrify.posts.attachment;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import ws.furrify.posts.blob.BlobStorage;
+import ws.furrify.posts.blob.UploadTicketSigner;
 import ws.furrify.posts.attachment.dto.AttachmentDtoFactory;
 import ws.furrify.posts.attachment.strategy.AttachmentUploadStrategy;
 import ws.furrify.posts.attachment.strategy.LocalStorageAttachmentUploadStrategy;
+import ws.furrify.posts.attachment.strategy.S3AttachmentUploadStrategy;
 import ws.furrify.posts.kafka.KafkaTopicEventPublisher;
 import ws.furrify.posts.post.PostServiceImpl;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.StrategyNotFoundException;
+import ws.furrify.shared.storage.IoRateLimiter;
+import ws.furrify.shared.storage.S3ObjectStorage;
+import ws.furrify.shared.storage.ShardedLayout;
+
+import java.nio.file.Path;
+import java.time.Duration;
 
 @Configuration
 @RequiredArgsConstructor
@@ -17,6 +30,41 @@ class AttachmentConfig {
     private final AttachmentQueryRepository attachmentQueryRepository;
     private final KafkaTopicEventPublisher<AttachmentEvent> eventPublisher;
     private final PostServiceImpl postServiceClient;
+    private final BlobStorage blobStorage;
+    private final UploadTicketSigner uploadTicketSigner;
+    private final ObjectProvider<S3ObjectStorage> s3ObjectStorage;
+    private final ShardedLayout shardedLayout;
+    private final IoRateLimiter reclamationRateLimiter;
+
+    @Value("${furrify.storage.strategy}")
+    private String storageStrategy;
+
+    @Value("${LOCAL_STORAGE_ATTACHMENT_PATH:/data/attachment}")
+    private String localStorageAttachmentPath;
+
+    @Value("${REMOTE_STORAGE_ATTACHMENT_PATH:/attachment}")
+    private String remoteStorageAttachmentPath;
+
+    @Value("${furrify.storage.local.migration.workers}")
+    private int storageMigrationWorkers;
+
+    @Value("${furrify.storage.local.migration.page-size}")
+    private int storageMigrationPageSize;
+
+    @Value("${furrify.storage.reclamation.workers}")
+    private int reclamationWorkers;
+
+    @Value("${furrify.storage.reclamation.batch-size}")
+    private int reclamationBatchSize;
+
+    @Value("${furrify.storage.reclamation.min-age}")
+    private long reclamationMinAge;
+
+    @Value("${furrify.storage.reclamation.sweep-interval}")
+    private long reclamationSweepInterval;
+
+    @Value("${furrify.storage.reclamation.dry-run}")
+    private boolean reclamationDryRun;
 
     @Bean
     AttachmentFacade attachmentFacade() {
@@ -24,16 +72,51 @@ class AttachmentConfig {
         var attachmentDtoFactory = new AttachmentDtoFactory(attachmentQueryRepository);
 
         return new AttachmentFacade(
-                new CreateAttachmentImpl(postServiceClient, attachmentFactory, attachmentUploadStrategy(), eventPublisher),
+                new CreateAttachmentImpl(postServiceClient, attachmentFactory, attachmentUploadStrategy(), eventPublisher, attachmentRepository, uploadTicketSigner),
                 new DeleteAttachmentImpl(eventPublisher, attachmentRepository),
                 attachmentRepository,
                 attachmentFactory,
-                attachmentDtoFactory
+                attachmentDtoFactory,
+                attachmentUploadStrategy(),
+                attachmentStorageReclaimer()
         );
     }
 
     @Bean
     AttachmentUploadStrategy attachmentUploadStrategy() {
-        return new LocalStorageAttachmentUploadStrategy();
+        return switch (storageStrategy) {
+            case "local" -> new LocalStorageAttachmentUploadStrategy(blobStorage, shardedLayout);
+            case "s3" -> new S3AttachmentUploadStrategy(s3ObjectStorage.getObject());
+            default -> throw new StrategyNotFoundException(Errors.STRATEGY_NOT_FOUND.getErrorMessage(storageStrategy));
+        };
+    }
+
+    @Bean
+    AttachmentStorageReclaimer attachmentStorageReclaimer() {
+        return new AttachmentStorageReclaimer(
+                attachmentRepository,
+                blobStorage,
+                // Files in object storage are not swept, only deleted on removal
+                "local".equals(storageStrategy) ? Path.of(localStorageAttachmentPath) : null,
+                reclamationRateLimiter,
+                reclamationWorkers,
+                reclamationBatchSize,
+                Duration.ofMillis(reclamationMinAge),
+                Duration.ofMillis(reclamationSweepInterval),
+                reclamationDryRun
+        );
+    }
+
+    @Bean
+    AttachmentStorageMigration attachmentStorageMigration() {
+        return new AttachmentStorageMigration(
+                attachmentRepository,
+                eventPublisher,
+                shardedLayout,
+                Path.of(localStorageAttachmentPath),
+                remoteStorageAttachmentPath,
+                storageMigrationWorkers,
+                storageMigrationPageSize
+        );
     }
 }
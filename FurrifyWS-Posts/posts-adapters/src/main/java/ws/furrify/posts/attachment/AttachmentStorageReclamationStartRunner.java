@@ -0,0 +1,22 @@
+package ws.furrify.posts.attachment;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts background deletion and periodic sweep of files of removed attachments on startup.
+ *
+ * @author Skyte
+ */
+@Component
+@RequiredArgsConstructor
+class AttachmentStorageReclamationStartRunner implements CommandLineRunner {
+
+    private final AttachmentStorageReclaimer attachmentStorageReclaimer;
+
+    @Override
+    public void run(final String... args) {
+        attachmentStorageReclaimer.start();
+    }
+}
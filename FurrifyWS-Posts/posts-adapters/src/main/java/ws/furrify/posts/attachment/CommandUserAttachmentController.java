@@ -9,12 +9,17 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import ws.furrify.posts.attachment.dto.AttachmentDTO;
 import ws.furrify.posts.attachment.dto.command.AttachmentCreateCommandDTO;
+import ws.furrify.posts.attachment.dto.command.AttachmentNegotiateCommandDTO;
+import ws.furrify.posts.blob.UploadNegotiation;
+import ws.furrify.posts.upload.UploadSessions;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.HardLimitForEntityTypeException;
 
@@ -29,6 +34,7 @@ class CommandUserAttachmentController {
 
     private final AttachmentFacade attachmentFacade;
     private final SqlAttachmentRepository sqlAttachmentRepository;
+    private final UploadSessions uploadSessions;
 
     @Value("${furrify.limits.attachments}")
     private long attachmentsLimitPerUser;
@@ -42,22 +48,79 @@ class CommandUserAttachmentController {
                                               @PathVariable UUID postId,
                                               @RequestPart("attachment") @Validated AttachmentCreateCommandDTO attachmentCreateCommandDTO,
                                               @RequestPart("file") MultipartFile mediaFile,
+                                              @RequestHeader(value = "Upload-Ticket", required = false) String uploadTicket,
                                               KeycloakAuthenticationToken keycloakAuthenticationToken,
                                               HttpServletResponse response) {
-        // Hard limit for attachments
-        long userAttachmentsCount = sqlAttachmentRepository.countAttachmentsByUserId(userId);
-        if (userAttachmentsCount >= attachmentsLimitPerUser) {
-            throw new HardLimitForEntityTypeException(
-                    Errors.HARD_LIMIT_FOR_ENTITY_TYPE.getErrorMessage(attachmentsLimitPerUser, "Attachment")
-            );
-        }
+        checkAttachmentsLimit(userId);
 
         AttachmentDTO attachmentDTO = attachmentCreateCommandDTO.toDTO();
 
         response.addHeader("Id",
-                attachmentFacade.createAttachment(userId, postId, attachmentDTO, mediaFile).toString()
+                attachmentFacade.createAttachment(userId, postId, attachmentDTO, mediaFile, uploadTicket).toString()
+        );
+
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Creates attachment from already stored file with the same hash without uploading it.
+     * When file is not stored, Upload-Ticket header is returned, which should be sent with file to createAttachment().
+     */
+    @PostMapping("/negotiate")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('create_post_attachment') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public ResponseEntity<?> negotiateAttachment(@PathVariable UUID userId,
+                                                 @PathVariable UUID postId,
+                                                 @RequestBody @Validated AttachmentNegotiateCommandDTO attachmentNegotiateCommandDTO,
+                                                 KeycloakAuthenticationToken keycloakAuthenticationToken,
+                                                 HttpServletResponse response) {
+        checkAttachmentsLimit(userId);
+
+        UploadNegotiation negotiation = attachmentFacade.negotiateAttachment(
+                userId,
+                postId,
+                attachmentNegotiateCommandDTO.toDTO(),
+                attachmentNegotiateCommandDTO.getHash(),
+                attachmentNegotiateCommandDTO.getSize()
+        );
+
+        if (negotiation.isCreated()) {
+            response.addHeader("Id", negotiation.getCreatedId().toString());
+
+            return ResponseEntity.accepted().build();
+        }
+
+        response.addHeader("Upload-Ticket", negotiation.getUploadTicket());
+
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Creates attachment from file of completed upload session, session is deleted afterwards.
+     */
+    @PostMapping("/uploads/{sessionId}")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('create_post_attachment') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public ResponseEntity<?> createAttachmentFromUpload(@PathVariable UUID userId,
+                                                        @PathVariable UUID postId,
+                                                        @PathVariable UUID sessionId,
+                                                        @RequestBody @Validated AttachmentCreateCommandDTO attachmentCreateCommandDTO,
+                                                        KeycloakAuthenticationToken keycloakAuthenticationToken,
+                                                        HttpServletResponse response) {
+        checkAttachmentsLimit(userId);
+
+        AttachmentDTO attachmentDTO = attachmentCreateCommandDTO.toDTO();
+
+        UUID attachmentId = uploadSessions.completeSession(userId, postId, sessionId,
+                (attachmentFile, uploadTicket) -> attachmentFacade.createAttachment(userId, postId, attachmentDTO, attachmentFile, uploadTicket)
         );
 
+        response.addHeader("Id", attachmentId.toString());
+
         return ResponseEntity.accepted().build();
     }
 
@@ -75,4 +138,14 @@ class CommandUserAttachmentController {
         return ResponseEntity.accepted().build();
     }
 
+    private void checkAttachmentsLimit(final UUID userId) {
+        // Hard limit for attachments
+        long userAttachmentsCount = sqlAttachmentRepository.countAttachmentsByUserId(userId);
+        if (userAttachmentsCount >= attachmentsLimitPerUser) {
+            throw new HardLimitForEntityTypeException(
+                    Errors.HARD_LIMIT_FOR_ENTITY_TYPE.getErrorMessage(attachmentsLimitPerUser, "Attachment")
+            );
+        }
+    }
+
 }
@@ -0,0 +1,83 @@
+package ws.furrify.posts.attachment;
+
+import lombok.RequiredArgsConstructor;
+import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ws.furrify.posts.storage.StoredFile;
+import ws.furrify.posts.storage.StoredFileCache;
+import ws.furrify.posts.storage.StoredFileResponder;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.RecordNotFoundException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Serves attachment files from local storage, so access to them is checked like to attachment details.
+ *
+ * @author Skyte
+ */
+@RestController
+@RequestMapping("/users/{userId}/posts/{postId}/attachments")
+@ConditionalOnProperty(value = "furrify.storage.strategy", havingValue = "local")
+@RequiredArgsConstructor
+class QueryPostAttachmentFileController {
+
+    private final SqlAttachmentQueryRepositoryImpl attachmentQueryRepository;
+    private final StoredFileCache storedFileCache;
+    private final StoredFileResponder storedFileResponder;
+
+    @Value("${LOCAL_STORAGE_ATTACHMENT_PATH:/data/attachment}")
+    private String localStorageAttachmentPath;
+
+    @Value("${REMOTE_STORAGE_ATTACHMENT_PATH:/attachment}")
+    private String remoteStorageAttachmentPath;
+
+    @GetMapping("/{attachmentId}/file")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('query_post_attachments') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public void getPostAttachmentFile(@PathVariable UUID userId,
+                                      @PathVariable UUID postId,
+                                      @PathVariable UUID attachmentId,
+                                      KeycloakAuthenticationToken keycloakAuthenticationToken,
+                                      HttpServletRequest request,
+                                      HttpServletResponse response) throws IOException {
+        if (storedFileResponder.respond(findStoredFile(userId, postId, attachmentId), request, response)) {
+            return;
+        }
+
+        // Cached file was replaced or moved in meantime
+        storedFileCache.evict(attachmentId);
+
+        if (!storedFileResponder.respond(findStoredFile(userId, postId, attachmentId), request, response)) {
+            throw new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(attachmentId));
+        }
+    }
+
+    private StoredFile findStoredFile(final UUID userId,
+                                      final UUID postId,
+                                      final UUID attachmentId) {
+        return storedFileCache.get(userId, postId, attachmentId, () ->
+                attachmentQueryRepository.findByOwnerIdAndPostIdAndAttachmentId(userId, postId, attachmentId)
+                        .flatMap(attachment -> StoredFile.of(
+                                attachment.getOwnerId(),
+                                attachment.getPostId(),
+                                attachment.getFileUri(),
+                                localStorageAttachmentPath,
+                                remoteStorageAttachmentPath,
+                                attachment.getExtension().getMimeTypes()[0],
+                                attachment.getMd5()
+                        ))
+        ).orElseThrow(() -> new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(attachmentId)));
+    }
+}
@@ -3,13 +3,18 @@ package ws.furrify.posts.attachment;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import ws.furrify.posts.attachment.dto.query.AttachmentDetailsQueryDTO;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Transactional(rollbackFor = RuntimeException.class)
@@ -24,6 +29,18 @@ interface SqlAttachmentRepository extends Repository<AttachmentSnapshot, Long> {
 
     @Query("select count(a) from AttachmentSnapshot a where a.ownerId = ?1")
     long countAttachmentsByUserId(UUID userId);
+
+    @Query("select attachment.md5 from AttachmentSnapshot attachment, BlobReference blob " +
+            "where blob.referenceId = attachment.attachmentId and attachment.ownerId = ?1 and attachment.extension = ?2 and blob.hash = ?3")
+    List<String> findMd5ByOwnerIdAndExtensionAndBlobHash(UUID ownerId, AttachmentExtension extension, String hash, Pageable pageable);
+
+    List<AttachmentSnapshot> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select attachment.attachmentId from AttachmentSnapshot attachment where attachment.attachmentId in ?1")
+    List<UUID> findAttachmentIdsByAttachmentIdIn(Collection<UUID> attachmentIds);
+
+    @Query("select attachment.attachmentId from AttachmentSnapshot attachment where attachment.ownerId = ?1 and attachment.postId = ?2")
+    List<UUID> findAttachmentIdsByOwnerIdAndPostId(UUID ownerId, UUID postId);
 }
 
 @Transactional(rollbackFor = {})
@@ -65,6 +82,32 @@ class AttachmentRepositoryImpl implements AttachmentRepository {
                 .map(Attachment::restore);
     }
 
+    @Override
+    public Optional<String> findMd5ByOwnerIdAndExtensionAndBlobHash(final UUID ownerId,
+                                                                   final AttachmentExtension extension,
+                                                                   final String hash) {
+        return sqlAttachmentRepository.findMd5ByOwnerIdAndExtensionAndBlobHash(ownerId, extension, hash, PageRequest.of(0, 1))
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<Attachment> findAllByIdGreaterThan(final long id, final int limit) {
+        return sqlAttachmentRepository.findAllByIdGreaterThanOrderByIdAsc(id, PageRequest.of(0, limit)).stream()
+                .map(Attachment::restore)
+                .toList();
+    }
+
+    @Override
+    public Set<UUID> findExistingAttachmentIds(final Set<UUID> attachmentIds) {
+        return new HashSet<>(sqlAttachmentRepository.findAttachmentIdsByAttachmentIdIn(attachmentIds));
+    }
+
+    @Override
+    public List<UUID> findAttachmentIdsByOwnerIdAndPostId(final UUID ownerId, final UUID postId) {
+        return sqlAttachmentRepository.findAttachmentIdsByOwnerIdAndPostId(ownerId, postId);
+    }
+
     @Override
     public void deleteByAttachmentId(final UUID attachmentId) {
         sqlAttachmentRepository.deleteByAttachmentId(attachmentId);
@@ -0,0 +1,36 @@
+package ws.furrify.posts.blob;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+@RequiredArgsConstructor
+class BlobConfig {
+
+    private final BlobReferenceRepositoryImpl blobReferenceRepository;
+
+    @Value("${LOCAL_STORAGE_BLOB_PATH:/data/blob}")
+    private String localStorageBlobPath;
+
+    @Value("${furrify.upload.ticket.secret}")
+    private String uploadTicketSecret;
+
+    @Value("${furrify.upload.ticket.validity}")
+    private long uploadTicketValidity;
+
+    @Bean
+    BlobStorage blobStorage() {
+        return new BlobStorage(blobReferenceRepository, Path.of(localStorageBlobPath));
+    }
+
+    @Bean
+    UploadTicketSigner uploadTicketSigner() {
+        return new UploadTicketSigner(uploadTicketSecret, Duration.ofMillis(uploadTicketValidity), Clock.systemUTC());
+    }
+}
@@ -0,0 +1,47 @@
+package ws.furrify.posts.blob;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Transactional(rollbackFor = RuntimeException.class)
+interface SqlBlobReferenceRepository extends Repository<BlobReference, Long> {
+    BlobReference save(BlobReference reference);
+
+    void delete(BlobReference reference);
+
+    Optional<BlobReference> findByReferenceId(UUID referenceId);
+
+    long countByHash(String hash);
+}
+
+@org.springframework.stereotype.Repository
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BlobReferenceRepositoryImpl implements BlobReferenceRepository {
+
+    private final SqlBlobReferenceRepository sqlBlobReferenceRepository;
+
+    @Override
+    public BlobReference save(final BlobReference reference) {
+        return sqlBlobReferenceRepository.save(reference);
+    }
+
+    @Override
+    public void delete(final BlobReference reference) {
+        sqlBlobReferenceRepository.delete(reference);
+    }
+
+    @Override
+    public Optional<BlobReference> findByReferenceId(final UUID referenceId) {
+        return sqlBlobReferenceRepository.findByReferenceId(referenceId);
+    }
+
+    @Override
+    public long countByHash(final String hash) {
+        return sqlBlobReferenceRepository.countByHash(hash);
+    }
+}
@@ -0,0 +1,49 @@
+package ws.furrify.posts.converter;
+
+import ws.furrify.posts.media.vo.MediaThumbnails;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Stores media thumbnails in single column as space separated width=uri pairs.
+ * Uris cannot contain unencoded spaces, so they are safe to use as separator.
+ *
+ * @author Skyte
+ */
+@Converter
+public class MediaThumbnailsAttributeConverter implements AttributeConverter<MediaThumbnails, String> {
+
+    private final static String THUMBNAIL_SEPARATOR = " ";
+    private final static String WIDTH_SEPARATOR = "=";
+
+    @Override
+    public String convertToDatabaseColumn(final MediaThumbnails thumbnails) {
+        if (thumbnails == null) {
+            return null;
+        }
+
+        return thumbnails.toStrings().entrySet().stream()
+                .map(thumbnail -> thumbnail.getKey() + WIDTH_SEPARATOR + thumbnail.getValue())
+                .collect(Collectors.joining(THUMBNAIL_SEPARATOR));
+    }
+
+    @Override
+    public MediaThumbnails convertToEntityAttribute(final String thumbnails) {
+        if (thumbnails == null || thumbnails.isBlank()) {
+            return null;
+        }
+
+        Map<String, String> uris = new HashMap<>();
+        for (String thumbnail : thumbnails.split(THUMBNAIL_SEPARATOR)) {
+            String[] widthWithUri = thumbnail.split(WIDTH_SEPARATOR, 2);
+
+            uris.put(widthWithUri[0], widthWithUri[1]);
+        }
+
+        return MediaThumbnails.ofStrings(uris);
+    }
+}
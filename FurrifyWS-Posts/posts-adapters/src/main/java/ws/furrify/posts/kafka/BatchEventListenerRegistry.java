@@ -0,0 +1,131 @@
+package ws.furrify.posts.kafka;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ws.furrify.posts.attachment.AttachmentEvent;
+import ws.furrify.posts.attachment.AttachmentFacade;
+import ws.furrify.posts.media.MediaEvent;
+import ws.furrify.posts.media.MediaFacade;
+import ws.furrify.posts.post.PostEvent;
+import ws.furrify.posts.post.PostFacade;
+import ws.furrify.shared.kafka.KeyOrderedDispatcher;
+import ws.furrify.shared.kafka.RetryTopicRouter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Receives post, media and attachment events in poll batches instead of one by one.
+ * Events of batch are grouped by key and applied to posts at once in key ordered lanes,
+ * while per key order of events within batch is preserved.
+ * Events of a key are applied in single transaction. When they fail, the transaction is rolled back
+ * and events are applied again one by one, so only the failed event and events after it are forwarded
+ * to retry topics in order.
+ * Replaces matching single event listeners when furrify.kafka.batch-listener.enabled is set.
+ *
+ * @author Skyte
+ */
+@Service
+@RequiredArgsConstructor
+@Log
+@ConditionalOnProperty(value = "furrify.kafka.batch-listener.enabled", havingValue = "true")
+class BatchEventListenerRegistry {
+    private final PostFacade postFacade;
+    private final MediaFacade mediaFacade;
+    private final AttachmentFacade attachmentFacade;
+    private final KeyOrderedDispatcher keyOrderedDispatcher;
+    private final RetryTopicRouter retryTopicRouter;
+    private final PlatformTransactionManager transactionManager;
+
+    @KafkaListener(topics = {"post_events", "media_events", "attachment_events"})
+    public void on(List<ConsumerRecord<String, SpecificRecord>> records) {
+        log.info("Events batch received from kafka [size=" + records.size() + "].");
+
+        // Group records by key keeping their order
+        Map<UUID, List<ConsumerRecord<String, SpecificRecord>>> recordsByKey = new LinkedHashMap<>();
+        for (ConsumerRecord<String, SpecificRecord> record : records) {
+            recordsByKey.computeIfAbsent(UUID.fromString(record.key()), key -> new ArrayList<>()).add(record);
+        }
+
+        keyOrderedDispatcher.dispatch(
+                new ArrayList<>(recordsByKey.entrySet()),
+                Map.Entry::getKey,
+                keyRecords -> handle(keyRecords.getKey(), keyRecords.getValue())
+        );
+    }
+
+    private void handle(final UUID key, final List<ConsumerRecord<String, SpecificRecord>> records) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyBatch(key, records));
+
+            return;
+        } catch (RuntimeException e) {
+            log.log(Level.WARNING, "Events batch of [key=" + key + "] has failed, events are applied one by one.", e);
+        }
+
+        // Batch was rolled back, so events before the failed one can be applied again
+        for (int i = 0; i < records.size(); i++) {
+            SpecificRecord event = records.get(i).value();
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(key, event));
+            } catch (RuntimeException e) {
+                // Failed event and events after it are retried in order
+                for (ConsumerRecord<String, SpecificRecord> record : records.subList(i, records.size())) {
+                    retryTopicRouter.forward(record, e);
+                }
+
+                return;
+            }
+        }
+    }
+
+    private void applyBatch(final UUID key, final List<ConsumerRecord<String, SpecificRecord>> records) {
+        List<SpecificRecord> events = records.stream()
+                .map(ConsumerRecord::value)
+                .toList();
+
+        // Media and attachment records are still kept up to date event by event
+        for (SpecificRecord event : events) {
+            applyToMediaAndAttachments(key, event);
+        }
+
+        postFacade.handleEventBatch(key, events);
+    }
+
+    private void apply(final UUID key, final SpecificRecord event) {
+        applyToMediaAndAttachments(key, event);
+
+        if (event instanceof MediaEvent mediaEvent) {
+            postFacade.handleEvent(key, mediaEvent);
+        } else if (event instanceof AttachmentEvent attachmentEvent) {
+            postFacade.handleEvent(key, attachmentEvent);
+        } else if (event instanceof PostEvent postEvent) {
+            postFacade.handleEvent(key, postEvent);
+        }
+    }
+
+    private void applyToMediaAndAttachments(final UUID key, final SpecificRecord event) {
+        if (event instanceof MediaEvent mediaEvent) {
+            mediaFacade.handleEvent(key, mediaEvent);
+        } else if (event instanceof AttachmentEvent attachmentEvent) {
+            attachmentFacade.handleEvent(key, attachmentEvent);
+        } else if (event instanceof PostEvent postEvent) {
+            mediaFacade.handleEvent(key, postEvent);
+            attachmentFacade.handleEvent(key, postEvent);
+        }
+    }
+}
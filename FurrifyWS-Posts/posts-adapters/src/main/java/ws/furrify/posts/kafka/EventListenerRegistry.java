@@ -2,12 +2,11 @@ package ws.furrify.posts.kafka;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.stereotype.Service;
 import ws.furrify.artists.artist.ArtistEvent;
 import ws.furrify.posts.attachment.AttachmentEvent;
@@ -17,128 +16,150 @@ import ws.furrify.posts.media.MediaEvent;
 import ws.furrify.posts.media.MediaFacade;
 import ws.furrify.posts.post.PostEvent;
 import ws.furrify.posts.post.PostFacade;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.InvalidDataGivenException;
+import ws.furrify.shared.kafka.DeadLetterReplayer;
+import ws.furrify.shared.kafka.KeyOrderedDispatcher;
+import ws.furrify.shared.kafka.RetryTopicRouter;
 import ws.furrify.sources.source.SourceEvent;
 import ws.furrify.tags.tag.TagEvent;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Log
 class EventListenerRegistry {
+    private final static Set<String> TOPICS = Set.of(
+            "post_events", "tag_events", "artist_events", "avatar_events",
+            "media_events", "attachment_events", "source_events"
+    );
+    private final static String RETRY_LISTENER_ID = "retry";
+
     private final PostFacade postFacade;
     private final MediaFacade mediaFacade;
     private final AttachmentFacade attachmentFacade;
+    private final KeyOrderedDispatcher keyOrderedDispatcher;
+    private final RetryTopicRouter retryTopicRouter;
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+    private final DeadLetterReplayer<SpecificRecord> deadLetterReplayer;
 
-    @KafkaListener(topics = "post_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
-    )
-    public void on(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                   @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                   @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                   @Payload PostEvent postEvent) {
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
+    @KafkaListener(topics = "post_events", autoStartup = "#{!${furrify.kafka.batch-listener.enabled}}")
+    public void onPostEvent(List<ConsumerRecord<String, PostEvent>> records) {
+        log.info("Events received from kafka [topic=post_events] [size=" + records.size() + "].");
 
-        postFacade.handleEvent(UUID.fromString(key), postEvent);
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
     }
 
     @KafkaListener(topics = "tag_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
-    )
-    public void on(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                   @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                   @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                   @Payload TagEvent tagEvent) {
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
+    public void onTagEvent(List<ConsumerRecord<String, TagEvent>> records) {
+        log.info("Events received from kafka [topic=tag_events] [size=" + records.size() + "].");
 
-        postFacade.handleEvent(UUID.fromString(key), tagEvent);
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
     }
 
     @KafkaListener(topics = "artist_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
-    )
-    public void on(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                   @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                   @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                   @Payload ArtistEvent artistEvent) {
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
+    public void onArtistEvent(List<ConsumerRecord<String, ArtistEvent>> records) {
+        log.info("Events received from kafka [topic=artist_events] [size=" + records.size() + "].");
 
-        postFacade.handleEvent(UUID.fromString(key), artistEvent);
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
     }
 
     @KafkaListener(topics = "avatar_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
-    )
-    public void on(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                   @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                   @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                   @Payload AvatarEvent avatarEvent) {
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
+    public void onAvatarEvent(List<ConsumerRecord<String, AvatarEvent>> records) {
+        log.info("Events received from kafka [topic=avatar_events] [size=" + records.size() + "].");
 
-        postFacade.handleEvent(UUID.fromString(key), avatarEvent);
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
     }
 
-    @KafkaListener(topics = "media_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
-    )
-    public void onMediaEvent(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                             @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                             @Payload MediaEvent mediaEvent) {
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
-
-        UUID keyId = UUID.fromString(key);
+    @KafkaListener(topics = "media_events", autoStartup = "#{!${furrify.kafka.batch-listener.enabled}}")
+    public void onMediaEvent(List<ConsumerRecord<String, MediaEvent>> records) {
+        log.info("Events received from kafka [topic=media_events] [size=" + records.size() + "].");
 
-        mediaFacade.handleEvent(keyId, mediaEvent);
-        postFacade.handleEvent(keyId, mediaEvent);
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
     }
 
-    @KafkaListener(topics = "attachment_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
-    )
-    public void onAttachmentEvent(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                                  @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                                  @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                                  @Payload AttachmentEvent attachmentEvent) {
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
-
-        UUID keyId = UUID.fromString(key);
+    @KafkaListener(topics = "attachment_events", autoStartup = "#{!${furrify.kafka.batch-listener.enabled}}")
+    public void onAttachmentEvent(List<ConsumerRecord<String, AttachmentEvent>> records) {
+        log.info("Events received from kafka [topic=attachment_events] [size=" + records.size() + "].");
 
-        attachmentFacade.handleEvent(keyId, attachmentEvent);
-        postFacade.handleEvent(keyId, attachmentEvent);
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
     }
 
     @KafkaListener(topics = "source_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
+    public void onSourceEvent(List<ConsumerRecord<String, SourceEvent>> records) {
+        log.info("Events received from kafka [topic=source_events] [size=" + records.size() + "].");
+
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
+    }
+
+    @KafkaListener(
+            topics = {
+                    "#{@retryTopicRouter.retryTopics('post_events')}",
+                    "#{@retryTopicRouter.retryTopics('tag_events')}",
+                    "#{@retryTopicRouter.retryTopics('artist_events')}",
+                    "#{@retryTopicRouter.retryTopics('avatar_events')}",
+                    "#{@retryTopicRouter.retryTopics('media_events')}",
+                    "#{@retryTopicRouter.retryTopics('attachment_events')}",
+                    "#{@retryTopicRouter.retryTopics('source_events')}"
+            },
+            containerFactory = "retryKafkaListenerContainerFactory",
+            id = RETRY_LISTENER_ID,
+            idIsGroup = false
     )
-    public void onSourceEvent(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                              @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                              @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                              @Payload SourceEvent sourceEvent) {
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
-
-        attachmentFacade.handleEvent(UUID.fromString(key), sourceEvent);
-        mediaFacade.handleEvent(UUID.fromString(key), sourceEvent);
+    public void onRetry(List<ConsumerRecord<String, SpecificRecord>> records, Consumer<?, ?> consumer) {
+        log.info("Events received from kafka [topic=retry] [size=" + records.size() + "].");
+
+        retryTopicRouter.redeliver(
+                records,
+                consumer,
+                kafkaListenerEndpointRegistry.getListenerContainer(RETRY_LISTENER_ID),
+                keyOrderedDispatcher,
+                this::handle
+        );
+    }
+
+    /**
+     * Replay events of dead letter topic of given topic.
+     *
+     * Replay runs in background.
+     *
+     * @param topic Consumed topic name.
+     */
+    void replayDeadLetters(final String topic) {
+        if (!TOPICS.contains(topic)) {
+            throw new InvalidDataGivenException(Errors.TOPIC_IS_NOT_CONSUMED.getErrorMessage(topic));
+        }
+
+        deadLetterReplayer.replayAsync(retryTopicRouter.deadLetterTopic(topic), this::handle);
+    }
+
+    private void handle(final ConsumerRecord<String, ? extends SpecificRecord> record) {
+        UUID key = UUID.fromString(record.key());
+
+        if (record.value() instanceof PostEvent postEvent) {
+            postFacade.handleEvent(key, postEvent);
+            mediaFacade.handleEvent(key, postEvent);
+            attachmentFacade.handleEvent(key, postEvent);
+        } else if (record.value() instanceof TagEvent tagEvent) {
+            postFacade.handleEvent(key, tagEvent);
+        } else if (record.value() instanceof ArtistEvent artistEvent) {
+            postFacade.handleEvent(key, artistEvent);
+        } else if (record.value() instanceof AvatarEvent avatarEvent) {
+            postFacade.handleEvent(key, avatarEvent);
+        } else if (record.value() instanceof MediaEvent mediaEvent) {
+            mediaFacade.handleEvent(key, mediaEvent);
+            postFacade.handleEvent(key, mediaEvent);
+        } else if (record.value() instanceof AttachmentEvent attachmentEvent) {
+            attachmentFacade.handleEvent(key, attachmentEvent);
+            postFacade.handleEvent(key, attachmentEvent);
+        } else if (record.value() instanceof SourceEvent sourceEvent) {
+            attachmentFacade.handleEvent(key, sourceEvent);
+            mediaFacade.handleEvent(key, sourceEvent);
+        } else {
+            throw new IllegalStateException("Unsupported event [type=" + record.value().getClass().getName() + "].");
+        }
     }
 }
@@ -1,6 +1,8 @@
 package ws.furrify.posts.kafka;
 
 import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,19 +10,29 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.KafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
-import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.kafka.listener.ContainerProperties;
 import ws.furrify.posts.post.PostEvent;
+import ws.furrify.shared.kafka.DeadLetterReplayer;
+import ws.furrify.shared.kafka.KeyOrderedDispatcher;
+import ws.furrify.shared.kafka.RetryTopicRouter;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
-@EnableRetry
 class KafkaConsumerConfig {
 
+    private final static List<String> TOPICS = List.of(
+            "post_events", "tag_events", "artist_events", "avatar_events",
+            "media_events", "attachment_events", "source_events"
+    );
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
@@ -33,6 +45,12 @@ class KafkaConsumerConfig {
     @Value("${KAFKA_CONSUMER_GROUP_ID:}")
     private String groupIdRegion;
 
+    @Value("${furrify.kafka.dispatcher.lanes}")
+    private int dispatcherLanes;
+
+    @Value("${furrify.kafka.dispatcher.max-in-flight}")
+    private int dispatcherMaxInFlight;
+
     @Bean
     public Map<String, Object> consumerConfigs() {
         Map<String, Object> properties = new HashMap<>(7);
@@ -57,7 +75,42 @@ class KafkaConsumerConfig {
         ConcurrentKafkaListenerContainerFactory<String, PostEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+
+        return factory;
+    }
+
+    @Bean
+    public KafkaListenerContainerFactory<ConcurrentMessageListenerContainer<String, PostEvent>> retryKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PostEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(true);
+        // Offsets are committed by retry topic router, so partitions sought back to records which are not due are not skipped
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
 
         return factory;
     }
+
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics(RetryTopicRouter retryTopicRouter) {
+        return new KafkaAdmin.NewTopics(
+                retryTopicRouter.retryAndDeadLetterTopics(TOPICS).stream()
+                        .map(topic -> TopicBuilder.name(topic).build())
+                        .toArray(NewTopic[]::new)
+        );
+    }
+
+    @Bean
+    public DeadLetterReplayer<SpecificRecord> deadLetterReplayer() {
+        return new DeadLetterReplayer<>(
+                new DefaultKafkaConsumerFactory<>(consumerConfigs()),
+                groupIdPrefix + groupIdRegion + "-dlt-replay"
+        );
+    }
+
+    @Bean
+    public KeyOrderedDispatcher keyOrderedDispatcher() {
+        return new KeyOrderedDispatcher(dispatcherLanes, dispatcherMaxInFlight);
+    }
 }
\ No newline at end of file
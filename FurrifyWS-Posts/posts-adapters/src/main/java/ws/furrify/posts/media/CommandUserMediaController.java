@@ -12,14 +12,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import ws.furrify.posts.blob.UploadNegotiation;
 import ws.furrify.posts.media.dto.MediaDTO;
 import ws.furrify.posts.media.dto.command.MediaCreateCommandDTO;
+import ws.furrify.posts.media.dto.command.MediaNegotiateCommandDTO;
 import ws.furrify.posts.media.dto.command.MediaReplaceCommandDTO;
 import ws.furrify.posts.media.dto.command.MediaUpdateCommandDTO;
+import ws.furrify.posts.upload.UploadSessions;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.HardLimitForEntityTypeException;
 
@@ -34,6 +38,7 @@ class CommandUserMediaController {
 
     private final MediaFacade mediaFacade;
     private final MediaRepository mediaRepository;
+    private final UploadSessions uploadSessions;
 
     @Value("${furrify.limits.media}")
     private long mediaLimitPerUser;
@@ -48,25 +53,83 @@ class CommandUserMediaController {
                                          @RequestPart("media") @Validated MediaCreateCommandDTO mediaCreateCommandDTO,
                                          @RequestPart("file") MultipartFile mediaFile,
                                          @RequestPart(value = "thumbnail", required = false) MultipartFile thumbnailFile,
+                                         @RequestHeader(value = "Upload-Ticket", required = false) String uploadTicket,
                                          KeycloakAuthenticationToken keycloakAuthenticationToken,
                                          HttpServletResponse response) {
-        // Hard limit for media
-        long userMediaCount = mediaRepository.countMediaByUserId(userId);
-        if (userMediaCount >= mediaLimitPerUser) {
-            throw new HardLimitForEntityTypeException(
-                    Errors.HARD_LIMIT_FOR_ENTITY_TYPE.getErrorMessage(mediaLimitPerUser, "Media")
-            );
-        }
+        checkMediaLimit(userId);
 
         MediaDTO mediaDTO = mediaCreateCommandDTO.toDTO();
 
         response.addHeader("Id",
-                mediaFacade.createMedia(userId, postId, mediaDTO, mediaFile, thumbnailFile).toString()
+                mediaFacade.createMedia(userId, postId, mediaDTO, mediaFile, thumbnailFile, uploadTicket).toString()
         );
 
         return ResponseEntity.accepted().build();
     }
 
+    /**
+     * Creates media from already stored file with the same hash without uploading it.
+     * When file is not stored, Upload-Ticket header is returned, which should be sent with file to createMedia().
+     */
+    @PostMapping("/negotiate")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('create_post_media') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public ResponseEntity<?> negotiateMedia(@PathVariable UUID userId,
+                                            @PathVariable UUID postId,
+                                            @RequestBody @Validated MediaNegotiateCommandDTO mediaNegotiateCommandDTO,
+                                            KeycloakAuthenticationToken keycloakAuthenticationToken,
+                                            HttpServletResponse response) {
+        checkMediaLimit(userId);
+
+        UploadNegotiation negotiation = mediaFacade.negotiateMedia(
+                userId,
+                postId,
+                mediaNegotiateCommandDTO.toDTO(),
+                mediaNegotiateCommandDTO.getHash(),
+                mediaNegotiateCommandDTO.getSize()
+        );
+
+        if (negotiation.isCreated()) {
+            response.addHeader("Id", negotiation.getCreatedId().toString());
+
+            return ResponseEntity.accepted().build();
+        }
+
+        response.addHeader("Upload-Ticket", negotiation.getUploadTicket());
+
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Creates media from file of completed upload session, session is deleted afterwards.
+     * Thumbnail is generated in background.
+     */
+    @PostMapping("/uploads/{sessionId}")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('create_post_media') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public ResponseEntity<?> createMediaFromUpload(@PathVariable UUID userId,
+                                                   @PathVariable UUID postId,
+                                                   @PathVariable UUID sessionId,
+                                                   @RequestBody @Validated MediaCreateCommandDTO mediaCreateCommandDTO,
+                                                   KeycloakAuthenticationToken keycloakAuthenticationToken,
+                                                   HttpServletResponse response) {
+        checkMediaLimit(userId);
+
+        MediaDTO mediaDTO = mediaCreateCommandDTO.toDTO();
+
+        UUID mediaId = uploadSessions.completeSession(userId, postId, sessionId,
+                (mediaFile, uploadTicket) -> mediaFacade.createMedia(userId, postId, mediaDTO, mediaFile, null, uploadTicket)
+        );
+
+        response.addHeader("Id", mediaId.toString());
+
+        return ResponseEntity.accepted().build();
+    }
+
     @DeleteMapping("/{mediaId}")
     @PreAuthorize(
             "hasRole('admin') ||" +
@@ -111,4 +174,14 @@ class CommandUserMediaController {
         return ResponseEntity.accepted().build();
     }
 
+    private void checkMediaLimit(final UUID userId) {
+        // Hard limit for media
+        long userMediaCount = mediaRepository.countMediaByUserId(userId);
+        if (userMediaCount >= mediaLimitPerUser) {
+            throw new HardLimitForEntityTypeException(
+                    Errors.HARD_LIMIT_FOR_ENTITY_TYPE.getErrorMessage(mediaLimitPerUser, "Media")
+            );
+        }
+    }
+
 }
@@ -1,13 +1,28 @@
 package ws.furrify.posts.media;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import ws.furrify.posts.blob.BlobStorage;
+import ws.furrify.posts.blob.UploadTicketSigner;
 import ws.furrify.posts.kafka.KafkaTopicEventPublisher;
 import ws.furrify.posts.media.dto.MediaDtoFactory;
 import ws.furrify.posts.media.strategy.LocalStorageMediaUploadStrategy;
 import ws.furrify.posts.media.strategy.MediaUploadStrategy;
+import ws.furrify.posts.media.strategy.S3MediaUploadStrategy;
+import ws.furrify.posts.media.strategy.VideoFrameExtractor;
 import ws.furrify.posts.post.PostServiceImpl;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.StrategyNotFoundException;
+import ws.furrify.shared.storage.IoRateLimiter;
+import ws.furrify.shared.storage.S3ObjectStorage;
+import ws.furrify.shared.storage.ShardedLayout;
+
+import java.nio.file.Path;
+import java.time.Duration;
 
 @Configuration
 @RequiredArgsConstructor
@@ -17,6 +32,67 @@ class MediaConfig {
     private final MediaQueryRepository mediaQueryRepository;
     private final KafkaTopicEventPublisher<MediaEvent> eventPublisher;
     private final PostServiceImpl postServiceClient;
+    private final MediaThumbnailJobRepositoryImpl mediaThumbnailJobRepository;
+    private final MeterRegistry meterRegistry;
+    private final BlobStorage blobStorage;
+    private final UploadTicketSigner uploadTicketSigner;
+    private final ObjectProvider<S3ObjectStorage> s3ObjectStorage;
+    private final ShardedLayout shardedLayout;
+    private final IoRateLimiter reclamationRateLimiter;
+
+    @Value("${furrify.storage.strategy}")
+    private String storageStrategy;
+
+    @Value("${LOCAL_STORAGE_MEDIA_PATH:/data/media}")
+    private String localStorageMediaPath;
+
+    @Value("${REMOTE_STORAGE_MEDIA_PATH:/media}")
+    private String remoteStorageMediaPath;
+
+    @Value("${furrify.storage.local.migration.workers}")
+    private int storageMigrationWorkers;
+
+    @Value("${furrify.storage.local.migration.page-size}")
+    private int storageMigrationPageSize;
+
+    @Value("${furrify.storage.reclamation.workers}")
+    private int reclamationWorkers;
+
+    @Value("${furrify.storage.reclamation.batch-size}")
+    private int reclamationBatchSize;
+
+    @Value("${furrify.storage.reclamation.min-age}")
+    private long reclamationMinAge;
+
+    @Value("${furrify.storage.reclamation.sweep-interval}")
+    private long reclamationSweepInterval;
+
+    @Value("${furrify.storage.reclamation.dry-run}")
+    private boolean reclamationDryRun;
+
+    @Value("${furrify.media.thumbnail-queue.workers}")
+    private int thumbnailQueueWorkers;
+
+    @Value("${furrify.media.thumbnail-queue.capacity}")
+    private int thumbnailQueueCapacity;
+
+    @Value("${furrify.media.thumbnail-queue.max-attempts}")
+    private int thumbnailQueueMaxAttempts;
+
+    @Value("${furrify.media.thumbnail-queue.retry-delay}")
+    private long thumbnailQueueRetryDelay;
+
+    @Value("${furrify.media.thumbnail-queue.initial-delay}")
+    private long thumbnailQueueInitialDelay;
+
+    @Value("${furrify.media.thumbnail-queue.lease}")
+    private long thumbnailQueueLease;
+
+    @Value("${furrify.media.frame-extraction.workers}")
+    private int frameExtractionWorkers;
+
+    @Value("${furrify.media.frame-extraction.queue-capacity}")
+    private int frameExtractionQueueCapacity;
 
     @Bean
     MediaFacade mediaFacade() {
@@ -24,18 +100,75 @@ class MediaConfig {
         var mediaDtoFactory = new MediaDtoFactory(mediaQueryRepository);
 
         return new MediaFacade(
-                new CreateMediaImpl(postServiceClient, mediaFactory, mediaUploadStrategy(), eventPublisher),
+                new CreateMediaImpl(postServiceClient, mediaFactory, mediaUploadStrategy(), eventPublisher, mediaThumbnailQueue(), mediaRepository, uploadTicketSigner),
                 new DeleteMediaImpl(eventPublisher, mediaRepository),
                 new UpdateMediaImpl(eventPublisher, mediaRepository),
                 new ReplaceMediaImpl(eventPublisher, mediaRepository),
                 mediaRepository,
                 mediaFactory,
-                mediaDtoFactory
+                mediaDtoFactory,
+                mediaUploadStrategy(),
+                mediaStorageReclaimer(),
+                mediaThumbnailQueue()
+        );
+    }
+
+    @Bean
+    MediaThumbnailQueue mediaThumbnailQueue() {
+        return new MediaThumbnailQueue(
+                mediaThumbnailJobRepository,
+                mediaRepository,
+                mediaUploadStrategy(),
+                eventPublisher,
+                thumbnailQueueWorkers,
+                thumbnailQueueCapacity,
+                thumbnailQueueMaxAttempts,
+                Duration.ofMillis(thumbnailQueueRetryDelay),
+                Duration.ofMillis(thumbnailQueueInitialDelay),
+                Duration.ofMillis(thumbnailQueueLease)
         );
     }
 
     @Bean
     MediaUploadStrategy mediaUploadStrategy() {
-        return new LocalStorageMediaUploadStrategy();
+        return switch (storageStrategy) {
+            case "local" -> new LocalStorageMediaUploadStrategy(videoFrameExtractor(), blobStorage, shardedLayout);
+            case "s3" -> new S3MediaUploadStrategy(videoFrameExtractor(), s3ObjectStorage.getObject());
+            default -> throw new StrategyNotFoundException(Errors.STRATEGY_NOT_FOUND.getErrorMessage(storageStrategy));
+        };
+    }
+
+    @Bean
+    MediaStorageReclaimer mediaStorageReclaimer() {
+        return new MediaStorageReclaimer(
+                mediaRepository,
+                blobStorage,
+                // Files in object storage are not swept, only deleted on removal
+                "local".equals(storageStrategy) ? Path.of(localStorageMediaPath) : null,
+                reclamationRateLimiter,
+                reclamationWorkers,
+                reclamationBatchSize,
+                Duration.ofMillis(reclamationMinAge),
+                Duration.ofMillis(reclamationSweepInterval),
+                reclamationDryRun
+        );
+    }
+
+    @Bean
+    MediaStorageMigration mediaStorageMigration() {
+        return new MediaStorageMigration(
+                mediaRepository,
+                eventPublisher,
+                shardedLayout,
+                Path.of(localStorageMediaPath),
+                remoteStorageMediaPath,
+                storageMigrationWorkers,
+                storageMigrationPageSize
+        );
+    }
+
+    @Bean
+    VideoFrameExtractor videoFrameExtractor() {
+        return new VideoFrameExtractor(frameExtractionWorkers, frameExtractionQueueCapacity, meterRegistry);
     }
 }
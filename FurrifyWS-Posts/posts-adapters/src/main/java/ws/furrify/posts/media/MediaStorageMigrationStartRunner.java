@@ -0,0 +1,24 @@
+package ws.furrify.posts.media;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts migration of locally stored media to sharded layout on startup when it is enabled.
+ *
+ * @author Skyte
+ */
+@Component
+@ConditionalOnProperty(value = "furrify.storage.local.migration.enabled", havingValue = "true")
+@RequiredArgsConstructor
+class MediaStorageMigrationStartRunner implements CommandLineRunner {
+
+    private final MediaStorageMigration mediaStorageMigration;
+
+    @Override
+    public void run(final String... args) {
+        mediaStorageMigration.start();
+    }
+}
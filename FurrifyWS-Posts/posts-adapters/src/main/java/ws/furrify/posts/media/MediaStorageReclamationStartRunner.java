@@ -0,0 +1,22 @@
+package ws.furrify.posts.media;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts background deletion and periodic sweep of files of removed media on startup.
+ *
+ * @author Skyte
+ */
+@Component
+@RequiredArgsConstructor
+class MediaStorageReclamationStartRunner implements CommandLineRunner {
+
+    private final MediaStorageReclaimer mediaStorageReclaimer;
+
+    @Override
+    public void run(final String... args) {
+        mediaStorageReclaimer.start();
+    }
+}
@@ -0,0 +1,22 @@
+package ws.furrify.posts.media;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recovers unfinished thumbnail jobs and starts thumbnail queue on startup.
+ *
+ * @author Skyte
+ */
+@Component
+@RequiredArgsConstructor
+class MediaThumbnailQueueStartRunner implements CommandLineRunner {
+
+    private final MediaThumbnailQueue mediaThumbnailQueue;
+
+    @Override
+    public void run(final String... args) {
+        mediaThumbnailQueue.start();
+    }
+}
@@ -4,7 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,6 +17,9 @@ import org.springframework.web.bind.annotation.RestController;
 import ws.furrify.posts.media.dto.query.MediaDetailsQueryDTO;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.RecordNotFoundException;
+import ws.furrify.shared.pageable.CursorPageable;
+import ws.furrify.shared.pageable.CursorRequest;
+import ws.furrify.shared.pageable.CursorSlice;
 import ws.furrify.shared.pageable.PageableRequest;
 
 import java.util.UUID;
@@ -28,6 +33,8 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 @RequiredArgsConstructor
 class QueryPostMediaController {
 
+    private final static String MEDIA_DEFAULT_SORT = "priority";
+
     private final SqlMediaQueryRepositoryImpl mediaQueryRepository;
     private final PagedResourcesAssembler<MediaDetailsQueryDTO> pagedResourcesAssembler;
 
@@ -76,6 +83,67 @@ class QueryPostMediaController {
         return mediaResponses;
     }
 
+    @GetMapping(params = "after")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('query_post_media') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public CollectionModel<EntityModel<MediaDetailsQueryDTO>> getPostMediaListByCursor(
+            @PathVariable UUID userId,
+            @PathVariable UUID postId,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer size,
+            @RequestParam String after,
+            KeycloakAuthenticationToken keycloakAuthenticationToken) {
+
+        // Build cursor page from cursor information, media are listed by priority by default
+        CursorPageable pageable = CursorRequest.builder()
+                .order(order)
+                .sort((sort == null) ? MEDIA_DEFAULT_SORT : sort)
+                .size(size)
+                .after(after)
+                .build().toCursorPageable();
+
+        CursorSlice<MediaDetailsQueryDTO> mediaSlice = mediaQueryRepository.findAllByOwnerIdAndPostId(userId, postId, pageable);
+
+        CollectionModel<EntityModel<MediaDetailsQueryDTO>> mediaResponses = CollectionModel.of(
+                mediaSlice.getContent().stream()
+                        .map(EntityModel::of)
+                        .map(this::addMediaRelations)
+                        .toList()
+        );
+
+        // Add hateoas relation
+        var mediaListRel = linkTo(methodOn(QueryPostMediaController.class).getPostMediaListByCursor(
+                userId,
+                postId,
+                null,
+                null,
+                size,
+                after,
+                null
+        )).withSelfRel();
+
+        mediaResponses.add(mediaListRel);
+
+        if (mediaSlice.hasNext()) {
+            var nextRel = linkTo(methodOn(QueryPostMediaController.class).getPostMediaListByCursor(
+                    userId,
+                    postId,
+                    null,
+                    null,
+                    size,
+                    mediaSlice.getNext().encode(),
+                    null
+            )).withRel(IanaLinkRelations.NEXT);
+
+            mediaResponses.add(nextRel);
+        }
+
+        return mediaResponses;
+    }
+
     @GetMapping("/{mediaId}")
     @PreAuthorize(
             "hasRole('admin') ||" +
@@ -0,0 +1,83 @@
+package ws.furrify.posts.media;
+
+import lombok.RequiredArgsConstructor;
+import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ws.furrify.posts.storage.StoredFile;
+import ws.furrify.posts.storage.StoredFileCache;
+import ws.furrify.posts.storage.StoredFileResponder;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.RecordNotFoundException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Serves media files from local storage, so access to them is checked like to media details.
+ *
+ * @author Skyte
+ */
+@RestController
+@RequestMapping("/users/{userId}/posts/{postId}/media")
+@ConditionalOnProperty(value = "furrify.storage.strategy", havingValue = "local")
+@RequiredArgsConstructor
+class QueryPostMediaFileController {
+
+    private final SqlMediaQueryRepositoryImpl mediaQueryRepository;
+    private final StoredFileCache storedFileCache;
+    private final StoredFileResponder storedFileResponder;
+
+    @Value("${LOCAL_STORAGE_MEDIA_PATH:/data/media}")
+    private String localStorageMediaPath;
+
+    @Value("${REMOTE_STORAGE_MEDIA_PATH:/media}")
+    private String remoteStorageMediaPath;
+
+    @GetMapping("/{mediaId}/file")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('query_post_media') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public void getPostMediaFile(@PathVariable UUID userId,
+                                 @PathVariable UUID postId,
+                                 @PathVariable UUID mediaId,
+                                 KeycloakAuthenticationToken keycloakAuthenticationToken,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        if (storedFileResponder.respond(findStoredFile(userId, postId, mediaId), request, response)) {
+            return;
+        }
+
+        // Cached file was replaced or moved in meantime
+        storedFileCache.evict(mediaId);
+
+        if (!storedFileResponder.respond(findStoredFile(userId, postId, mediaId), request, response)) {
+            throw new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(mediaId));
+        }
+    }
+
+    private StoredFile findStoredFile(final UUID userId,
+                                      final UUID postId,
+                                      final UUID mediaId) {
+        return storedFileCache.get(userId, postId, mediaId, () ->
+                mediaQueryRepository.findByOwnerIdAndPostIdAndMediaId(userId, postId, mediaId)
+                        .flatMap(media -> StoredFile.of(
+                                media.getOwnerId(),
+                                media.getPostId(),
+                                media.getFileUri(),
+                                localStorageMediaPath,
+                                remoteStorageMediaPath,
+                                media.getExtension().getMimeTypes()[0],
+                                media.getMd5()
+                        ))
+        ).orElseThrow(() -> new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(mediaId)));
+    }
+}
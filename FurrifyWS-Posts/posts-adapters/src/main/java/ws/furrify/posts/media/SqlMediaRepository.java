@@ -3,13 +3,23 @@ package ws.furrify.posts.media;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import ws.furrify.posts.media.dto.query.MediaDetailsQueryDTO;
-
+import ws.furrify.shared.pageable.CursorPageable;
+import ws.furrify.shared.pageable.CursorQueryExecutor;
+import ws.furrify.shared.pageable.CursorSlice;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Transactional(rollbackFor = RuntimeException.class)
@@ -24,10 +34,22 @@ interface SqlMediaRepository extends Repository<MediaSnapshot, Long> {
 
     @Query("select count(a) from MediaSnapshot a where a.ownerId = ?1")
     long countMediaByUserId(UUID userId);
+
+    @Query("select media.md5 from MediaSnapshot media, BlobReference blob " +
+            "where blob.referenceId = media.mediaId and media.ownerId = ?1 and media.extension = ?2 and blob.hash = ?3")
+    List<String> findMd5ByOwnerIdAndExtensionAndBlobHash(UUID ownerId, MediaExtension extension, String hash, Pageable pageable);
+
+    List<MediaSnapshot> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select media.mediaId from MediaSnapshot media where media.mediaId in ?1")
+    List<UUID> findMediaIdsByMediaIdIn(Collection<UUID> mediaIds);
+
+    @Query("select media.mediaId from MediaSnapshot media where media.ownerId = ?1 and media.postId = ?2")
+    List<UUID> findMediaIdsByOwnerIdAndPostId(UUID ownerId, UUID postId);
 }
 
 @Transactional(rollbackFor = {})
-interface SqlMediaQueryRepositoryImpl extends MediaQueryRepository, Repository<MediaSnapshot, Long> {
+interface SqlMediaQueryRepositoryImpl extends MediaQueryRepository, MediaCursorQueryRepository, Repository<MediaSnapshot, Long> {
 
     @Override
     Optional<MediaDetailsQueryDTO> findByOwnerIdAndPostIdAndMediaId(UUID ownerId, UUID artistId, UUID mediaId);
@@ -41,6 +63,32 @@ interface SqlMediaQueryRepositoryImpl extends MediaQueryRepository, Repository<M
     Long getIdByMediaId(UUID mediaId);
 }
 
+interface MediaCursorQueryRepository {
+    CursorSlice<MediaDetailsQueryDTO> findAllByOwnerIdAndPostId(UUID ownerId, UUID postId, CursorPageable pageable);
+}
+
+@Transactional(rollbackFor = {})
+class MediaCursorQueryRepositoryImpl implements MediaCursorQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public CursorSlice<MediaDetailsQueryDTO> findAllByOwnerIdAndPostId(final UUID ownerId,
+                                                                       final UUID postId,
+                                                                       final CursorPageable pageable) {
+        return new CursorQueryExecutor(entityManager).findAll(
+                MediaSnapshot.class,
+                MediaDetailsQueryDTO.class,
+                pageable,
+                (criteriaBuilder, media) -> criteriaBuilder.and(
+                        criteriaBuilder.equal(media.get("ownerId"), ownerId),
+                        criteriaBuilder.equal(media.get("postId"), postId)
+                )
+        );
+    }
+}
+
 @org.springframework.stereotype.Repository
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class MediaRepositoryImpl implements MediaRepository {
@@ -65,6 +113,32 @@ class MediaRepositoryImpl implements MediaRepository {
                 .map(Media::restore);
     }
 
+    @Override
+    public Optional<String> findMd5ByOwnerIdAndExtensionAndBlobHash(final UUID ownerId,
+                                                                   final MediaExtension extension,
+                                                                   final String hash) {
+        return sqlMediaRepository.findMd5ByOwnerIdAndExtensionAndBlobHash(ownerId, extension, hash, PageRequest.of(0, 1))
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<Media> findAllByIdGreaterThan(final long id, final int limit) {
+        return sqlMediaRepository.findAllByIdGreaterThanOrderByIdAsc(id, PageRequest.of(0, limit)).stream()
+                .map(Media::restore)
+                .toList();
+    }
+
+    @Override
+    public Set<UUID> findExistingMediaIds(final Set<UUID> mediaIds) {
+        return new HashSet<>(sqlMediaRepository.findMediaIdsByMediaIdIn(mediaIds));
+    }
+
+    @Override
+    public List<UUID> findMediaIdsByOwnerIdAndPostId(final UUID ownerId, final UUID postId) {
+        return sqlMediaRepository.findMediaIdsByOwnerIdAndPostId(ownerId, postId);
+    }
+
     @Override
     public void deleteByMediaId(final UUID mediaId) {
         sqlMediaRepository.deleteByMediaId(mediaId);
@@ -0,0 +1,113 @@
+package ws.furrify.posts.media;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Transactional(rollbackFor = RuntimeException.class)
+interface SqlMediaThumbnailJobRepository extends Repository<MediaThumbnailJob, Long> {
+    MediaThumbnailJob save(MediaThumbnailJob job);
+
+    void delete(MediaThumbnailJob job);
+
+    @Modifying
+    @Query("delete from MediaThumbnailJob job where job.mediaId = :mediaId")
+    void deleteByMediaId(@Param("mediaId") UUID mediaId);
+
+    boolean existsById(Long id);
+
+    List<MediaThumbnailJob> findAllByStatusAndDueDateLessThanEqualOrderByDueDateAsc(MediaThumbnailJob.Status status,
+                                                                                     Instant dueDate,
+                                                                                     Pageable pageable);
+
+    long countByStatusIn(Collection<MediaThumbnailJob.Status> statuses);
+
+    @Modifying
+    @Query("update MediaThumbnailJob job set job.status = :newStatus, job.dueDate = :dueDate " +
+            "where job.id = :id and job.status = :status")
+    int updateStatusById(@Param("id") Long id,
+                         @Param("status") MediaThumbnailJob.Status status,
+                         @Param("newStatus") MediaThumbnailJob.Status newStatus,
+                         @Param("dueDate") Instant dueDate);
+
+    @Modifying
+    @Query("update MediaThumbnailJob job set job.status = :newStatus " +
+            "where job.status = :status and job.dueDate <= :dueDate")
+    int updateStatusByDueDateLessThanEqual(@Param("status") MediaThumbnailJob.Status status,
+                                           @Param("newStatus") MediaThumbnailJob.Status newStatus,
+                                           @Param("dueDate") Instant dueDate);
+}
+
+@org.springframework.stereotype.Repository
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class MediaThumbnailJobRepositoryImpl implements MediaThumbnailJobRepository {
+
+    private final SqlMediaThumbnailJobRepository sqlMediaThumbnailJobRepository;
+
+    @Override
+    public MediaThumbnailJob save(final MediaThumbnailJob job) {
+        return sqlMediaThumbnailJobRepository.save(job);
+    }
+
+    @Override
+    public void delete(final MediaThumbnailJob job) {
+        sqlMediaThumbnailJobRepository.delete(job);
+    }
+
+    @Override
+    public void deleteByMediaId(final UUID mediaId) {
+        sqlMediaThumbnailJobRepository.deleteByMediaId(mediaId);
+    }
+
+    @Override
+    public boolean existsById(final Long id) {
+        return sqlMediaThumbnailJobRepository.existsById(id);
+    }
+
+    @Override
+    public List<MediaThumbnailJob> findAllDue(final Instant now, final int limit) {
+        return sqlMediaThumbnailJobRepository.findAllByStatusAndDueDateLessThanEqualOrderByDueDateAsc(
+                MediaThumbnailJob.Status.PENDING,
+                now,
+                PageRequest.of(0, limit)
+        );
+    }
+
+    @Override
+    public long countUnfinished() {
+        return sqlMediaThumbnailJobRepository.countByStatusIn(
+                Set.of(MediaThumbnailJob.Status.PENDING, MediaThumbnailJob.Status.RUNNING)
+        );
+    }
+
+    @Override
+    public boolean claim(final Long id, final Instant leaseExpiry) {
+        return sqlMediaThumbnailJobRepository.updateStatusById(
+                id,
+                MediaThumbnailJob.Status.PENDING,
+                MediaThumbnailJob.Status.RUNNING,
+                leaseExpiry
+        ) == 1;
+    }
+
+    @Override
+    public int recoverExpired(final Instant now) {
+        return sqlMediaThumbnailJobRepository.updateStatusByDueDateLessThanEqual(
+                MediaThumbnailJob.Status.RUNNING,
+                MediaThumbnailJob.Status.PENDING,
+                now
+        );
+    }
+}
@@ -12,6 +12,8 @@ import ws.furrify.shared.exception.ChainOfRequestsUnauthorizedException;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.HttpStatus;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -44,6 +46,28 @@ class ArtistServiceImpl implements ArtistServiceClient {
         }
     }
 
+    @Bulkhead(name = "getUserArtists", fallbackMethod = "getUserArtistsFallback")
+    @Override
+    public List<ArtistDetailsQueryDTO> getUserArtists(final UUID userId, final Set<UUID> artistIds) {
+        return artistServiceClient.getUserArtists(userId, artistIds);
+    }
+
+    private List<ArtistDetailsQueryDTO> getUserArtistsFallback(Throwable throwable) {
+        var exception = (FeignException) throwable;
+
+        HttpStatus status = HttpStatus.of(exception.status());
+
+        switch (status) {
+            case NOT_FOUND -> {
+                return List.of();
+            }
+
+            case FORBIDDEN -> throw new ChainOfRequestsUnauthorizedException(Errors.CHAIN_OF_REQUESTS_UNAUTHORIZED.getErrorMessage(NAME));
+
+            default -> throw new ChainOfRequestsBrokenException(Errors.CHAIN_OF_REQUESTS_BROKEN.getErrorMessage(NAME));
+        }
+    }
+
     /**
      * Implements Artist Service Client as a Feign Client.
      */
@@ -1,11 +1,18 @@
 package ws.furrify.posts.post;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 import ws.furrify.posts.kafka.KafkaTopicEventPublisher;
 import ws.furrify.posts.post.dto.PostDtoFactory;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
 @Configuration
 @RequiredArgsConstructor
 class PostConfig {
@@ -15,20 +22,68 @@ class PostConfig {
     private final KafkaTopicEventPublisher<PostEvent> eventPublisher;
     private final TagServiceImpl tagService;
     private final ArtistServiceImpl artistService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${furrify.search.index.max-owners}")
+    private int searchIndexMaxOwners;
+
+    @Value("${furrify.tag-replica.max-tags}")
+    private int tagReplicaMaxTags;
+
+    @Value("${furrify.propagation.artists.chunk-size}")
+    private int artistsPropagationChunkSize;
+
+    @Value("${furrify.relations.workers}")
+    private int relationsWorkers;
+
+    @Value("${furrify.relations.queue-capacity}")
+    private int relationsQueueCapacity;
 
     @Bean
     PostFacade postFacade() {
         var postFactory = new PostFactory();
         var postDtoFactory = new PostDtoFactory(postQueryRepository);
+        // Remote calls resolving tags are authorized as the caller
+        Executor relationsExecutor = new DelegatingSecurityContextExecutor(relationsTaskExecutor());
 
         return new PostFacade(
-                new CreatePostImpl(postFactory, eventPublisher, tagService, artistService),
+                new CreatePostImpl(postFactory, eventPublisher, postTagReplica(), artistService, relationsExecutor),
                 new DeletePostImpl(eventPublisher, postRepository),
-                new UpdatePostImpl(eventPublisher, postRepository, tagService, artistService),
-                new ReplacePostImpl(eventPublisher, postRepository, tagService, artistService),
+                new UpdatePostImpl(eventPublisher, postRepository, postTagReplica(), artistService, relationsExecutor),
+                new ReplacePostImpl(eventPublisher, postRepository, postTagReplica(), artistService, relationsExecutor),
                 postRepository,
                 postFactory,
-                postDtoFactory
+                postDtoFactory,
+                postSearchIndex(),
+                new PostArtistPropagator(postRepository, meterRegistry, artistsPropagationChunkSize),
+                postTagReplica()
         );
     }
+
+    /**
+     * Pool resolving tags of post concurrently with its artists.
+     * When pool is saturated tags are resolved on calling thread instead.
+     */
+    @Bean
+    ThreadPoolTaskExecutor relationsTaskExecutor() {
+        var taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(relationsWorkers);
+        taskExecutor.setMaxPoolSize(relationsWorkers);
+        taskExecutor.setQueueCapacity(relationsQueueCapacity);
+        taskExecutor.setThreadNamePrefix("post-relations-");
+        taskExecutor.setDaemon(true);
+        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        return taskExecutor;
+    }
+
+    @Bean
+    PostSearchIndex postSearchIndex() {
+        return new PostSearchIndex(postQueryRepository, searchIndexMaxOwners);
+    }
+
+    @Bean
+    PostTagReplica postTagReplica() {
+        return new PostTagReplica(postQueryRepository, tagService, tagReplicaMaxTags);
+    }
 }
@@ -0,0 +1,28 @@
+package ws.furrify.posts.post;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds post search index on startup if enabled.
+ *
+ * @author Skyte
+ */
+@Component
+@RequiredArgsConstructor
+class PostSearchIndexRebuildRunner implements CommandLineRunner {
+
+    private final PostSearchIndex postSearchIndex;
+
+    @Value("${furrify.search.index.rebuild-on-startup}")
+    private boolean rebuildOnStartup;
+
+    @Override
+    public void run(final String... args) {
+        if (rebuildOnStartup) {
+            postSearchIndex.rebuild();
+        }
+    }
+}
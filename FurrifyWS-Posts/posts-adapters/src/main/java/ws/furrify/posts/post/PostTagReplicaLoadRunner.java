@@ -0,0 +1,22 @@
+package ws.furrify.posts.post;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads tag replica on startup.
+ *
+ * @author Skyte
+ */
+@Component
+@RequiredArgsConstructor
+class PostTagReplicaLoadRunner implements CommandLineRunner {
+
+    private final PostTagReplica postTagReplica;
+
+    @Override
+    public void run(final String... args) {
+        postTagReplica.load();
+    }
+}
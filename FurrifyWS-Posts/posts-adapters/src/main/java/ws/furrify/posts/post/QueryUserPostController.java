@@ -2,9 +2,12 @@ package ws.furrify.posts.post;
 
 import lombok.RequiredArgsConstructor;
 import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,6 +19,9 @@ import ws.furrify.posts.post.dto.query.PostDetailsQueryDTO;
 import ws.furrify.posts.post.dto.vo.PostQuerySearchDTO;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.RecordNotFoundException;
+import ws.furrify.shared.pageable.CursorPageable;
+import ws.furrify.shared.pageable.CursorRequest;
+import ws.furrify.shared.pageable.CursorSlice;
 import ws.furrify.shared.pageable.PageableRequest;
 
 import java.util.UUID;
@@ -30,6 +36,7 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 class QueryUserPostController {
 
     private final SqlPostQueryRepositoryImpl postQueryRepository;
+    private final PostSearchIndex postSearchIndex;
     private final PagedResourcesAssembler<PostDetailsQueryDTO> pagedResourcesAssembler;
 
     @GetMapping
@@ -75,6 +82,65 @@ class QueryUserPostController {
         return posts;
     }
 
+    @GetMapping(params = "after")
+    @PreAuthorize(
+            "hasRole('admin') or " +
+                    "hasAuthority('admin') or " +
+                    "(#keycloakAuthenticationToken != null and #userId == #keycloakAuthenticationToken.getAccount().getKeycloakSecurityContext().getToken().getSubject())"
+    )
+    public CollectionModel<EntityModel<PostDetailsQueryDTO>> getUserPostsByCursor(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer size,
+            @RequestParam String after,
+            KeycloakAuthenticationToken keycloakAuthenticationToken) {
+
+        // Build cursor page from cursor information
+        CursorPageable pageable = CursorRequest.builder()
+                .order(order)
+                .sort(sort)
+                .size(size)
+                .after(after)
+                .build().toCursorPageable();
+
+        CursorSlice<PostDetailsQueryDTO> postsSlice = postQueryRepository.findAllByOwnerId(userId, pageable);
+
+        CollectionModel<EntityModel<PostDetailsQueryDTO>> posts = CollectionModel.of(
+                postsSlice.getContent().stream()
+                        .map(EntityModel::of)
+                        .map(this::addPostRelations)
+                        .toList()
+        );
+
+        // Add hateoas relation
+        var postsRel = linkTo(methodOn(QueryUserPostController.class).getUserPostsByCursor(
+                userId,
+                null,
+                null,
+                size,
+                after,
+                null
+        )).withSelfRel();
+
+        posts.add(postsRel);
+
+        if (postsSlice.hasNext()) {
+            var nextRel = linkTo(methodOn(QueryUserPostController.class).getUserPostsByCursor(
+                    userId,
+                    null,
+                    null,
+                    size,
+                    postsSlice.getNext().encode(),
+                    null
+            )).withRel(IanaLinkRelations.NEXT);
+
+            posts.add(nextRel);
+        }
+
+        return posts;
+    }
+
     @GetMapping("/{postId}")
     @PreAuthorize(
             "hasRole('admin') or " +
@@ -119,8 +185,12 @@ class QueryUserPostController {
         PostQuerySearchDTO postQuerySearchDTO = PostQuerySearchDTO.from(query);
 
         // TODO Fix naming of _embedded in hal+json somehow
+        // Search using in-memory index, fallback to database query when sort is not indexed
+        Page<PostSnapshot> postSnapshots = postSearchIndex.search(userId, postQuerySearchDTO, pageable)
+                .orElseGet(() -> postQueryRepository.findAllByOwnerIdAndQuery(userId, postQuerySearchDTO, pageable));
+
         PagedModel<EntityModel<PostDetailsQueryDTO>> posts = pagedResourcesAssembler.toModel(
-                postQueryRepository.findAllByOwnerIdAndQuery(userId, postQuerySearchDTO, pageable)
+                postSnapshots
                         .map(postSnapshot ->
                                 PostDetailsQueryDTO.of(
                                         postSnapshot.getPostId(),
@@ -3,14 +3,41 @@ package ws.furrify.posts.post;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.SerializationUtils;
+import ws.furrify.posts.converter.UUIDAttributeConverterImpl;
+import ws.furrify.posts.post.dto.query.PostArtistIndexQueryDTO;
 import ws.furrify.posts.post.dto.query.PostDetailsQueryDTO;
+import ws.furrify.posts.post.dto.query.PostIndexQueryDTO;
+import ws.furrify.posts.post.dto.query.PostTagDetailsQueryDTO;
+import ws.furrify.posts.post.dto.query.PostTagIndexQueryDTO;
 import ws.furrify.posts.post.dto.vo.PostQuerySearchDTO;
+import ws.furrify.posts.post.vo.PostTag;
+import ws.furrify.shared.pageable.CursorPageable;
+import ws.furrify.shared.pageable.CursorQueryExecutor;
+import ws.furrify.shared.pageable.CursorSlice;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -29,9 +56,84 @@ interface SqlPostRepository extends Repository<PostSnapshot, Long> {
     @Query("from PostSnapshot post join post.tags tag where tag.value = ?2 and post.ownerId = ?1")
     Set<PostSnapshot> findAllByOwnerIdAndValueInTags(UUID ownerId, String value);
 
+    @Modifying
+    @Query(value = "insert into post_tags (post_id, value, type) " +
+            "select distinct tag.post_id, :newValue, :newType from post_tags tag " +
+            "join posts post on post.id = tag.post_id " +
+            "where post.owner_id = :ownerId and tag.value = :originalValue and not exists (" +
+            "select 1 from post_tags existing where existing.post_id = tag.post_id " +
+            "and existing.value = :newValue and existing.type = :newType)",
+            nativeQuery = true)
+    int insertTagIntoPostsWithTagByOwnerId(@Param("ownerId") String ownerId,
+                                           @Param("originalValue") String originalValue,
+                                           @Param("newValue") String newValue,
+                                           @Param("newType") String newType);
+
+    @Modifying
+    @Query(value = "delete from post_tags where value = :value and (value <> :keptValue or type <> :keptType) " +
+            "and post_id in (select post.id from posts post where post.owner_id = :ownerId)",
+            nativeQuery = true)
+    int deleteTagFromPostsByOwnerIdExcept(@Param("ownerId") String ownerId,
+                                          @Param("value") String value,
+                                          @Param("keptValue") String keptValue,
+                                          @Param("keptType") String keptType);
+
+    @Modifying
+    @Query(value = "delete from post_tags where value = :value " +
+            "and post_id in (select post.id from posts post where post.owner_id = :ownerId)",
+            nativeQuery = true)
+    int deleteTagFromPostsByOwnerId(@Param("ownerId") String ownerId,
+                                    @Param("value") String value);
+
     @Query("from PostSnapshot post join post.artists artist where artist.artistId = ?2 and post.ownerId = ?1")
     Set<PostSnapshot> findAllByOwnerIdAndArtistIdInArtists(UUID ownerId, UUID artistId);
 
+    @Query("select post.id from PostSnapshot post join post.artists artist " +
+            "where post.ownerId = ?1 and artist.artistId = ?2 and post.id > ?3 order by post.id")
+    List<Long> findAllIdsByOwnerIdAndArtistIdInArtists(UUID ownerId, UUID artistId, long afterId, Pageable pageable);
+
+    @Query("select post.id from PostSnapshot post join post.artists artist " +
+            "where post.ownerId = ?1 and artist.artistId = ?2 and artist.preferredNickname <> ?3 and post.id > ?4 order by post.id")
+    List<Long> findAllIdsByOwnerIdAndArtistIdWithOtherPreferredNickname(UUID ownerId, UUID artistId, String preferredNickname, long afterId, Pageable pageable);
+
+    @Query("select post.id from PostSnapshot post join post.artists artist " +
+            "where post.ownerId = ?1 and artist.artistId = ?2 and (artist.thumbnailUri is null or artist.thumbnailUri <> ?3) " +
+            "and post.id > ?4 order by post.id")
+    List<Long> findAllIdsByOwnerIdAndArtistIdWithOtherThumbnailUri(UUID ownerId, UUID artistId, URI thumbnailUri, long afterId, Pageable pageable);
+
+    @Query("select post.id from PostSnapshot post join post.artists artist " +
+            "where post.ownerId = ?1 and artist.artistId = ?2 and artist.thumbnailUri is not null and post.id > ?3 order by post.id")
+    List<Long> findAllIdsByOwnerIdAndArtistIdWithThumbnailUri(UUID ownerId, UUID artistId, long afterId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "update post_artists set preferred_nickname = :preferredNickname " +
+            "where artist_id = :artistId and post_id in (:ids)",
+            nativeQuery = true)
+    int updateArtistPreferredNicknameInPosts(@Param("artistId") String artistId,
+                                             @Param("preferredNickname") String preferredNickname,
+                                             @Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "update post_artists set thumbnail_uri = :thumbnailUri " +
+            "where artist_id = :artistId and post_id in (:ids)",
+            nativeQuery = true)
+    int updateArtistThumbnailUriInPosts(@Param("artistId") String artistId,
+                                        @Param("thumbnailUri") byte[] thumbnailUri,
+                                        @Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "update post_artists set thumbnail_uri = null " +
+            "where artist_id = :artistId and post_id in (:ids)",
+            nativeQuery = true)
+    int deleteArtistThumbnailUriFromPosts(@Param("artistId") String artistId,
+                                          @Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "delete from post_artists where artist_id = :artistId and post_id in (:ids)",
+            nativeQuery = true)
+    int deleteArtistFromPosts(@Param("artistId") String artistId,
+                              @Param("ids") List<Long> ids);
+
     @Query("from PostSnapshot post join post.mediaSet media where media.mediaId = ?3 and post.postId = ?2 and post.ownerId = ?1")
     Optional<PostSnapshot> findByOwnerIdAndPostIdAndMediaId(UUID ownerId, UUID postId, UUID mediaId);
 
@@ -43,7 +145,7 @@ interface SqlPostRepository extends Repository<PostSnapshot, Long> {
 }
 
 @Transactional(rollbackFor = {})
-interface SqlPostQueryRepositoryImpl extends PostQueryRepository, Repository<PostSnapshot, Long> {
+interface SqlPostQueryRepositoryImpl extends PostQueryRepository, PostCursorQueryRepository, PostSearchQueryRepository, Repository<PostSnapshot, Long> {
 
     @Override
     Optional<PostDetailsQueryDTO> findByOwnerIdAndPostId(UUID ownerId, UUID postId);
@@ -51,38 +153,6 @@ interface SqlPostQueryRepositoryImpl extends PostQueryRepository, Repository<Pos
     @Override
     Page<PostDetailsQueryDTO> findAllByOwnerId(UUID ownerId, Pageable pageable);
 
-    @Override
-    @Query("select p from PostSnapshot p where " +
-            // Tags
-            "(:#{#query.withTags.size()} = 0 or p.id in (" +
-            "select post.id from PostSnapshot post inner join post.tags tag " +
-            "where tag.value in (:#{#query.withTags}) " +
-            "group by post.id " +
-            "having count(distinct tag.value) = :#{#query.withTags.size() * 1L}" +
-            ")) and (:#{#query.withoutTags.size()} = 0 or p.id not in (" +
-            "select post.id from PostSnapshot post inner join post.tags tag " +
-            "where tag.value in (:#{#query.withoutTags}) " +
-            "group by post.id " +
-            "having count(distinct tag.value) = :#{#query.withoutTags.size() * 1L}" +
-            ")) " +
-            // Artists
-            "and (:#{#query.withArtists.size()} = 0 or p.id in (" +
-            "select post.id from PostSnapshot post inner join post.artists artist " +
-            "where artist.preferredNickname in (:#{#query.withArtists}) " +
-            "group by post.id " +
-            "having count(distinct artist.preferredNickname) = :#{#query.withArtists.size() * 1L}" +
-            ")) and (:#{#query.withoutArtists.size()} = 0 or p.id not in (" +
-            "select post.id from PostSnapshot post inner join post.artists artist " +
-            "where artist.preferredNickname in (:#{#query.withoutArtists}) " +
-            "group by post.id " +
-            "having count(distinct artist.preferredNickname) = :#{#query.withoutArtists.size() * 1L}" +
-            ")) " +
-            // Title like words
-            "and lower(p.title) like concat('%', lower(:#{(#query.words.isEmpty()) ? '' : #query.words.toArray()[0]}) ,'%')" +
-            // OwnerId
-            "and p.ownerId = :ownerId")
-    Page<PostSnapshot> findAllByOwnerIdAndQuery(@Param("ownerId") UUID ownerId, @Param("query") PostQuerySearchDTO query, Pageable pageable);
-
     @Override
     @Query("select post from PostSnapshot post join post.artists artist where artist.artistId = ?2 and post.ownerId = ?1")
     Page<PostDetailsQueryDTO> findAllByOwnerIdAndArtistId(UUID ownerId, UUID artistId, Pageable pageable);
@@ -90,12 +160,169 @@ interface SqlPostQueryRepositoryImpl extends PostQueryRepository, Repository<Pos
     @Override
     @Query("select id from PostSnapshot where postId = ?1")
     Long getIdByPostId(UUID postId);
+
+    @Override
+    List<PostSnapshot> findAllByOwnerIdAndPostIdIn(UUID ownerId, Collection<UUID> postIds);
+
+    @Override
+    @Query("select post.postId as postId, post.title as title, post.description as description, post.createDate as createDate " +
+            "from PostSnapshot post where post.ownerId = ?1")
+    List<PostIndexQueryDTO> findAllIndexEntriesByOwnerId(UUID ownerId);
+
+    @Override
+    @Query("select post.postId as postId, tag.value as tagValue from PostSnapshot post join post.tags tag where post.ownerId = ?1")
+    List<PostTagIndexQueryDTO> findAllIndexTagsByOwnerId(UUID ownerId);
+
+    @Override
+    @Query("select post.postId as postId, artist.artistId as artistId, artist.preferredNickname as preferredNickname " +
+            "from PostSnapshot post join post.artists artist where post.ownerId = ?1")
+    List<PostArtistIndexQueryDTO> findAllIndexArtistsByOwnerId(UUID ownerId);
+
+    @Override
+    @Query("select post.ownerId from PostSnapshot post group by post.ownerId order by max(post.createDate) desc")
+    List<UUID> findAllOwnerIdsOrderedByLatestPost(Pageable pageable);
+
+    @Override
+    @Query("select distinct post.ownerId as ownerId, tag.value as value, tag.type as type " +
+            "from PostSnapshot post join post.tags tag")
+    List<PostTagDetailsQueryDTO> findAllDistinctTagDetails();
+}
+
+interface PostCursorQueryRepository {
+    CursorSlice<PostDetailsQueryDTO> findAllByOwnerId(UUID ownerId, CursorPageable pageable);
+}
+
+@Transactional(rollbackFor = {})
+class PostCursorQueryRepositoryImpl implements PostCursorQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public CursorSlice<PostDetailsQueryDTO> findAllByOwnerId(final UUID ownerId, final CursorPageable pageable) {
+        return new CursorQueryExecutor(entityManager).findAll(
+                PostSnapshot.class,
+                PostDetailsQueryDTO.class,
+                pageable,
+                (criteriaBuilder, post) -> criteriaBuilder.equal(post.get("ownerId"), ownerId)
+        );
+    }
+}
+
+interface PostSearchQueryRepository {
+    Page<PostSnapshot> findAllByOwnerIdAndQuery(UUID ownerId, PostQuerySearchDTO query, Pageable pageable);
+}
+
+/**
+ * Database search used when search index cannot handle requested sort.
+ * Every query word has to be contained in title or description, like in search index.
+ */
+@Transactional(rollbackFor = {})
+class PostSearchQueryRepositoryImpl implements PostSearchQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<PostSnapshot> findAllByOwnerIdAndQuery(final UUID ownerId,
+                                                       final PostQuerySearchDTO query,
+                                                       final Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<PostSnapshot> postsQuery = criteriaBuilder.createQuery(PostSnapshot.class);
+        Root<PostSnapshot> post = postsQuery.from(PostSnapshot.class);
+        postsQuery.select(post)
+                .where(searchPredicate(criteriaBuilder, postsQuery, post, ownerId, query))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), post, criteriaBuilder));
+
+        List<PostSnapshot> posts = entityManager.createQuery(postsQuery)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(posts, pageable, () -> {
+            CriteriaQuery<Long> countQuery = criteriaBuilder.createQuery(Long.class);
+            Root<PostSnapshot> countedPost = countQuery.from(PostSnapshot.class);
+            countQuery.select(criteriaBuilder.count(countedPost))
+                    .where(searchPredicate(criteriaBuilder, countQuery, countedPost, ownerId, query));
+
+            return entityManager.createQuery(countQuery).getSingleResult();
+        });
+    }
+
+    private static Predicate searchPredicate(final CriteriaBuilder criteriaBuilder,
+                                             final CriteriaQuery<?> criteriaQuery,
+                                             final Root<PostSnapshot> post,
+                                             final UUID ownerId,
+                                             final PostQuerySearchDTO query) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(criteriaBuilder.equal(post.get("ownerId"), ownerId));
+
+        // Tags
+        if (!query.getWithTags().isEmpty()) {
+            predicates.add(hasAll(criteriaBuilder, criteriaQuery, post, "tags", "value", query.getWithTags()));
+        }
+        if (!query.getWithoutTags().isEmpty()) {
+            predicates.add(criteriaBuilder.not(
+                    hasAll(criteriaBuilder, criteriaQuery, post, "tags", "value", query.getWithoutTags())
+            ));
+        }
+
+        // Artists
+        if (!query.getWithArtists().isEmpty()) {
+            predicates.add(hasAll(criteriaBuilder, criteriaQuery, post, "artists", "preferredNickname", query.getWithArtists()));
+        }
+        if (!query.getWithoutArtists().isEmpty()) {
+            predicates.add(criteriaBuilder.not(
+                    hasAll(criteriaBuilder, criteriaQuery, post, "artists", "preferredNickname", query.getWithoutArtists())
+            ));
+        }
+
+        // Every word in title or description, words contain only letters and digits so they need no escaping
+        for (String word : query.getWords()) {
+            String pattern = "%" + word.toLowerCase(Locale.ROOT) + "%";
+
+            predicates.add(criteriaBuilder.or(
+                    criteriaBuilder.like(criteriaBuilder.lower(post.get("title")), pattern),
+                    criteriaBuilder.like(criteriaBuilder.lower(post.get("description")), pattern)
+            ));
+        }
+
+        return criteriaBuilder.and(predicates.toArray(Predicate[]::new));
+    }
+
+    /**
+     * @return Predicate of post having element with every given value.
+     */
+    private static Predicate hasAll(final CriteriaBuilder criteriaBuilder,
+                                    final CriteriaQuery<?> criteriaQuery,
+                                    final Root<PostSnapshot> post,
+                                    final String collection,
+                                    final String property,
+                                    final Set<String> values) {
+        Subquery<Long> subquery = criteriaQuery.subquery(Long.class);
+        Root<PostSnapshot> subqueryPost = subquery.from(PostSnapshot.class);
+        Path<String> value = subqueryPost.join(collection).get(property);
+
+        subquery.select(subqueryPost.get("id"))
+                .where(value.in(values))
+                .groupBy(subqueryPost.get("id"))
+                .having(criteriaBuilder.equal(criteriaBuilder.countDistinct(value), (long) values.size()));
+
+        return post.get("id").in(subquery);
+    }
 }
 
 @org.springframework.stereotype.Repository
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class PostRepositoryImpl implements PostRepository {
 
+    /**
+     * Native queries bypass attribute converters, so uuid parameters
+     * are converted the same way their columns are.
+     */
+    private final static UUIDAttributeConverterImpl UUID_CONVERTER = new UUIDAttributeConverterImpl();
+
     private final SqlPostRepository sqlPostRepository;
 
     @Override
@@ -111,6 +338,24 @@ class PostRepositoryImpl implements PostRepository {
                 .collect(Collectors.toUnmodifiableSet());
     }
 
+    @Override
+    @Transactional(rollbackFor = RuntimeException.class)
+    public void updateTagDetailsInPostsByOwnerId(final UUID ownerId, final String originalValue, final PostTag newTag) {
+        // Add new tag to every post with original tag first, so posts which had it already are not duplicated.
+        sqlPostRepository.insertTagIntoPostsWithTagByOwnerId(
+                UUID_CONVERTER.convertToDatabaseColumn(ownerId), originalValue, newTag.getValue(), newTag.getType()
+        );
+        // Then remove original tag unless it is the new tag itself.
+        sqlPostRepository.deleteTagFromPostsByOwnerIdExcept(
+                UUID_CONVERTER.convertToDatabaseColumn(ownerId), originalValue, newTag.getValue(), newTag.getType()
+        );
+    }
+
+    @Override
+    public void deleteTagFromPostsByOwnerId(final UUID ownerId, final String value) {
+        sqlPostRepository.deleteTagFromPostsByOwnerId(UUID_CONVERTER.convertToDatabaseColumn(ownerId), value);
+    }
+
     @Override
     public boolean existsByOwnerIdAndPostId(final UUID ownerId, final UUID postId) {
         return sqlPostRepository.existsByOwnerIdAndPostId(ownerId, postId);
@@ -134,6 +379,60 @@ class PostRepositoryImpl implements PostRepository {
                 .collect(Collectors.toUnmodifiableSet());
     }
 
+    @Override
+    public List<Long> findAllIdsByOwnerIdAndArtistIdInArtists(final UUID ownerId,
+                                                              final UUID artistId,
+                                                              final long afterId,
+                                                              final int limit) {
+        return sqlPostRepository.findAllIdsByOwnerIdAndArtistIdInArtists(ownerId, artistId, afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Long> findAllIdsByOwnerIdAndArtistIdWithOtherPreferredNickname(final UUID ownerId,
+                                                                              final UUID artistId,
+                                                                              final String preferredNickname,
+                                                                              final long afterId,
+                                                                              final int limit) {
+        return sqlPostRepository.findAllIdsByOwnerIdAndArtistIdWithOtherPreferredNickname(
+                ownerId, artistId, preferredNickname, afterId, PageRequest.of(0, limit)
+        );
+    }
+
+    @Override
+    public List<Long> findAllIdsByOwnerIdAndArtistIdWithOtherThumbnailUri(final UUID ownerId,
+                                                                         final UUID artistId,
+                                                                         final URI thumbnailUri,
+                                                                         final long afterId,
+                                                                         final int limit) {
+        if (thumbnailUri == null) {
+            return sqlPostRepository.findAllIdsByOwnerIdAndArtistIdWithThumbnailUri(ownerId, artistId, afterId, PageRequest.of(0, limit));
+        }
+
+        return sqlPostRepository.findAllIdsByOwnerIdAndArtistIdWithOtherThumbnailUri(
+                ownerId, artistId, thumbnailUri, afterId, PageRequest.of(0, limit)
+        );
+    }
+
+    @Override
+    public int updateArtistPreferredNicknameInPosts(final UUID artistId, final String preferredNickname, final List<Long> ids) {
+        return sqlPostRepository.updateArtistPreferredNicknameInPosts(UUID_CONVERTER.convertToDatabaseColumn(artistId), preferredNickname, ids);
+    }
+
+    @Override
+    public int updateArtistThumbnailUriInPosts(final UUID artistId, final URI thumbnailUri, final List<Long> ids) {
+        if (thumbnailUri == null) {
+            return sqlPostRepository.deleteArtistThumbnailUriFromPosts(UUID_CONVERTER.convertToDatabaseColumn(artistId), ids);
+        }
+
+        // Thumbnail uri column has no converter, so it is stored in the same serialized form hibernate uses.
+        return sqlPostRepository.updateArtistThumbnailUriInPosts(UUID_CONVERTER.convertToDatabaseColumn(artistId), SerializationUtils.serialize(thumbnailUri), ids);
+    }
+
+    @Override
+    public int deleteArtistFromPosts(final UUID artistId, final List<Long> ids) {
+        return sqlPostRepository.deleteArtistFromPosts(UUID_CONVERTER.convertToDatabaseColumn(artistId), ids);
+    }
+
     @Override
     public Optional<Post> findByOwnerIdAndPostIdAndMediaId(final UUID ownerId, final UUID postId, final UUID mediaId) {
         return sqlPostRepository.findByOwnerIdAndPostIdAndMediaId(ownerId, postId, mediaId).map(Post::restore);
@@ -12,6 +12,8 @@ import ws.furrify.shared.exception.ChainOfRequestsUnauthorizedException;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.HttpStatus;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -44,6 +46,28 @@ class TagServiceImpl implements TagServiceClient {
         }
     }
 
+    @Bulkhead(name = "getUserTags", fallbackMethod = "getUserTagsFallback")
+    @Override
+    public List<TagDetailsQueryDTO> getUserTags(final UUID userId, final Set<String> values) {
+        return tagServiceClient.getUserTags(userId, values);
+    }
+
+    private List<TagDetailsQueryDTO> getUserTagsFallback(Throwable throwable) {
+        var exception = (FeignException) throwable;
+
+        HttpStatus status = HttpStatus.of(exception.status());
+
+        switch (status) {
+            case NOT_FOUND -> {
+                return List.of();
+            }
+
+            case FORBIDDEN -> throw new ChainOfRequestsUnauthorizedException(Errors.CHAIN_OF_REQUESTS_UNAUTHORIZED.getErrorMessage(NAME));
+
+            default -> throw new ChainOfRequestsBrokenException(Errors.CHAIN_OF_REQUESTS_BROKEN.getErrorMessage(NAME));
+        }
+    }
+
     /**
      * Implements Tag Service Client as a Feign Client.
      */
@@ -0,0 +1,33 @@
+package ws.furrify.posts.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import ws.furrify.shared.storage.ObjectStorageConfig;
+
+@Configuration
+@RequiredArgsConstructor
+@Import(ObjectStorageConfig.class)
+class StorageConfig {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${furrify.storage.download.cache.max-size}")
+    private int downloadCacheMaxSize;
+
+    @Value("${furrify.storage.download.cache.time-to-live}")
+    private long downloadCacheTimeToLive;
+
+    @Bean
+    StoredFileCache storedFileCache() {
+        return new StoredFileCache(downloadCacheMaxSize, downloadCacheTimeToLive);
+    }
+
+    @Bean
+    StoredFileResponder storedFileResponder() {
+        return new StoredFileResponder(meterRegistry);
+    }
+}
@@ -0,0 +1,62 @@
+package ws.furrify.posts.storage;
+
+import lombok.Value;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * File of media or attachment stored in local storage with details needed to serve it.
+ *
+ * @author Skyte
+ */
+@Value
+public class StoredFile {
+    UUID ownerId;
+    UUID postId;
+    Path path;
+    String contentType;
+    String md5;
+
+    /**
+     * Resolve local file of remote uri.
+     *
+     * @param fileUri           Uri of file in local storage.
+     * @param localStoragePath  Directory files are stored in.
+     * @param remoteStoragePath Path files are available at.
+     * @return Stored file, empty if uri is not path of local storage.
+     */
+    public static Optional<StoredFile> of(final UUID ownerId,
+                                          final UUID postId,
+                                          final URI fileUri,
+                                          final String localStoragePath,
+                                          final String remoteStoragePath,
+                                          final String contentType,
+                                          final String md5) {
+        String remotePrefix = remoteStoragePath + "/";
+
+        // File is stored outside of local storage
+        if (fileUri == null || fileUri.getPath() == null || !fileUri.getPath().startsWith(remotePrefix)) {
+            return Optional.empty();
+        }
+
+        Path localStorage = Path.of(localStoragePath).toAbsolutePath().normalize();
+        Path path = localStorage.resolve(fileUri.getPath().substring(remotePrefix.length())).normalize();
+
+        // Uri cannot point outside of local storage
+        if (!path.startsWith(localStorage)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new StoredFile(ownerId, postId, path, contentType, md5));
+    }
+
+    /**
+     * @return Strong ETag of file content, null if md5 is not known yet.
+     */
+    public String getEtag() {
+        return (md5 != null) ? "\"" + md5 + "\"" : null;
+    }
+}
@@ -0,0 +1,92 @@
+package ws.furrify.posts.storage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of stored files looked up by download requests.
+ * Repeated requests of the same file, like video seeking, check ownership without database query.
+ * Entries expire after given time, so replaced or removed files are looked up again.
+ *
+ * @author Skyte
+ */
+public class StoredFileCache {
+
+    private final long timeToLive;
+    private final Map<UUID, CachedFile> cachedFiles;
+
+    /**
+     * @param maxSize    Max amount of cached files, least recently used file is evicted first.
+     * @param timeToLive Time in milliseconds file is cached for.
+     */
+    public StoredFileCache(final int maxSize,
+                           final long timeToLive) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size must be greater than 0.");
+        }
+
+        this.timeToLive = timeToLive;
+        this.cachedFiles = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<UUID, CachedFile> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get stored file owned by given user and post.
+     *
+     * @param ownerId User uuid file has to be owned by.
+     * @param postId  Post uuid file has to be assigned to.
+     * @param fileId  Media or attachment uuid.
+     * @param lookup  Lookup of file owned by given user and post used when file is not cached.
+     * @return Stored file, empty if it does not exist or is not owned by given user and post.
+     */
+    public Optional<StoredFile> get(final UUID ownerId,
+                                    final UUID postId,
+                                    final UUID fileId,
+                                    final Supplier<Optional<StoredFile>> lookup) {
+        CachedFile cachedFile;
+        synchronized (cachedFiles) {
+            cachedFile = cachedFiles.get(fileId);
+        }
+
+        if (cachedFile == null || cachedFile.expiresAt() < System.currentTimeMillis()) {
+            Optional<StoredFile> storedFile = lookup.get();
+            if (storedFile.isEmpty()) {
+                return Optional.empty();
+            }
+
+            cachedFile = new CachedFile(storedFile.get(), System.currentTimeMillis() + timeToLive);
+            synchronized (cachedFiles) {
+                cachedFiles.put(fileId, cachedFile);
+            }
+        }
+
+        // File cached for request of owner is not returned for other user or post
+        StoredFile storedFile = cachedFile.storedFile();
+        if (!storedFile.getOwnerId().equals(ownerId) || !storedFile.getPostId().equals(postId)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(storedFile);
+    }
+
+    /**
+     * Remove file from cache, so it is looked up again.
+     *
+     * @param fileId Media or attachment uuid.
+     */
+    public void evict(final UUID fileId) {
+        synchronized (cachedFiles) {
+            cachedFiles.remove(fileId);
+        }
+    }
+
+    private record CachedFile(StoredFile storedFile, long expiresAt) {
+    }
+}
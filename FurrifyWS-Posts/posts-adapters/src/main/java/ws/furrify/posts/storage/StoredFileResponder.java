@@ -0,0 +1,132 @@
+package ws.furrify.posts.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import ws.furrify.shared.storage.FileRangeResponse;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes stored file to http response.
+ * File content does not pass through heap: when servlet container supports sendfile the file is handed to it,
+ * otherwise it is transferred from file channel straight to response channel.
+ * Range requests are answered with part of file and strong ETag from md5 lets clients revalidate cached files.
+ *
+ * @author Skyte
+ */
+@RequiredArgsConstructor
+public class StoredFileResponder {
+
+    private final static String BYTES_METRIC = "furrify.storage.download.bytes";
+
+    private final static String ACCEPTED_RANGES = "bytes";
+    private final static String CACHE_CONTROL = "private, no-cache";
+
+    /**
+     * Request attributes of Tomcat sendfile support.
+     */
+    private final static String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private final static String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private final static String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private final static String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Respond with stored file to request.
+     *
+     * @param storedFile File to respond with.
+     * @param request    Request with conditional and range headers.
+     * @param response   Response to write file to.
+     * @return If response was written, false when file does not exist anymore.
+     * @throws IOException Writing response has failed.
+     */
+    public boolean respond(final StoredFile storedFile,
+                           final HttpServletRequest request,
+                           final HttpServletResponse response) throws IOException {
+        long length;
+        try {
+            length = Files.size(storedFile.getPath());
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+
+        FileRangeResponse fileRangeResponse = FileRangeResponse.of(
+                length,
+                storedFile.getEtag(),
+                request.getHeader(HttpHeaders.IF_NONE_MATCH),
+                request.getHeader(HttpHeaders.RANGE),
+                request.getHeader(HttpHeaders.IF_RANGE)
+        );
+
+        response.setStatus(fileRangeResponse.getStatus().value());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, ACCEPTED_RANGES);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (storedFile.getEtag() != null) {
+            response.setHeader(HttpHeaders.ETAG, storedFile.getEtag());
+        }
+        if (fileRangeResponse.getContentRange() != null) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, fileRangeResponse.getContentRange());
+        }
+
+        if (!fileRangeResponse.hasBody()) {
+            return true;
+        }
+
+        response.setContentType(storedFile.getContentType());
+        response.setContentLengthLong(fileRangeResponse.getContentLength());
+
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+
+        // Container sends file with sendfile after response is committed
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, storedFile.getPath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, fileRangeResponse.getStart());
+            // End is exclusive
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, fileRangeResponse.getEnd() + 1);
+
+            meterRegistry.counter(BYTES_METRIC, "mode", "sendfile").increment(fileRangeResponse.getContentLength());
+
+            return true;
+        }
+
+        transfer(storedFile, fileRangeResponse, response);
+
+        meterRegistry.counter(BYTES_METRIC, "mode", "transfer").increment(fileRangeResponse.getContentLength());
+
+        return true;
+    }
+
+    private void transfer(final StoredFile storedFile,
+                          final FileRangeResponse fileRangeResponse,
+                          final HttpServletResponse response) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(storedFile.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel responseChannel = Channels.newChannel(response.getOutputStream());
+
+            long position = fileRangeResponse.getStart();
+            long remaining = fileRangeResponse.getContentLength();
+            while (remaining > 0) {
+                long transferred = fileChannel.transferTo(position, remaining, responseChannel);
+                // File was truncated in meantime
+                if (transferred <= 0) {
+                    throw new IOException("Stored file [path=" + storedFile.getPath() + "] has ended before range end.");
+                }
+
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+}
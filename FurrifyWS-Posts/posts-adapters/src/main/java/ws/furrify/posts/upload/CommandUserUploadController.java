@@ -0,0 +1,111 @@
+package ws.furrify.posts.upload;
+
+import lombok.RequiredArgsConstructor;
+import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ws.furrify.posts.upload.dto.command.UploadSessionCreateCommandDTO;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Resumable uploads of large files.
+ * Session is created with hash and size of file, then chunks are sent in any order and in parallel,
+ * and completed session is turned into media or attachment with their uploads/{sessionId} endpoint.
+ */
+@RestController
+@Validated
+@RequestMapping("/users/{userId}/posts/{postId}/uploads")
+@RequiredArgsConstructor
+class CommandUserUploadController {
+
+    private final UploadSessions uploadSessions;
+
+    @PostMapping
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "((hasRole('create_post_media') || hasRole('create_post_attachment')) && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public UploadSessionDetails createUploadSession(@PathVariable UUID userId,
+                                                    @PathVariable UUID postId,
+                                                    @RequestBody @Validated UploadSessionCreateCommandDTO uploadSessionCreateCommandDTO,
+                                                    KeycloakAuthenticationToken keycloakAuthenticationToken) {
+        return uploadSessions.createSession(
+                userId,
+                postId,
+                uploadSessionCreateCommandDTO.getFilename(),
+                uploadSessionCreateCommandDTO.getHash(),
+                uploadSessionCreateCommandDTO.getSize()
+        );
+    }
+
+    /**
+     * Returns indexes of already written chunks, so interrupted upload can be resumed.
+     */
+    @GetMapping("/{sessionId}")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "((hasRole('create_post_media') || hasRole('create_post_attachment')) && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public UploadSessionDetails getUploadSession(@PathVariable UUID userId,
+                                                 @PathVariable UUID postId,
+                                                 @PathVariable UUID sessionId,
+                                                 KeycloakAuthenticationToken keycloakAuthenticationToken) {
+        return uploadSessions.getSession(userId, postId, sessionId);
+    }
+
+    /**
+     * Writes chunk sent as raw request body.
+     * Optional Chunk-Hash header with SHA-256 hash of chunk in hex rejects chunk corrupted on the way.
+     */
+    @PutMapping("/{sessionId}/chunks/{index}")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "((hasRole('create_post_media') || hasRole('create_post_attachment')) && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public ResponseEntity<?> writeUploadChunk(@PathVariable UUID userId,
+                                              @PathVariable UUID postId,
+                                              @PathVariable UUID sessionId,
+                                              @PathVariable int index,
+                                              @RequestHeader(value = "Chunk-Hash", required = false) String chunkHash,
+                                              KeycloakAuthenticationToken keycloakAuthenticationToken,
+                                              HttpServletRequest request) throws IOException {
+        uploadSessions.writeChunk(
+                userId,
+                postId,
+                sessionId,
+                index,
+                request.getContentLengthLong(),
+                chunkHash,
+                request.getInputStream()
+        );
+
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{sessionId}")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "((hasRole('create_post_media') || hasRole('create_post_attachment')) && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public ResponseEntity<?> deleteUploadSession(@PathVariable UUID userId,
+                                                 @PathVariable UUID postId,
+                                                 @PathVariable UUID sessionId,
+                                                 KeycloakAuthenticationToken keycloakAuthenticationToken) {
+        uploadSessions.deleteSession(userId, postId, sessionId);
+
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,61 @@
+package ws.furrify.posts.upload;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Transactional(rollbackFor = RuntimeException.class)
+interface SqlUploadSessionChunkRepository extends Repository<UploadSessionChunk, Long> {
+    UploadSessionChunk save(UploadSessionChunk chunk);
+
+    @Modifying
+    @Query("delete from UploadSessionChunk chunk where chunk.sessionId = ?1")
+    void deleteAllBySessionId(UUID sessionId);
+
+    @Modifying
+    @Query("delete from UploadSessionChunk chunk where chunk.sessionId = ?1 and chunk.chunkIndex = ?2")
+    void deleteBySessionIdAndChunkIndex(UUID sessionId, int chunkIndex);
+
+    boolean existsBySessionIdAndChunkIndex(UUID sessionId, int chunkIndex);
+
+    @Query("select distinct chunk.chunkIndex from UploadSessionChunk chunk where chunk.sessionId = ?1 order by chunk.chunkIndex")
+    List<Integer> findChunkIndexesBySessionId(UUID sessionId);
+}
+
+@org.springframework.stereotype.Repository
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UploadSessionChunkRepositoryImpl implements UploadSessionChunkRepository {
+
+    private final SqlUploadSessionChunkRepository sqlUploadSessionChunkRepository;
+
+    @Override
+    public UploadSessionChunk save(final UploadSessionChunk chunk) {
+        return sqlUploadSessionChunkRepository.save(chunk);
+    }
+
+    @Override
+    public void deleteAllBySessionId(final UUID sessionId) {
+        sqlUploadSessionChunkRepository.deleteAllBySessionId(sessionId);
+    }
+
+    @Override
+    public void deleteBySessionIdAndChunkIndex(final UUID sessionId, final int chunkIndex) {
+        sqlUploadSessionChunkRepository.deleteBySessionIdAndChunkIndex(sessionId, chunkIndex);
+    }
+
+    @Override
+    public boolean existsBySessionIdAndChunkIndex(final UUID sessionId, final int chunkIndex) {
+        return sqlUploadSessionChunkRepository.existsBySessionIdAndChunkIndex(sessionId, chunkIndex);
+    }
+
+    @Override
+    public List<Integer> findChunkIndexesBySessionId(final UUID sessionId) {
+        return sqlUploadSessionChunkRepository.findChunkIndexesBySessionId(sessionId);
+    }
+}
@@ -0,0 +1,88 @@
+package ws.furrify.posts.upload;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Transactional(rollbackFor = RuntimeException.class)
+interface SqlUploadSessionRepository extends Repository<UploadSession, Long> {
+    UploadSession save(UploadSession session);
+
+    void delete(UploadSession session);
+
+    Optional<UploadSession> findByOwnerIdAndPostIdAndSessionId(UUID ownerId, UUID postId, UUID sessionId);
+
+    List<UploadSession> findAllByExpireDateLessThanEqual(Instant expireDate, Pageable pageable);
+
+    @Modifying
+    @Query("update UploadSession session set session.expireDate = :expireDate " +
+            "where session.sessionId = :sessionId and session.status = :status")
+    int updateExpireDateBySessionIdAndStatus(@Param("sessionId") UUID sessionId,
+                                             @Param("status") UploadSession.Status status,
+                                             @Param("expireDate") Instant expireDate);
+
+    @Modifying
+    @Query("update UploadSession session set session.status = :newStatus, session.expireDate = :expireDate " +
+            "where session.sessionId = :sessionId and session.status = :status")
+    int updateStatusBySessionIdAndStatus(@Param("sessionId") UUID sessionId,
+                                         @Param("status") UploadSession.Status status,
+                                         @Param("newStatus") UploadSession.Status newStatus,
+                                         @Param("expireDate") Instant expireDate);
+}
+
+@org.springframework.stereotype.Repository
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UploadSessionRepositoryImpl implements UploadSessionRepository {
+
+    private final SqlUploadSessionRepository sqlUploadSessionRepository;
+
+    @Override
+    public UploadSession save(final UploadSession session) {
+        return sqlUploadSessionRepository.save(session);
+    }
+
+    @Override
+    public void delete(final UploadSession session) {
+        sqlUploadSessionRepository.delete(session);
+    }
+
+    @Override
+    public Optional<UploadSession> findByOwnerIdAndPostIdAndSessionId(final UUID ownerId, final UUID postId, final UUID sessionId) {
+        return sqlUploadSessionRepository.findByOwnerIdAndPostIdAndSessionId(ownerId, postId, sessionId);
+    }
+
+    @Override
+    public void updateExpireDateOfOpen(final UUID sessionId, final Instant expireDate) {
+        sqlUploadSessionRepository.updateExpireDateBySessionIdAndStatus(sessionId, UploadSession.Status.OPEN, expireDate);
+    }
+
+    @Override
+    public boolean markCompleting(final UUID sessionId, final Instant expireDate) {
+        return sqlUploadSessionRepository.updateStatusBySessionIdAndStatus(
+                sessionId, UploadSession.Status.OPEN, UploadSession.Status.COMPLETING, expireDate
+        ) == 1;
+    }
+
+    @Override
+    public void reopen(final UUID sessionId, final Instant expireDate) {
+        sqlUploadSessionRepository.updateStatusBySessionIdAndStatus(
+                sessionId, UploadSession.Status.COMPLETING, UploadSession.Status.OPEN, expireDate
+        );
+    }
+
+    @Override
+    public List<UploadSession> findAllExpired(final Instant now, final int limit) {
+        return sqlUploadSessionRepository.findAllByExpireDateLessThanEqual(now, PageRequest.of(0, limit));
+    }
+}
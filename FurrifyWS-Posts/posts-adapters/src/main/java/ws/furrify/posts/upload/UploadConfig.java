@@ -0,0 +1,55 @@
+package ws.furrify.posts.upload;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import ws.furrify.posts.blob.UploadTicketSigner;
+import ws.furrify.posts.post.PostServiceImpl;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+@RequiredArgsConstructor
+class UploadConfig {
+
+    private final UploadSessionRepositoryImpl uploadSessionRepository;
+    private final UploadSessionChunkRepositoryImpl uploadSessionChunkRepository;
+    private final PostServiceImpl postServiceClient;
+    private final UploadTicketSigner uploadTicketSigner;
+
+    @Value("${LOCAL_STORAGE_BLOB_PATH:/data/blob}")
+    private String localStorageBlobPath;
+
+    @Value("${spring.servlet.multipart.max-file-size}")
+    private DataSize maxFileSize;
+
+    @Value("${furrify.upload.session.chunk-size}")
+    private long sessionChunkSize;
+
+    @Value("${furrify.upload.session.validity}")
+    private long sessionValidity;
+
+    @Value("${furrify.upload.session.cleanup-interval}")
+    private long sessionCleanupInterval;
+
+    @Bean
+    UploadSessions uploadSessions() {
+        return new UploadSessions(
+                uploadSessionRepository,
+                uploadSessionChunkRepository,
+                postServiceClient,
+                uploadTicketSigner,
+                // Sessions are kept next to blobs, so completed file is moved to blob storage with rename
+                Path.of(localStorageBlobPath).resolve("uploads"),
+                sessionChunkSize,
+                maxFileSize.toBytes(),
+                Duration.ofMillis(sessionValidity),
+                Duration.ofMillis(sessionCleanupInterval),
+                Clock.systemUTC()
+        );
+    }
+}
@@ -0,0 +1,22 @@
+package ws.furrify.posts.upload;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts cleanup of expired upload sessions on startup.
+ *
+ * @author Skyte
+ */
+@Component
+@RequiredArgsConstructor
+class UploadSessionsStartRunner implements CommandLineRunner {
+
+    private final UploadSessions uploadSessions;
+
+    @Override
+    public void run(final String... args) {
+        uploadSessions.start();
+    }
+}
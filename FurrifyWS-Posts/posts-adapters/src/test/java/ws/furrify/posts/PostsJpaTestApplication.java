@@ -0,0 +1,13 @@
+package ws.furrify.posts;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Configuration repository tests are bootstrapped with.
+ * Only jpa components are loaded by repository tests.
+ *
+ * @author Skyte
+ */
+@SpringBootApplication
+class PostsJpaTestApplication {
+}
@@ -0,0 +1,83 @@
+package ws.furrify.posts.media;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.main.web-application-type=none")
+@ActiveProfiles("dev")
+class MediaThumbnailJobRepositoryTest {
+
+    @Autowired
+    private SqlMediaThumbnailJobRepository sqlMediaThumbnailJobRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private MediaThumbnailJobRepository jobRepository;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = new MediaThumbnailJobRepositoryImpl(sqlMediaThumbnailJobRepository);
+    }
+
+    @Test
+    @DisplayName("Claim pending job once")
+    void claim() {
+        // Given pending job
+        MediaThumbnailJob job = save(Instant.now());
+        Instant leaseExpiry = Instant.now().plus(Duration.ofMinutes(10));
+        // When claim() method called by two instances
+        boolean claimed = jobRepository.claim(job.getId(), leaseExpiry);
+        boolean claimedAgain = jobRepository.claim(job.getId(), leaseExpiry);
+        testEntityManager.clear();
+        // Then only first claim succeeds and job is running under lease
+        assertTrue(claimed, "Job was not claimed.");
+        assertFalse(claimedAgain, "Job was claimed twice.");
+        MediaThumbnailJob runningJob = testEntityManager.find(MediaThumbnailJob.class, job.getId());
+        assertEquals(MediaThumbnailJob.Status.RUNNING, runningJob.getStatus(), "Job is not running.");
+        assertEquals(0, jobRepository.findAllDue(Instant.now(), 10).size(), "Running job is due.");
+    }
+
+    @Test
+    @DisplayName("Recover running jobs with expired lease")
+    void recoverExpired() {
+        // Given job with expired lease and job with active lease
+        MediaThumbnailJob expiredJob = save(Instant.now());
+        MediaThumbnailJob activeJob = save(Instant.now());
+        jobRepository.claim(expiredJob.getId(), Instant.now().minus(Duration.ofMinutes(1)));
+        jobRepository.claim(activeJob.getId(), Instant.now().plus(Duration.ofMinutes(10)));
+        // When recoverExpired() method called
+        int recovered = jobRepository.recoverExpired(Instant.now());
+        testEntityManager.clear();
+        // Then only job with expired lease is moved back to pending
+        assertEquals(1, recovered, "Invalid amount of jobs was recovered.");
+        assertEquals(MediaThumbnailJob.Status.PENDING,
+                testEntityManager.find(MediaThumbnailJob.class, expiredJob.getId()).getStatus(),
+                "Job with expired lease was not recovered.");
+        assertEquals(MediaThumbnailJob.Status.RUNNING,
+                testEntityManager.find(MediaThumbnailJob.class, activeJob.getId()).getStatus(),
+                "Job with active lease was recovered.");
+    }
+
+    private MediaThumbnailJob save(final Instant dueDate) {
+        MediaThumbnailJob job = jobRepository.save(
+                new MediaThumbnailJob(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), dueDate)
+        );
+        testEntityManager.flush();
+
+        return job;
+    }
+}
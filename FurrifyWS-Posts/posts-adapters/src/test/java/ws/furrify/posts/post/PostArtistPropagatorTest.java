@@ -0,0 +1,175 @@
+package ws.furrify.posts.post;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import ws.furrify.posts.post.vo.PostArtist;
+
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = "spring.main.web-application-type=none")
+@ActiveProfiles("dev")
+class PostArtistPropagatorTest {
+
+    @Autowired
+    private SqlPostRepository sqlPostRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private PostRepository postRepository;
+    private MeterRegistry meterRegistry;
+    private PostArtistPropagator postArtistPropagator;
+
+    private UUID ownerId;
+    private UUID artistId;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = new PostRepositoryImpl(sqlPostRepository);
+        meterRegistry = new SimpleMeterRegistry();
+        postArtistPropagator = new PostArtistPropagator(postRepository, meterRegistry, 2);
+
+        ownerId = UUID.randomUUID();
+        artistId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Update preferred nickname in chunks")
+    void updatePreferredNickname() {
+        // Given three owner posts with artist split into two chunks and other owner post with artist
+        UUID postId = save(ownerId, new PostArtist(artistId, "old", null));
+        UUID postId2 = save(ownerId, new PostArtist(artistId, "old", null));
+        UUID postId3 = save(ownerId, new PostArtist(artistId, "old", null));
+        UUID otherOwnerId = UUID.randomUUID();
+        UUID otherOwnerPostId = save(otherOwnerId, new PostArtist(artistId, "old", null));
+        // When updatePreferredNickname() method called
+        long changedPosts = postArtistPropagator.updatePreferredNickname(ownerId, artistId, "new");
+        testEntityManager.clear();
+        // Then every owner post is changed and progress is reported
+        assertEquals(3, changedPosts, "Invalid amount of posts was changed.");
+        for (UUID id : List.of(postId, postId2, postId3)) {
+            assertEquals("new", artistOf(ownerId, id).getPreferredNickname(), "Preferred nickname was not changed.");
+        }
+        assertEquals("old", artistOf(otherOwnerId, otherOwnerPostId).getPreferredNickname(),
+                "Preferred nickname of other owner was changed.");
+        assertEquals(3, meterRegistry.counter("furrify.posts.artist.propagation.posts", "operation", "nickname").count(),
+                "Invalid amount of changed posts was reported.");
+        assertEquals(2, meterRegistry.counter("furrify.posts.artist.propagation.chunks", "operation", "nickname").count(),
+                "Invalid amount of chunks was reported.");
+    }
+
+    @Test
+    @DisplayName("Update and remove thumbnail uri")
+    void updateThumbnailUri() throws Exception {
+        // Given owner posts with artist without thumbnail
+        UUID postId = save(ownerId, new PostArtist(artistId, "nickname", null));
+        UUID postId2 = save(ownerId, new PostArtist(artistId, "nickname", null));
+        URI thumbnailUri = new URI("/test");
+        // When updateThumbnailUri() method called with thumbnail and then without it
+        long changedPosts = postArtistPropagator.updateThumbnailUri(ownerId, artistId, thumbnailUri);
+        testEntityManager.clear();
+        // Then thumbnail is set in every post
+        assertEquals(2, changedPosts, "Invalid amount of posts was changed.");
+        assertEquals(thumbnailUri, artistOf(ownerId, postId).getThumbnailUri(), "Thumbnail uri was not changed.");
+        assertEquals(thumbnailUri, artistOf(ownerId, postId2).getThumbnailUri(), "Thumbnail uri was not changed.");
+        // And then thumbnail is removed from every post and up to date posts are not selected again
+        assertEquals(0, postArtistPropagator.updateThumbnailUri(ownerId, artistId, thumbnailUri), "Up to date posts were changed.");
+        assertEquals(2, postArtistPropagator.updateThumbnailUri(ownerId, artistId, null), "Thumbnail uri was not removed.");
+        testEntityManager.clear();
+        assertEquals(null, artistOf(ownerId, postId).getThumbnailUri(), "Thumbnail uri was not removed.");
+    }
+
+    @Test
+    @DisplayName("Remove artist from posts")
+    void removeArtist() {
+        // Given owner posts with artist
+        UUID postId = save(ownerId, new PostArtist(artistId, "nickname", null));
+        save(ownerId, new PostArtist(artistId, "nickname", null));
+        save(ownerId, new PostArtist(artistId, "nickname", null));
+        // When removeArtist() method called
+        long changedPosts = postArtistPropagator.removeArtist(ownerId, artistId);
+        testEntityManager.clear();
+        // Then artist is removed from every post
+        assertEquals(3, changedPosts, "Invalid amount of posts was changed.");
+        assertEquals(Set.of(), sqlPostRepository.findByOwnerIdAndPostId(ownerId, postId).orElseThrow().getArtists(),
+                "Artist was not removed.");
+        assertEquals(Set.of(), sqlPostRepository.findAllByOwnerIdAndArtistIdInArtists(ownerId, artistId),
+                "Artist was not removed from every post.");
+    }
+
+    @Test
+    @DisplayName("Fail propagation when chunk does not change every post")
+    void removeArtist2() {
+        // Given owner posts with artist and artist removed from one of them after chunk is selected
+        UUID postId = save(ownerId, new PostArtist(artistId, "nickname", null));
+        save(ownerId, new PostArtist(artistId, "nickname", null));
+        Long removedId = testEntityManager.getEntityManager()
+                .createQuery("select post.id from PostSnapshot post where post.postId = :postId", Long.class)
+                .setParameter("postId", postId)
+                .getSingleResult();
+        postArtistPropagator = new PostArtistPropagator(new PostRepositoryImpl(sqlPostRepository) {
+            @Override
+            public int deleteArtistFromPosts(final UUID artistId, final List<Long> ids) {
+                super.deleteArtistFromPosts(artistId, List.of(removedId));
+
+                return super.deleteArtistFromPosts(artistId, ids);
+            }
+        }, meterRegistry, 2);
+        // When removeArtist() method called
+        // Then throw IllegalStateException
+        assertThrows(IllegalStateException.class,
+                () -> postArtistPropagator.removeArtist(ownerId, artistId),
+                "Exception was not thrown.");
+    }
+
+    @Test
+    @DisplayName("Create propagator with invalid chunk size")
+    void constructor() {
+        // Given chunk size lower than 1
+        // When constructor called
+        // Then throw IllegalArgumentException
+        assertThrows(IllegalArgumentException.class,
+                () -> new PostArtistPropagator(postRepository, meterRegistry, 0),
+                "Exception was not thrown.");
+    }
+
+    private UUID save(final UUID ownerId, final PostArtist artist) {
+        UUID postId = UUID.randomUUID();
+
+        sqlPostRepository.save(
+                PostSnapshot.builder()
+                        .postId(postId)
+                        .ownerId(ownerId)
+                        .title("Title")
+                        .description("Description")
+                        .tags(Set.of())
+                        .artists(Set.of(artist))
+                        .mediaSet(Set.of())
+                        .attachments(Set.of())
+                        .createDate(ZonedDateTime.now())
+                        .build()
+        );
+        testEntityManager.flush();
+
+        return postId;
+    }
+
+    private PostArtist artistOf(final UUID ownerId, final UUID postId) {
+        return sqlPostRepository.findByOwnerIdAndPostId(ownerId, postId).orElseThrow()
+                .getArtists().iterator().next();
+    }
+}
@@ -0,0 +1,95 @@
+package ws.furrify.posts.post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import ws.furrify.posts.post.dto.vo.PostQuerySearchDTO;
+import ws.furrify.posts.post.vo.PostTag;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.main.web-application-type=none")
+@ActiveProfiles("dev")
+class SqlPostQueryRepositoryTest {
+
+    @Autowired
+    private SqlPostRepository sqlPostRepository;
+
+    @Autowired
+    private SqlPostQueryRepositoryImpl sqlPostQueryRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private UUID ownerId;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Find all by owner id and query words in title and description")
+    void findAllByOwnerIdAndQuery() {
+        // Given owner posts with words in title and description and other owner post with both words
+        UUID postId = save(ownerId, "Red Fox", "Walking in snow", Set.of());
+        save(ownerId, "Red Fox", "Sleeping", Set.of());
+        save(ownerId, "Walking wolf", null, Set.of());
+        save(UUID.randomUUID(), "Red fox", "walking", Set.of());
+        // When findAllByOwnerIdAndQuery() method called with both words
+        Page<PostSnapshot> posts = sqlPostQueryRepository.findAllByOwnerIdAndQuery(
+                ownerId, PostQuerySearchDTO.from("fox walking"), PageRequest.of(0, 10, Sort.by("description"))
+        );
+        // Then only owner post with every word is found
+        assertEquals(List.of(postId), posts.map(PostSnapshot::getPostId).getContent(), "Found posts are different.");
+        assertEquals(1, posts.getTotalElements(), "Total amount of posts is different.");
+    }
+
+    @Test
+    @DisplayName("Find all by owner id and query tags")
+    void findAllByOwnerIdAndQuery2() {
+        // Given owner posts with different tags
+        UUID postId = save(ownerId, "Fox", null, Set.of(new PostTag("walking", "ACTION"), new PostTag("fox", "SPECIES")));
+        save(ownerId, "Fox", null, Set.of(new PostTag("walking", "ACTION"), new PostTag("snow", "BACKGROUND")));
+        save(ownerId, "Fox", null, Set.of(new PostTag("walking", "ACTION")));
+        // When findAllByOwnerIdAndQuery() method called with tag and excluded tag
+        Page<PostSnapshot> posts = sqlPostQueryRepository.findAllByOwnerIdAndQuery(
+                ownerId, PostQuerySearchDTO.from("#walking #fox -#snow"), PageRequest.of(0, 10, Sort.by("description"))
+        );
+        // Then only post with every tag is found
+        assertEquals(List.of(postId), posts.map(PostSnapshot::getPostId).getContent(), "Found posts are different.");
+    }
+
+    private UUID save(final UUID ownerId, final String title, final String description, final Set<PostTag> tags) {
+        UUID postId = UUID.randomUUID();
+
+        sqlPostRepository.save(
+                PostSnapshot.builder()
+                        .postId(postId)
+                        .ownerId(ownerId)
+                        .title(title)
+                        .description(description)
+                        .tags(tags)
+                        .artists(Set.of())
+                        .mediaSet(Set.of())
+                        .attachments(Set.of())
+                        .createDate(ZonedDateTime.now())
+                        .build()
+        );
+        testEntityManager.flush();
+
+        return postId;
+    }
+}
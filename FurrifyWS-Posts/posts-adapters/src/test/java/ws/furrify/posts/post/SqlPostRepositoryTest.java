@@ -0,0 +1,114 @@
+package ws.furrify.posts.post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import ws.furrify.posts.post.vo.PostTag;
+
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.main.web-application-type=none")
+@ActiveProfiles("dev")
+class SqlPostRepositoryTest {
+
+    @Autowired
+    private SqlPostRepository sqlPostRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private PostRepositoryImpl postRepository;
+
+    private UUID ownerId;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = new PostRepositoryImpl(sqlPostRepository);
+        ownerId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Update tag details in posts by owner id")
+    void updateTagDetailsInPostsByOwnerId() {
+        // Given owner posts with tag, one of them with new tag already, and other owner post with tag
+        UUID postId = save(ownerId, Set.of(new PostTag("walking", "ACTION")));
+        UUID postWithNewTagId = save(ownerId, Set.of(new PostTag("walking", "ACTION"), new PostTag("strolling", "ACTION")));
+        UUID otherOwnerId = UUID.randomUUID();
+        UUID otherOwnerPostId = save(otherOwnerId, Set.of(new PostTag("walking", "ACTION")));
+        // When updateTagDetailsInPostsByOwnerId() method called
+        postRepository.updateTagDetailsInPostsByOwnerId(ownerId, "walking", new PostTag("strolling", "ACTION"));
+        testEntityManager.clear();
+        // Then tag is renamed only in owner posts without duplicates
+        assertEquals(Set.of("strolling"), tagsOf(ownerId, postId), "Tag was not renamed.");
+        assertEquals(Set.of("strolling"), tagsOf(ownerId, postWithNewTagId), "Tag was not renamed.");
+        assertEquals(Set.of("walking"), tagsOf(otherOwnerId, otherOwnerPostId), "Tag of other owner was renamed.");
+    }
+
+    @Test
+    @DisplayName("Update tag type in posts by owner id")
+    void updateTagDetailsInPostsByOwnerId2() {
+        // Given owner post with tag
+        UUID postId = save(ownerId, Set.of(new PostTag("walking", "ACTION")));
+        // When updateTagDetailsInPostsByOwnerId() method called with the same value and other type
+        postRepository.updateTagDetailsInPostsByOwnerId(ownerId, "walking", new PostTag("walking", "BACKGROUND"));
+        testEntityManager.clear();
+        // Then only tag with new type is kept
+        assertEquals(
+                Set.of(new PostTag("walking", "BACKGROUND")),
+                sqlPostRepository.findByOwnerIdAndPostId(ownerId, postId).orElseThrow().getTags(),
+                "Tag type was not changed."
+        );
+    }
+
+    @Test
+    @DisplayName("Delete tag from posts by owner id")
+    void deleteTagFromPostsByOwnerId() {
+        // Given owner post with tags and other owner post with tag
+        UUID postId = save(ownerId, Set.of(new PostTag("walking", "ACTION"), new PostTag("forest", "BACKGROUND")));
+        UUID otherOwnerId = UUID.randomUUID();
+        UUID otherOwnerPostId = save(otherOwnerId, Set.of(new PostTag("walking", "ACTION")));
+        // When deleteTagFromPostsByOwnerId() method called
+        postRepository.deleteTagFromPostsByOwnerId(ownerId, "walking");
+        testEntityManager.clear();
+        // Then tag is deleted only from owner posts
+        assertEquals(Set.of("forest"), tagsOf(ownerId, postId), "Tag was not deleted.");
+        assertEquals(Set.of("walking"), tagsOf(otherOwnerId, otherOwnerPostId), "Tag of other owner was deleted.");
+    }
+
+    private UUID save(final UUID ownerId, final Set<PostTag> tags) {
+        UUID postId = UUID.randomUUID();
+
+        sqlPostRepository.save(
+                PostSnapshot.builder()
+                        .postId(postId)
+                        .ownerId(ownerId)
+                        .title("Title")
+                        .description("Description")
+                        .tags(tags)
+                        .artists(Set.of())
+                        .mediaSet(Set.of())
+                        .attachments(Set.of())
+                        .createDate(ZonedDateTime.now())
+                        .build()
+        );
+        testEntityManager.flush();
+
+        return postId;
+    }
+
+    private Set<String> tagsOf(final UUID ownerId, final UUID postId) {
+        return sqlPostRepository.findByOwnerIdAndPostId(ownerId, postId).orElseThrow()
+                .getTags().stream()
+                .map(PostTag::getValue)
+                .collect(Collectors.toSet());
+    }
+}
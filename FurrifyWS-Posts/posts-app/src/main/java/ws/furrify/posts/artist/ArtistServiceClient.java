@@ -3,8 +3,11 @@ package ws.furrify.posts.artist;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import ws.furrify.posts.artist.dto.query.ArtistDetailsQueryDTO;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -22,4 +25,14 @@ public interface ArtistServiceClient {
      */
     @RequestMapping(method = RequestMethod.GET, value = "/users/{userId}/artists/{artistId}")
     ArtistDetailsQueryDTO getUserArtist(@PathVariable UUID userId, @PathVariable UUID artistId);
+
+    /**
+     * Get user artists by artistIds in single call.
+     *
+     * @param userId    Owner UUID.
+     * @param artistIds ArtistIds.
+     * @return Details of found artists from other microservice, not found artistIds are omitted.
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/users/{userId}/artists")
+    List<ArtistDetailsQueryDTO> getUserArtists(@PathVariable UUID userId, @RequestParam("ids") Set<UUID> artistIds);
 }
@@ -6,7 +6,10 @@ import lombok.extern.java.Log;
 import org.springframework.web.multipart.MultipartFile;
 import ws.furrify.posts.attachment.dto.AttachmentDTO;
 import ws.furrify.posts.attachment.dto.AttachmentDtoFactory;
+import ws.furrify.posts.attachment.strategy.AttachmentUploadStrategy;
 import ws.furrify.posts.attachment.vo.AttachmentSource;
+import ws.furrify.posts.blob.UploadNegotiation;
+import ws.furrify.posts.post.PostEvent;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.kafka.DomainEventPublisher;
 import ws.furrify.shared.vo.SourceOriginType;
@@ -26,6 +29,8 @@ public class AttachmentFacade {
     private final AttachmentRepository attachmentRepository;
     private final AttachmentFactory attachmentFactory;
     private final AttachmentDtoFactory attachmentDTOFactory;
+    private final AttachmentUploadStrategy attachmentUploadStrategy;
+    private final AttachmentStorageReclaimer attachmentStorageReclaimer;
 
     /**
      * Handle incoming attachment events.
@@ -44,6 +49,17 @@ public class AttachmentFacade {
         }
     }
 
+    /**
+     * Handle incoming post events.
+     *
+     * @param postEvent Post event instance received from kafka.
+     */
+    public void handleEvent(final UUID key, final PostEvent postEvent) {
+        if (DomainEventPublisher.PostEventType.valueOf(postEvent.getState()) == DomainEventPublisher.PostEventType.REMOVED) {
+            deleteAttachmentsByOwnerIdAndPostIdFromDatabase(key, UUID.fromString(postEvent.getPostId()));
+        }
+    }
+
     /**
      * Handle incoming source events.
      *
@@ -104,7 +120,42 @@ public class AttachmentFacade {
                                  final UUID postId,
                                  final AttachmentDTO attachmentDTO,
                                  final MultipartFile attachmentFile) {
-        return createAttachmentImpl.createAttachment(userId, postId, attachmentDTO, attachmentFile);
+        return createAttachment(userId, postId, attachmentDTO, attachmentFile, null);
+    }
+
+    /**
+     * Creates attachment from file uploaded with ticket issued by negotiateAttachment().
+     *
+     * @param userId        User uuid to assign attachment to.
+     * @param postId        Post uuid to assign attachment to.
+     * @param attachmentDTO Post to create.
+     * @param uploadTicket  Upload ticket or null if upload was not negotiated.
+     * @return Created attachment UUID.
+     */
+    public UUID createAttachment(final UUID userId,
+                                 final UUID postId,
+                                 final AttachmentDTO attachmentDTO,
+                                 final MultipartFile attachmentFile,
+                                 final String uploadTicket) {
+        return createAttachmentImpl.createAttachment(userId, postId, attachmentDTO, attachmentFile, uploadTicket);
+    }
+
+    /**
+     * Creates attachment from already stored content with given hash, or issues ticket to upload it.
+     *
+     * @param userId        User uuid to assign attachment to.
+     * @param postId        Post uuid to assign attachment to.
+     * @param attachmentDTO Attachment to create with filename.
+     * @param hash          SHA-256 hash of attachment file.
+     * @param size          Size of attachment file in bytes.
+     * @return Created attachment UUID or upload ticket.
+     */
+    public UploadNegotiation negotiateAttachment(final UUID userId,
+                                                 final UUID postId,
+                                                 final AttachmentDTO attachmentDTO,
+                                                 final String hash,
+                                                 final long size) {
+        return createAttachmentImpl.negotiateAttachment(userId, postId, attachmentDTO, hash, size);
     }
 
     /**
@@ -124,6 +175,14 @@ public class AttachmentFacade {
 
     private void deleteAttachmentByAttachmentIdFromDatabase(final UUID attachmentId) {
         attachmentRepository.deleteByAttachmentId(attachmentId);
+
+        // Files are deleted in background after attachment, so they are never missing for stored attachment
+        attachmentStorageReclaimer.enqueue(attachmentId, () -> attachmentUploadStrategy.deleteAttachment(attachmentId));
+    }
+
+    private void deleteAttachmentsByOwnerIdAndPostIdFromDatabase(final UUID ownerId, final UUID postId) {
+        attachmentRepository.findAttachmentIdsByOwnerIdAndPostId(ownerId, postId)
+                .forEach(this::deleteAttachmentByAttachmentIdFromDatabase);
     }
 
     private void deleteSourceFromAttachment(final UUID ownerId,
@@ -0,0 +1,94 @@
+package ws.furrify.posts.attachment;
+
+import ws.furrify.shared.kafka.DomainEventPublisher;
+import ws.furrify.shared.storage.ShardedLayout;
+import ws.furrify.shared.storage.StorageMigration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Migration of locally stored attachments from flat layout to sharded layout.
+ * Attachment directory is moved and new uri is published as attachment UPDATED event.
+ * Attachment which uri is not in flat layout of local storage is skipped, so migration can be run many times.
+ *
+ * @author Skyte
+ */
+class AttachmentStorageMigration extends StorageMigration<Attachment> {
+
+    private final AttachmentRepository attachmentRepository;
+    private final DomainEventPublisher<AttachmentEvent> domainEventPublisher;
+    private final ShardedLayout shardedLayout;
+    private final Path localStoragePath;
+    private final String remoteStoragePath;
+
+    /**
+     * @param localStoragePath  Directory attachments are stored in.
+     * @param remoteStoragePath Path attachments are available at.
+     * @param workers           Amount of attachments migrated in parallel.
+     * @param pageSize          Amount of attachments read at once.
+     */
+    AttachmentStorageMigration(final AttachmentRepository attachmentRepository,
+                               final DomainEventPublisher<AttachmentEvent> domainEventPublisher,
+                               final ShardedLayout shardedLayout,
+                               final Path localStoragePath,
+                               final String remoteStoragePath,
+                               final int workers,
+                               final int pageSize) {
+        super("attachment", workers, pageSize);
+
+        this.attachmentRepository = attachmentRepository;
+        this.domainEventPublisher = domainEventPublisher;
+        this.shardedLayout = shardedLayout;
+        this.localStoragePath = localStoragePath;
+        this.remoteStoragePath = remoteStoragePath;
+    }
+
+    @Override
+    protected List<Attachment> findPage(final long afterId, final int limit) {
+        return attachmentRepository.findAllByIdGreaterThan(afterId, limit);
+    }
+
+    @Override
+    protected long idOf(final Attachment attachment) {
+        return attachment.getSnapshot().getId();
+    }
+
+    @Override
+    protected boolean migrate(final Attachment attachment) throws IOException {
+        AttachmentSnapshot attachmentSnapshot = attachment.getSnapshot();
+        UUID attachmentId = attachmentSnapshot.getAttachmentId();
+
+        String sourcePrefix = remoteStoragePath + "/" + attachmentId + "/";
+        String targetPrefix = remoteStoragePath + "/" + shardedLayout.pathOf(attachmentId) + "/";
+
+        // Attachment is already migrated or is not stored locally
+        if (sourcePrefix.equals(targetPrefix) || !attachmentSnapshot.getFileUri().getPath().startsWith(sourcePrefix)) {
+            return false;
+        }
+
+        // Directory is moved again only if previous run was interrupted before it
+        ShardedLayout.moveDirectory(
+                localStoragePath.resolve(attachmentId.toString()),
+                localStoragePath.resolve(shardedLayout.pathOf(attachmentId))
+        );
+
+        attachment.replaceFileUri(
+                ShardedLayout.relocate(attachmentSnapshot.getFileUri(), sourcePrefix, targetPrefix)
+        );
+
+        domainEventPublisher.publish(
+                DomainEventPublisher.Topic.ATTACHMENT,
+                // User userId as key
+                attachmentSnapshot.getOwnerId(),
+                AttachmentUtils.createAttachmentEvent(
+                        DomainEventPublisher.AttachmentEventType.UPDATED,
+                        attachment
+                )
+        );
+
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package ws.furrify.posts.attachment;
+
+import ws.furrify.posts.blob.BlobStorage;
+import ws.furrify.shared.storage.IoRateLimiter;
+import ws.furrify.shared.storage.StorageReclaimer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reclamation of files of removed attachments.
+ * Orphaned attachment directory is swept and blob reference of attachment is released.
+ *
+ * @author Skyte
+ */
+class AttachmentStorageReclaimer extends StorageReclaimer {
+
+    private final AttachmentRepository attachmentRepository;
+    private final BlobStorage blobStorage;
+
+    /**
+     * @param localStoragePath Directory attachments are stored in, null when attachments are not stored locally.
+     */
+    AttachmentStorageReclaimer(final AttachmentRepository attachmentRepository,
+                               final BlobStorage blobStorage,
+                               final Path localStoragePath,
+                               final IoRateLimiter rateLimiter,
+                               final int workers,
+                               final int batchSize,
+                               final Duration minAge,
+                               final Duration sweepInterval,
+                               final boolean dryRun) {
+        super("attachment", localStoragePath, rateLimiter, workers, batchSize, minAge, sweepInterval, dryRun);
+
+        this.attachmentRepository = attachmentRepository;
+        this.blobStorage = blobStorage;
+    }
+
+    @Override
+    protected Set<UUID> findExisting(final Set<UUID> ids) {
+        return attachmentRepository.findExistingAttachmentIds(ids);
+    }
+
+    @Override
+    protected void reclaimed(final UUID id) {
+        blobStorage.release(id);
+    }
+}
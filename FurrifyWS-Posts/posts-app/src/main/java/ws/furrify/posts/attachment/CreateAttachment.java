@@ -2,10 +2,13 @@ package ws.furrify.posts.attachment;
 
 import org.springframework.web.multipart.MultipartFile;
 import ws.furrify.posts.attachment.dto.AttachmentDTO;
+import ws.furrify.posts.blob.UploadNegotiation;
 
 import java.util.UUID;
 
 interface CreateAttachment {
 
-    UUID createAttachment(final UUID userId, final UUID postId, final AttachmentDTO attachmentDTO, final MultipartFile attachmentFile);
+    UUID createAttachment(final UUID userId, final UUID postId, final AttachmentDTO attachmentDTO, final MultipartFile attachmentFile, final String uploadTicket);
+
+    UploadNegotiation negotiateAttachment(final UUID userId, final UUID postId, final AttachmentDTO attachmentDTO, final String hash, final long size);
 }
@@ -2,20 +2,22 @@ package ws.furrify.posts.attachment;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
 import ws.furrify.posts.attachment.dto.AttachmentDTO;
 import ws.furrify.posts.attachment.strategy.AttachmentUploadStrategy;
+import ws.furrify.posts.blob.UploadNegotiation;
+import ws.furrify.posts.blob.UploadTicket;
+import ws.furrify.posts.blob.UploadTicketSigner;
 import ws.furrify.posts.post.dto.PostServiceClient;
 import ws.furrify.shared.exception.Errors;
-import ws.furrify.shared.exception.FileContentIsCorruptedException;
 import ws.furrify.shared.exception.FileExtensionIsNotMatchingContentException;
 import ws.furrify.shared.exception.FilenameIsInvalidException;
+import ws.furrify.shared.exception.InvalidDataGivenException;
 import ws.furrify.shared.exception.RecordNotFoundException;
 import ws.furrify.shared.kafka.DomainEventPublisher;
 
-import java.io.IOException;
 import java.time.ZonedDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 @RequiredArgsConstructor
@@ -25,16 +27,25 @@ final class CreateAttachmentImpl implements CreateAttachment {
     private final AttachmentFactory attachmentFactory;
     private final AttachmentUploadStrategy attachmentUploadStrategy;
     private final DomainEventPublisher<AttachmentEvent> domainEventPublisher;
+    private final AttachmentRepository attachmentRepository;
+    private final UploadTicketSigner uploadTicketSigner;
 
     @Override
     public UUID createAttachment(@NonNull final UUID userId,
                                  @NonNull final UUID postId,
                                  @NonNull final AttachmentDTO attachmentDTO,
-                                 @NonNull final MultipartFile attachmentFile) {
+                                 @NonNull final MultipartFile attachmentFile,
+                                 final String uploadTicket) {
         if (postService.getUserPost(userId, postId) == null) {
             throw new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(postId.toString()));
         }
 
+        // Reject upload not matching negotiated size before reading it
+        UploadTicket ticket = (uploadTicket != null) ? uploadTicketSigner.verify(uploadTicket, userId, postId) : null;
+        if (ticket != null && ticket.getSize() != attachmentFile.getSize()) {
+            throw new InvalidDataGivenException(Errors.UPLOAD_IS_NOT_MATCHING_TICKET.getErrorMessage());
+        }
+
         // Generate attachment uuid
         UUID attachmentId = UUID.randomUUID();
 
@@ -56,24 +67,84 @@ final class CreateAttachmentImpl implements CreateAttachment {
             throw new FilenameIsInvalidException(Errors.FILENAME_IS_INVALID.getErrorMessage(attachmentFile.getOriginalFilename()));
         }
 
-        String md5;
-        try {
-            // Get file hash
-            md5 = DigestUtils.md5Hex(attachmentFile.getInputStream());
-        } catch (IOException e) {
-            throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
-        }
-
-        // Upload file and generate thumbnail
+        // Upload file, its hashes are computed by upload strategy in the same pass
         AttachmentUploadStrategy.UploadedAttachmentFile uploadedAttachmentFile =
                 attachmentUploadStrategy.uploadAttachment(attachmentId, attachmentFile);
 
+        // Uploaded content has to be the one ticket was issued for
+        if (ticket != null && !ticket.isMatching(uploadedAttachmentFile.getHash(), attachmentFile.getSize())) {
+            attachmentUploadStrategy.deleteAttachment(attachmentId);
+
+            throw new InvalidDataGivenException(Errors.UPLOAD_IS_NOT_MATCHING_TICKET.getErrorMessage());
+        }
+
+        publishCreatedAttachment(userId, postId, attachmentId, attachmentDTO, attachmentFile.getOriginalFilename(), uploadedAttachmentFile, uploadedAttachmentFile.getMd5());
+
+        return attachmentId;
+    }
+
+    @Override
+    public UploadNegotiation negotiateAttachment(@NonNull final UUID userId,
+                                                 @NonNull final UUID postId,
+                                                 @NonNull final AttachmentDTO attachmentDTO,
+                                                 @NonNull final String hash,
+                                                 final long size) {
+        if (postService.getUserPost(userId, postId) == null) {
+            throw new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(postId.toString()));
+        }
+
+        // Check if filename is valid
+        boolean isFilenameValid = AttachmentExtension.isFilenameValid(
+                attachmentDTO.getFilename()
+        );
+        if (!isFilenameValid) {
+            throw new FilenameIsInvalidException(Errors.FILENAME_IS_INVALID.getErrorMessage(attachmentDTO.getFilename()));
+        }
+
+        // Content is reused only from owner attachment with the same extension, so it was already validated against it
+        Optional<String> md5 = attachmentRepository.findMd5ByOwnerIdAndExtensionAndBlobHash(
+                userId,
+                attachmentDTO.getExtension(),
+                hash.toLowerCase()
+        );
+
+        if (md5.isPresent()) {
+            // Generate attachment uuid
+            UUID attachmentId = UUID.randomUUID();
+
+            AttachmentUploadStrategy.UploadedAttachmentFile linkedAttachmentFile = attachmentUploadStrategy.linkAttachment(
+                    attachmentId,
+                    attachmentDTO.getFilename(),
+                    hash,
+                    size
+            );
+
+            // Content was deleted in the meantime or has different size, so it needs to be uploaded
+            if (linkedAttachmentFile != null) {
+                publishCreatedAttachment(userId, postId, attachmentId, attachmentDTO, attachmentDTO.getFilename(), linkedAttachmentFile, md5.get());
+
+                return UploadNegotiation.created(attachmentId);
+            }
+        }
+
+        return UploadNegotiation.uploadRequired(
+                uploadTicketSigner.issue(userId, postId, hash, size)
+        );
+    }
+
+    private void publishCreatedAttachment(final UUID userId,
+                                          final UUID postId,
+                                          final UUID attachmentId,
+                                          final AttachmentDTO attachmentDTO,
+                                          final String filename,
+                                          final AttachmentUploadStrategy.UploadedAttachmentFile uploadedAttachmentFile,
+                                          final String md5) {
         // Edit attachmentDTO with generated attachment uuid
         AttachmentDTO updatedAttachmentToCreateDTO = attachmentDTO.toBuilder()
                 .attachmentId(attachmentId)
                 .postId(postId)
                 .ownerId(userId)
-                .filename(attachmentFile.getOriginalFilename())
+                .filename(filename)
                 .fileUri(uploadedAttachmentFile.getFileUri())
                 .md5(md5)
                 .createDate(ZonedDateTime.now())
@@ -89,7 +160,5 @@ final class CreateAttachmentImpl implements CreateAttachment {
                         attachmentFactory.from(updatedAttachmentToCreateDTO)
                 )
         );
-
-        return attachmentId;
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package ws.furrify.posts.attachment.dto.command;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+import lombok.Value;
+import ws.furrify.posts.attachment.AttachmentExtension;
+import ws.furrify.posts.attachment.dto.AttachmentDTO;
+import ws.furrify.shared.dto.CommandDTO;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+/**
+ * Attachment to create with hash and size of its file, so file is uploaded only when it is not stored yet.
+ *
+ * @author Skyte
+ */
+@Value
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
+@ToString
+public class AttachmentNegotiateCommandDTO implements CommandDTO<AttachmentDTO> {
+
+    @NotNull
+    AttachmentExtension extension;
+
+    @NotBlank
+    String filename;
+
+    /**
+     * SHA-256 hash of file in hex.
+     */
+    @NotNull
+    @Pattern(regexp = "[0-9a-fA-F]{64}")
+    String hash;
+
+    /**
+     * Size of file in bytes.
+     */
+    @NotNull
+    @Min(0)
+    Long size;
+
+    @Override
+    public AttachmentDTO toDTO() {
+        return AttachmentDTO.builder()
+                .extension(extension)
+                .filename(filename)
+                .build();
+    }
+}
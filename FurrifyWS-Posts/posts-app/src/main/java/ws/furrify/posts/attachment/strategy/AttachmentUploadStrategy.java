@@ -13,11 +13,40 @@ import java.util.UUID;
  */
 public interface AttachmentUploadStrategy {
 
+    /**
+     * Upload attachment.
+     * Disk backed source should be moved with transferTo() instead of being copied through heap.
+     */
     UploadedAttachmentFile uploadAttachment(final UUID attachmentId, final MultipartFile fileSource);
 
+    /**
+     * Create attachment from content which is already stored, without uploading it again.
+     *
+     * @param hash SHA-256 hash of content.
+     * @param size Size of content in bytes.
+     * @return Linked attachment file or null if content is not stored.
+     */
+    UploadedAttachmentFile linkAttachment(final UUID attachmentId, final String filename, final String hash, final long size);
+
+    /**
+     * Delete all files of attachment and release its stored content.
+     * Deleting already deleted attachment does nothing.
+     */
+    void deleteAttachment(final UUID attachmentId);
+
     @Value
     class UploadedAttachmentFile {
         URI fileUri;
+
+        /**
+         * SHA-256 hash of uploaded content.
+         */
+        String hash;
+
+        /**
+         * Md5 hash of uploaded content or null for linked attachment, which has the same md5 as attachment content was linked from.
+         */
+        String md5;
     }
 
 }
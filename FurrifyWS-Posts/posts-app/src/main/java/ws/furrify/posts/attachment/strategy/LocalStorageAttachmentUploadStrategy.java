@@ -1,29 +1,32 @@
 package ws.furrify.posts.attachment.strategy;
 
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.io.IOUtils;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.multipart.MultipartFile;
+import ws.furrify.posts.blob.BlobStorage;
+import ws.furrify.posts.blob.StoredBlob;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.FileContentIsCorruptedException;
-import ws.furrify.shared.exception.FileUploadCannotCreatePathException;
-import ws.furrify.shared.exception.FileUploadFailedException;
+import ws.furrify.shared.storage.ShardedLayout;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.UUID;
+import java.util.logging.Level;
 
 /**
  * Upload attachment file to local storage strategy.
  * Needs to be created as bean for @Value to work.
+ * Attachment files are stored in blob storage, so the same content uploaded as many attachments uses disk space once.
+ * Directory of every attachment is placed in sharded layout, attachment uploaded before is kept in flat layout until migrated.
  *
  * @author sky
  */
+@Log
 @RequiredArgsConstructor
 public class LocalStorageAttachmentUploadStrategy implements AttachmentUploadStrategy {
 
@@ -33,12 +36,12 @@ public class LocalStorageAttachmentUploadStrategy implements AttachmentUploadStr
     @Value("${REMOTE_STORAGE_ATTACHMENT_PATH:/attachment}")
     private String REMOTE_STORAGE_ATTACHMENT_PATH;
 
+    private final BlobStorage blobStorage;
+    private final ShardedLayout shardedLayout;
+
     @Override
     public UploadedAttachmentFile uploadAttachment(final UUID attachmentId, final MultipartFile fileSource) {
-        try (
-                InputStream attachmentInputStream = fileSource.getInputStream()
-        ) {
-
+        try {
             // Check if filename is not null
             if (fileSource.getOriginalFilename() == null) {
                 throw new IllegalStateException("Filename cannot be empty.");
@@ -48,35 +51,62 @@ public class LocalStorageAttachmentUploadStrategy implements AttachmentUploadStr
             String filename = fileSource.getOriginalFilename().replaceAll("\\s+","_");
 
             // Create file
-            File attachmentFile = new File(LOCAL_STORAGE_ATTACHMENT_PATH + "/" + attachmentId + "/" + filename);
-
-            // Create directories where files need to be located
-            boolean wasAttachmentFileCreated = attachmentFile.getParentFile().mkdirs() || attachmentFile.getParentFile().exists();
-
-            if (!wasAttachmentFileCreated) {
-                throw new FileUploadCannotCreatePathException(Errors.FILE_UPLOAD_CANNOT_CREATE_PATH.getErrorMessage());
-            }
+            File attachmentFile = new File(LOCAL_STORAGE_ATTACHMENT_PATH + "/" + shardedLayout.pathOf(attachmentId) + "/" + filename);
 
-            // Upload file
-            writeToFile(attachmentFile, attachmentInputStream);
+            // Upload file as link to deduplicated blob, disk backed upload is moved instead of copied
+            StoredBlob storedBlob = blobStorage.store(attachmentId, fileSource::transferTo, attachmentFile.toPath());
 
             // Return created urls
             return new UploadedAttachmentFile(
-                    new URI(REMOTE_STORAGE_ATTACHMENT_PATH + "/" + attachmentId + "/" + filename)
+                    new URI(REMOTE_STORAGE_ATTACHMENT_PATH + "/" + shardedLayout.pathOf(attachmentId) + "/" + filename),
+                    storedBlob.getHash(),
+                    storedBlob.getMd5()
             );
 
-        } catch (IOException | URISyntaxException e) {
+        } catch (URISyntaxException e) {
             throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
         }
     }
 
+    @Override
+    public UploadedAttachmentFile linkAttachment(final UUID attachmentId,
+                                                 final String originalFilename,
+                                                 final String hash,
+                                                 final long size) {
+        try {
+            // Sanitize filename
+            String filename = originalFilename.replaceAll("\\s+","_");
+
+            File attachmentFile = new File(LOCAL_STORAGE_ATTACHMENT_PATH + "/" + shardedLayout.pathOf(attachmentId) + "/" + filename);
+
+            if (!blobStorage.link(attachmentId, hash, size, attachmentFile.toPath())) {
+                return null;
+            }
 
-    private void writeToFile(File file, InputStream inputStream) {
-        try (OutputStream outputStream = new FileOutputStream(file)) {
-            IOUtils.copy(inputStream, outputStream);
+            return new UploadedAttachmentFile(
+                    new URI(REMOTE_STORAGE_ATTACHMENT_PATH + "/" + shardedLayout.pathOf(attachmentId) + "/" + filename),
+                    hash.toLowerCase(),
+                    // Md5 is the same as of attachment content was linked from
+                    null
+            );
+
+        } catch (URISyntaxException e) {
+            throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
+        }
+    }
+
+    @Override
+    public void deleteAttachment(final UUID attachmentId) {
+        try {
+            // Removes attachment file link in current and not yet migrated flat layout
+            FileUtils.deleteDirectory(new File(LOCAL_STORAGE_ATTACHMENT_PATH + "/" + shardedLayout.pathOf(attachmentId)));
+            FileUtils.deleteDirectory(new File(LOCAL_STORAGE_ATTACHMENT_PATH + "/" + attachmentId));
         } catch (IOException e) {
-            throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+            // Blob still linked by leftover file is kept, so it is safe to continue
+            log.log(Level.WARNING, "Deleting files of [attachmentId=" + attachmentId + "] has failed.", e);
         }
+
+        blobStorage.release(attachmentId);
     }
 
 }
@@ -0,0 +1,106 @@
+package ws.furrify.posts.attachment.strategy;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.multipart.MultipartFile;
+import ws.furrify.posts.blob.StoredBlob;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.FileContentIsCorruptedException;
+import ws.furrify.shared.exception.FileUploadFailedException;
+import ws.furrify.shared.storage.S3ObjectStorage;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Upload attachment file to S3 compatible storage strategy.
+ * Needs to be created as bean for @Value to work.
+ * Attachment file is spooled to temp file once to compute its hashes and is then uploaded in parallel parts.
+ * Content is not deduplicated, so attachment cannot be linked from already stored content.
+ *
+ * @author Skyte
+ */
+@Log
+@RequiredArgsConstructor
+public class S3AttachmentUploadStrategy implements AttachmentUploadStrategy {
+
+    @Value("${spring.servlet.multipart.location:}")
+    private String TEMP_PATH;
+
+    private final static String ATTACHMENT_PREFIX = "attachment/";
+
+    private final S3ObjectStorage objectStorage;
+
+    @Override
+    public UploadedAttachmentFile uploadAttachment(final UUID attachmentId, final MultipartFile fileSource) {
+        // Check if filename is not null
+        if (fileSource.getOriginalFilename() == null) {
+            throw new IllegalStateException("Filename cannot be empty.");
+        }
+
+        // Sanitize filename
+        String filename = fileSource.getOriginalFilename().replaceAll("\\s+","_");
+        String key = ATTACHMENT_PREFIX + attachmentId + "/" + filename;
+
+        Path tempFile = null;
+        try {
+            // Temp file is created next to multipart files, so disk backed upload is moved instead of copied
+            tempFile = (TEMP_PATH == null || TEMP_PATH.isBlank())
+                    ? Files.createTempFile("attachment", null)
+                    : Files.createTempFile(Path.of(TEMP_PATH), "attachment", null);
+            Files.delete(tempFile);
+
+            fileSource.transferTo(tempFile.toFile());
+
+            StoredBlob storedBlob = StoredBlob.of(tempFile);
+
+            objectStorage.upload(key, tempFile, fileSource.getContentType());
+
+            // Return created urls
+            return new UploadedAttachmentFile(
+                    objectStorage.uriOf(key),
+                    storedBlob.getHash(),
+                    storedBlob.getMd5()
+            );
+
+        } catch (IOException e) {
+            throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+        } catch (URISyntaxException e) {
+            throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    @Override
+    public UploadedAttachmentFile linkAttachment(final UUID attachmentId,
+                                                 final String originalFilename,
+                                                 final String hash,
+                                                 final long size) {
+        // Content is not deduplicated, so it always needs to be uploaded
+        return null;
+    }
+
+    @Override
+    public void deleteAttachment(final UUID attachmentId) {
+        objectStorage.deleteAll(ATTACHMENT_PREFIX + attachmentId + "/");
+    }
+
+    private static void deleteQuietly(final Path file) {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Deleting [file=" + file + "] has failed.", e);
+        }
+    }
+
+}
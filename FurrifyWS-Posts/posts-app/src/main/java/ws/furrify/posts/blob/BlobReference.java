@@ -0,0 +1,36 @@
+package ws.furrify.posts.blob;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * Reference of media or attachment to stored blob.
+ * Blob is deleted when its last reference is released.
+ *
+ * @author Skyte
+ */
+@Getter(AccessLevel.PACKAGE)
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+class BlobReference {
+    private Long id;
+
+    /**
+     * Id of media or attachment referencing blob.
+     */
+    private UUID referenceId;
+
+    /**
+     * SHA-256 hash of blob content.
+     */
+    private String hash;
+
+    BlobReference(final UUID referenceId, final String hash) {
+        this.referenceId = referenceId;
+        this.hash = hash;
+    }
+}
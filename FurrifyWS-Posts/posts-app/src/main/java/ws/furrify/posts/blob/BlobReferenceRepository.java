@@ -0,0 +1,17 @@
+package ws.furrify.posts.blob;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * @author Skyte
+ */
+interface BlobReferenceRepository {
+    BlobReference save(BlobReference reference);
+
+    void delete(BlobReference reference);
+
+    Optional<BlobReference> findByReferenceId(UUID referenceId);
+
+    long countByHash(String hash);
+}
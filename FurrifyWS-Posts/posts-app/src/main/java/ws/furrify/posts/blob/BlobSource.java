@@ -0,0 +1,21 @@
+package ws.furrify.posts.blob;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Content to store as blob.
+ * Disk backed sources should move their file instead of copying it, e.g. MultipartFile::transferTo.
+ *
+ * @author Skyte
+ */
+@FunctionalInterface
+public interface BlobSource {
+
+    /**
+     * Write content to given file.
+     *
+     * @param file File which does not exist yet, located on the same file system as blobs.
+     */
+    void transferTo(File file) throws IOException;
+}
@@ -0,0 +1,241 @@
+package ws.furrify.posts.blob;
+
+import lombok.extern.java.Log;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.FileUploadCannotCreatePathException;
+import ws.furrify.shared.exception.FileUploadFailedException;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+/**
+ * Content addressed storage of uploaded files.
+ * Every distinct content is stored once as blob named by its SHA-256 hash and reference counted by media and attachment ids.
+ * Files at per id paths are hard links to blob, so existing uris keep working and no disk space is used twice.
+ * <p>
+ * Deleting blob when its last reference is released is safe even if it races with new upload of the same content,
+ * hard link keeps content of the new upload alive after blob name is removed.
+ *
+ * @author Skyte
+ */
+@Log
+public class BlobStorage {
+
+    private final static String TEMP_DIRECTORY = "tmp";
+    private final static String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+    private final static int LINK_ATTEMPTS = 3;
+    private final static Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final BlobReferenceRepository blobReferenceRepository;
+    private final Path blobPath;
+
+    public BlobStorage(final BlobReferenceRepository blobReferenceRepository,
+                       final Path blobPath) {
+        this.blobReferenceRepository = blobReferenceRepository;
+        this.blobPath = blobPath;
+
+        // Temp directory can be used as multipart location, so uploads are spooled on the same file system as blobs
+        try {
+            Files.createDirectories(blobPath.resolve(TEMP_DIRECTORY));
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Creating temp directory in [blobPath=" + blobPath + "] has failed.", e);
+        }
+    }
+
+    /**
+     * Store content as blob referenced by given id and link it to target path.
+     * Source is transferred to temp file next to blobs, so disk backed source on the same file system is moved
+     * instead of copied, and then read once to compute its hashes.
+     *
+     * @param referenceId Media or attachment id.
+     * @param source      Content to store.
+     * @param target      Per id path content should be available at.
+     * @return Hashes of stored content.
+     */
+    public StoredBlob store(final UUID referenceId,
+                            final BlobSource source,
+                            final Path target) {
+        createDirectories(blobPath.resolve(TEMP_DIRECTORY));
+        createDirectories(target.getParent());
+
+        Path tempFile = blobPath.resolve(TEMP_DIRECTORY).resolve(UUID.randomUUID().toString());
+        try {
+            StoredBlob storedBlob = transferToTempFile(source, tempFile);
+
+            // Reference is saved before linking, so concurrent release of the same content keeps the blob
+            blobReferenceRepository.save(new BlobReference(referenceId, storedBlob.getHash()));
+
+            linkTempFile(tempFile, blobPathOf(storedBlob.getHash()), target);
+
+            return storedBlob;
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Reference already stored content by given id and link it to target path without reading any bytes.
+     *
+     * @param referenceId Media or attachment id.
+     * @param hash        SHA-256 hash of content.
+     * @param size        Expected size of content in bytes.
+     * @param target      Per id path content should be available at.
+     * @return If content was linked, false when it is not stored.
+     */
+    public boolean link(final UUID referenceId,
+                        final String hash,
+                        final long size,
+                        final Path target) {
+        String normalizedHash = hash.toLowerCase();
+        // Hash is part of blob path, so anything else than hex digest cannot be used
+        if (!HASH_PATTERN.matcher(normalizedHash).matches()) {
+            return false;
+        }
+
+        Path blob = blobPathOf(normalizedHash);
+        if (!hasSize(blob, size)) {
+            return false;
+        }
+
+        createDirectories(target.getParent());
+
+        // Reference is saved before linking, so concurrent release of the same content keeps the blob
+        BlobReference reference = blobReferenceRepository.save(new BlobReference(referenceId, normalizedHash));
+
+        try {
+            Files.deleteIfExists(target);
+            Files.createLink(target, blob);
+
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            // Blob was deleted in the meantime or cannot be linked to target
+            blobReferenceRepository.delete(reference);
+
+            return false;
+        }
+    }
+
+    /**
+     * Release reference of given id and delete blob if it was the last one.
+     * Files at per id paths are not deleted.
+     *
+     * @param referenceId Media or attachment id.
+     */
+    public void release(final UUID referenceId) {
+        BlobReference reference = blobReferenceRepository.findByReferenceId(referenceId).orElse(null);
+        // Reference was already released or file was stored before blob storage existed
+        if (reference == null) {
+            return;
+        }
+
+        blobReferenceRepository.delete(reference);
+
+        if (blobReferenceRepository.countByHash(reference.getHash()) > 0) {
+            return;
+        }
+
+        Path blob = blobPathOf(reference.getHash());
+        // Blob linked outside of references is still in use
+        if (linkCountOf(blob) > 1) {
+            return;
+        }
+
+        deleteQuietly(blob);
+    }
+
+    private static StoredBlob transferToTempFile(final BlobSource source, final Path tempFile) {
+        try {
+            source.transferTo(tempFile.toFile());
+
+            return StoredBlob.of(tempFile);
+        } catch (IOException e) {
+            throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+        }
+    }
+
+    private void linkTempFile(final Path tempFile, final Path blob, final Path target) {
+        createDirectories(blob.getParent());
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Blob is created as link to temp file, so temp file stays until target is linked
+                if (Files.notExists(blob)) {
+                    try {
+                        Files.createLink(blob, tempFile);
+                    } catch (FileAlreadyExistsException ignored) {
+                        // Same content was stored concurrently
+                    }
+                }
+
+                Files.deleteIfExists(target);
+                Files.createLink(target, blob);
+
+                return;
+            } catch (NoSuchFileException e) {
+                // Blob was deleted by release of its last reference in the meantime
+                if (attempt >= LINK_ATTEMPTS) {
+                    throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+                }
+            } catch (UnsupportedOperationException | IOException e) {
+                // Target is on other file system than blobs, store content without deduplication
+                log.log(Level.WARNING, "Linking blob to [target=" + target + "] has failed, storing copy.", e);
+
+                copy(tempFile, target);
+
+                return;
+            }
+        }
+    }
+
+    private Path blobPathOf(final String hash) {
+        // Blobs are spread across directories by hash prefix to keep directories small
+        return blobPath.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static boolean hasSize(final Path blob, final long size) {
+        try {
+            return Files.size(blob) == size;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long linkCountOf(final Path blob) {
+        try {
+            return ((Number) Files.getAttribute(blob, LINK_COUNT_ATTRIBUTE)).longValue();
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return 1;
+        }
+    }
+
+    private static void copy(final Path source, final Path target) {
+        try {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+        }
+    }
+
+    private static void createDirectories(final Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new FileUploadCannotCreatePathException(Errors.FILE_UPLOAD_CANNOT_CREATE_PATH.getErrorMessage());
+        }
+    }
+
+    private static void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Deleting [file=" + file + "] has failed.", e);
+        }
+    }
+}
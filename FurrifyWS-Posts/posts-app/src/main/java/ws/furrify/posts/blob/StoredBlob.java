@@ -0,0 +1,66 @@
+package ws.furrify.posts.blob;
+
+import lombok.Value;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * @author Skyte
+ */
+@Value
+public class StoredBlob {
+
+    private final static String HASH_ALGORITHM = "SHA-256";
+    private final static String MD5_ALGORITHM = "MD5";
+    private final static int HASH_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * SHA-256 hash of content in hex.
+     */
+    String hash;
+
+    /**
+     * Md5 hash of content in hex.
+     */
+    String md5;
+
+    /**
+     * Compute hashes of file content in single pass.
+     *
+     * @param file File to read.
+     * @return Hashes of file content.
+     */
+    public static StoredBlob of(final Path file) throws IOException {
+        MessageDigest hashDigest;
+        MessageDigest md5Digest;
+        try {
+            hashDigest = MessageDigest.getInstance(HASH_ALGORITHM);
+            md5Digest = MessageDigest.getInstance(MD5_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Hash algorithm is not supported.", e);
+        }
+
+        // Buffer is direct so file is not copied to heap
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                hashDigest.update(buffer.duplicate());
+                md5Digest.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        return new StoredBlob(
+                HexFormat.of().formatHex(hashDigest.digest()),
+                HexFormat.of().formatHex(md5Digest.digest())
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package ws.furrify.posts.blob;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Result of negotiating upload by content hash.
+ * Either record was created from already stored content, or ticket for uploading content was issued.
+ *
+ * @author Skyte
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class UploadNegotiation {
+
+    /**
+     * Id of record created from stored content or null if content has to be uploaded.
+     */
+    UUID createdId;
+
+    /**
+     * Ticket for uploading content or null if record was created.
+     */
+    String uploadTicket;
+
+    public static UploadNegotiation created(final UUID createdId) {
+        return new UploadNegotiation(createdId, null);
+    }
+
+    public static UploadNegotiation uploadRequired(final String uploadTicket) {
+        return new UploadNegotiation(null, uploadTicket);
+    }
+
+    public boolean isCreated() {
+        return createdId != null;
+    }
+}
@@ -0,0 +1,41 @@
+package ws.furrify.posts.blob;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Permission to upload file with given content to post, issued when content was not found in blob storage.
+ *
+ * @author Skyte
+ */
+@Value
+public class UploadTicket {
+    UUID ownerId;
+
+    UUID postId;
+
+    /**
+     * SHA-256 hash of content to upload.
+     */
+    String hash;
+
+    /**
+     * Size in bytes of content to upload.
+     */
+    long size;
+
+    Instant expiresAt;
+
+    /**
+     * Check if uploaded content is the one ticket was issued for.
+     *
+     * @param hash SHA-256 hash of uploaded content.
+     * @param size Size in bytes of uploaded content.
+     * @return If content is matching ticket.
+     */
+    public boolean isMatching(final String hash, final long size) {
+        return this.size == size && this.hash.equalsIgnoreCase(hash);
+    }
+}
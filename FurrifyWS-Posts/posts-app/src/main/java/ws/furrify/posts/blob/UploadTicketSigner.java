@@ -0,0 +1,159 @@
+package ws.furrify.posts.blob;
+
+import lombok.extern.java.Log;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.InvalidDataGivenException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and verifies upload tickets signed with HMAC-SHA256, so they don't need to be stored.
+ * Ticket is valid only for user and post it was issued for until it expires.
+ *
+ * @author Skyte
+ */
+@Log
+public class UploadTicketSigner {
+
+    private final static String ALGORITHM = "HmacSHA256";
+    private final static int SIGNATURE_LENGTH = 32;
+    private final static int GENERATED_SECRET_LENGTH = 32;
+
+    private final SecretKeySpec key;
+    private final Duration validity;
+    private final Clock clock;
+
+    /**
+     * @param secret   Secret tickets are signed with, has to be the same on every instance.
+     *                 When empty random secret is generated and tickets are valid only on this instance.
+     * @param validity Time after issued ticket expires.
+     * @param clock    Clock expiration is checked with.
+     */
+    public UploadTicketSigner(final String secret,
+                              final Duration validity,
+                              final Clock clock) {
+        byte[] secretBytes;
+        if (secret == null || secret.isBlank()) {
+            log.warning("Upload ticket secret is not configured, tickets will be valid only on this instance.");
+
+            secretBytes = new byte[GENERATED_SECRET_LENGTH];
+            new SecureRandom().nextBytes(secretBytes);
+        } else {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.validity = validity;
+        this.clock = clock;
+    }
+
+    /**
+     * Issue ticket for uploading content to post.
+     *
+     * @param ownerId Post owner UUID.
+     * @param postId  Post UUID.
+     * @param hash    SHA-256 hash of content.
+     * @param size    Size of content in bytes.
+     * @return Encoded url safe ticket.
+     */
+    public String issue(final UUID ownerId,
+                        final UUID postId,
+                        final String hash,
+                        final long size) {
+        try (var bytes = new ByteArrayOutputStream();
+             var output = new DataOutputStream(bytes)) {
+            output.writeLong(ownerId.getMostSignificantBits());
+            output.writeLong(ownerId.getLeastSignificantBits());
+            output.writeLong(postId.getMostSignificantBits());
+            output.writeLong(postId.getLeastSignificantBits());
+            output.writeUTF(hash.toLowerCase());
+            output.writeLong(size);
+            output.writeLong(clock.instant().plus(validity).toEpochMilli());
+            output.flush();
+
+            byte[] payload = bytes.toByteArray();
+            output.write(sign(payload));
+            output.flush();
+
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Verify ticket was issued by this service for given user and post and has not expired.
+     *
+     * @param ticket  Encoded ticket.
+     * @param ownerId Post owner UUID.
+     * @param postId  Post UUID.
+     * @return Decoded ticket.
+     */
+    public UploadTicket verify(final String ticket,
+                               final UUID ownerId,
+                               final UUID postId) {
+        UploadTicket uploadTicket;
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(ticket);
+            if (bytes.length <= SIGNATURE_LENGTH) {
+                throw new InvalidDataGivenException(Errors.UPLOAD_TICKET_IS_INVALID.getErrorMessage());
+            }
+
+            byte[] payload = Arrays.copyOf(bytes, bytes.length - SIGNATURE_LENGTH);
+            byte[] signature = Arrays.copyOfRange(bytes, bytes.length - SIGNATURE_LENGTH, bytes.length);
+
+            // Compare in constant time, so signature cannot be guessed byte by byte
+            if (!MessageDigest.isEqual(sign(payload), signature)) {
+                throw new InvalidDataGivenException(Errors.UPLOAD_TICKET_IS_INVALID.getErrorMessage());
+            }
+
+            try (var input = new DataInputStream(new ByteArrayInputStream(payload))) {
+                uploadTicket = new UploadTicket(
+                        new UUID(input.readLong(), input.readLong()),
+                        new UUID(input.readLong(), input.readLong()),
+                        input.readUTF(),
+                        input.readLong(),
+                        Instant.ofEpochMilli(input.readLong())
+                );
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidDataGivenException(Errors.UPLOAD_TICKET_IS_INVALID.getErrorMessage());
+        }
+
+        if (!uploadTicket.getOwnerId().equals(ownerId) ||
+                !uploadTicket.getPostId().equals(postId) ||
+                !uploadTicket.getExpiresAt().isAfter(clock.instant())) {
+            throw new InvalidDataGivenException(Errors.UPLOAD_TICKET_IS_INVALID.getErrorMessage());
+        }
+
+        return uploadTicket;
+    }
+
+    private byte[] sign(final byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Upload ticket cannot be signed.", e);
+        }
+    }
+}
@@ -2,20 +2,25 @@ package ws.furrify.posts.media;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
+import ws.furrify.posts.blob.UploadNegotiation;
+import ws.furrify.posts.blob.UploadTicket;
+import ws.furrify.posts.blob.UploadTicketSigner;
 import ws.furrify.posts.media.dto.MediaDTO;
 import ws.furrify.posts.media.strategy.MediaUploadStrategy;
 import ws.furrify.posts.post.dto.PostServiceClient;
+import ws.furrify.posts.utils.IngestInputStream;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.FileContentIsCorruptedException;
 import ws.furrify.shared.exception.FileExtensionIsNotMatchingContentException;
 import ws.furrify.shared.exception.FilenameIsInvalidException;
+import ws.furrify.shared.exception.InvalidDataGivenException;
 import ws.furrify.shared.exception.RecordNotFoundException;
 import ws.furrify.shared.kafka.DomainEventPublisher;
 
 import java.io.IOException;
 import java.time.ZonedDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 @RequiredArgsConstructor
@@ -25,81 +30,173 @@ final class CreateMediaImpl implements CreateMedia {
     private final MediaFactory mediaFactory;
     private final MediaUploadStrategy mediaUploadStrategy;
     private final DomainEventPublisher<MediaEvent> domainEventPublisher;
+    private final MediaThumbnailQueue mediaThumbnailQueue;
+    private final MediaRepository mediaRepository;
+    private final UploadTicketSigner uploadTicketSigner;
 
     @Override
     public UUID createMedia(@NonNull final UUID userId,
                             @NonNull final UUID postId,
                             @NonNull final MediaDTO mediaDTO,
                             @NonNull final MultipartFile mediaFile,
-                            final MultipartFile thumbnailFile) {
+                            final MultipartFile thumbnailFile,
+                            final String uploadTicket) {
         if (postService.getUserPost(userId, postId) == null) {
             throw new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(postId.toString()));
         }
 
+        // Reject upload not matching negotiated size before reading it
+        UploadTicket ticket = (uploadTicket != null) ? uploadTicketSigner.verify(uploadTicket, userId, postId) : null;
+        if (ticket != null && ticket.getSize() != mediaFile.getSize()) {
+            throw new InvalidDataGivenException(Errors.UPLOAD_IS_NOT_MATCHING_TICKET.getErrorMessage());
+        }
+
         // Generate media uuid
         UUID mediaId = UUID.randomUUID();
 
-        // Check if file is matching declared extension
-        boolean isFileContentValid = MediaExtension.isFileContentValid(
-                mediaFile.getOriginalFilename(),
-                mediaFile,
-                mediaDTO.getExtension()
-        );
-        if (!isFileContentValid) {
-            throw new FileExtensionIsNotMatchingContentException(Errors.FILE_EXTENSION_IS_NOT_MATCHING_CONTENT.getErrorMessage());
-        }
+        // Read only media file header, mime type is detected from it before file is stored
+        try (IngestInputStream mediaInputStream = IngestInputStream.of(mediaFile.getInputStream())) {
+            // Check if file is matching declared extension
+            boolean isFileContentValid = MediaExtension.isFileContentValid(
+                    mediaFile.getOriginalFilename(),
+                    mediaInputStream,
+                    mediaDTO.getExtension()
+            );
+            if (!isFileContentValid) {
+                throw new FileExtensionIsNotMatchingContentException(Errors.FILE_EXTENSION_IS_NOT_MATCHING_CONTENT.getErrorMessage());
+            }
 
-        // Check if filename is valid
-        boolean isFilenameValid = MediaExtension.isFilenameValid(
-                mediaFile.getOriginalFilename()
-        );
-        if (!isFilenameValid) {
-            throw new FilenameIsInvalidException(Errors.FILENAME_IS_INVALID.getErrorMessage(mediaFile.getOriginalFilename()));
-        }
+            // Check if filename is valid
+            boolean isFilenameValid = MediaExtension.isFilenameValid(
+                    mediaFile.getOriginalFilename()
+            );
+            if (!isFilenameValid) {
+                throw new FilenameIsInvalidException(Errors.FILENAME_IS_INVALID.getErrorMessage(mediaFile.getOriginalFilename()));
+            }
 
-        String md5;
-        try {
-            // Get file hash
-            md5 = DigestUtils.md5Hex(mediaFile.getInputStream());
+            // Check if thumbnail meets the requirements
+            if (thumbnailFile != null) {
+                boolean isThumbnailFileValid = MediaExtension.isThumbnailValid(
+                        thumbnailFile.getOriginalFilename(),
+                        thumbnailFile
+                );
+                if (!isThumbnailFileValid) {
+                    throw new FileExtensionIsNotMatchingContentException(Errors.THUMBNAIL_CONTENT_IS_INVALID.getErrorMessage());
+                }
+            } else {
+                // Reject media before upload if its thumbnail cannot be queued
+                mediaThumbnailQueue.checkCapacity();
+            }
         } catch (IOException e) {
             throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
         }
 
         MediaUploadStrategy.UploadedMediaFile uploadedMediaFile;
 
-        // If thumbnail is present
+        // Media file is passed whole, so upload strategy can move disk backed file instead of copying it
         if (thumbnailFile != null) {
-            // Check if thumbnail meets the requirements
-            boolean isThumbnailFileValid = MediaExtension.isThumbnailValid(
-                    thumbnailFile.getOriginalFilename(),
-                    thumbnailFile
-            );
-            if (!isThumbnailFileValid) {
-                throw new FileExtensionIsNotMatchingContentException(Errors.THUMBNAIL_CONTENT_IS_INVALID.getErrorMessage());
-            }
-
             // Upload media with thumbnail
             uploadedMediaFile = mediaUploadStrategy.uploadMedia(
                     mediaId,
                     mediaDTO.getExtension(),
+                    mediaFile.getOriginalFilename(),
                     mediaFile,
                     thumbnailFile
             );
         } else {
-            // Generate thumbnail and upload media and thumbnail
-            uploadedMediaFile = mediaUploadStrategy.uploadMediaWithGeneratedThumbnail(
+            // Upload media, thumbnail is generated by thumbnail queue
+            uploadedMediaFile = mediaUploadStrategy.uploadMedia(
                     mediaId,
                     mediaDTO.getExtension(),
+                    mediaFile.getOriginalFilename(),
                     mediaFile
             );
         }
 
+        // Uploaded content has to be the one ticket was issued for
+        if (ticket != null && !ticket.isMatching(uploadedMediaFile.getHash(), mediaFile.getSize())) {
+            mediaUploadStrategy.deleteMedia(mediaId);
+
+            throw new InvalidDataGivenException(Errors.UPLOAD_IS_NOT_MATCHING_TICKET.getErrorMessage());
+        }
+
+        publishCreatedMedia(userId, postId, mediaId, mediaDTO, mediaFile.getOriginalFilename(), uploadedMediaFile, uploadedMediaFile.getMd5());
+
+        // Generate thumbnail in background, it is published with media UPDATED event
+        if (thumbnailFile == null) {
+            mediaThumbnailQueue.enqueue(userId, postId, mediaId);
+        }
+
+        return mediaId;
+    }
+
+    @Override
+    public UploadNegotiation negotiateMedia(@NonNull final UUID userId,
+                                            @NonNull final UUID postId,
+                                            @NonNull final MediaDTO mediaDTO,
+                                            @NonNull final String hash,
+                                            final long size) {
+        if (postService.getUserPost(userId, postId) == null) {
+            throw new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(postId.toString()));
+        }
+
+        // Check if filename is valid
+        boolean isFilenameValid = MediaExtension.isFilenameValid(
+                mediaDTO.getFilename()
+        );
+        if (!isFilenameValid) {
+            throw new FilenameIsInvalidException(Errors.FILENAME_IS_INVALID.getErrorMessage(mediaDTO.getFilename()));
+        }
+
+        // Content is reused only from owner media with the same extension, so it was already validated against it
+        Optional<String> md5 = mediaRepository.findMd5ByOwnerIdAndExtensionAndBlobHash(
+                userId,
+                mediaDTO.getExtension(),
+                hash.toLowerCase()
+        );
+
+        if (md5.isPresent()) {
+            // Reject media if its thumbnail cannot be queued
+            mediaThumbnailQueue.checkCapacity();
+
+            // Generate media uuid
+            UUID mediaId = UUID.randomUUID();
+
+            MediaUploadStrategy.UploadedMediaFile linkedMediaFile = mediaUploadStrategy.linkMedia(
+                    mediaId,
+                    mediaDTO.getFilename(),
+                    hash,
+                    size
+            );
+
+            // Content was deleted in the meantime or has different size, so it needs to be uploaded
+            if (linkedMediaFile != null) {
+                publishCreatedMedia(userId, postId, mediaId, mediaDTO, mediaDTO.getFilename(), linkedMediaFile, md5.get());
+
+                mediaThumbnailQueue.enqueue(userId, postId, mediaId);
+
+                return UploadNegotiation.created(mediaId);
+            }
+        }
+
+        return UploadNegotiation.uploadRequired(
+                uploadTicketSigner.issue(userId, postId, hash, size)
+        );
+    }
+
+    private void publishCreatedMedia(final UUID userId,
+                                     final UUID postId,
+                                     final UUID mediaId,
+                                     final MediaDTO mediaDTO,
+                                     final String filename,
+                                     final MediaUploadStrategy.UploadedMediaFile uploadedMediaFile,
+                                     final String md5) {
         // Edit mediaDTO with generated media uuid
         MediaDTO updatedMediaToCreateDTO = mediaDTO.toBuilder()
                 .mediaId(mediaId)
                 .postId(postId)
                 .ownerId(userId)
-                .filename(mediaFile.getOriginalFilename())
+                .filename(filename)
                 .fileUri(uploadedMediaFile.getFileUri())
                 .thumbnailUri(uploadedMediaFile.getThumbnailUri())
                 .md5(md5)
@@ -117,7 +214,5 @@ final class CreateMediaImpl implements CreateMedia {
                         mediaFactory.from(updatedMediaToCreateDTO)
                 )
         );
-
-        return mediaId;
     }
 }
\ No newline at end of file
@@ -4,9 +4,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.java.Log;
 import org.springframework.web.multipart.MultipartFile;
+import ws.furrify.posts.blob.UploadNegotiation;
 import ws.furrify.posts.media.dto.MediaDTO;
 import ws.furrify.posts.media.dto.MediaDtoFactory;
+import ws.furrify.posts.media.strategy.MediaUploadStrategy;
 import ws.furrify.posts.media.vo.MediaSource;
+import ws.furrify.posts.post.PostEvent;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.kafka.DomainEventPublisher;
 import ws.furrify.shared.vo.SourceOriginType;
@@ -28,6 +31,9 @@ final public class MediaFacade {
     private final MediaRepository mediaRepository;
     private final MediaFactory mediaFactory;
     private final MediaDtoFactory mediaDTOFactory;
+    private final MediaUploadStrategy mediaUploadStrategy;
+    private final MediaStorageReclaimer mediaStorageReclaimer;
+    private final MediaThumbnailQueue mediaThumbnailQueue;
 
     /**
      * Handle incoming media events.
@@ -46,6 +52,17 @@ final public class MediaFacade {
         }
     }
 
+    /**
+     * Handle incoming post events.
+     *
+     * @param postEvent Post event instance received from kafka.
+     */
+    public void handleEvent(final UUID key, final PostEvent postEvent) {
+        if (DomainEventPublisher.PostEventType.valueOf(postEvent.getState()) == DomainEventPublisher.PostEventType.REMOVED) {
+            deleteMediaByOwnerIdAndPostIdFromDatabase(key, UUID.fromString(postEvent.getPostId()));
+        }
+    }
+
     /**
      * Handle incoming source events.
      *
@@ -107,7 +124,43 @@ final public class MediaFacade {
                             final MediaDTO mediaDTO,
                             final MultipartFile mediaFile,
                             final MultipartFile thumbnailFile) {
-        return createMediaImpl.createMedia(userId, postId, mediaDTO, mediaFile, thumbnailFile);
+        return createMedia(userId, postId, mediaDTO, mediaFile, thumbnailFile, null);
+    }
+
+    /**
+     * Creates media from file uploaded with ticket issued by negotiateMedia().
+     *
+     * @param userId       User uuid to assign media to.
+     * @param postId       Post uuid to assign media to.
+     * @param mediaDTO     Post to create.
+     * @param uploadTicket Upload ticket or null if upload was not negotiated.
+     * @return Created media UUID.
+     */
+    public UUID createMedia(final UUID userId,
+                            final UUID postId,
+                            final MediaDTO mediaDTO,
+                            final MultipartFile mediaFile,
+                            final MultipartFile thumbnailFile,
+                            final String uploadTicket) {
+        return createMediaImpl.createMedia(userId, postId, mediaDTO, mediaFile, thumbnailFile, uploadTicket);
+    }
+
+    /**
+     * Creates media from already stored content with given hash, or issues ticket to upload it.
+     *
+     * @param userId   User uuid to assign media to.
+     * @param postId   Post uuid to assign media to.
+     * @param mediaDTO Media to create with filename.
+     * @param hash     SHA-256 hash of media file.
+     * @param size     Size of media file in bytes.
+     * @return Created media UUID or upload ticket.
+     */
+    public UploadNegotiation negotiateMedia(final UUID userId,
+                                            final UUID postId,
+                                            final MediaDTO mediaDTO,
+                                            final String hash,
+                                            final long size) {
+        return createMediaImpl.negotiateMedia(userId, postId, mediaDTO, hash, size);
     }
 
     /**
@@ -151,6 +204,15 @@ final public class MediaFacade {
 
     private void deleteMediaByMediaIdFromDatabase(final UUID mediaId) {
         mediaRepository.deleteByMediaId(mediaId);
+        mediaThumbnailQueue.cancel(mediaId);
+
+        // Files are deleted in background after media, so they are never missing for stored media
+        mediaStorageReclaimer.enqueue(mediaId, () -> mediaUploadStrategy.deleteMedia(mediaId));
+    }
+
+    private void deleteMediaByOwnerIdAndPostIdFromDatabase(final UUID ownerId, final UUID postId) {
+        mediaRepository.findMediaIdsByOwnerIdAndPostId(ownerId, postId)
+                .forEach(this::deleteMediaByMediaIdFromDatabase);
     }
 
     private void deleteSourceFromMedia(final UUID ownerId,
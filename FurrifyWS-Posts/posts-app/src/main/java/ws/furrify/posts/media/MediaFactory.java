@@ -24,6 +24,7 @@ final class MediaFactory {
                 .extension(mediaDTO.getExtension())
                 .fileUri(mediaDTO.getFileUri())
                 .thumbnailUri(mediaDTO.getThumbnailUri())
+                .thumbnails(mediaDTO.getThumbnails())
                 .sources(
                         (mediaDTO.getSources() != null) ? mediaDTO.getSources() : new HashSet<>()
                 )
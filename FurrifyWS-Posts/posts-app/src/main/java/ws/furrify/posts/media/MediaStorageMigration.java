@@ -0,0 +1,115 @@
+package ws.furrify.posts.media;
+
+import ws.furrify.posts.media.vo.MediaThumbnails;
+import ws.furrify.shared.kafka.DomainEventPublisher;
+import ws.furrify.shared.storage.ShardedLayout;
+import ws.furrify.shared.storage.StorageMigration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Migration of locally stored media from flat layout to sharded layout.
+ * Media directory is moved with all thumbnails and new uris are published as media UPDATED event.
+ * Media which uris are not in flat layout of local storage is skipped, so migration can be run many times.
+ *
+ * @author Skyte
+ */
+class MediaStorageMigration extends StorageMigration<Media> {
+
+    private final MediaRepository mediaRepository;
+    private final DomainEventPublisher<MediaEvent> domainEventPublisher;
+    private final ShardedLayout shardedLayout;
+    private final Path localStoragePath;
+    private final String remoteStoragePath;
+
+    /**
+     * @param localStoragePath  Directory media are stored in.
+     * @param remoteStoragePath Path media are available at.
+     * @param workers           Amount of media migrated in parallel.
+     * @param pageSize          Amount of media read at once.
+     */
+    MediaStorageMigration(final MediaRepository mediaRepository,
+                          final DomainEventPublisher<MediaEvent> domainEventPublisher,
+                          final ShardedLayout shardedLayout,
+                          final Path localStoragePath,
+                          final String remoteStoragePath,
+                          final int workers,
+                          final int pageSize) {
+        super("media", workers, pageSize);
+
+        this.mediaRepository = mediaRepository;
+        this.domainEventPublisher = domainEventPublisher;
+        this.shardedLayout = shardedLayout;
+        this.localStoragePath = localStoragePath;
+        this.remoteStoragePath = remoteStoragePath;
+    }
+
+    @Override
+    protected List<Media> findPage(final long afterId, final int limit) {
+        return mediaRepository.findAllByIdGreaterThan(afterId, limit);
+    }
+
+    @Override
+    protected long idOf(final Media media) {
+        return media.getSnapshot().getId();
+    }
+
+    @Override
+    protected boolean migrate(final Media media) throws IOException {
+        MediaSnapshot mediaSnapshot = media.getSnapshot();
+        UUID mediaId = mediaSnapshot.getMediaId();
+
+        String sourcePrefix = remoteStoragePath + "/" + mediaId + "/";
+        String targetPrefix = remoteStoragePath + "/" + shardedLayout.pathOf(mediaId) + "/";
+
+        // Media is already migrated or is not stored locally
+        if (sourcePrefix.equals(targetPrefix) || !mediaSnapshot.getFileUri().getPath().startsWith(sourcePrefix)) {
+            return false;
+        }
+
+        // Directory is moved again only if previous run was interrupted before it
+        ShardedLayout.moveDirectory(
+                localStoragePath.resolve(mediaId.toString()),
+                localStoragePath.resolve(shardedLayout.pathOf(mediaId))
+        );
+
+        media.replaceFileUris(
+                ShardedLayout.relocate(mediaSnapshot.getFileUri(), sourcePrefix, targetPrefix),
+                ShardedLayout.relocate(mediaSnapshot.getThumbnailUri(), sourcePrefix, targetPrefix),
+                relocate(mediaSnapshot.getThumbnails(), sourcePrefix, targetPrefix)
+        );
+
+        domainEventPublisher.publish(
+                DomainEventPublisher.Topic.MEDIA,
+                // User userId as key
+                mediaSnapshot.getOwnerId(),
+                MediaUtils.createMediaEvent(
+                        DomainEventPublisher.MediaEventType.UPDATED,
+                        media
+                )
+        );
+
+        return true;
+    }
+
+    private static MediaThumbnails relocate(final MediaThumbnails thumbnails,
+                                            final String sourcePrefix,
+                                            final String targetPrefix) {
+        if (thumbnails == null) {
+            return null;
+        }
+
+        Map<Integer, URI> relocatedUris = new HashMap<>();
+        thumbnails.getUris().forEach((width, uri) ->
+                relocatedUris.put(width, ShardedLayout.relocate(uri, sourcePrefix, targetPrefix))
+        );
+
+        return MediaThumbnails.of(relocatedUris);
+    }
+}
@@ -0,0 +1,50 @@
+package ws.furrify.posts.media;
+
+import ws.furrify.posts.blob.BlobStorage;
+import ws.furrify.shared.storage.IoRateLimiter;
+import ws.furrify.shared.storage.StorageReclaimer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reclamation of files of removed media.
+ * Orphaned media directory is swept with its thumbnails and blob reference of media is released.
+ *
+ * @author Skyte
+ */
+class MediaStorageReclaimer extends StorageReclaimer {
+
+    private final MediaRepository mediaRepository;
+    private final BlobStorage blobStorage;
+
+    /**
+     * @param localStoragePath Directory media are stored in, null when media are not stored locally.
+     */
+    MediaStorageReclaimer(final MediaRepository mediaRepository,
+                          final BlobStorage blobStorage,
+                          final Path localStoragePath,
+                          final IoRateLimiter rateLimiter,
+                          final int workers,
+                          final int batchSize,
+                          final Duration minAge,
+                          final Duration sweepInterval,
+                          final boolean dryRun) {
+        super("media", localStoragePath, rateLimiter, workers, batchSize, minAge, sweepInterval, dryRun);
+
+        this.mediaRepository = mediaRepository;
+        this.blobStorage = blobStorage;
+    }
+
+    @Override
+    protected Set<UUID> findExisting(final Set<UUID> ids) {
+        return mediaRepository.findExistingMediaIds(ids);
+    }
+
+    @Override
+    protected void reclaimed(final UUID id) {
+        blobStorage.release(id);
+    }
+}
@@ -0,0 +1,57 @@
+package ws.furrify.posts.media;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Persisted request to generate thumbnail for uploaded media.
+ * Job is deleted when thumbnail was generated and stays in FAILED state when all attempts were used.
+ *
+ * @author Skyte
+ */
+@Getter(AccessLevel.PACKAGE)
+@Setter(AccessLevel.PACKAGE)
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+class MediaThumbnailJob {
+    private Long id;
+
+    private UUID mediaId;
+    private UUID postId;
+    private UUID ownerId;
+
+    private Status status;
+    private int attempts;
+
+    private Instant dueDate;
+
+    MediaThumbnailJob(final UUID ownerId, final UUID postId, final UUID mediaId, final Instant dueDate) {
+        this.ownerId = ownerId;
+        this.postId = postId;
+        this.mediaId = mediaId;
+        this.status = Status.PENDING;
+        this.attempts = 0;
+        this.dueDate = dueDate;
+    }
+
+    enum Status {
+        /**
+         * Job is waiting for its due date.
+         */
+        PENDING,
+        /**
+         * Job was handed to worker.
+         */
+        RUNNING,
+        /**
+         * Job has used all attempts.
+         */
+        FAILED
+    }
+}
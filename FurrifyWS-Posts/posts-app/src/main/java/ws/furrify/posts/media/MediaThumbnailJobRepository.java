@@ -0,0 +1,49 @@
+package ws.furrify.posts.media;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+interface MediaThumbnailJobRepository {
+    MediaThumbnailJob save(MediaThumbnailJob job);
+
+    void delete(MediaThumbnailJob job);
+
+    void deleteByMediaId(UUID mediaId);
+
+    boolean existsById(Long id);
+
+    /**
+     * Find pending jobs which due date has passed, ordered by due date.
+     *
+     * @param now   Current time.
+     * @param limit Max amount of jobs.
+     * @return Due jobs.
+     */
+    List<MediaThumbnailJob> findAllDue(Instant now, int limit);
+
+    /**
+     * Count jobs which are pending or running.
+     *
+     * @return Amount of unfinished jobs.
+     */
+    long countUnfinished();
+
+    /**
+     * Claim pending job for this instance by moving it to running state,
+     * unless it was claimed by other instance already.
+     *
+     * @param id          Job id.
+     * @param leaseExpiry Due date of running job, after which it is recovered.
+     * @return If job was claimed.
+     */
+    boolean claim(Long id, Instant leaseExpiry);
+
+    /**
+     * Move running jobs which lease has expired back to pending.
+     *
+     * @param now Current time.
+     * @return Amount of moved jobs.
+     */
+    int recoverExpired(Instant now);
+}
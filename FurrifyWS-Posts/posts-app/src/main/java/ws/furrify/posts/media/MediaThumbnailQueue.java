@@ -0,0 +1,279 @@
+package ws.furrify.posts.media;
+
+import lombok.extern.java.Log;
+import ws.furrify.posts.media.strategy.MediaUploadStrategy;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.ServiceIsOverloadedException;
+import ws.furrify.shared.kafka.DomainEventPublisher;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Persistent queue of thumbnail generation jobs for uploaded media.
+ * Jobs are stored in database and polled by bounded pool of workers, so request threads do not wait for thumbnail.
+ * New job is delayed, so media CREATED event can be consumed before job is processed.
+ * Polled job is claimed with conditional update, so it is processed by single instance only.
+ * Generated thumbnail is published as media UPDATED event.
+ * Failed jobs are retried with exponential delay until all attempts are used.
+ * Jobs of removed media are cancelled and dropped instead of being retried.
+ * Claimed job holds a lease until its due date, jobs which lease has expired as their instance was stopped
+ * are moved back to pending.
+ *
+ * @author Skyte
+ */
+@Log
+class MediaThumbnailQueue implements AutoCloseable {
+
+    private final static long POLL_INTERVAL_MILLIS = 1000;
+    private final static int MAX_RETRY_DELAY_SHIFT = 16;
+
+    private final MediaThumbnailJobRepository jobRepository;
+    private final MediaRepository mediaRepository;
+    private final MediaUploadStrategy mediaUploadStrategy;
+    private final DomainEventPublisher<MediaEvent> domainEventPublisher;
+
+    private final int capacity;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration initialDelay;
+    private final Duration lease;
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService poller;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    /**
+     * @param workers      Amount of workers generating thumbnails in parallel.
+     * @param capacity     Max amount of unfinished jobs, further media without thumbnail is rejected.
+     * @param maxAttempts  Max amount of attempts of single job.
+     * @param retryDelay   Delay before second attempt, doubled with every next attempt.
+     * @param initialDelay Delay before first attempt.
+     * @param lease        Time running job is reserved for its instance, must be longer than thumbnail generation.
+     */
+    MediaThumbnailQueue(final MediaThumbnailJobRepository jobRepository,
+                        final MediaRepository mediaRepository,
+                        final MediaUploadStrategy mediaUploadStrategy,
+                        final DomainEventPublisher<MediaEvent> domainEventPublisher,
+                        final int workers,
+                        final int capacity,
+                        final int maxAttempts,
+                        final Duration retryDelay,
+                        final Duration initialDelay,
+                        final Duration lease) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers amount must be greater than 0.");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be greater than 0.");
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts amount must be greater than 0.");
+        }
+        if (lease.isNegative() || lease.isZero()) {
+            throw new IllegalArgumentException("Lease must be greater than 0.");
+        }
+
+        this.jobRepository = jobRepository;
+        this.mediaRepository = mediaRepository;
+        this.mediaUploadStrategy = mediaUploadStrategy;
+        this.domainEventPublisher = domainEventPublisher;
+        this.capacity = capacity;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.initialDelay = initialDelay;
+        this.lease = lease;
+
+        this.workers = new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                // Hand-off queue is small, rest of jobs waits in database
+                new ArrayBlockingQueue<>(workers),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-thumbnail");
+                    thread.setDaemon(true);
+
+                    return thread;
+                }
+        );
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "media-thumbnail-poller");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Recover jobs which lease has expired and start polling for due jobs.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        int recovered = jobRepository.recoverExpired(Instant.now());
+        log.info("Thumbnail queue started. Recovered jobs=" + recovered);
+
+        poller.scheduleWithFixedDelay(this::poll, 0, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reject new job when queue is full.
+     */
+    void checkCapacity() {
+        if (jobRepository.countUnfinished() >= capacity) {
+            throw new ServiceIsOverloadedException(Errors.THUMBNAIL_QUEUE_IS_FULL.getErrorMessage());
+        }
+    }
+
+    /**
+     * Store thumbnail generation job for given media.
+     *
+     * @param ownerId Media owner UUID.
+     * @param postId  Post UUID.
+     * @param mediaId Media UUID.
+     */
+    void enqueue(final UUID ownerId, final UUID postId, final UUID mediaId) {
+        jobRepository.save(new MediaThumbnailJob(ownerId, postId, mediaId, Instant.now().plus(initialDelay)));
+    }
+
+    /**
+     * Cancel job of removed media.
+     * Job which is already processed is dropped when it finishes or fails.
+     *
+     * @param mediaId Media UUID.
+     */
+    void cancel(final UUID mediaId) {
+        jobRepository.deleteByMediaId(mediaId);
+    }
+
+    /**
+     * Recover jobs which lease has expired and hand due jobs to free workers.
+     */
+    void poll() {
+        try {
+            // Instance running these jobs was stopped
+            int recovered = jobRepository.recoverExpired(Instant.now());
+            if (recovered > 0) {
+                log.warning("Thumbnail jobs with expired lease were recovered [jobs=" + recovered + "].");
+            }
+
+            int free = workers.getQueue().remainingCapacity();
+            if (free == 0) {
+                return;
+            }
+
+            for (MediaThumbnailJob job : jobRepository.findAllDue(Instant.now(), free)) {
+                Instant leaseExpiry = Instant.now().plus(lease);
+                // Job was claimed by other instance in the meantime
+                if (!jobRepository.claim(job.getId(), leaseExpiry)) {
+                    continue;
+                }
+
+                job.setStatus(MediaThumbnailJob.Status.RUNNING);
+                job.setDueDate(leaseExpiry);
+
+                try {
+                    workers.execute(() -> process(job));
+                } catch (RejectedExecutionException e) {
+                    // Leave job for next poll
+                    job.setStatus(MediaThumbnailJob.Status.PENDING);
+                    job.setDueDate(Instant.now());
+                    jobRepository.save(job);
+
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Exception would cancel scheduled polling
+            log.log(Level.WARNING, "Polling thumbnail jobs has failed.", e);
+        }
+    }
+
+    /**
+     * Generate thumbnail for media of given job and publish media with it.
+     *
+     * @param job Job to process.
+     */
+    void process(final MediaThumbnailJob job) {
+        try {
+            // Media is present after its CREATED event was consumed
+            MediaSnapshot mediaSnapshot = findMedia(job).getSnapshot();
+
+            MediaUploadStrategy.GeneratedThumbnails generatedThumbnails = mediaUploadStrategy.generateThumbnails(
+                    job.getMediaId(),
+                    mediaSnapshot.getExtension(),
+                    mediaSnapshot.getFileUri()
+            );
+
+            // Media type can have no thumbnail
+            if (generatedThumbnails != null) {
+                // Media could have been changed while thumbnail was generated, so only its thumbnails are replaced
+                Media media = findMedia(job);
+                media.replaceThumbnails(generatedThumbnails.getThumbnailUri(), generatedThumbnails.getThumbnails());
+
+                domainEventPublisher.publish(
+                        DomainEventPublisher.Topic.MEDIA,
+                        // User userId as key
+                        job.getOwnerId(),
+                        MediaUtils.createMediaEvent(
+                                DomainEventPublisher.MediaEventType.UPDATED,
+                                media
+                        )
+                );
+            }
+
+            jobRepository.delete(job);
+        } catch (RuntimeException e) {
+            fail(job, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private Media findMedia(final MediaThumbnailJob job) {
+        return mediaRepository.findByOwnerIdAndPostIdAndMediaId(job.getOwnerId(), job.getPostId(), job.getMediaId())
+                .orElseThrow(() -> new IllegalStateException(Errors.NO_RECORD_FOUND.getErrorMessage(job.getMediaId())));
+    }
+
+    private void fail(final MediaThumbnailJob job, final RuntimeException cause) {
+        // Job was cancelled as its media was removed, saving it would store it again
+        if (!jobRepository.existsById(job.getId())) {
+            log.fine("Thumbnail job of removed media was dropped [mediaId=" + job.getMediaId() + "].");
+
+            return;
+        }
+
+        job.setAttempts(job.getAttempts() + 1);
+
+        if (job.getAttempts() >= maxAttempts) {
+            job.setStatus(MediaThumbnailJob.Status.FAILED);
+
+            log.log(Level.SEVERE, "Thumbnail job has failed [mediaId=" + job.getMediaId() + ", attempts=" + job.getAttempts() + "].", cause);
+        } else {
+            job.setStatus(MediaThumbnailJob.Status.PENDING);
+            job.setDueDate(Instant.now().plus(
+                    retryDelay.multipliedBy(1L << Math.min(job.getAttempts() - 1, MAX_RETRY_DELAY_SHIFT))
+            ));
+
+            log.warning("Thumbnail job will be retried [mediaId=" + job.getMediaId() + ", attempts=" + job.getAttempts() +
+                    ", dueDate=" + job.getDueDate() + "]. Cause=" + cause.getMessage());
+        }
+
+        jobRepository.save(job);
+    }
+}
@@ -42,6 +42,9 @@ class MediaUtils {
                                 .setThumbnailUri(
                                         (mediaSnapshot.getThumbnailUri() != null) ? mediaSnapshot.getThumbnailUri().toString() : null
                                 )
+                                .setThumbnails(
+                                        (mediaSnapshot.getThumbnails() != null) ? mediaSnapshot.getThumbnails().toStrings() : null
+                                )
                                 .setCreateDate(mediaSnapshot.getCreateDate().toInstant())
                 ).build();
     }
@@ -5,6 +5,7 @@ import lombok.ToString;
 import lombok.Value;
 import ws.furrify.posts.media.MediaExtension;
 import ws.furrify.posts.media.vo.MediaSource;
+import ws.furrify.posts.media.vo.MediaThumbnails;
 
 import java.net.URI;
 import java.time.ZonedDateTime;
@@ -32,6 +33,7 @@ public class MediaDTO {
 
     URI fileUri;
     URI thumbnailUri;
+    MediaThumbnails thumbnails;
 
     String md5;
 
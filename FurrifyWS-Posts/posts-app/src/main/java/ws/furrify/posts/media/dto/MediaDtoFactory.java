@@ -5,6 +5,7 @@ import lombok.SneakyThrows;
 import ws.furrify.posts.media.MediaEvent;
 import ws.furrify.posts.media.MediaExtension;
 import ws.furrify.posts.media.MediaQueryRepository;
+import ws.furrify.posts.media.vo.MediaThumbnails;
 
 import java.net.URI;
 import java.time.Instant;
@@ -59,6 +60,11 @@ public class MediaDtoFactory {
                                 null
 
                 )
+                .thumbnails(
+                        (mediaEvent.getData().getThumbnails() != null) ?
+                                MediaThumbnails.ofStrings(mediaEvent.getData().getThumbnails()) :
+                                null
+                )
                 .createDate(createDate)
                 .build();
     }
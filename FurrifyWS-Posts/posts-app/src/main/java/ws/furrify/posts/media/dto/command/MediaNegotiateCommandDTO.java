@@ -0,0 +1,60 @@
+package ws.furrify.posts.media.dto.command;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+import lombok.Value;
+import ws.furrify.posts.media.MediaExtension;
+import ws.furrify.posts.media.dto.MediaDTO;
+import ws.furrify.shared.dto.CommandDTO;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+/**
+ * Media to create with hash and size of its file, so file is uploaded only when it is not stored yet.
+ *
+ * @author Skyte
+ */
+@Value
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
+@ToString
+public class MediaNegotiateCommandDTO implements CommandDTO<MediaDTO> {
+
+    @NotNull
+    @Max(1000)
+    @Min(0)
+    Integer priority;
+
+    @NotNull
+    MediaExtension extension;
+
+    @NotBlank
+    String filename;
+
+    /**
+     * SHA-256 hash of file in hex.
+     */
+    @NotNull
+    @Pattern(regexp = "[0-9a-fA-F]{64}")
+    String hash;
+
+    /**
+     * Size of file in bytes.
+     */
+    @NotNull
+    @Min(0)
+    Long size;
+
+    @Override
+    public MediaDTO toDTO() {
+        return MediaDTO.builder()
+                .priority(priority)
+                .extension(extension)
+                .filename(filename)
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package ws.furrify.posts.media.dto.query;
 
 import ws.furrify.posts.media.MediaExtension;
 import ws.furrify.posts.media.vo.MediaSource;
+import ws.furrify.posts.media.vo.MediaThumbnails;
 
 import java.io.Serializable;
 import java.net.URI;
@@ -30,6 +31,8 @@ public interface MediaDetailsQueryDTO extends Serializable {
 
     URI getThumbnailUri();
 
+    MediaThumbnails getThumbnails();
+
     String getMd5();
 
     Set<MediaSource> getSources();
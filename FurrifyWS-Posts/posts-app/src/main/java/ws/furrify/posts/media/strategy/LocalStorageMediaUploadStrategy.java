@@ -1,14 +1,20 @@
 package ws.furrify.posts.media.strategy;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.multipart.MultipartFile;
+import ws.furrify.posts.blob.BlobStorage;
+import ws.furrify.posts.blob.StoredBlob;
 import ws.furrify.posts.media.MediaExtension;
+import ws.furrify.posts.media.vo.MediaThumbnails;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.FileContentIsCorruptedException;
 import ws.furrify.shared.exception.FileUploadCannotCreatePathException;
 import ws.furrify.shared.exception.FileUploadFailedException;
+import ws.furrify.shared.storage.ShardedLayout;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -17,14 +23,23 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
 import java.util.UUID;
+import java.util.logging.Level;
+import java.util.stream.IntStream;
 
 /**
  * Upload media file to local storage strategy.
  * Needs to be created as bean for @Value to work.
+ * Media files are stored in blob storage, so the same content uploaded as many media uses disk space once.
+ * Directory of every media is placed in sharded layout, media uploaded before is kept in flat layout until migrated.
  *
  * @author sky
  */
+@Log
 @RequiredArgsConstructor
 public class LocalStorageMediaUploadStrategy implements MediaUploadStrategy {
 
@@ -37,36 +52,90 @@ public class LocalStorageMediaUploadStrategy implements MediaUploadStrategy {
     @Value("${THUMBNAIL_WIDTH:800}")
     private int THUMBNAIL_WIDTH;
 
+    @Value("${furrify.media.thumbnail.widths}")
+    private int[] THUMBNAIL_WIDTHS;
+
     @Value("${THUMBNAIL_QUALITY:0.90}")
     private float THUMBNAIL_QUALITY;
 
+    @Value("${furrify.media.thumbnail.max-source-pixels}")
+    private long THUMBNAIL_MAX_SOURCE_PIXELS;
+
     @Value("${THUMBNAIL_PREFIX:thumbnail_}")
     private String THUMBNAIL_PREFIX;
 
     private final static String THUMBNAIL_EXTENSION = ".jpg";
 
+    private final VideoFrameExtractor videoFrameExtractor;
+    private final BlobStorage blobStorage;
+    private final ShardedLayout shardedLayout;
+
     @Override
-    public UploadedMediaFile uploadMediaWithGeneratedThumbnail(final UUID mediaId,
-                                                               final MediaExtension extension,
-                                                               final MultipartFile fileSource) {
+    public UploadedMediaFile uploadMedia(final UUID mediaId,
+                                         final MediaExtension extension,
+                                         final String filename,
+                                         final MultipartFile fileSource) {
+        try {
+            File mediaFile = mediaFileOf(mediaId, filename);
+
+            // Upload file as link to deduplicated blob, disk backed upload is moved instead of copied
+            StoredBlob storedBlob = blobStorage.store(mediaId, fileSource::transferTo, mediaFile.toPath());
+
+            return new UploadedMediaFile(
+                    // Original
+                    new URI(REMOTE_STORAGE_MEDIA_PATH + "/" + shardedLayout.pathOf(mediaId) + "/" + mediaFile.getName()),
+                    // Thumbnail is generated later
+                    null,
+                    storedBlob.getHash(),
+                    storedBlob.getMd5()
+            );
 
-        try (
-                // Generate thumbnail
-                InputStream thumbnailInputStream = MediaUploadStrategyUtils.generateThumbnail(
-                        extension,
-                        THUMBNAIL_WIDTH,
-                        THUMBNAIL_QUALITY,
-                        fileSource.getInputStream()
-                );
+        } catch (URISyntaxException e) {
+            throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
+        }
+    }
 
-                InputStream mediaInputStream = fileSource.getInputStream()
-        ) {
+    @Override
+    public GeneratedThumbnails generateThumbnails(final UUID mediaId,
+                                                  final MediaExtension extension,
+                                                  final URI fileUri) {
+        // Stored file has the same name and directory as in remote uri
+        String filename = new File(fileUri.getPath()).getName();
+        String mediaPath = mediaPathOf(mediaId, fileUri);
+        File mediaFile = new File(LOCAL_STORAGE_MEDIA_PATH + "/" + mediaPath + "/" + filename);
+
+        // Default thumbnail is always part of the ladder
+        int[] widths = IntStream.concat(Arrays.stream(THUMBNAIL_WIDTHS), IntStream.of(THUMBNAIL_WIDTH))
+                .distinct()
+                .toArray();
+
+        try {
+            // Stored file is passed directly, so videos are seeked on disk instead of buffered
+            SortedMap<Integer, InputStream> thumbnailInputStreams = MediaUploadStrategyUtils.generateThumbnails(
+                    extension,
+                    widths,
+                    THUMBNAIL_QUALITY,
+                    THUMBNAIL_MAX_SOURCE_PIXELS,
+                    mediaFile,
+                    videoFrameExtractor
+            );
+
+            // Media type has no thumbnail
+            if (thumbnailInputStreams == null) {
+                return null;
+            }
+
+            Map<Integer, URI> thumbnailUris = new HashMap<>();
+            for (Map.Entry<Integer, InputStream> thumbnail : thumbnailInputStreams.entrySet()) {
+                thumbnailUris.put(
+                        thumbnail.getKey(),
+                        uploadThumbnailFile(mediaPath, thumbnailFilename(filename, thumbnail.getKey()), thumbnail.getValue())
+                );
+            }
 
-            return uploadFiles(
-                    mediaId,
-                    fileSource.getOriginalFilename(),
-                    mediaInputStream,
-                    thumbnailInputStream
+            return new GeneratedThumbnails(
+                    thumbnailUris.get(THUMBNAIL_WIDTH),
+                    MediaThumbnails.of(thumbnailUris)
             );
 
         } catch (IOException | URISyntaxException e) {
@@ -77,18 +146,24 @@ public class LocalStorageMediaUploadStrategy implements MediaUploadStrategy {
     @Override
     public UploadedMediaFile uploadMedia(final UUID mediaId,
                                          final MediaExtension extension,
+                                         final String filename,
                                          final MultipartFile fileSource,
                                          final MultipartFile thumbnailSource) {
         try (
-                InputStream thumbnailInputStream = thumbnailSource.getInputStream();
-
-                InputStream mediaInputStream = fileSource.getInputStream()
+                InputStream thumbnailInputStream = thumbnailSource.getInputStream()
         ) {
-            return uploadFiles(
-                    mediaId,
-                    fileSource.getOriginalFilename(),
-                    mediaInputStream,
-                    thumbnailInputStream
+            File mediaFile = mediaFileOf(mediaId, filename);
+
+            // Upload file as link to deduplicated blob, disk backed upload is moved instead of copied
+            StoredBlob storedBlob = blobStorage.store(mediaId, fileSource::transferTo, mediaFile.toPath());
+
+            return new UploadedMediaFile(
+                    // Original
+                    new URI(REMOTE_STORAGE_MEDIA_PATH + "/" + shardedLayout.pathOf(mediaId) + "/" + mediaFile.getName()),
+                    // Thumbnail
+                    uploadThumbnailFile(shardedLayout.pathOf(mediaId), thumbnailFilename(mediaFile.getName(), null), thumbnailInputStream),
+                    storedBlob.getHash(),
+                    storedBlob.getMd5()
             );
 
         } catch (IOException | URISyntaxException e) {
@@ -96,6 +171,47 @@ public class LocalStorageMediaUploadStrategy implements MediaUploadStrategy {
         }
     }
 
+    @Override
+    public UploadedMediaFile linkMedia(final UUID mediaId,
+                                       final String filename,
+                                       final String hash,
+                                       final long size) {
+        try {
+            File mediaFile = mediaFileOf(mediaId, filename);
+
+            if (!blobStorage.link(mediaId, hash, size, mediaFile.toPath())) {
+                return null;
+            }
+
+            return new UploadedMediaFile(
+                    // Original
+                    new URI(REMOTE_STORAGE_MEDIA_PATH + "/" + shardedLayout.pathOf(mediaId) + "/" + mediaFile.getName()),
+                    // Thumbnail is generated later
+                    null,
+                    hash.toLowerCase(),
+                    // Md5 is the same as of media content was linked from
+                    null
+            );
+
+        } catch (URISyntaxException e) {
+            throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
+        }
+    }
+
+    @Override
+    public void deleteMedia(final UUID mediaId) {
+        try {
+            // Removes media file link and all thumbnails in current and not yet migrated flat layout
+            FileUtils.deleteDirectory(new File(LOCAL_STORAGE_MEDIA_PATH + "/" + shardedLayout.pathOf(mediaId)));
+            FileUtils.deleteDirectory(new File(LOCAL_STORAGE_MEDIA_PATH + "/" + mediaId));
+        } catch (IOException e) {
+            // Blob still linked by leftover file is kept, so it is safe to continue
+            log.log(Level.WARNING, "Deleting files of [mediaId=" + mediaId + "] has failed.", e);
+        }
+
+        blobStorage.release(mediaId);
+    }
+
     private void writeToFile(File file, InputStream inputStream) {
         try (OutputStream outputStream = new FileOutputStream(file)) {
             IOUtils.copy(inputStream, outputStream);
@@ -104,12 +220,8 @@ public class LocalStorageMediaUploadStrategy implements MediaUploadStrategy {
         }
     }
 
-    private UploadedMediaFile uploadFiles(
-            final UUID mediaId,
-            final String originalFilename,
-            final InputStream mediaInputStream,
-            final InputStream thumbnailInputStream
-    ) throws URISyntaxException {
+    private File mediaFileOf(final UUID mediaId,
+                             final String originalFilename) {
 
         // Check if filename is not null
         if (originalFilename == null) {
@@ -119,51 +231,59 @@ public class LocalStorageMediaUploadStrategy implements MediaUploadStrategy {
         // Sanitize filename
         String filename = originalFilename.replaceAll("\\s+","_");
 
-        // Create files
-        File mediaFile = new File(LOCAL_STORAGE_MEDIA_PATH + "/" + mediaId + "/" + filename);
-        // Create directories where file need to be located
-        boolean wasMediaFileCreated = mediaFile.getParentFile().mkdirs() || mediaFile.getParentFile().exists();
+        return new File(LOCAL_STORAGE_MEDIA_PATH + "/" + shardedLayout.pathOf(mediaId) + "/" + filename);
+    }
 
-        if (!wasMediaFileCreated) {
-            throw new FileUploadCannotCreatePathException(Errors.FILE_UPLOAD_CANNOT_CREATE_PATH.getErrorMessage());
+    /**
+     * Get path of media directory relative to storage root from media file uri.
+     * Media stored before sharded layout was used has flat path until it is migrated.
+     */
+    private String mediaPathOf(final UUID mediaId,
+                               final URI fileUri) {
+        String path = fileUri.getPath();
+        String remotePrefix = REMOTE_STORAGE_MEDIA_PATH + "/";
+
+        if (path == null || !path.startsWith(remotePrefix) || path.lastIndexOf("/") < remotePrefix.length()) {
+            return shardedLayout.pathOf(mediaId);
         }
 
-        // Upload file
-        writeToFile(mediaFile, mediaInputStream);
-
-        URI fileUri = new URI(REMOTE_STORAGE_MEDIA_PATH + "/" + mediaId + "/" + filename);
-
-        URI thumbnailUri = null;
+        return path.substring(remotePrefix.length(), path.lastIndexOf("/"));
+    }
 
-        // If there is a thumbnail
-        if (thumbnailInputStream != null) {
-            // Create thumbnail filename by removing extension from original filename
-            String thumbnailFileName = THUMBNAIL_PREFIX +
-                    filename.substring(
-                            0,
-                            filename.lastIndexOf(".")
-                    ) + THUMBNAIL_EXTENSION;
+    private URI uploadThumbnailFile(final String mediaPath,
+                                    final String thumbnailFileName,
+                                    final InputStream thumbnailInputStream) throws URISyntaxException {
+        // If there is no thumbnail
+        if (thumbnailInputStream == null) {
+            return null;
+        }
 
-            File thumbnailFile = new File(LOCAL_STORAGE_MEDIA_PATH + "/" + mediaId + "/" + thumbnailFileName);
-            // Create directories where file need to be located
-            boolean wasMediaThumbnailFileCreated = thumbnailFile.getParentFile().mkdirs() || mediaFile.getParentFile().exists();
+        File thumbnailFile = new File(LOCAL_STORAGE_MEDIA_PATH + "/" + mediaPath + "/" + thumbnailFileName);
+        // Create directories where file need to be located
+        boolean wasMediaThumbnailFileCreated = thumbnailFile.getParentFile().mkdirs() || thumbnailFile.getParentFile().exists();
 
-            if (!wasMediaThumbnailFileCreated) {
-                throw new FileUploadCannotCreatePathException(Errors.FILE_UPLOAD_CANNOT_CREATE_PATH.getErrorMessage());
-            }
+        if (!wasMediaThumbnailFileCreated) {
+            throw new FileUploadCannotCreatePathException(Errors.FILE_UPLOAD_CANNOT_CREATE_PATH.getErrorMessage());
+        }
 
-            // Upload file
-            writeToFile(thumbnailFile, thumbnailInputStream);
+        // Upload file
+        writeToFile(thumbnailFile, thumbnailInputStream);
 
-            thumbnailUri = new URI(REMOTE_STORAGE_MEDIA_PATH + "/" + mediaId + "/" + thumbnailFileName);
-        }
+        return new URI(REMOTE_STORAGE_MEDIA_PATH + "/" + mediaPath + "/" + thumbnailFileName);
+    }
 
-        // Return created urls
-        return new UploadedMediaFile(
-                // Original
-                fileUri,
-                // Thumbnail
-                thumbnailUri
-        );
+    /**
+     * Create thumbnail filename by removing extension from original filename.
+     *
+     * @param width Thumbnail width or null for thumbnail uploaded by user.
+     */
+    private String thumbnailFilename(final String filename,
+                                     final Integer width) {
+        return THUMBNAIL_PREFIX +
+                ((width != null) ? width + "_" : "") +
+                filename.substring(
+                        0,
+                        filename.lastIndexOf(".")
+                ) + THUMBNAIL_EXTENSION;
     }
 }
@@ -3,6 +3,7 @@ package ws.furrify.posts.media.strategy;
 import lombok.Value;
 import org.springframework.web.multipart.MultipartFile;
 import ws.furrify.posts.media.MediaExtension;
+import ws.furrify.posts.media.vo.MediaThumbnails;
 
 import java.net.URI;
 import java.util.UUID;
@@ -14,14 +15,64 @@ import java.util.UUID;
  */
 public interface MediaUploadStrategy {
 
-    UploadedMediaFile uploadMediaWithGeneratedThumbnail(final UUID mediaId, final MediaExtension extension, final MultipartFile fileSource);
+    /**
+     * Upload media without thumbnail.
+     * Disk backed media source should be moved with transferTo() instead of being copied through heap.
+     */
+    UploadedMediaFile uploadMedia(final UUID mediaId, final MediaExtension extension, final String filename, final MultipartFile fileSource);
 
-    UploadedMediaFile uploadMedia(final UUID mediaId, final MediaExtension extension, final MultipartFile fileSource, final MultipartFile thumbnailSource);
+    /**
+     * Upload media with given thumbnail.
+     * Disk backed media source should be moved with transferTo() instead of being copied through heap.
+     */
+    UploadedMediaFile uploadMedia(final UUID mediaId, final MediaExtension extension, final String filename, final MultipartFile fileSource, final MultipartFile thumbnailSource);
+
+    /**
+     * Generate thumbnails in all configured widths from already uploaded media and upload them.
+     * Media is decoded once and every thumbnail is scaled from the next larger one.
+     *
+     * @return Uploaded thumbnails or null if media type has no thumbnail.
+     */
+    GeneratedThumbnails generateThumbnails(final UUID mediaId, final MediaExtension extension, final URI fileUri);
+
+    /**
+     * Create media from content which is already stored, without uploading it again.
+     *
+     * @param hash SHA-256 hash of content.
+     * @param size Size of content in bytes.
+     * @return Linked media file or null if content is not stored.
+     */
+    UploadedMediaFile linkMedia(final UUID mediaId, final String filename, final String hash, final long size);
+
+    /**
+     * Delete all files of media and release its stored content.
+     * Deleting already deleted media does nothing.
+     */
+    void deleteMedia(final UUID mediaId);
 
     @Value
     class UploadedMediaFile {
         URI fileUri;
         URI thumbnailUri;
+
+        /**
+         * SHA-256 hash of uploaded content.
+         */
+        String hash;
+
+        /**
+         * Md5 hash of uploaded content or null for linked media, which has the same md5 as media content was linked from.
+         */
+        String md5;
+    }
+
+    @Value
+    class GeneratedThumbnails {
+        /**
+         * Thumbnail in default width.
+         */
+        URI thumbnailUri;
+        MediaThumbnails thumbnails;
     }
 
 }
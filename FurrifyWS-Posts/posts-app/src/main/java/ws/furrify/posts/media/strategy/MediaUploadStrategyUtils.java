@@ -1,25 +1,28 @@
 package ws.furrify.posts.media.strategy;
 
 import net.coobird.thumbnailator.Thumbnails;
-import org.bytedeco.javacv.FFmpegFrameGrabber;
-import org.bytedeco.javacv.Frame;
-import org.bytedeco.javacv.Java2DFrameConverter;
+import net.coobird.thumbnailator.util.exif.ExifFilterUtils;
+import net.coobird.thumbnailator.util.exif.ExifUtils;
+import net.coobird.thumbnailator.util.exif.Orientation;
 import ws.furrify.posts.media.MediaExtension;
 import ws.furrify.posts.utils.GifDecoder;
-import ws.furrify.shared.exception.Errors;
-import ws.furrify.shared.exception.FileContentIsCorruptedException;
-import ws.furrify.shared.exception.VideoFrameExtractionFailedException;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import static ws.furrify.posts.media.MediaExtension.EXTENSION_GIF;
 
@@ -30,96 +33,163 @@ import static ws.furrify.posts.media.MediaExtension.EXTENSION_GIF;
  */
 public class MediaUploadStrategyUtils {
 
-    private final static int PART_OF_VIDEO_TO_THUMBNAIL = 3;
-    private final static int TIMOUT_FRAME_EXTRACTION_SECONDS = 10;
-
-    public static InputStream generateThumbnail(final MediaExtension extension,
-                                                final int width,
-                                                final float quality,
-                                                final InputStream source) throws IOException {
-        return switch (extension.getType()) {
-            case IMAGE -> generateThumbnailForImage(width, quality, source);
-            case VIDEO -> generateThumbnailForImage(
-                    width,
-                    quality,
-                    extractFrameForVideo(source)
+    private final static String JPEG_FORMAT = "jpeg";
+
+    /**
+     * Generate thumbnails in given widths from source file decoded once.
+     * Video file is seeked directly, so it is never buffered in memory.
+     *
+     * @return Thumbnails as jpg by width or null if media type has no thumbnail.
+     */
+    public static SortedMap<Integer, InputStream> generateThumbnails(final MediaExtension extension,
+                                                                     final int[] widths,
+                                                                     final float quality,
+                                                                     final long maxSourcePixels,
+                                                                     final File source,
+                                                                     final VideoFrameExtractor videoFrameExtractor) throws IOException {
+        if (extension.getType() == MediaExtension.MediaType.VIDEO) {
+            BufferedImage image = readSubsampledImage(
+                    maxWidth(widths),
+                    maxSourcePixels,
+                    videoFrameExtractor.extractFrame(source, extension)
+            );
+
+            return generateThumbnailsForImage(widths, quality, image);
+        }
+
+        try (InputStream sourceInputStream = new FileInputStream(source)) {
+            return generateThumbnails(extension, widths, quality, maxSourcePixels, sourceInputStream, videoFrameExtractor);
+        }
+    }
+
+    /**
+     * Generate thumbnails in given widths from source decoded once.
+     *
+     * @return Thumbnails as jpg by width or null if media type has no thumbnail.
+     */
+    public static SortedMap<Integer, InputStream> generateThumbnails(final MediaExtension extension,
+                                                                     final int[] widths,
+                                                                     final float quality,
+                                                                     final long maxSourcePixels,
+                                                                     final InputStream source,
+                                                                     final VideoFrameExtractor videoFrameExtractor) throws IOException {
+        int maxWidth = maxWidth(widths);
+
+        BufferedImage image = switch (extension.getType()) {
+            case IMAGE -> readSubsampledImage(maxWidth, maxSourcePixels, source);
+            case VIDEO -> readSubsampledImage(
+                    maxWidth,
+                    maxSourcePixels,
+                    videoFrameExtractor.extractFrame(source, extension)
             );
             case ANIMATION -> {
                 // Workaround for gif
                 if (extension == EXTENSION_GIF) {
-                    InputStream frame = extractFirstFrameFromGif(source);
-
-                    yield generateThumbnailForImage(width, quality, frame);
+                    yield extractFirstFrameFromGif(maxSourcePixels, source);
                 }
 
                 yield null;
             }
             case AUDIO -> null;
         };
+
+        // Media type has no thumbnail
+        if (image == null) {
+            return null;
+        }
+
+        return generateThumbnailsForImage(widths, quality, image);
+    }
+
+    private static int maxWidth(final int[] widths) {
+        return Arrays.stream(widths).max()
+                .orElseThrow(() -> new IllegalArgumentException("At least one thumbnail width is required."));
     }
 
-    private static InputStream extractFirstFrameFromGif(final InputStream source) throws IOException {
+    private static BufferedImage extractFirstFrameFromGif(final long maxSourcePixels,
+                                                          final InputStream source) throws IOException {
         /*
             TODO Fix gif when JDK is fixed
             Current JDK Gif decoder is broken. It only allows 4000 ish frames. Included workaround below.
          */
-        GifDecoder.GifImage gifImage = GifDecoder.read(source);
-
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
-        ImageIO.write(gifImage.getFrame(0), "png", output);
-
-        return new ByteArrayInputStream(output.toByteArray());
+        // Only first frame is read and decoded, rest of animation is never loaded into memory
+        // Canvas size is checked against max pixel count before it is allocated
+        return GifDecoder.readFirstFrame(source, maxSourcePixels);
     }
 
-    private static InputStream generateThumbnailForImage(final int width,
-                                                         final float quality,
-                                                         final InputStream source) throws IOException {
+    private static SortedMap<Integer, InputStream> generateThumbnailsForImage(final int[] widths,
+                                                                              final float quality,
+                                                                              final BufferedImage image) throws IOException {
+        SortedMap<Integer, InputStream> thumbnails = new TreeMap<>();
 
-        try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
-            Thumbnails.of(source)
+        // Scale down progressively, every thumbnail is scaled from the next larger one instead of the source
+        BufferedImage previous = image;
+        for (int width : Arrays.stream(widths).boxed().distinct().sorted(Comparator.reverseOrder()).toList()) {
+            BufferedImage scaled = Thumbnails.of(previous)
                     .width(width)
                     .keepAspectRatio(true)
-                    .outputFormat("jpg")
-                    .outputQuality(quality)
-                    .toOutputStream(output);
+                    .asBufferedImage();
 
-            return new ByteArrayInputStream(output.toByteArray());
-        }
-    }
+            try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+                Thumbnails.of(scaled)
+                        .scale(1)
+                        .outputFormat("jpg")
+                        .outputQuality(quality)
+                        .toOutputStream(output);
 
-    private static InputStream extractFrameForVideo(final InputStream source) {
+                thumbnails.put(width, new ByteArrayInputStream(output.toByteArray()));
+            }
 
-        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(1, 1, TIMOUT_FRAME_EXTRACTION_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+            previous = scaled;
+        }
 
-        Future<InputStream> inputStreamFuture = threadPool.submit(() -> {
+        return thumbnails;
+    }
 
-            try (FFmpegFrameGrabber frameGrabber = new FFmpegFrameGrabber(source)) {
-                frameGrabber.start();
+    /**
+     * Decode image skipping pixels which would be scaled away anyway,
+     * so decoded image is at most twice the largest thumbnail width instead of full resolution.
+     */
+    private static BufferedImage readSubsampledImage(final int width,
+                                                     final long maxSourcePixels,
+                                                     final InputStream source) throws IOException {
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(source)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                throw new IOException("Image format is not supported.");
+            }
 
-                Java2DFrameConverter converter = new Java2DFrameConverter();
-                frameGrabber.setVideoFrameNumber(frameGrabber.getLengthInFrames() / PART_OF_VIDEO_TO_THUMBNAIL);
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, false);
 
-                Frame frame = frameGrabber.grabImage();
-                BufferedImage image = converter.convert(frame);
+                // Dimensions are read from header, no pixels are decoded yet
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > maxSourcePixels) {
+                    throw new IOException("Image [width=" + sourceWidth + ", height=" + sourceHeight + "] " +
+                            "exceeds max pixel count for thumbnail generation.");
+                }
 
-                ByteArrayOutputStream output = new ByteArrayOutputStream();
-                ImageIO.write(image, "png", output);
+                int subsampling = Math.max(1, sourceWidth / width);
+                ImageReadParam readParam = reader.getDefaultReadParam();
+                readParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
 
-                frameGrabber.stop();
+                BufferedImage image = reader.read(0, readParam);
 
-                return new ByteArrayInputStream(output.toByteArray());
-            } catch (IOException e) {
-                throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
-            }
-        });
+                // Thumbnailator applies exif orientation only for images it decodes itself
+                if (JPEG_FORMAT.equalsIgnoreCase(reader.getFormatName())) {
+                    Orientation orientation = ExifUtils.getExifOrientation(reader, 0);
 
-        try {
-            return inputStreamFuture.get(TIMOUT_FRAME_EXTRACTION_SECONDS, TimeUnit.SECONDS);
-        } catch (Exception e) {
-            // Interrupt task
-            inputStreamFuture.cancel(true);
+                    if (orientation != null && orientation != Orientation.TOP_LEFT) {
+                        image = ExifFilterUtils.getFilterForOrientation(orientation).apply(image);
+                    }
+                }
 
-            throw new VideoFrameExtractionFailedException(Errors.VIDEO_FRAME_EXTRACTION_FAILED.getErrorMessage());
+                return image;
+            } finally {
+                reader.dispose();
+            }
         }
     }
 
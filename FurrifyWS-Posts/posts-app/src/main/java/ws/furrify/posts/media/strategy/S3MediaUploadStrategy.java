@@ -0,0 +1,261 @@
+package ws.furrify.posts.media.strategy;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.multipart.MultipartFile;
+import ws.furrify.posts.blob.StoredBlob;
+import ws.furrify.posts.media.MediaExtension;
+import ws.furrify.posts.media.vo.MediaThumbnails;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.FileContentIsCorruptedException;
+import ws.furrify.shared.exception.FileUploadFailedException;
+import ws.furrify.shared.storage.S3ObjectStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.stream.IntStream;
+
+/**
+ * Upload media file to S3 compatible storage strategy.
+ * Needs to be created as bean for @Value to work.
+ * Media file is spooled to temp file once to compute its hashes and is then uploaded in parallel parts,
+ * thumbnails are streamed from memory without temp files.
+ * Content is not deduplicated, so media cannot be linked from already stored content.
+ *
+ * @author Skyte
+ */
+@Log
+@RequiredArgsConstructor
+public class S3MediaUploadStrategy implements MediaUploadStrategy {
+
+    @Value("${spring.servlet.multipart.location:}")
+    private String TEMP_PATH;
+
+    @Value("${THUMBNAIL_WIDTH:800}")
+    private int THUMBNAIL_WIDTH;
+
+    @Value("${furrify.media.thumbnail.widths}")
+    private int[] THUMBNAIL_WIDTHS;
+
+    @Value("${THUMBNAIL_QUALITY:0.90}")
+    private float THUMBNAIL_QUALITY;
+
+    @Value("${furrify.media.thumbnail.max-source-pixels}")
+    private long THUMBNAIL_MAX_SOURCE_PIXELS;
+
+    @Value("${THUMBNAIL_PREFIX:thumbnail_}")
+    private String THUMBNAIL_PREFIX;
+
+    private final static String MEDIA_PREFIX = "media/";
+    private final static String THUMBNAIL_EXTENSION = ".jpg";
+    private final static String THUMBNAIL_CONTENT_TYPE = "image/jpeg";
+
+    private final VideoFrameExtractor videoFrameExtractor;
+    private final S3ObjectStorage objectStorage;
+
+    @Override
+    public UploadedMediaFile uploadMedia(final UUID mediaId,
+                                         final MediaExtension extension,
+                                         final String filename,
+                                         final MultipartFile fileSource) {
+        try {
+            String mediaFilename = sanitize(filename);
+
+            StoredBlob storedBlob = uploadFile(keyOf(mediaId, mediaFilename), fileSource);
+
+            return new UploadedMediaFile(
+                    // Original
+                    objectStorage.uriOf(keyOf(mediaId, mediaFilename)),
+                    // Thumbnail is generated later
+                    null,
+                    storedBlob.getHash(),
+                    storedBlob.getMd5()
+            );
+
+        } catch (URISyntaxException e) {
+            throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
+        }
+    }
+
+    @Override
+    public UploadedMediaFile uploadMedia(final UUID mediaId,
+                                         final MediaExtension extension,
+                                         final String filename,
+                                         final MultipartFile fileSource,
+                                         final MultipartFile thumbnailSource) {
+        try (
+                InputStream thumbnailInputStream = thumbnailSource.getInputStream()
+        ) {
+            String mediaFilename = sanitize(filename);
+
+            StoredBlob storedBlob = uploadFile(keyOf(mediaId, mediaFilename), fileSource);
+
+            return new UploadedMediaFile(
+                    // Original
+                    objectStorage.uriOf(keyOf(mediaId, mediaFilename)),
+                    // Thumbnail
+                    uploadThumbnailFile(mediaId, thumbnailFilename(mediaFilename, null), thumbnailInputStream, thumbnailSource.getSize()),
+                    storedBlob.getHash(),
+                    storedBlob.getMd5()
+            );
+
+        } catch (IOException | URISyntaxException e) {
+            throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
+        }
+    }
+
+    @Override
+    public GeneratedThumbnails generateThumbnails(final UUID mediaId,
+                                                  final MediaExtension extension,
+                                                  final URI fileUri) {
+        // Stored object has the same name as in remote uri
+        String filename = new File(fileUri.getPath()).getName();
+
+        // Default thumbnail is always part of the ladder
+        int[] widths = IntStream.concat(Arrays.stream(THUMBNAIL_WIDTHS), IntStream.of(THUMBNAIL_WIDTH))
+                .distinct()
+                .toArray();
+
+        try (InputStream storedMediaInputStream = objectStorage.download(keyOf(mediaId, filename))) {
+            SortedMap<Integer, InputStream> thumbnailInputStreams = MediaUploadStrategyUtils.generateThumbnails(
+                    extension,
+                    widths,
+                    THUMBNAIL_QUALITY,
+                    THUMBNAIL_MAX_SOURCE_PIXELS,
+                    storedMediaInputStream,
+                    videoFrameExtractor
+            );
+
+            // Media type has no thumbnail
+            if (thumbnailInputStreams == null) {
+                return null;
+            }
+
+            Map<Integer, URI> thumbnailUris = new HashMap<>();
+            for (Map.Entry<Integer, InputStream> thumbnail : thumbnailInputStreams.entrySet()) {
+                // Generated thumbnails are kept in memory, so their size is known
+                ByteArrayInputStream thumbnailInputStream = (ByteArrayInputStream) thumbnail.getValue();
+
+                thumbnailUris.put(
+                        thumbnail.getKey(),
+                        uploadThumbnailFile(mediaId, thumbnailFilename(filename, thumbnail.getKey()), thumbnailInputStream, thumbnailInputStream.available())
+                );
+            }
+
+            return new GeneratedThumbnails(
+                    thumbnailUris.get(THUMBNAIL_WIDTH),
+                    MediaThumbnails.of(thumbnailUris)
+            );
+
+        } catch (IOException | URISyntaxException e) {
+            throw new FileContentIsCorruptedException(Errors.FILE_CONTENT_IS_CORRUPTED.getErrorMessage());
+        }
+    }
+
+    @Override
+    public UploadedMediaFile linkMedia(final UUID mediaId,
+                                       final String filename,
+                                       final String hash,
+                                       final long size) {
+        // Content is not deduplicated, so it always needs to be uploaded
+        return null;
+    }
+
+    @Override
+    public void deleteMedia(final UUID mediaId) {
+        // Removes media file and all thumbnails
+        objectStorage.deleteAll(MEDIA_PREFIX + mediaId + "/");
+    }
+
+    private StoredBlob uploadFile(final String key,
+                                  final MultipartFile fileSource) {
+        Path tempFile = null;
+        try {
+            // Temp file is created next to multipart files, so disk backed upload is moved instead of copied
+            tempFile = (TEMP_PATH == null || TEMP_PATH.isBlank())
+                    ? Files.createTempFile("media", null)
+                    : Files.createTempFile(Path.of(TEMP_PATH), "media", null);
+            Files.delete(tempFile);
+
+            fileSource.transferTo(tempFile.toFile());
+
+            StoredBlob storedBlob = StoredBlob.of(tempFile);
+
+            objectStorage.upload(key, tempFile, fileSource.getContentType());
+
+            return storedBlob;
+        } catch (IOException e) {
+            throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private URI uploadThumbnailFile(final UUID mediaId,
+                                    final String thumbnailFileName,
+                                    final InputStream thumbnailInputStream,
+                                    final long size) throws URISyntaxException {
+        // If there is no thumbnail
+        if (thumbnailInputStream == null) {
+            return null;
+        }
+
+        objectStorage.upload(keyOf(mediaId, thumbnailFileName), thumbnailInputStream, size, THUMBNAIL_CONTENT_TYPE);
+
+        return objectStorage.uriOf(keyOf(mediaId, thumbnailFileName));
+    }
+
+    private static String keyOf(final UUID mediaId,
+                                final String filename) {
+        return MEDIA_PREFIX + mediaId + "/" + filename;
+    }
+
+    private static String sanitize(final String originalFilename) {
+        // Check if filename is not null
+        if (originalFilename == null) {
+            throw new IllegalStateException("Filename cannot be empty.");
+        }
+
+        return originalFilename.replaceAll("\\s+","_");
+    }
+
+    /**
+     * Create thumbnail filename by removing extension from original filename.
+     *
+     * @param width Thumbnail width or null for thumbnail uploaded by user.
+     */
+    private String thumbnailFilename(final String filename,
+                                     final Integer width) {
+        return THUMBNAIL_PREFIX +
+                ((width != null) ? width + "_" : "") +
+                filename.substring(
+                        0,
+                        filename.lastIndexOf(".")
+                ) + THUMBNAIL_EXTENSION;
+    }
+
+    private static void deleteQuietly(final Path file) {
+        if (file == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Deleting [file=" + file + "] has failed.", e);
+        }
+    }
+}
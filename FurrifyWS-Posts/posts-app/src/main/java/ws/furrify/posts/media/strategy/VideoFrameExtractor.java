@@ -0,0 +1,388 @@
+package ws.furrify.posts.media.strategy;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.java.Log;
+import org.bytedeco.javacv.FFmpegFrameGrabber;
+import org.bytedeco.javacv.Frame;
+import org.bytedeco.javacv.FrameGrabber;
+import org.bytedeco.javacv.Java2DFrameConverter;
+import ws.furrify.posts.media.MediaExtension;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.ServiceIsOverloadedException;
+import ws.furrify.shared.exception.VideoFrameExtractionFailedException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+
+/**
+ * Extracts video frames for thumbnails on shared pool of workers with bounded queue.
+ * When queue is full extraction is rejected, so callers can retry later instead of piling up threads.
+ * Timed out extraction has its source stream closed, so blocked grabber fails its read and releases native resources.
+ * Timeout is counted from the moment extraction starts running, while waiting for worker is bounded
+ * by time in which extractions queued ahead of it can time out.
+ * <p>
+ * Frame is taken from keyframe near one third of the video, so frames before it are not decoded.
+ * When duration is unknown or seek fails, first decodable frame is used instead.
+ * Video files are read through file channel which is seeked directly, while streams are buffered only up to limit,
+ * so seek beyond it falls back to first frame instead of buffering the video in memory.
+ * <p>
+ * Queue depth, active workers, fallbacks and extraction duration by extension and outcome are reported as metrics.
+ *
+ * @author Skyte
+ */
+@Log
+public class VideoFrameExtractor implements AutoCloseable {
+
+    private final static String QUEUE_METRIC = "furrify.media.frame-extraction.queue";
+    private final static String ACTIVE_METRIC = "furrify.media.frame-extraction.active";
+    private final static String DURATION_METRIC = "furrify.media.frame-extraction.duration";
+    private final static String FALLBACK_METRIC = "furrify.media.frame-extraction.fallbacks";
+
+    private final static int PART_OF_VIDEO_TO_THUMBNAIL = 3;
+    private final static int TIMEOUT_FRAME_EXTRACTION_SECONDS = 10;
+    private final static int SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private final static int MAX_STREAM_BUFFER_SIZE = 16 * 1024 * 1024;
+
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final Duration queueTimeout;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param workers       Amount of frames extracted in parallel.
+     * @param queueCapacity Max amount of extractions waiting for worker.
+     * @param meterRegistry Registry metrics are reported to.
+     */
+    public VideoFrameExtractor(final int workers,
+                               final int queueCapacity,
+                               final MeterRegistry meterRegistry) {
+        this(workers, queueCapacity, Duration.ofSeconds(TIMEOUT_FRAME_EXTRACTION_SECONDS), meterRegistry);
+    }
+
+    /**
+     * @param workers       Amount of frames extracted in parallel.
+     * @param queueCapacity Max amount of extractions waiting for worker.
+     * @param timeout       Time after which extraction is cancelled.
+     * @param meterRegistry Registry metrics are reported to.
+     */
+    VideoFrameExtractor(final int workers,
+                        final int queueCapacity,
+                        final Duration timeout,
+                        final MeterRegistry meterRegistry) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers amount must be greater than 0.");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be greater than 0.");
+        }
+
+        this.executor = new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "video-frame-extraction");
+                    thread.setDaemon(true);
+
+                    return thread;
+                }
+        );
+
+        this.timeout = timeout;
+        // Every worker can run one extraction of each queued round before this one starts
+        this.queueTimeout = timeout.multipliedBy((queueCapacity + workers - 1) / workers + 1L);
+
+        Gauge.builder(QUEUE_METRIC, executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder(ACTIVE_METRIC, executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Extract keyframe near one third of the video or first frame if video cannot be seeked.
+     *
+     * @param source    Video file.
+     * @param extension Video extension metrics are tagged with.
+     * @return Frame as png.
+     */
+    public InputStream extractFrame(final File source, final MediaExtension extension) {
+        // File is read through stream instead of by grabber directly, so timed out extraction can close it
+        InputStream fileSource;
+        try {
+            fileSource = new FileChannelInputStream(source);
+        } catch (IOException e) {
+            throw new VideoFrameExtractionFailedException(Errors.VIDEO_FRAME_EXTRACTION_FAILED.getErrorMessage());
+        }
+
+        try (fileSource) {
+            // Whole file can be seeked without buffering
+            return extractFrame(() -> new FFmpegFrameGrabber(fileSource, Integer.MAX_VALUE), fileSource, extension);
+        } catch (IOException e) {
+            log.log(Level.FINE, "Closing video file has failed.", e);
+
+            throw new VideoFrameExtractionFailedException(Errors.VIDEO_FRAME_EXTRACTION_FAILED.getErrorMessage());
+        }
+    }
+
+    /**
+     * Extract keyframe near one third of the video or first frame if video cannot be seeked.
+     * Only start of the stream is buffered, so prefer file variant when video is stored locally.
+     *
+     * @param source    Video stream.
+     * @param extension Video extension metrics are tagged with.
+     * @return Frame as png.
+     */
+    public InputStream extractFrame(final InputStream source, final MediaExtension extension) {
+        return extractFrame(() -> new FFmpegFrameGrabber(source, MAX_STREAM_BUFFER_SIZE), source, extension);
+    }
+
+    private InputStream extractFrame(final Callable<FFmpegFrameGrabber> frameGrabberFactory,
+                                     final Closeable source,
+                                     final MediaExtension extension) {
+        long start = System.nanoTime();
+        String outcome = "failure";
+
+        CountDownLatch started = new CountDownLatch(1);
+
+        Future<InputStream> frameFuture;
+        try {
+            frameFuture = executor.submit(() -> {
+                started.countDown();
+
+                return grabFrame(frameGrabberFactory.call(), extension);
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ServiceIsOverloadedException(Errors.VIDEO_FRAME_EXTRACTION_IS_OVERLOADED.getErrorMessage());
+        }
+
+        try {
+            // Time spent in queue is not counted to extraction timeout
+            if (!started.await(queueTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new TimeoutException("Frame extraction has not started.");
+            }
+
+            InputStream frame = frameFuture.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            outcome = "success";
+
+            return frame;
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            cancel(frameFuture, source);
+
+            throw new VideoFrameExtractionFailedException(Errors.VIDEO_FRAME_EXTRACTION_FAILED.getErrorMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(frameFuture, source);
+
+            throw new VideoFrameExtractionFailedException(Errors.VIDEO_FRAME_EXTRACTION_FAILED.getErrorMessage());
+        } catch (ExecutionException e) {
+            cancel(frameFuture, source);
+
+            throw new VideoFrameExtractionFailedException(Errors.VIDEO_FRAME_EXTRACTION_FAILED.getErrorMessage());
+        } finally {
+            meterRegistry.timer(DURATION_METRIC, "extension", extension.getExtension(), "outcome", outcome)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stop accepting extractions and wait for running ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private InputStream grabFrame(final FFmpegFrameGrabber grabber, final MediaExtension extension) throws IOException {
+        // Grabber is closed even when extraction was cancelled, which releases its native resources
+        try (FFmpegFrameGrabber frameGrabber = grabber) {
+            frameGrabber.start();
+
+            Frame frame = grabKeyFrame(frameGrabber);
+
+            // Fall back to first decodable frame when duration is unknown or seek has failed
+            if (frame == null) {
+                meterRegistry.counter(FALLBACK_METRIC, "extension", extension.getExtension()).increment();
+
+                frame = grabFirstFrame(frameGrabber);
+            }
+
+            if (frame == null) {
+                throw new IOException("Video has no decodable frame.");
+            }
+
+            BufferedImage image = new Java2DFrameConverter().convert(frame);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", output);
+
+            return new ByteArrayInputStream(output.toByteArray());
+        }
+    }
+
+    /**
+     * Seek to keyframe near one third of the video and grab it.
+     * Frames between keyframe and exact timestamp are not decoded.
+     *
+     * @return Keyframe or null if it could not be grabbed.
+     */
+    private static Frame grabKeyFrame(final FFmpegFrameGrabber frameGrabber) throws IOException {
+        long lengthInTime = frameGrabber.getLengthInTime();
+        if (lengthInTime <= 0) {
+            return null;
+        }
+
+        try {
+            frameGrabber.setTimestamp(lengthInTime / PART_OF_VIDEO_TO_THUMBNAIL, false);
+        } catch (FrameGrabber.Exception e) {
+            log.log(Level.FINE, "Seeking to video keyframe has failed.", e);
+
+            return null;
+        }
+
+        // Do not decode frame of cancelled extraction
+        checkInterrupted();
+
+        Frame frame = frameGrabber.grabKeyFrame();
+        if (frame == null || frame.image == null) {
+            return null;
+        }
+
+        return frame;
+    }
+
+    private static Frame grabFirstFrame(final FFmpegFrameGrabber frameGrabber) throws IOException {
+        checkInterrupted();
+
+        // Grabber position is unknown after failed seek, so rewind it
+        // Non seekable streams are still at start as nothing was decoded yet
+        try {
+            frameGrabber.setTimestamp(0, false);
+        } catch (FrameGrabber.Exception e) {
+            log.log(Level.FINE, "Rewinding video has failed.", e);
+        }
+
+        return frameGrabber.grabImage();
+    }
+
+    private static void checkInterrupted() throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new IOException("Frame extraction was cancelled.");
+        }
+    }
+
+    /**
+     * File stream seeked by grabber through mark and reset, marked position is kept in channel
+     * instead of buffering read content.
+     */
+    private static class FileChannelInputStream extends InputStream {
+        private final FileChannel channel;
+        private long markedPosition;
+
+        private FileChannelInputStream(final File file) throws IOException {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+
+            return (read(buffer, 0, 1) == -1) ? -1 : buffer[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+
+            return channel.read(ByteBuffer.wrap(buffer, offset, length));
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            long position = channel.position();
+            long skipped = Math.min(n, channel.size() - position);
+            if (skipped <= 0) {
+                return 0;
+            }
+
+            channel.position(position + skipped);
+
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0, channel.size() - channel.position()));
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public void mark(final int readLimit) {
+            try {
+                markedPosition = channel.position();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void reset() throws IOException {
+            channel.position(markedPosition);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Closing channel fails read blocked in other thread
+            channel.close();
+        }
+    }
+
+    private static void cancel(final Future<InputStream> frameFuture, final Closeable source) {
+        frameFuture.cancel(true);
+
+        // Native grabber ignores interruption, failing its reads makes it return
+        try {
+            source.close();
+        } catch (IOException e) {
+            log.log(Level.FINE, "Closing video source of cancelled extraction has failed.", e);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import ws.furrify.shared.kafka.DomainEventPublisher;
 import java.time.ZonedDateTime;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 @RequiredArgsConstructor
 final class CreatePostImpl implements CreatePost {
@@ -20,6 +21,7 @@ final class CreatePostImpl implements CreatePost {
     private final DomainEventPublisher<PostEvent> domainEventPublisher;
     private final TagServiceClient tagServiceClient;
     private final ArtistServiceClient artistServiceClient;
+    private final Executor relationsExecutor;
 
     @Override
     public UUID createPost(@NonNull final UUID userId,
@@ -28,10 +30,12 @@ final class CreatePostImpl implements CreatePost {
         UUID postId = UUID.randomUUID();
 
         // Convert tags with values to tags with values and types
-        Set<PostTag> tags = PostUtils.tagValueToTagVO(userId, postDTO.getTags(), tagServiceClient);
-
-        // Convert artists with artistId to artists with artistIds and preferredNicknames
-        Set<PostArtist> artists = PostUtils.artistWithArtistIdToArtistVO(userId, postDTO.getArtists(), artistServiceClient);
+        // and artists with artistId to artists with artistIds and preferredNicknames
+        PostUtils.PostRelations relations = PostUtils.tagsAndArtistsToVO(
+                userId, postDTO.getTags(), postDTO.getArtists(), tagServiceClient, artistServiceClient, relationsExecutor
+        );
+        Set<PostTag> tags = relations.tags();
+        Set<PostArtist> artists = relations.artists();
 
         // Edit postDTO with generated post uuid, encrypted password and current time
         PostDTO updatedPostToCreateDTO = postDTO.toBuilder()
@@ -0,0 +1,154 @@
+package ws.furrify.posts.post;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * Propagates artist changes to posts of an owner in chunks.
+ * Every chunk selects ids of posts that are still outdated and are positioned after last processed post,
+ * then changes them with single set-based statement committed on its own.
+ * If propagation is interrupted, redelivered event selects only posts that were not changed yet,
+ * so it resumes from the first unprocessed chunk.
+ * Chunk which did not change every selected post fails propagation before it moves past that chunk,
+ * so unchanged posts are never silently skipped.
+ * <p>
+ * Progress is reported as changed posts and processed chunks counters tagged by operation.
+ *
+ * @author Skyte
+ */
+@Log
+class PostArtistPropagator {
+
+    private final static String POSTS_METRIC = "furrify.posts.artist.propagation.posts";
+    private final static String CHUNKS_METRIC = "furrify.posts.artist.propagation.chunks";
+    private final static String DURATION_METRIC = "furrify.posts.artist.propagation.duration";
+
+    private final PostRepository postRepository;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+
+    PostArtistPropagator(final PostRepository postRepository,
+                         final MeterRegistry meterRegistry,
+                         final int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0.");
+        }
+
+        this.postRepository = postRepository;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Change preferred nickname of artist in all owner posts.
+     *
+     * @param ownerId           Posts owner uuid.
+     * @param artistId          Artist uuid.
+     * @param preferredNickname New preferred nickname.
+     * @return Amount of changed posts.
+     */
+    long updatePreferredNickname(final UUID ownerId,
+                                 final UUID artistId,
+                                 final String preferredNickname) {
+        return propagate(Operation.NICKNAME, ownerId, artistId,
+                afterId -> postRepository.findAllIdsByOwnerIdAndArtistIdWithOtherPreferredNickname(
+                        ownerId, artistId, preferredNickname, afterId, chunkSize
+                ),
+                ids -> postRepository.updateArtistPreferredNicknameInPosts(artistId, preferredNickname, ids)
+        );
+    }
+
+    /**
+     * Change thumbnail uri of artist in all owner posts.
+     *
+     * @param ownerId      Posts owner uuid.
+     * @param artistId     Artist uuid.
+     * @param thumbnailUri New thumbnail uri or null to remove it.
+     * @return Amount of changed posts.
+     */
+    long updateThumbnailUri(final UUID ownerId,
+                            final UUID artistId,
+                            final URI thumbnailUri) {
+        return propagate(Operation.THUMBNAIL, ownerId, artistId,
+                afterId -> postRepository.findAllIdsByOwnerIdAndArtistIdWithOtherThumbnailUri(
+                        ownerId, artistId, thumbnailUri, afterId, chunkSize
+                ),
+                ids -> postRepository.updateArtistThumbnailUriInPosts(artistId, thumbnailUri, ids)
+        );
+    }
+
+    /**
+     * Remove artist from all owner posts.
+     *
+     * @param ownerId  Posts owner uuid.
+     * @param artistId Artist uuid.
+     * @return Amount of changed posts.
+     */
+    long removeArtist(final UUID ownerId,
+                      final UUID artistId) {
+        return propagate(Operation.REMOVAL, ownerId, artistId,
+                afterId -> postRepository.findAllIdsByOwnerIdAndArtistIdInArtists(
+                        ownerId, artistId, afterId, chunkSize
+                ),
+                ids -> postRepository.deleteArtistFromPosts(artistId, ids)
+        );
+    }
+
+    private long propagate(final Operation operation,
+                           final UUID ownerId,
+                           final UUID artistId,
+                           final LongFunction<List<Long>> nextChunk,
+                           final Function<List<Long>, Integer> applyChunk) {
+        Counter postsCounter = meterRegistry.counter(POSTS_METRIC, "operation", operation.getTag());
+        Counter chunksCounter = meterRegistry.counter(CHUNKS_METRIC, "operation", operation.getTag());
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        long changedPosts = 0;
+        long afterId = 0;
+
+        List<Long> ids;
+        while (!(ids = nextChunk.apply(afterId)).isEmpty()) {
+            int changed = applyChunk.apply(ids);
+            if (changed != ids.size()) {
+                throw new IllegalStateException("Artist propagation chunk changed " + changed + " of " + ids.size() +
+                        " posts [operation=" + operation.getTag() + ", ownerId=" + ownerId + ", artistId=" + artistId + "].");
+            }
+
+            changedPosts += changed;
+            afterId = ids.get(ids.size() - 1);
+
+            postsCounter.increment(changed);
+            chunksCounter.increment();
+
+            log.fine("Artist propagation chunk processed [operation=" + operation.getTag() + ", ownerId=" + ownerId +
+                    ", artistId=" + artistId + ", changedPosts=" + changedPosts + "].");
+        }
+
+        sample.stop(meterRegistry.timer(DURATION_METRIC, "operation", operation.getTag()));
+
+        log.info("Artist propagation finished [operation=" + operation.getTag() + ", ownerId=" + ownerId +
+                ", artistId=" + artistId + ", changedPosts=" + changedPosts + "].");
+
+        return changedPosts;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private enum Operation {
+        NICKNAME("nickname"),
+        THUMBNAIL("thumbnail"),
+        REMOVAL("removal");
+
+        private final String tag;
+    }
+}
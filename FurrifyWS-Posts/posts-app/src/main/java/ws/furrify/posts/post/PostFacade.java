@@ -3,10 +3,12 @@ package ws.furrify.posts.post;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.java.Log;
+import org.apache.avro.specific.SpecificRecord;
 import ws.furrify.artists.artist.ArtistEvent;
 import ws.furrify.posts.attachment.AttachmentEvent;
 import ws.furrify.posts.avatar.AvatarEvent;
 import ws.furrify.posts.media.MediaEvent;
+import ws.furrify.posts.media.vo.MediaThumbnails;
 import ws.furrify.posts.post.dto.PostDTO;
 import ws.furrify.posts.post.dto.PostDtoFactory;
 import ws.furrify.posts.post.vo.PostAttachment;
@@ -16,6 +18,10 @@ import ws.furrify.shared.kafka.DomainEventPublisher;
 import ws.furrify.tags.tag.TagEvent;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -32,6 +38,9 @@ public class PostFacade {
     private final PostRepository postRepository;
     private final PostFactory postFactory;
     private final PostDtoFactory postDTOFactory;
+    private final PostSearchIndex postSearchIndex;
+    private final PostArtistPropagator postArtistPropagator;
+    private final PostTagReplica postTagReplica;
 
     /**
      * Handle incoming post events.
@@ -43,7 +52,7 @@ public class PostFacade {
 
         switch (DomainEventPublisher.PostEventType.valueOf(postEvent.getState())) {
             case CREATED, REPLACED, UPDATED -> savePostInDatabase(postDTO);
-            case REMOVED -> deletePostByPostIdFromDatabase(postDTO.getPostId());
+            case REMOVED -> deletePostByPostIdFromDatabase(key, postDTO.getPostId());
 
             default -> log.warning("State received from kafka is not defined. " +
                     "State=" + postEvent.getState() + " Topic=post_events");
@@ -55,7 +64,6 @@ public class PostFacade {
      *
      * @param mediaEvent Media event instance received from kafka.
      */
-    @SneakyThrows
     public void handleEvent(final UUID key, final MediaEvent mediaEvent) {
         UUID mediaId = UUID.fromString(mediaEvent.getMediaId());
 
@@ -68,36 +76,12 @@ public class PostFacade {
             case UPDATED, REPLACED -> updateMediaDetailsInPost(
                     key,
                     UUID.fromString(mediaEvent.getData().getPostId()),
-                    // Build post media from media event
-                    PostMedia.builder()
-                            .mediaId(mediaId)
-                            .fileUri(
-                                    new URI(mediaEvent.getData().getFileUri())
-                            )
-                            .extension(mediaEvent.getData().getExtension())
-                            .thumbnailUri(
-                                    new URI(mediaEvent.getData().getThumbnailUri())
-                            )
-                            .priority(mediaEvent.getData().getPriority())
-                            .build()
+                    postMediaFrom(mediaEvent)
             );
             case CREATED -> addMediaToPost(
                     key,
                     UUID.fromString(mediaEvent.getData().getPostId()),
-                    // Build post media from media event
-                    PostMedia.builder()
-                            .mediaId(mediaId)
-                            .fileUri(
-                                    new URI(mediaEvent.getData().getFileUri())
-                            )
-                            .extension(mediaEvent.getData().getExtension())
-                            .thumbnailUri(
-                                    (mediaEvent.getData().getThumbnailUri() == null) ?
-                                            null :
-                                            new URI(mediaEvent.getData().getThumbnailUri())
-                            )
-                            .priority(mediaEvent.getData().getPriority())
-                            .build()
+                    postMediaFrom(mediaEvent)
             );
             default -> log.warning("State received from kafka is not defined. " +
                     "State=" + mediaEvent.getState() + " Topic=media_events");
@@ -109,7 +93,6 @@ public class PostFacade {
      *
      * @param attachmentEvent Attachment event instance received from kafka.
      */
-    @SneakyThrows
     public void handleEvent(final UUID key, final AttachmentEvent attachmentEvent) {
         UUID attachmentId = UUID.fromString(attachmentEvent.getAttachmentId());
 
@@ -122,34 +105,36 @@ public class PostFacade {
             case UPDATED, REPLACED -> updateAttachmentDetailsInPost(
                     key,
                     UUID.fromString(attachmentEvent.getData().getPostId()),
-                    // Build post attachment from attachment event
-                    PostAttachment.builder()
-                            .attachmentId(attachmentId)
-                            .fileUri(
-                                    new URI(attachmentEvent.getData().getFileUri())
-                            )
-                            .extension(attachmentEvent.getData().getExtension())
-                            .filename(attachmentEvent.getData().getFilename())
-                            .build()
+                    postAttachmentFrom(attachmentEvent)
             );
             case CREATED -> addAttachmentToPost(
                     key,
                     UUID.fromString(attachmentEvent.getData().getPostId()),
-                    // Build post attachment from attachment event
-                    PostAttachment.builder()
-                            .attachmentId(attachmentId)
-                            .fileUri(
-                                    new URI(attachmentEvent.getData().getFileUri())
-                            )
-                            .extension(attachmentEvent.getData().getExtension())
-                            .filename(attachmentEvent.getData().getFilename())
-                            .build()
+                    postAttachmentFrom(attachmentEvent)
             );
             default -> log.warning("State received from kafka is not defined. " +
                     "State=" + attachmentEvent.getState() + " Topic=attachments_events");
         }
     }
 
+    /**
+     * Handle batch of post, media and attachment events received for one key.
+     * Events are grouped by post and applied in received order to single post aggregate,
+     * so every post is loaded and saved once per batch.
+     *
+     * @param key    Key of events received from kafka.
+     * @param events Post, media and attachment events in order they were received.
+     */
+    public void handleEventBatch(final UUID key, final List<SpecificRecord> events) {
+        // Group events by post keeping their order
+        Map<UUID, List<SpecificRecord>> eventsByPostId = new LinkedHashMap<>();
+        for (SpecificRecord event : events) {
+            eventsByPostId.computeIfAbsent(postIdOf(event), postId -> new ArrayList<>()).add(event);
+        }
+
+        eventsByPostId.forEach((postId, postEvents) -> applyEventsToPost(key, postId, postEvents));
+    }
+
     /**
      * Handle incoming avatar events.
      *
@@ -164,7 +149,7 @@ public class PostFacade {
                     key,
                     artistId
             );
-            case CREATED -> addArtistAvatarToPost(
+            case CREATED, UPDATED -> addArtistAvatarToPost(
                     key,
                     artistId,
                     new URI(avatarEvent.getData().getThumbnailUri())
@@ -181,8 +166,7 @@ public class PostFacade {
      */
     public void handleEvent(final UUID key, final TagEvent tagEvent) {
         switch (DomainEventPublisher.TagEventType.valueOf(tagEvent.getState())) {
-            case CREATED -> {
-            }
+            case CREATED -> postTagReplica.put(key, tagEvent.getData().getValue(), tagEvent.getData().getType());
             case REMOVED -> deleteTagFromPosts(key, tagEvent.getTagValue());
             case UPDATED, REPLACED -> updateTagDetailsInPosts(key,
                     tagEvent.getTagValue(),
@@ -257,50 +241,53 @@ public class PostFacade {
     }
 
     private void savePostInDatabase(final PostDTO postDTO) {
-        postRepository.save(postFactory.from(postDTO));
+        Post post = postFactory.from(postDTO);
+
+        postRepository.save(post);
+        postSearchIndex.index(post.getSnapshot());
     }
 
-    private void deletePostByPostIdFromDatabase(final UUID postId) {
+    private void deletePostByPostIdFromDatabase(final UUID ownerId, final UUID postId) {
         postRepository.deleteByPostId(postId);
+        postSearchIndex.remove(ownerId, postId);
     }
 
     private void updateTagDetailsInPosts(final UUID ownerId,
                                          final String originalTagValue,
                                          final String newValue,
                                          final String newType) {
-        // Get all posts with tag value, update value and save.
-        postRepository.findAllByOwnerIdAndValueInTags(ownerId, originalTagValue).stream()
-                .peek(post -> post.updateTagDetailsInTags(
-                        originalTagValue,
-                        new PostTag(newValue, newType)
-                ))
-                .forEach(postRepository::save);
+        // Update tag in all posts at once instead of saving every post separately.
+        postRepository.updateTagDetailsInPostsByOwnerId(ownerId, originalTagValue, new PostTag(newValue, newType));
+
+        postSearchIndex.renameTag(ownerId, originalTagValue, newValue);
+        postTagReplica.replace(ownerId, originalTagValue, newValue, newType);
     }
 
     private void deleteTagFromPosts(final UUID ownerId,
                                     final String tagValue) {
-        // Get all posts with tag value, remove it and save.
-        postRepository.findAllByOwnerIdAndValueInTags(ownerId, tagValue).stream()
-                .peek(post -> post.removeTag(tagValue))
-                .forEach(postRepository::save);
+        // Remove tag from all posts at once instead of saving every post separately.
+        postRepository.deleteTagFromPostsByOwnerId(ownerId, tagValue);
+
+        postSearchIndex.removeTag(ownerId, tagValue);
+        postTagReplica.remove(ownerId, tagValue);
     }
 
     private void deleteArtistFromPosts(final UUID ownerId,
                                        final UUID artistId) {
-        // Get all posts with tag value, remove it and save.
-        postRepository.findAllByOwnerIdAndArtistIdInArtists(ownerId, artistId).stream()
-                .peek(post -> post.removeArtist(artistId))
-                .forEach(postRepository::save);
+        // Remove artist from posts in chunks instead of saving every post separately.
+        postArtistPropagator.removeArtist(ownerId, artistId);
+
+        postSearchIndex.removeArtist(ownerId, artistId);
     }
 
 
     private void updateArtistDetailsInPosts(final UUID ownerId,
                                             final UUID artistId,
                                             final String preferredNickname) {
-        // Get all posts with artistId in artists, update preferredNickname and save.
-        postRepository.findAllByOwnerIdAndArtistIdInArtists(ownerId, artistId).stream()
-                .peek(post -> post.updateArtistDetailsInArtists(artistId, preferredNickname))
-                .forEach(postRepository::save);
+        // Update preferredNickname in posts in chunks instead of saving every post separately.
+        postArtistPropagator.updatePreferredNickname(ownerId, artistId, preferredNickname);
+
+        postSearchIndex.renameArtist(ownerId, artistId, preferredNickname);
     }
 
     private void addMediaToPost(final UUID ownerId,
@@ -367,21 +354,137 @@ public class PostFacade {
     private void addArtistAvatarToPost(final UUID ownerId,
                                        final UUID artistId,
                                        final URI thumbnailUri) {
-        postRepository.findAllByOwnerIdAndArtistIdInArtists(ownerId, artistId)
-                .forEach(post -> {
-                    post.setArtistThumbnailUri(artistId, thumbnailUri);
-
-                    postRepository.save(post);
-                });
+        postArtistPropagator.updateThumbnailUri(ownerId, artistId, thumbnailUri);
     }
 
     private void deleteArtistAvatarFromPost(final UUID ownerId,
                                             final UUID artistId) {
-        postRepository.findAllByOwnerIdAndArtistIdInArtists(ownerId, artistId)
-                .forEach(post -> {
-                    post.setArtistThumbnailUri(artistId, null);
+        postArtistPropagator.updateThumbnailUri(ownerId, artistId, null);
+    }
+
+    private void applyEventsToPost(final UUID ownerId,
+                                   final UUID postId,
+                                   final List<SpecificRecord> events) {
+        Post post = null;
+        boolean postLoaded = false;
+        boolean postRemoved = false;
+        boolean postDetailsChanged = false;
+
+        for (SpecificRecord event : events) {
+            if (event instanceof PostEvent postEvent) {
+                switch (DomainEventPublisher.PostEventType.valueOf(postEvent.getState())) {
+                    case CREATED, REPLACED, UPDATED -> {
+                        post = postFactory.from(postDTOFactory.from(ownerId, postEvent));
+                        postRemoved = false;
+                        postDetailsChanged = true;
+                    }
+                    case REMOVED -> {
+                        post = null;
+                        postRemoved = true;
+                    }
+
+                    default -> log.warning("State received from kafka is not defined. " +
+                            "State=" + postEvent.getState() + " Topic=post_events");
+                }
+
+                postLoaded = true;
+                continue;
+            }
 
-                    postRepository.save(post);
-                });
+            // Restore post only when first event needs its current state
+            if (!postLoaded) {
+                post = postRepository.findByOwnerIdAndPostId(ownerId, postId).orElse(null);
+                postLoaded = true;
+            }
+
+            if (post == null) {
+                log.severe("Post [postId=" + postId + "] was not found, event received from kafka is skipped.");
+                continue;
+            }
+
+            if (event instanceof MediaEvent mediaEvent) {
+                applyMediaEvent(post, mediaEvent);
+            } else if (event instanceof AttachmentEvent attachmentEvent) {
+                applyAttachmentEvent(post, attachmentEvent);
+            }
+        }
+
+        if (post != null) {
+            postRepository.save(post);
+
+            if (postDetailsChanged) {
+                postSearchIndex.index(post.getSnapshot());
+            }
+        } else if (postRemoved) {
+            deletePostByPostIdFromDatabase(ownerId, postId);
+        }
+    }
+
+    private static void applyMediaEvent(final Post post, final MediaEvent mediaEvent) {
+        switch (DomainEventPublisher.MediaEventType.valueOf(mediaEvent.getState())) {
+            case REMOVED -> post.removeMedia(UUID.fromString(mediaEvent.getMediaId()));
+            case UPDATED, REPLACED -> post.updateMediaDetailsInMediaSet(postMediaFrom(mediaEvent));
+            case CREATED -> post.addMedia(postMediaFrom(mediaEvent));
+            default -> log.warning("State received from kafka is not defined. " +
+                    "State=" + mediaEvent.getState() + " Topic=media_events");
+        }
+    }
+
+    private static void applyAttachmentEvent(final Post post, final AttachmentEvent attachmentEvent) {
+        switch (DomainEventPublisher.AttachmentEventType.valueOf(attachmentEvent.getState())) {
+            case REMOVED -> post.removeAttachment(UUID.fromString(attachmentEvent.getAttachmentId()));
+            case UPDATED, REPLACED -> post.updateAttachmentDetailsInAttachments(postAttachmentFrom(attachmentEvent));
+            case CREATED -> post.addAttachment(postAttachmentFrom(attachmentEvent));
+            default -> log.warning("State received from kafka is not defined. " +
+                    "State=" + attachmentEvent.getState() + " Topic=attachments_events");
+        }
+    }
+
+    private static UUID postIdOf(final SpecificRecord event) {
+        if (event instanceof PostEvent postEvent) {
+            return UUID.fromString(postEvent.getPostId());
+        } else if (event instanceof MediaEvent mediaEvent) {
+            return UUID.fromString(mediaEvent.getData().getPostId());
+        } else if (event instanceof AttachmentEvent attachmentEvent) {
+            return UUID.fromString(attachmentEvent.getData().getPostId());
+        }
+
+        throw new IllegalArgumentException("Event [type=" + event.getClass().getSimpleName() + "] cannot be applied to post.");
+    }
+
+    @SneakyThrows
+    private static PostMedia postMediaFrom(final MediaEvent mediaEvent) {
+        // Build post media from media event
+        return PostMedia.builder()
+                .mediaId(UUID.fromString(mediaEvent.getMediaId()))
+                .fileUri(
+                        new URI(mediaEvent.getData().getFileUri())
+                )
+                .extension(mediaEvent.getData().getExtension())
+                .thumbnailUri(
+                        (mediaEvent.getData().getThumbnailUri() == null) ?
+                                null :
+                                new URI(mediaEvent.getData().getThumbnailUri())
+                )
+                .thumbnails(
+                        (mediaEvent.getData().getThumbnails() == null) ?
+                                null :
+                                MediaThumbnails.ofStrings(mediaEvent.getData().getThumbnails())
+                )
+                .priority(mediaEvent.getData().getPriority())
+                .build();
+    }
+
+    @SneakyThrows
+    private static PostAttachment postAttachmentFrom(final AttachmentEvent attachmentEvent) {
+        // Build post attachment from attachment event
+        return PostAttachment.builder()
+                .attachmentId(UUID.fromString(attachmentEvent.getAttachmentId()))
+                .fileUri(
+                        new URI(attachmentEvent.getData().getFileUri())
+                )
+                .extension(attachmentEvent.getData().getExtension())
+                .filename(attachmentEvent.getData().getFilename())
+                .build();
     }
 }
@@ -2,9 +2,15 @@ package ws.furrify.posts.post;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import ws.furrify.posts.post.dto.query.PostArtistIndexQueryDTO;
 import ws.furrify.posts.post.dto.query.PostDetailsQueryDTO;
+import ws.furrify.posts.post.dto.query.PostIndexQueryDTO;
+import ws.furrify.posts.post.dto.query.PostTagDetailsQueryDTO;
+import ws.furrify.posts.post.dto.query.PostTagIndexQueryDTO;
 import ws.furrify.posts.post.dto.vo.PostQuerySearchDTO;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -21,4 +27,16 @@ public interface PostQueryRepository {
     Page<PostDetailsQueryDTO> findAllByOwnerIdAndArtistId(UUID userId, UUID artistId, Pageable pageable);
 
     Long getIdByPostId(UUID postId);
+
+    List<PostSnapshot> findAllByOwnerIdAndPostIdIn(UUID ownerId, Collection<UUID> postIds);
+
+    List<PostIndexQueryDTO> findAllIndexEntriesByOwnerId(UUID ownerId);
+
+    List<PostTagIndexQueryDTO> findAllIndexTagsByOwnerId(UUID ownerId);
+
+    List<PostArtistIndexQueryDTO> findAllIndexArtistsByOwnerId(UUID ownerId);
+
+    List<UUID> findAllOwnerIdsOrderedByLatestPost(Pageable pageable);
+
+    List<PostTagDetailsQueryDTO> findAllDistinctTagDetails();
 }
@@ -0,0 +1,542 @@
+package ws.furrify.posts.post;
+
+import lombok.extern.java.Log;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ws.furrify.posts.post.dto.query.PostArtistIndexQueryDTO;
+import ws.furrify.posts.post.dto.query.PostIndexQueryDTO;
+import ws.furrify.posts.post.dto.query.PostTagIndexQueryDTO;
+import ws.furrify.posts.post.dto.vo.PostQuerySearchDTO;
+import ws.furrify.posts.post.vo.PostTag;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index of post tags, artists and title/description terms kept per owner.
+ * Every owner post gets dense ordinal, so postings are stored as compressed bitmaps
+ * and query include/exclude sets are resolved with bitmap AND/ANDNOT operations.
+ * Terms are kept sorted, so every query word is matched as term prefix with a range lookup.
+ * Tags and artist nicknames are matched exactly like in database, only title and description terms are case-insensitive.
+ * Database is used only to hydrate final page of post ids.
+ * <p>
+ * Owner index is loaded lazily on first search and later kept up to date by post, tag and artist events.
+ * Events for owners that are not loaded are ignored as their index will be built from database anyway.
+ * Owner is loaded from database outside of index map, so loading does not block other owners.
+ * Events received while owner is loaded are recorded and applied to loaded index, which is safe as all updates are idempotent.
+ *
+ * @author Skyte
+ */
+@Log
+public class PostSearchIndex {
+
+    private final static Pattern TERM_SEPARATOR_PATTERN = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final PostQueryRepository postQueryRepository;
+    private final int maxIndexedOwners;
+
+    private final Map<UUID, OwnerIndex> ownerIndexes = new ConcurrentHashMap<>();
+    private final Map<UUID, List<Consumer<OwnerIndex>>> loadingOwnerUpdates = new ConcurrentHashMap<>();
+
+    public PostSearchIndex(final PostQueryRepository postQueryRepository,
+                           final int maxIndexedOwners) {
+        if (maxIndexedOwners < 1) {
+            throw new IllegalArgumentException("Max indexed owners must be greater than 0.");
+        }
+
+        this.postQueryRepository = postQueryRepository;
+        this.maxIndexedOwners = maxIndexedOwners;
+    }
+
+    /**
+     * Search owner posts using index.
+     * Index is used only if requested sort can be handled in memory.
+     *
+     * @param ownerId  Posts owner UUID.
+     * @param query    Parsed search query.
+     * @param pageable Page information.
+     * @return Page of found posts or empty optional if search can't be handled by index.
+     */
+    public Optional<Page<PostSnapshot>> search(final UUID ownerId,
+                                               final PostQuerySearchDTO query,
+                                               final Pageable pageable) {
+        Comparator<IndexedPost> comparator = comparatorOf(pageable.getSort());
+        if (comparator == null) {
+            return Optional.empty();
+        }
+
+        OwnerIndex ownerIndex = ownerIndexOf(ownerId);
+        ownerIndex.lastAccess = System.nanoTime();
+        evictLeastRecentlyUsed(ownerId);
+
+        List<UUID> matchingPostIds = ownerIndex.search(query, comparator);
+
+        List<UUID> pagePostIds = matchingPostIds.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+
+        return Optional.of(
+                new PageImpl<>(hydrate(ownerId, pagePostIds), pageable, matchingPostIds.size())
+        );
+    }
+
+    /**
+     * Drops all loaded owners and loads most recently active owners again from database.
+     */
+    public void rebuild() {
+        ownerIndexes.clear();
+
+        postQueryRepository.findAllOwnerIdsOrderedByLatestPost(PageRequest.of(0, maxIndexedOwners))
+                .forEach(this::ownerIndexOf);
+
+        log.info("Rebuilt search index. Owners=" + ownerIndexes.size());
+    }
+
+    void index(final PostSnapshot postSnapshot) {
+        IndexedPost indexedPost = IndexedPost.of(postSnapshot);
+
+        update(postSnapshot.getOwnerId(), ownerIndex -> ownerIndex.put(indexedPost));
+    }
+
+    void remove(final UUID ownerId, final UUID postId) {
+        update(ownerId, ownerIndex -> ownerIndex.remove(postId));
+    }
+
+    void renameTag(final UUID ownerId, final String originalValue, final String newValue) {
+        update(ownerId, ownerIndex -> ownerIndex.renameTag(originalValue, newValue));
+    }
+
+    void removeTag(final UUID ownerId, final String value) {
+        update(ownerId, ownerIndex -> ownerIndex.removeTag(value));
+    }
+
+    void renameArtist(final UUID ownerId, final UUID artistId, final String preferredNickname) {
+        update(ownerId, ownerIndex -> ownerIndex.renameArtist(artistId, preferredNickname));
+    }
+
+    void removeArtist(final UUID ownerId, final UUID artistId) {
+        update(ownerId, ownerIndex -> ownerIndex.removeArtist(artistId));
+    }
+
+    private void update(final UUID ownerId, final Consumer<OwnerIndex> update) {
+        // Record update first, so it cannot be missed by owner which finishes loading in meantime
+        loadingOwnerUpdates.computeIfPresent(ownerId, (id, updates) -> {
+            updates.add(update);
+
+            return updates;
+        });
+
+        ownerIndexes.computeIfPresent(ownerId, (id, ownerIndex) -> {
+            update.accept(ownerIndex);
+
+            return ownerIndex;
+        });
+    }
+
+    private OwnerIndex ownerIndexOf(final UUID ownerId) {
+        OwnerIndex ownerIndex = ownerIndexes.get(ownerId);
+        if (ownerIndex != null) {
+            return ownerIndex;
+        }
+
+        List<Consumer<OwnerIndex>> updates = loadingOwnerUpdates.computeIfAbsent(
+                ownerId, id -> Collections.synchronizedList(new ArrayList<>())
+        );
+
+        try {
+            OwnerIndex loadedIndex = loadOwnerIndex(ownerId);
+
+            return ownerIndexes.compute(ownerId, (id, existingIndex) -> {
+                // Owner was loaded concurrently
+                if (existingIndex != null) {
+                    return existingIndex;
+                }
+
+                synchronized (updates) {
+                    updates.forEach(update -> update.accept(loadedIndex));
+                }
+
+                return loadedIndex;
+            });
+        } finally {
+            loadingOwnerUpdates.remove(ownerId, updates);
+        }
+    }
+
+    private List<PostSnapshot> hydrate(final UUID ownerId, final List<UUID> postIds) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, PostSnapshot> postSnapshots = postQueryRepository.findAllByOwnerIdAndPostIdIn(ownerId, postIds).stream()
+                .collect(Collectors.toMap(PostSnapshot::getPostId, Function.identity()));
+
+        // Keep index order, skip posts removed in meantime
+        return postIds.stream()
+                .map(postSnapshots::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private OwnerIndex loadOwnerIndex(final UUID ownerId) {
+        Map<UUID, Set<String>> tags = new HashMap<>();
+        for (PostTagIndexQueryDTO tag : postQueryRepository.findAllIndexTagsByOwnerId(ownerId)) {
+            tags.computeIfAbsent(tag.getPostId(), postId -> new HashSet<>()).add(tag.getTagValue());
+        }
+
+        Map<UUID, Map<UUID, String>> artists = new HashMap<>();
+        for (PostArtistIndexQueryDTO artist : postQueryRepository.findAllIndexArtistsByOwnerId(ownerId)) {
+            artists.computeIfAbsent(artist.getPostId(), postId -> new HashMap<>())
+                    .put(artist.getArtistId(), artist.getPreferredNickname());
+        }
+
+        OwnerIndex ownerIndex = new OwnerIndex();
+        for (PostIndexQueryDTO post : postQueryRepository.findAllIndexEntriesByOwnerId(ownerId)) {
+            ownerIndex.put(
+                    new IndexedPost(
+                            post.getPostId(),
+                            post.getTitle(),
+                            toEpochMilli(post.getCreateDate()),
+                            tokenize(post.getTitle(), post.getDescription()),
+                            tags.getOrDefault(post.getPostId(), Set.of()),
+                            artists.getOrDefault(post.getPostId(), Map.of())
+                    )
+            );
+        }
+
+        log.info("Loaded search index for owner. OwnerId=" + ownerId + " Posts=" + ownerIndex.size());
+
+        return ownerIndex;
+    }
+
+    private void evictLeastRecentlyUsed(final UUID currentOwnerId) {
+        while (ownerIndexes.size() > maxIndexedOwners) {
+            ownerIndexes.entrySet().stream()
+                    .filter(entry -> !entry.getKey().equals(currentOwnerId))
+                    .min(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .ifPresentOrElse(
+                            entry -> ownerIndexes.remove(entry.getKey(), entry.getValue()),
+                            () -> {
+                                throw new IllegalStateException("Search index cannot evict current owner.");
+                            }
+                    );
+        }
+    }
+
+    private static Comparator<IndexedPost> comparatorOf(final Sort sort) {
+        Comparator<IndexedPost> comparator = null;
+
+        for (Sort.Order order : sort) {
+            Comparator<IndexedPost> orderComparator = switch (order.getProperty()) {
+                case "createDate" -> Comparator.comparingLong(IndexedPost::createDate);
+                case "title" -> Comparator.comparing(IndexedPost::title, String.CASE_INSENSITIVE_ORDER);
+                // Sort property is not indexed
+                default -> null;
+            };
+
+            if (orderComparator == null) {
+                return null;
+            }
+
+            if (order.isDescending()) {
+                orderComparator = orderComparator.reversed();
+            }
+
+            comparator = (comparator == null) ? orderComparator : comparator.thenComparing(orderComparator);
+        }
+
+        Comparator<IndexedPost> tieBreaker = Comparator.comparing(IndexedPost::postId);
+
+        return (comparator == null) ? tieBreaker : comparator.thenComparing(tieBreaker);
+    }
+
+    private static long toEpochMilli(final ZonedDateTime dateTime) {
+        return (dateTime == null) ? 0 : dateTime.toInstant().toEpochMilli();
+    }
+
+    private static String normalize(final String value) {
+        return (value == null) ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> tokenize(final String... texts) {
+        Set<String> terms = new HashSet<>();
+
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+
+            for (String term : TERM_SEPARATOR_PATTERN.split(normalize(text))) {
+                if (!term.isEmpty()) {
+                    terms.add(term);
+                }
+            }
+        }
+
+        return terms;
+    }
+
+    private record IndexedPost(UUID postId,
+                               String title,
+                               long createDate,
+                               Set<String> terms,
+                               Set<String> tags,
+                               Map<UUID, String> artists) {
+
+        private static IndexedPost of(final PostSnapshot postSnapshot) {
+            return new IndexedPost(
+                    postSnapshot.getPostId(),
+                    postSnapshot.getTitle(),
+                    toEpochMilli(postSnapshot.getCreateDate()),
+                    tokenize(postSnapshot.getTitle(), postSnapshot.getDescription()),
+                    postSnapshot.getTags().stream()
+                            .map(PostTag::getValue)
+                            .collect(Collectors.toSet()),
+                    postSnapshot.getArtists().stream()
+                            .collect(HashMap::new,
+                                    (map, artist) -> map.put(artist.getArtistId(), artist.getPreferredNickname()),
+                                    HashMap::putAll)
+            );
+        }
+
+        private IndexedPost withTags(final Set<String> tags) {
+            return new IndexedPost(postId, title, createDate, terms, tags, artists);
+        }
+
+        private IndexedPost withArtists(final Map<UUID, String> artists) {
+            return new IndexedPost(postId, title, createDate, terms, tags, artists);
+        }
+    }
+
+    /**
+     * Index of single owner posts.
+     * Ordinals of removed posts are not reused until index is rebuilt.
+     */
+    private static final class OwnerIndex {
+        private final Map<UUID, Integer> ordinals = new HashMap<>();
+        private final List<IndexedPost> posts = new ArrayList<>();
+        private final RoaringBitmap livePosts = new RoaringBitmap();
+
+        private final NavigableMap<String, RoaringBitmap> terms = new TreeMap<>();
+        private final Map<String, RoaringBitmap> tags = new HashMap<>();
+        private final Map<String, RoaringBitmap> artistNicknames = new HashMap<>();
+        private final Map<UUID, RoaringBitmap> artistIds = new HashMap<>();
+
+        private volatile long lastAccess = System.nanoTime();
+
+        private synchronized int size() {
+            return livePosts.getCardinality();
+        }
+
+        private synchronized List<UUID> search(final PostQuerySearchDTO query,
+                                               final Comparator<IndexedPost> comparator) {
+            RoaringBitmap result = livePosts.clone();
+
+            for (String tag : query.getWithTags()) {
+                result.and(tags.getOrDefault(tag, new RoaringBitmap()));
+            }
+            // Post is excluded only if it contains all excluded values
+            result.andNot(intersection(query.getWithoutTags(), tags));
+
+            for (String artist : query.getWithArtists()) {
+                result.and(artistNicknames.getOrDefault(artist, new RoaringBitmap()));
+            }
+            result.andNot(intersection(query.getWithoutArtists(), artistNicknames));
+
+            // Every word must match prefix of any title or description term
+            for (String word : query.getWords()) {
+                result.and(prefixUnion(normalize(word)));
+            }
+
+            List<IndexedPost> matchingPosts = new ArrayList<>(result.getCardinality());
+            result.forEach((int ordinal) -> matchingPosts.add(posts.get(ordinal)));
+
+            return matchingPosts.stream()
+                    .sorted(comparator)
+                    .map(IndexedPost::postId)
+                    .toList();
+        }
+
+        private synchronized void put(final IndexedPost post) {
+            Integer ordinal = ordinals.get(post.postId());
+
+            if (ordinal == null) {
+                ordinal = posts.size();
+                ordinals.put(post.postId(), ordinal);
+                posts.add(post);
+            } else {
+                removePostings(ordinal, posts.get(ordinal));
+                posts.set(ordinal, post);
+            }
+
+            addPostings(ordinal, post);
+        }
+
+        private synchronized void remove(final UUID postId) {
+            Integer ordinal = ordinals.remove(postId);
+            if (ordinal == null) {
+                return;
+            }
+
+            removePostings(ordinal, posts.get(ordinal));
+            posts.set(ordinal, null);
+        }
+
+        private synchronized void renameTag(final String originalValue, final String newValue) {
+            RoaringBitmap postings = tags.remove(originalValue);
+            if (postings == null) {
+                return;
+            }
+
+            postings.forEach((int ordinal) -> {
+                IndexedPost post = posts.get(ordinal);
+
+                Set<String> postTags = new HashSet<>(post.tags());
+                postTags.remove(originalValue);
+                postTags.add(newValue);
+
+                posts.set(ordinal, post.withTags(postTags));
+            });
+
+            tags.computeIfAbsent(newValue, value -> new RoaringBitmap()).or(postings);
+        }
+
+        private synchronized void removeTag(final String value) {
+            RoaringBitmap postings = tags.remove(value);
+            if (postings == null) {
+                return;
+            }
+
+            postings.forEach((int ordinal) -> {
+                IndexedPost post = posts.get(ordinal);
+
+                Set<String> postTags = new HashSet<>(post.tags());
+                postTags.remove(value);
+
+                posts.set(ordinal, post.withTags(postTags));
+            });
+        }
+
+        private synchronized void renameArtist(final UUID artistId, final String preferredNickname) {
+            RoaringBitmap postings = artistIds.get(artistId);
+            if (postings == null) {
+                return;
+            }
+
+            postings.forEach((int ordinal) -> {
+                IndexedPost post = posts.get(ordinal);
+
+                removePosting(artistNicknames, post.artists().get(artistId), ordinal);
+                addPosting(artistNicknames, preferredNickname, ordinal);
+
+                Map<UUID, String> postArtists = new HashMap<>(post.artists());
+                postArtists.put(artistId, preferredNickname);
+
+                posts.set(ordinal, post.withArtists(postArtists));
+            });
+        }
+
+        private synchronized void removeArtist(final UUID artistId) {
+            RoaringBitmap postings = artistIds.remove(artistId);
+            if (postings == null) {
+                return;
+            }
+
+            postings.forEach((int ordinal) -> {
+                IndexedPost post = posts.get(ordinal);
+
+                removePosting(artistNicknames, post.artists().get(artistId), ordinal);
+
+                Map<UUID, String> postArtists = new HashMap<>(post.artists());
+                postArtists.remove(artistId);
+
+                posts.set(ordinal, post.withArtists(postArtists));
+            });
+        }
+
+        private void addPostings(final int ordinal, final IndexedPost post) {
+            livePosts.add(ordinal);
+            post.terms().forEach(term -> addPosting(terms, term, ordinal));
+            post.tags().forEach(tag -> addPosting(tags, tag, ordinal));
+            post.artists().forEach((artistId, nickname) -> {
+                addPosting(artistIds, artistId, ordinal);
+                addPosting(artistNicknames, nickname, ordinal);
+            });
+        }
+
+        private void removePostings(final int ordinal, final IndexedPost post) {
+            livePosts.remove(ordinal);
+            post.terms().forEach(term -> removePosting(terms, term, ordinal));
+            post.tags().forEach(tag -> removePosting(tags, tag, ordinal));
+            post.artists().forEach((artistId, nickname) -> {
+                removePosting(artistIds, artistId, ordinal);
+                removePosting(artistNicknames, nickname, ordinal);
+            });
+        }
+
+        private static <K> void addPosting(final Map<K, RoaringBitmap> postings, final K key, final int ordinal) {
+            if (key != null) {
+                postings.computeIfAbsent(key, k -> new RoaringBitmap()).add(ordinal);
+            }
+        }
+
+        private static <K> void removePosting(final Map<K, RoaringBitmap> postings, final K key, final int ordinal) {
+            if (key == null) {
+                return;
+            }
+
+            RoaringBitmap bitmap = postings.get(key);
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+
+                if (bitmap.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+
+        private RoaringBitmap prefixUnion(final String prefix) {
+            RoaringBitmap result = new RoaringBitmap();
+
+            terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false)
+                    .values()
+                    .forEach(result::or);
+
+            return result;
+        }
+
+        private static RoaringBitmap intersection(final Set<String> values, final Map<String, RoaringBitmap> postings) {
+            RoaringBitmap result = null;
+
+            for (String value : values) {
+                RoaringBitmap bitmap = postings.getOrDefault(value, new RoaringBitmap());
+                result = (result == null) ? bitmap.clone() : RoaringBitmap.and(result, bitmap);
+            }
+
+            return (result == null) ? new RoaringBitmap() : result;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package ws.furrify.posts.post;
+
+import lombok.extern.java.Log;
+import ws.furrify.posts.post.dto.query.PostTagDetailsQueryDTO;
+import ws.furrify.posts.tag.TagServiceClient;
+import ws.furrify.posts.tag.dto.query.TagDetailsQueryDTO;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local read replica of owners tag details used to resolve tag types without calling tags service.
+ * Replica is loaded from tags of stored posts on startup and kept current by tag events.
+ * When tag is not present in replica, tags service is called and found tag is added to replica.
+ * <p>
+ * Replica is loaded into new map which replaces current one when loading is done, so tags are resolved
+ * while loading. Events received during loading are applied to both maps.
+ * Replica holds limited amount of tags, tags over limit are left to tags service.
+ *
+ * @author Skyte
+ */
+@Log
+class PostTagReplica implements TagServiceClient {
+
+    private final PostQueryRepository postQueryRepository;
+    private final TagServiceClient tagServiceClient;
+    private final int maxTags;
+
+    /**
+     * Guards changes of replicated tags, so change is not lost when loaded tags replace current ones.
+     */
+    private final Object lock = new Object();
+
+    private volatile ReplicatedTags replicatedTags = new ReplicatedTags();
+
+    /**
+     * Tags being loaded or null if replica is not loading.
+     */
+    private ReplicatedTags loadingTags;
+
+    PostTagReplica(final PostQueryRepository postQueryRepository,
+                   final TagServiceClient tagServiceClient,
+                   final int maxTags) {
+        if (maxTags < 1) {
+            throw new IllegalArgumentException("Max tags amount must be greater than 0.");
+        }
+
+        this.postQueryRepository = postQueryRepository;
+        this.tagServiceClient = tagServiceClient;
+        this.maxTags = maxTags;
+    }
+
+    @Override
+    public TagDetailsQueryDTO getUserTag(final UUID userId, final String value) {
+        String type = replicatedTags.get(userId).get(value);
+        if (type != null) {
+            return tagDetails(value, type);
+        }
+
+        // Fall back to tags service on cache miss
+        TagDetailsQueryDTO tag = tagServiceClient.getUserTag(userId, value);
+        if (tag != null) {
+            put(userId, tag.getValue(), tag.getType());
+        }
+
+        return tag;
+    }
+
+    @Override
+    public List<TagDetailsQueryDTO> getUserTags(final UUID userId, final Set<String> values) {
+        Map<String, String> ownerTags = replicatedTags.get(userId);
+
+        List<TagDetailsQueryDTO> tags = new ArrayList<>(values.size());
+        Set<String> missingValues = new HashSet<>();
+        for (String value : values) {
+            String type = ownerTags.get(value);
+            if (type != null) {
+                tags.add(tagDetails(value, type));
+            } else {
+                missingValues.add(value);
+            }
+        }
+
+        // Fall back to tags service with single call for all missed values
+        if (!missingValues.isEmpty()) {
+            for (TagDetailsQueryDTO tag : tagServiceClient.getUserTags(userId, missingValues)) {
+                put(userId, tag.getValue(), tag.getType());
+                tags.add(tag);
+            }
+        }
+
+        return tags;
+    }
+
+    /**
+     * Loads tags of stored posts from database and replaces replicated tags with them.
+     * Tags changed by events while loading are kept.
+     */
+    public void load() {
+        ReplicatedTags loadedTags = new ReplicatedTags();
+        synchronized (lock) {
+            if (loadingTags != null) {
+                throw new IllegalStateException("Tag replica is already loading.");
+            }
+
+            loadingTags = loadedTags;
+        }
+
+        try {
+            for (PostTagDetailsQueryDTO tag : postQueryRepository.findAllDistinctTagDetails()) {
+                synchronized (lock) {
+                    // Tag changed by event while loading is newer than stored one
+                    if (!loadedTags.changed.contains(new OwnerTag(tag.getOwnerId(), tag.getValue()))) {
+                        loadedTags.put(tag.getOwnerId(), tag.getValue(), tag.getType(), maxTags);
+                    }
+                }
+            }
+
+            synchronized (lock) {
+                replicatedTags = loadedTags;
+            }
+        } finally {
+            synchronized (lock) {
+                loadingTags = null;
+                loadedTags.changed.clear();
+            }
+        }
+
+        log.info("Loaded tag replica. Owners=" + loadedTags.owners.size() + " Tags=" + loadedTags.size);
+    }
+
+    void put(final UUID ownerId, final String value, final String type) {
+        // Incomplete tag details are left to tags service
+        if (value == null || type == null) {
+            return;
+        }
+
+        synchronized (lock) {
+            replicatedTags.put(ownerId, value, type, maxTags);
+
+            if (loadingTags != null) {
+                loadingTags.put(ownerId, value, type, maxTags);
+                loadingTags.changed.add(new OwnerTag(ownerId, value));
+            }
+        }
+    }
+
+    void replace(final UUID ownerId, final String originalValue, final String newValue, final String newType) {
+        synchronized (lock) {
+            remove(ownerId, originalValue);
+            put(ownerId, newValue, newType);
+        }
+    }
+
+    void remove(final UUID ownerId, final String value) {
+        synchronized (lock) {
+            replicatedTags.remove(ownerId, value);
+
+            if (loadingTags != null) {
+                loadingTags.remove(ownerId, value);
+                loadingTags.changed.add(new OwnerTag(ownerId, value));
+            }
+        }
+    }
+
+    private static TagDetailsQueryDTO tagDetails(final String value, final String type) {
+        TagDetailsQueryDTO tagDetailsQueryDTO = new TagDetailsQueryDTO();
+        tagDetailsQueryDTO.setValue(value);
+        tagDetailsQueryDTO.setType(type);
+
+        return tagDetailsQueryDTO;
+    }
+
+    private record OwnerTag(UUID ownerId, String value) {
+    }
+
+    /**
+     * Tag types by tag value by owner id.
+     * Changes are made under replica lock, reads are not locked.
+     */
+    private static class ReplicatedTags {
+        private final Map<UUID, Map<String, String>> owners = new ConcurrentHashMap<>();
+
+        /**
+         * Tags changed by events while these tags are loading.
+         */
+        private final Set<OwnerTag> changed = new HashSet<>();
+
+        private int size;
+
+        private Map<String, String> get(final UUID ownerId) {
+            return owners.getOrDefault(ownerId, Map.of());
+        }
+
+        private void put(final UUID ownerId, final String value, final String type, final int maxTags) {
+            Map<String, String> ownerTags = owners.get(ownerId);
+            if (ownerTags != null && ownerTags.containsKey(value)) {
+                ownerTags.put(value, type);
+
+                return;
+            }
+
+            // Tags over limit are resolved by tags service
+            if (size >= maxTags) {
+                return;
+            }
+
+            owners.computeIfAbsent(ownerId, id -> new ConcurrentHashMap<>()).put(value, type);
+            size++;
+        }
+
+        private void remove(final UUID ownerId, final String value) {
+            owners.computeIfPresent(ownerId, (id, ownerTags) -> {
+                if (ownerTags.remove(value) != null) {
+                    size--;
+                }
+
+                return ownerTags.isEmpty() ? null : ownerTags;
+            });
+        }
+    }
+}
@@ -15,9 +15,14 @@ import ws.furrify.shared.kafka.DomainEventPublisher;
 
 import java.net.URI;
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +32,43 @@ import java.util.stream.Collectors;
  */
 class PostUtils {
 
+    /**
+     * Converts tags and artists of post at once.
+     * Tags are resolved in single batched call issued concurrently with single batched call resolving artists.
+     *
+     * @param ownerId             Owner UUID.
+     * @param tags                Tags with values to convert or null to skip them.
+     * @param artists             Artists with artistIds to convert or null to skip them.
+     * @param tagServiceClient    Tag Service Client instance.
+     * @param artistServiceClient Artist Service Client instance.
+     * @param relationsExecutor   Executor tags are resolved on, it has to propagate security context of caller.
+     * @return Converted tags and artists, skipped ones are null.
+     */
+    public static PostRelations tagsAndArtistsToVO(UUID ownerId,
+                                                   Set<PostTag> tags,
+                                                   Set<PostArtist> artists,
+                                                   TagServiceClient tagServiceClient,
+                                                   ArtistServiceClient artistServiceClient,
+                                                   Executor relationsExecutor) {
+        CompletableFuture<Set<PostTag>> tagsFuture = (tags == null) ?
+                CompletableFuture.completedFuture(null) :
+                CompletableFuture.supplyAsync(() -> tagValueToTagVO(ownerId, tags, tagServiceClient), relationsExecutor);
+
+        Set<PostArtist> convertedArtists = (artists == null) ?
+                null :
+                artistWithArtistIdToArtistVO(ownerId, artists, artistServiceClient);
+
+        try {
+            return new PostRelations(tagsFuture.join(), convertedArtists);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+
     /**
      * Coverts PostTag with value to PostTag with value and type.
      *
@@ -38,11 +80,21 @@ class PostUtils {
     public static Set<PostTag> tagValueToTagVO(UUID ownerId,
                                                Set<PostTag> tags,
                                                TagServiceClient tagServiceClient) {
-        return tags.stream()
-                .map(tagWithValue -> {
-                            TagDetailsQueryDTO tag = Optional.ofNullable(
-                                    tagServiceClient.getUserTag(ownerId, tagWithValue.getValue())
-                            ).orElseThrow(() -> new RecordNotFoundException(Errors.NO_TAG_FOUND.getErrorMessage(tagWithValue.getValue())));
+        if (tags.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        Set<String> values = tags.stream()
+                .map(PostTag::getValue)
+                .collect(Collectors.toSet());
+
+        Map<String, TagDetailsQueryDTO> foundTags = tagServiceClient.getUserTags(ownerId, values).stream()
+                .collect(Collectors.toMap(TagDetailsQueryDTO::getValue, tag -> tag, (first, second) -> first));
+
+        return values.stream()
+                .map(value -> {
+                            TagDetailsQueryDTO tag = Optional.ofNullable(foundTags.get(value))
+                                    .orElseThrow(() -> new RecordNotFoundException(Errors.NO_TAG_FOUND.getErrorMessage(value)));
 
                             return new PostTag(tag.getValue(), tag.getType());
                         }
@@ -60,11 +112,21 @@ class PostUtils {
     public static Set<PostArtist> artistWithArtistIdToArtistVO(UUID ownerId,
                                                                Set<PostArtist> artists,
                                                                ArtistServiceClient artistServiceClient) {
-        return artists.stream()
-                .map(oldArtist -> {
-                            ArtistDetailsQueryDTO artist = Optional.ofNullable(
-                                    artistServiceClient.getUserArtist(ownerId, oldArtist.getArtistId())
-                            ).orElseThrow(() -> new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(oldArtist.getArtistId())));
+        if (artists.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        Set<UUID> artistIds = artists.stream()
+                .map(PostArtist::getArtistId)
+                .collect(Collectors.toSet());
+
+        Map<UUID, ArtistDetailsQueryDTO> foundArtists = artistServiceClient.getUserArtists(ownerId, artistIds).stream()
+                .collect(Collectors.toMap(ArtistDetailsQueryDTO::getArtistId, artist -> artist, (first, second) -> first));
+
+        return artistIds.stream()
+                .map(artistId -> {
+                            ArtistDetailsQueryDTO artist = Optional.ofNullable(foundArtists.get(artistId))
+                                    .orElseThrow(() -> new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(artistId)));
 
                             final ArtistDetailsQueryDTO.ArtistAvatar avatar = artist.getAvatar();
                             // Check if avatar exists
@@ -137,4 +199,9 @@ class PostUtils {
                 .build();
     }
 
+    /**
+     * Tags and artists converted for post.
+     */
+    record PostRelations(Set<PostTag> tags, Set<PostArtist> artists) {
+    }
 }
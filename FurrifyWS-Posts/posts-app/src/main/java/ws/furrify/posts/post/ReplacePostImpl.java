@@ -15,6 +15,7 @@ import ws.furrify.shared.kafka.DomainEventPublisher;
 
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 @RequiredArgsConstructor
 final class ReplacePostImpl implements ReplacePost {
@@ -23,6 +24,7 @@ final class ReplacePostImpl implements ReplacePost {
     private final PostRepository postRepository;
     private final TagServiceClient tagServiceClient;
     private final ArtistServiceClient artistServiceClient;
+    private final Executor relationsExecutor;
 
     @Override
     public void replacePost(@NonNull final UUID userId,
@@ -32,10 +34,12 @@ final class ReplacePostImpl implements ReplacePost {
                 .orElseThrow(() -> new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(postId.toString())));
 
         // Convert tags with values to tags with values and types
-        Set<PostTag> tags = PostUtils.tagValueToTagVO(userId, postDTO.getTags(), tagServiceClient);
-
-        // Convert artists with artistId to artists with artistIds and preferredNicknames
-        Set<PostArtist> artists = PostUtils.artistWithArtistIdToArtistVO(userId, postDTO.getArtists(), artistServiceClient);
+        // and artists with artistId to artists with artistIds and preferredNicknames
+        PostUtils.PostRelations relations = PostUtils.tagsAndArtistsToVO(
+                userId, postDTO.getTags(), postDTO.getArtists(), tagServiceClient, artistServiceClient, relationsExecutor
+        );
+        Set<PostTag> tags = relations.tags();
+        Set<PostArtist> artists = relations.artists();
 
         // Update tags in post
         post.replaceTags(tags);
@@ -4,17 +4,15 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import ws.furrify.posts.artist.ArtistServiceClient;
 import ws.furrify.posts.post.dto.PostDTO;
-import ws.furrify.posts.post.vo.PostArtist;
 import ws.furrify.posts.post.vo.PostDescription;
-import ws.furrify.posts.post.vo.PostTag;
 import ws.furrify.posts.post.vo.PostTitle;
 import ws.furrify.posts.tag.TagServiceClient;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.RecordNotFoundException;
 import ws.furrify.shared.kafka.DomainEventPublisher;
 
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 @RequiredArgsConstructor
 final class UpdatePostImpl implements UpdatePost {
@@ -23,6 +21,7 @@ final class UpdatePostImpl implements UpdatePost {
     private final PostRepository postRepository;
     private final TagServiceClient tagServiceClient;
     private final ArtistServiceClient artistServiceClient;
+    private final Executor relationsExecutor;
 
     @Override
     public void updatePost(@NonNull final UUID userId,
@@ -42,17 +41,16 @@ final class UpdatePostImpl implements UpdatePost {
                     PostDescription.of(postDTO.getDescription())
             );
         }
-        if (postDTO.getTags() != null) {
-            // Convert tags with values to tags with values and types
-            Set<PostTag> tags = PostUtils.tagValueToTagVO(userId, postDTO.getTags(), tagServiceClient);
-
-            post.replaceTags(tags);
+        // Convert changed tags with values to tags with values and types
+        // and changed artists with artistId to artists with artistIds and preferredNicknames
+        PostUtils.PostRelations relations = PostUtils.tagsAndArtistsToVO(
+                userId, postDTO.getTags(), postDTO.getArtists(), tagServiceClient, artistServiceClient, relationsExecutor
+        );
+        if (relations.tags() != null) {
+            post.replaceTags(relations.tags());
         }
-        if (postDTO.getArtists() != null) {
-            // Convert artists with artistId to artists with artistIds and preferredNicknames
-            Set<PostArtist> artists = PostUtils.artistWithArtistIdToArtistVO(userId, postDTO.getArtists(), artistServiceClient);
-
-            post.replaceArtists(artists);
+        if (relations.artists() != null) {
+            post.replaceArtists(relations.artists());
         }
 
         // Publish update post event
@@ -0,0 +1,17 @@
+package ws.furrify.posts.post.dto.query;
+
+import java.util.UUID;
+
+/**
+ * Post artist projection used to build search index.
+ *
+ * @author Skyte
+ */
+public interface PostArtistIndexQueryDTO {
+
+    UUID getPostId();
+
+    UUID getArtistId();
+
+    String getPreferredNickname();
+}
@@ -0,0 +1,20 @@
+package ws.furrify.posts.post.dto.query;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Lightweight post projection used to build search index.
+ *
+ * @author Skyte
+ */
+public interface PostIndexQueryDTO {
+
+    UUID getPostId();
+
+    String getTitle();
+
+    String getDescription();
+
+    ZonedDateTime getCreateDate();
+}
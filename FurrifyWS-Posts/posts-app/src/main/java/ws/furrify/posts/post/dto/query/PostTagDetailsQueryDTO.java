@@ -0,0 +1,17 @@
+package ws.furrify.posts.post.dto.query;
+
+import java.util.UUID;
+
+/**
+ * Post tag projection used to load tag replica.
+ *
+ * @author Skyte
+ */
+public interface PostTagDetailsQueryDTO {
+
+    UUID getOwnerId();
+
+    String getValue();
+
+    String getType();
+}
@@ -0,0 +1,15 @@
+package ws.furrify.posts.post.dto.query;
+
+import java.util.UUID;
+
+/**
+ * Post tag projection used to build search index.
+ *
+ * @author Skyte
+ */
+public interface PostTagIndexQueryDTO {
+
+    UUID getPostId();
+
+    String getTagValue();
+}
@@ -3,8 +3,11 @@ package ws.furrify.posts.tag;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import ws.furrify.posts.tag.dto.query.TagDetailsQueryDTO;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -22,4 +25,14 @@ public interface TagServiceClient {
      */
     @RequestMapping(method = RequestMethod.GET, value = "/users/{userId}/tags/{value}")
     TagDetailsQueryDTO getUserTag(@PathVariable UUID userId, @PathVariable String value);
+
+    /**
+     * Get user tags by values in single call.
+     *
+     * @param userId Owner UUID.
+     * @param values Tag values.
+     * @return Details of found tags from other microservice, not found values are omitted.
+     */
+    @RequestMapping(method = RequestMethod.GET, value = "/users/{userId}/tags")
+    List<TagDetailsQueryDTO> getUserTags(@PathVariable UUID userId, @RequestParam("values") Set<String> values);
 }
@@ -0,0 +1,83 @@
+package ws.furrify.posts.upload;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Resumable upload of single file sent in chunks.
+ * Session is deleted when it is completed or when it expires.
+ *
+ * @author Skyte
+ */
+@Getter(AccessLevel.PACKAGE)
+@Setter(AccessLevel.PACKAGE)
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+class UploadSession {
+    private Long id;
+
+    private UUID sessionId;
+    private UUID postId;
+    private UUID ownerId;
+
+    private String filename;
+
+    /**
+     * SHA-256 hash of whole file declared by client.
+     */
+    private String hash;
+
+    /**
+     * Size of whole file in bytes.
+     */
+    private long size;
+
+    /**
+     * Size of every chunk in bytes except the last one.
+     */
+    private long chunkSize;
+
+    private Instant expireDate;
+
+    private Status status;
+
+    UploadSession(final UUID sessionId,
+                  final UUID ownerId,
+                  final UUID postId,
+                  final String filename,
+                  final String hash,
+                  final long size,
+                  final long chunkSize,
+                  final Instant expireDate) {
+        this.sessionId = sessionId;
+        this.ownerId = ownerId;
+        this.postId = postId;
+        this.filename = filename;
+        this.hash = hash;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.expireDate = expireDate;
+        this.status = Status.OPEN;
+    }
+
+    int getChunkCount() {
+        return (int) ((size + chunkSize - 1) / chunkSize);
+    }
+
+    enum Status {
+        /**
+         * Chunks can be written.
+         */
+        OPEN,
+        /**
+         * File is handed to create flow, chunks are rejected.
+         */
+        COMPLETING
+    }
+}
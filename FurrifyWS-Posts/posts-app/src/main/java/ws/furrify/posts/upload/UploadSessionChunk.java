@@ -0,0 +1,29 @@
+package ws.furrify.posts.upload;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.UUID;
+
+/**
+ * Chunk of upload session which was written and verified.
+ *
+ * @author Skyte
+ */
+@Getter(AccessLevel.PACKAGE)
+@ToString
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+class UploadSessionChunk {
+    private Long id;
+
+    private UUID sessionId;
+
+    private int chunkIndex;
+
+    UploadSessionChunk(final UUID sessionId, final int chunkIndex) {
+        this.sessionId = sessionId;
+        this.chunkIndex = chunkIndex;
+    }
+}
@@ -0,0 +1,22 @@
+package ws.furrify.posts.upload;
+
+import java.util.List;
+import java.util.UUID;
+
+interface UploadSessionChunkRepository {
+    UploadSessionChunk save(UploadSessionChunk chunk);
+
+    void deleteAllBySessionId(UUID sessionId);
+
+    void deleteBySessionIdAndChunkIndex(UUID sessionId, int chunkIndex);
+
+    boolean existsBySessionIdAndChunkIndex(UUID sessionId, int chunkIndex);
+
+    /**
+     * Find indexes of written chunks, every index is returned once even if chunk was written many times.
+     *
+     * @param sessionId Upload session UUID.
+     * @return Sorted chunk indexes.
+     */
+    List<Integer> findChunkIndexesBySessionId(UUID sessionId);
+}
@@ -0,0 +1,32 @@
+package ws.furrify.posts.upload;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * State of upload session, so client knows which chunks still need to be sent.
+ *
+ * @author Skyte
+ */
+@Value
+public class UploadSessionDetails {
+    UUID sessionId;
+    String filename;
+    long size;
+
+    /**
+     * Size of every chunk in bytes except the last one.
+     */
+    long chunkSize;
+    int chunkCount;
+
+    /**
+     * Indexes of chunks which were already written.
+     */
+    List<Integer> receivedChunks;
+
+    Instant expireDate;
+}
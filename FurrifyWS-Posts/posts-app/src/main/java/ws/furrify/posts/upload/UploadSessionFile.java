@@ -0,0 +1,71 @@
+package ws.furrify.posts.upload;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Completed upload session file passed to upload strategies like any other uploaded file.
+ * Transfer moves the file, so it is not copied when target is on the same file system.
+ *
+ * @author Skyte
+ */
+@RequiredArgsConstructor
+class UploadSessionFile implements MultipartFile {
+
+    private final static String NAME = "file";
+
+    private final Path file;
+    private final String originalFilename;
+    private final long size;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(file);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(file);
+    }
+
+    @Override
+    public void transferTo(final File dest) throws IOException {
+        transferTo(dest.toPath());
+    }
+
+    @Override
+    public void transferTo(final Path dest) throws IOException {
+        Files.move(file, dest);
+    }
+}
@@ -0,0 +1,48 @@
+package ws.furrify.posts.upload;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+interface UploadSessionRepository {
+    UploadSession save(UploadSession session);
+
+    void delete(UploadSession session);
+
+    Optional<UploadSession> findByOwnerIdAndPostIdAndSessionId(UUID ownerId, UUID postId, UUID sessionId);
+
+    /**
+     * Extend expire date of session which is still open.
+     *
+     * @param sessionId  Upload session UUID.
+     * @param expireDate New expire date.
+     */
+    void updateExpireDateOfOpen(UUID sessionId, Instant expireDate);
+
+    /**
+     * Mark open session as completing, only one caller can succeed.
+     *
+     * @param sessionId  Upload session UUID.
+     * @param expireDate New expire date.
+     * @return If session was open and is now completing.
+     */
+    boolean markCompleting(UUID sessionId, Instant expireDate);
+
+    /**
+     * Mark completing session as open again.
+     *
+     * @param sessionId  Upload session UUID.
+     * @param expireDate New expire date.
+     */
+    void reopen(UUID sessionId, Instant expireDate);
+
+    /**
+     * Find sessions which expire date has passed.
+     *
+     * @param now   Current time.
+     * @param limit Max amount of sessions.
+     * @return Expired sessions.
+     */
+    List<UploadSession> findAllExpired(Instant now, int limit);
+}
@@ -0,0 +1,489 @@
+package ws.furrify.posts.upload;
+
+import lombok.extern.java.Log;
+import org.springframework.web.multipart.MultipartFile;
+import ws.furrify.posts.blob.UploadTicketSigner;
+import ws.furrify.posts.post.dto.PostServiceClient;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.FileUploadCannotCreatePathException;
+import ws.furrify.shared.exception.FileUploadFailedException;
+import ws.furrify.shared.exception.InvalidDataGivenException;
+import ws.furrify.shared.exception.RecordNotFoundException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+
+/**
+ * Resumable uploads of large files sent as chunks.
+ * File of every session is preallocated on creation and chunks are written straight at their offsets,
+ * so they can be sent in parallel and only failed chunks need to be sent again.
+ * Every chunk is hashed while it is written and rejected when it is not matching hash sent by client.
+ * Chunk written again is unmarked when its rewrite is rejected, as its previous content could be overwritten already.
+ * Completed file is handed to create flow with upload ticket for hash declared on creation,
+ * so content of the whole file is verified while it is stored.
+ * Sessions which were not completed are deleted when they expire.
+ * Session is marked as completing before its file is handed over and chunk writes in progress are awaited,
+ * so no chunk can be written into file which is already moved to blob storage and shared with other records.
+ * Session is deleted only when create flow has accepted its file, rejected file can be completed again.
+ * Completing session is held under write lock of its session, so it is not deleted by cleanup meanwhile.
+ * Chunks of a session are expected to be written by the instance holding its file.
+ *
+ * @author Skyte
+ */
+@Log
+public class UploadSessions implements AutoCloseable {
+
+    private final static String HASH_ALGORITHM = "SHA-256";
+    private final static int BUFFER_SIZE = 64 * 1024;
+    private final static int CLEANUP_BATCH_SIZE = 100;
+
+    private final UploadSessionRepository sessionRepository;
+    private final UploadSessionChunkRepository chunkRepository;
+    private final PostServiceClient postService;
+    private final UploadTicketSigner uploadTicketSigner;
+
+    private final Path sessionPath;
+    private final long chunkSize;
+    private final long maxSize;
+    private final Duration validity;
+    private final Duration cleanupInterval;
+    private final Clock clock;
+
+    private final ScheduledExecutorService cleaner;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    /**
+     * Chunk writes hold read lock of their session, completion and cleanup take write lock to wait for them.
+     */
+    private final Map<UUID, ReadWriteLock> sessionLocks = new ConcurrentHashMap<>();
+
+    /**
+     * @param sessionPath     Directory session files are preallocated in, should be on the same file system as stored files.
+     * @param chunkSize       Size of every chunk in bytes except the last one.
+     * @param maxSize         Max size of uploaded file in bytes.
+     * @param validity        Time after session without written chunks expires.
+     * @param cleanupInterval Interval expired sessions are deleted in.
+     * @param clock           Clock expiration is checked with.
+     */
+    public UploadSessions(final UploadSessionRepository sessionRepository,
+                          final UploadSessionChunkRepository chunkRepository,
+                          final PostServiceClient postService,
+                          final UploadTicketSigner uploadTicketSigner,
+                          final Path sessionPath,
+                          final long chunkSize,
+                          final long maxSize,
+                          final Duration validity,
+                          final Duration cleanupInterval,
+                          final Clock clock) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0.");
+        }
+
+        this.sessionRepository = sessionRepository;
+        this.chunkRepository = chunkRepository;
+        this.postService = postService;
+        this.uploadTicketSigner = uploadTicketSigner;
+        this.sessionPath = sessionPath;
+        this.chunkSize = chunkSize;
+        this.maxSize = maxSize;
+        this.validity = validity;
+        this.cleanupInterval = cleanupInterval;
+        this.clock = clock;
+
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upload-session-cleaner");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Start deleting expired sessions periodically.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        cleaner.scheduleWithFixedDelay(this::deleteExpired, 0, cleanupInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create upload session and preallocate its file.
+     *
+     * @param ownerId  Owner UUID.
+     * @param postId   Post UUID.
+     * @param filename Name of uploaded file.
+     * @param hash     SHA-256 hash of whole file.
+     * @param size     Size of whole file in bytes.
+     * @return Created session.
+     */
+    public UploadSessionDetails createSession(final UUID ownerId,
+                                              final UUID postId,
+                                              final String filename,
+                                              final String hash,
+                                              final long size) {
+        if (postService.getUserPost(ownerId, postId) == null) {
+            throw new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(postId.toString()));
+        }
+
+        if (size < 1 || size > maxSize) {
+            throw new InvalidDataGivenException(Errors.UPLOAD_SIZE_IS_INVALID.getErrorMessage(String.valueOf(size)));
+        }
+
+        UUID sessionId = UUID.randomUUID();
+
+        try {
+            Files.createDirectories(sessionPath);
+        } catch (IOException e) {
+            throw new FileUploadCannotCreatePathException(Errors.FILE_UPLOAD_CANNOT_CREATE_PATH.getErrorMessage());
+        }
+
+        // File is sparse where file system supports it, so disk space is used as chunks are written
+        try (RandomAccessFile file = new RandomAccessFile(fileOf(sessionId).toFile(), "rw")) {
+            file.setLength(size);
+        } catch (IOException e) {
+            deleteQuietly(fileOf(sessionId));
+
+            throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+        }
+
+        UploadSession session = sessionRepository.save(new UploadSession(
+                sessionId,
+                ownerId,
+                postId,
+                filename,
+                hash.toLowerCase(),
+                size,
+                chunkSize,
+                clock.instant().plus(validity)
+        ));
+
+        return detailsOf(session);
+    }
+
+    /**
+     * Get state of upload session.
+     *
+     * @param ownerId   Owner UUID.
+     * @param postId    Post UUID.
+     * @param sessionId Upload session UUID.
+     * @return Session with indexes of written chunks.
+     */
+    public UploadSessionDetails getSession(final UUID ownerId,
+                                           final UUID postId,
+                                           final UUID sessionId) {
+        return detailsOf(findSession(ownerId, postId, sessionId));
+    }
+
+    /**
+     * Write chunk at its offset in session file.
+     * Chunks can be written in parallel and in any order, chunk written again overwrites previous content.
+     *
+     * @param ownerId   Owner UUID.
+     * @param postId    Post UUID.
+     * @param sessionId Upload session UUID.
+     * @param index     Index of chunk starting from 0.
+     * @param length    Length of chunk content, has to be equal to chunk size or to rest of the file for last chunk.
+     * @param chunkHash SHA-256 hash of chunk content or null if it should not be verified.
+     * @param content   Chunk content.
+     */
+    public void writeChunk(final UUID ownerId,
+                           final UUID postId,
+                           final UUID sessionId,
+                           final int index,
+                           final long length,
+                           final String chunkHash,
+                           final InputStream content) {
+        // Lock is created only for existing session, session is read again under lock to see its current status
+        ReadWriteLock sessionLock = lockOf(findSession(ownerId, postId, sessionId).getSessionId());
+
+        sessionLock.readLock().lock();
+        try {
+            writeChunk(findSession(ownerId, postId, sessionId), index, length, chunkHash, content);
+        } finally {
+            sessionLock.readLock().unlock();
+        }
+    }
+
+    private void writeChunk(final UploadSession session,
+                            final int index,
+                            final long length,
+                            final String chunkHash,
+                            final InputStream content) {
+        UUID sessionId = session.getSessionId();
+
+        // Session is read under lock, so completion waits for this write or this write sees completion
+        if (session.getStatus() != UploadSession.Status.OPEN) {
+            throw new InvalidDataGivenException(Errors.UPLOAD_IS_NOT_OPEN.getErrorMessage(sessionId.toString()));
+        }
+
+        long offset = (long) index * session.getChunkSize();
+        if (index < 0 || index >= session.getChunkCount() ||
+                length != Math.min(session.getChunkSize(), session.getSize() - offset)) {
+            throw new InvalidDataGivenException(Errors.UPLOAD_CHUNK_IS_INVALID.getErrorMessage(String.valueOf(index)));
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Hash algorithm is not supported.", e);
+        }
+
+        long written = 0;
+        // Channel is opened per chunk, positional writes of parallel chunks don't share any state
+        try (FileChannel channel = FileChannel.open(fileOf(sessionId), StandardOpenOption.WRITE)) {
+            ReadableByteChannel source = Channels.newChannel(content);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+            while (written < length) {
+                buffer.limit((int) Math.min(buffer.capacity(), length - written));
+                if (source.read(buffer) == -1) {
+                    break;
+                }
+
+                buffer.flip();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, offset + written);
+                }
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            // Previous content of chunk written again could be overwritten already
+            chunkRepository.deleteBySessionIdAndChunkIndex(sessionId, index);
+
+            throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+        }
+
+        // Chunk cut short or not matching its hash is not marked as written, so it has to be sent again.
+        // Previous content of chunk written again is overwritten, so it is unmarked as well.
+        if (written != length ||
+                (chunkHash != null && !chunkHash.equalsIgnoreCase(HexFormat.of().formatHex(digest.digest())))) {
+            chunkRepository.deleteBySessionIdAndChunkIndex(sessionId, index);
+
+            throw new InvalidDataGivenException(Errors.UPLOAD_CHUNK_IS_INVALID.getErrorMessage(String.valueOf(index)));
+        }
+
+        if (!chunkRepository.existsBySessionIdAndChunkIndex(sessionId, index)) {
+            chunkRepository.save(new UploadSessionChunk(sessionId, index));
+        }
+
+        // Session in progress does not expire
+        sessionRepository.updateExpireDateOfOpen(sessionId, clock.instant().plus(validity));
+    }
+
+    /**
+     * Hand file of session with all chunks written to create flow and delete the session.
+     * Session which file was rejected by create flow is open again, unless its file was already moved.
+     *
+     * @param ownerId    Owner UUID.
+     * @param postId     Post UUID.
+     * @param sessionId  Upload session UUID.
+     * @param completion Create flow completed file is handed to.
+     * @return Id of created record.
+     */
+    public UUID completeSession(final UUID ownerId,
+                                final UUID postId,
+                                final UUID sessionId,
+                                final Completion completion) {
+        UploadSession session = findSession(ownerId, postId, sessionId);
+
+        List<Integer> receivedChunks = chunkRepository.findChunkIndexesBySessionId(sessionId);
+        if (receivedChunks.size() < session.getChunkCount()) {
+            throw new InvalidDataGivenException(Errors.UPLOAD_IS_INCOMPLETE.getErrorMessage(sessionId.toString()));
+        }
+
+        // Only one completion wins and no chunk is written after it, session does not expire while it is completed
+        if (!sessionRepository.markCompleting(sessionId, clock.instant().plus(validity))) {
+            throw new InvalidDataGivenException(Errors.UPLOAD_IS_NOT_OPEN.getErrorMessage(sessionId.toString()));
+        }
+
+        // Chunk writes in progress are awaited and cleanup skips session until it is completed
+        ReadWriteLock sessionLock = lockOf(sessionId);
+        sessionLock.writeLock().lock();
+        try {
+            // Chunk rewrite awaited above could have been rejected
+            if (chunkRepository.findChunkIndexesBySessionId(sessionId).size() < session.getChunkCount()) {
+                sessionRepository.reopen(sessionId, clock.instant().plus(validity));
+
+                throw new InvalidDataGivenException(Errors.UPLOAD_IS_INCOMPLETE.getErrorMessage(sessionId.toString()));
+            }
+
+            // Whole file is verified against declared hash the same way as negotiated upload
+            String uploadTicket = uploadTicketSigner.issue(ownerId, postId, session.getHash(), session.getSize());
+
+            UUID createdId;
+            try {
+                createdId = completion.complete(
+                        new UploadSessionFile(fileOf(sessionId), session.getFilename(), session.getSize()),
+                        uploadTicket
+                );
+            } catch (RuntimeException e) {
+                reopen(session);
+
+                throw e;
+            }
+
+            delete(session);
+
+            return createdId;
+        } finally {
+            sessionLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Delete upload session and its file.
+     *
+     * @param ownerId   Owner UUID.
+     * @param postId    Post UUID.
+     * @param sessionId Upload session UUID.
+     */
+    public void deleteSession(final UUID ownerId,
+                              final UUID postId,
+                              final UUID sessionId) {
+        delete(findSession(ownerId, postId, sessionId));
+    }
+
+    /**
+     * Delete sessions which expire date has passed.
+     * Sessions which are being completed or written are skipped until next cleanup.
+     */
+    void deleteExpired() {
+        try {
+            List<UploadSession> expiredSessions;
+            int deleted;
+            do {
+                expiredSessions = sessionRepository.findAllExpired(clock.instant(), CLEANUP_BATCH_SIZE);
+
+                deleted = 0;
+                for (UploadSession session : expiredSessions) {
+                    if (deleteUnlocked(session)) {
+                        deleted++;
+                    }
+                }
+                // Batch of skipped sessions only would be found again
+            } while (expiredSessions.size() == CLEANUP_BATCH_SIZE && deleted > 0);
+        } catch (RuntimeException e) {
+            // Exception would cancel scheduled cleanup
+            log.log(Level.WARNING, "Deleting expired upload sessions has failed.", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        cleaner.shutdownNow();
+    }
+
+    private UploadSession findSession(final UUID ownerId,
+                                      final UUID postId,
+                                      final UUID sessionId) {
+        return sessionRepository.findByOwnerIdAndPostIdAndSessionId(ownerId, postId, sessionId)
+                // Expired session can be still waiting for cleanup
+                .filter(session -> session.getExpireDate().isAfter(clock.instant()))
+                .orElseThrow(() -> new RecordNotFoundException(Errors.NO_RECORD_FOUND.getErrorMessage(sessionId.toString())));
+    }
+
+    private void delete(final UploadSession session) {
+        chunkRepository.deleteAllBySessionId(session.getSessionId());
+        sessionRepository.delete(session);
+        sessionLocks.remove(session.getSessionId());
+
+        deleteQuietly(fileOf(session.getSessionId()));
+    }
+
+    private boolean deleteUnlocked(final UploadSession session) {
+        ReadWriteLock sessionLock = lockOf(session.getSessionId());
+        if (!sessionLock.writeLock().tryLock()) {
+            return false;
+        }
+
+        try {
+            delete(session);
+        } finally {
+            sessionLock.writeLock().unlock();
+        }
+
+        return true;
+    }
+
+    private void reopen(final UploadSession session) {
+        // File moved before create flow failed cannot be completed again
+        if (!Files.exists(fileOf(session.getSessionId()))) {
+            delete(session);
+
+            return;
+        }
+
+        sessionRepository.reopen(session.getSessionId(), clock.instant().plus(validity));
+    }
+
+    private ReadWriteLock lockOf(final UUID sessionId) {
+        return sessionLocks.computeIfAbsent(sessionId, id -> new ReentrantReadWriteLock());
+    }
+
+    private UploadSessionDetails detailsOf(final UploadSession session) {
+        return new UploadSessionDetails(
+                session.getSessionId(),
+                session.getFilename(),
+                session.getSize(),
+                session.getChunkSize(),
+                session.getChunkCount(),
+                chunkRepository.findChunkIndexesBySessionId(session.getSessionId()),
+                session.getExpireDate()
+        );
+    }
+
+    private Path fileOf(final UUID sessionId) {
+        return sessionPath.resolve(sessionId.toString());
+    }
+
+    private static void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Deleting [file=" + file + "] has failed.", e);
+        }
+    }
+
+    /**
+     * Create flow completed upload is handed to.
+     */
+    @FunctionalInterface
+    public interface Completion {
+
+        /**
+         * @param file         Completed file, transferring it moves the file.
+         * @param uploadTicket Upload ticket for hash and size declared on session creation.
+         * @return Id of created record.
+         */
+        UUID complete(MultipartFile file, String uploadTicket);
+    }
+}
@@ -0,0 +1,39 @@
+package ws.furrify.posts.upload.dto.command;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+import lombok.Value;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+/**
+ * File which will be uploaded in chunks.
+ *
+ * @author Skyte
+ */
+@Value
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
+@ToString
+public class UploadSessionCreateCommandDTO {
+
+    @NotBlank
+    String filename;
+
+    /**
+     * SHA-256 hash of whole file in hex.
+     */
+    @NotNull
+    @Pattern(regexp = "[0-9a-fA-F]{64}")
+    String hash;
+
+    /**
+     * Size of whole file in bytes.
+     */
+    @NotNull
+    @Min(1)
+    Long size;
+}
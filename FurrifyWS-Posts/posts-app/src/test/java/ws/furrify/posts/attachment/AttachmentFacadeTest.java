@@ -9,6 +9,7 @@ import org.springframework.web.multipart.MultipartFile;
 import ws.furrify.posts.attachment.dto.AttachmentDTO;
 import ws.furrify.posts.attachment.dto.AttachmentDtoFactory;
 import ws.furrify.posts.attachment.strategy.AttachmentUploadStrategy;
+import ws.furrify.posts.blob.UploadTicketSigner;
 import ws.furrify.posts.post.dto.PostServiceClient;
 import ws.furrify.posts.post.dto.query.PostDetailsDTO;
 import ws.furrify.shared.exception.RecordNotFoundException;
@@ -20,6 +21,8 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.UUID;
 
@@ -71,11 +74,13 @@ class AttachmentFacadeTest {
         var eventPublisher = (DomainEventPublisher<AttachmentEvent>) mock(DomainEventPublisher.class);
 
         attachmentFacade = new AttachmentFacade(
-                new CreateAttachmentImpl(postServiceClient, attachmentFactory, attachmentUploadStrategy, eventPublisher),
+                new CreateAttachmentImpl(postServiceClient, attachmentFactory, attachmentUploadStrategy, eventPublisher, attachmentRepository, new UploadTicketSigner("secret", Duration.ofHours(1), Clock.systemUTC())),
                 new DeleteAttachmentImpl(eventPublisher, attachmentRepository),
                 attachmentRepository,
                 attachmentFactory,
-                attachmentDtoFactory
+                attachmentDtoFactory,
+                attachmentUploadStrategy,
+                mock(AttachmentStorageReclaimer.class)
         );
     }
 
@@ -132,7 +137,9 @@ class AttachmentFacadeTest {
         // When createAttachment() method called
         when(postServiceClient.getUserPost(any(), any())).thenReturn(postDetailsDTO);
         when(attachmentUploadStrategy.uploadAttachment(any(), any())).thenReturn(new AttachmentUploadStrategy.UploadedAttachmentFile(
-                new URI("/test")
+                new URI("/test"),
+                "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73",
+                "9a0364b9e99bb480dd25e1f0284c8555"
         ));
         // Then return generated uuid
         assertNotNull(attachmentFacade.createAttachment(userId, postId, attachmentDTO, attachmentFile), "AttachmentId was not returned.");
@@ -0,0 +1,208 @@
+package ws.furrify.posts.blob;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlobStorageTest {
+
+    @TempDir
+    Path directory;
+
+    private Path blobPath;
+    private BlobStorage blobStorage;
+
+    @BeforeEach
+    void setUp() {
+        blobPath = directory.resolve("blob");
+        blobStorage = new BlobStorage(new InMemoryBlobReferenceRepository(), blobPath);
+    }
+
+    @Test
+    @DisplayName("Store the same content twice")
+    void store() throws IOException {
+        // Given two media with the same content
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        Path firstTarget = directory.resolve("media/" + firstId + "/yes.png");
+        Path secondTarget = directory.resolve("media/" + secondId + "/no.png");
+        // When store() method called
+        StoredBlob firstBlob = blobStorage.store(firstId, content("content"), firstTarget);
+        StoredBlob secondBlob = blobStorage.store(secondId, content("content"), secondTarget);
+        // Then content is stored once and available at both paths
+        assertEquals(firstBlob, secondBlob, "Hashes are different.");
+        assertEquals(
+                "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73",
+                firstBlob.getHash(),
+                "Hash is not SHA-256 of content."
+        );
+        assertEquals("9a0364b9e99bb480dd25e1f0284c8555", firstBlob.getMd5(), "Hash is not md5 of content.");
+        assertEquals(1, countBlobs(), "Content was not deduplicated.");
+        assertTrue(Files.isSameFile(firstTarget, secondTarget), "Paths are not linked to the same blob.");
+        assertEquals("content", Files.readString(secondTarget), "Content is different.");
+    }
+
+    @Test
+    @DisplayName("Release one of many references")
+    void release() throws IOException {
+        // Given content stored by two media
+        UUID firstId = UUID.randomUUID();
+        Path firstTarget = directory.resolve("media/" + firstId + "/yes.png");
+        Path secondTarget = directory.resolve("media/other/yes.png");
+        blobStorage.store(firstId, content("content"), firstTarget);
+        blobStorage.store(UUID.randomUUID(), content("content"), secondTarget);
+        Files.delete(firstTarget);
+        // When release() method called
+        blobStorage.release(firstId);
+        // Then blob is kept
+        assertEquals(1, countBlobs(), "Blob was deleted.");
+        assertEquals("content", Files.readString(secondTarget), "Content is different.");
+    }
+
+    @Test
+    @DisplayName("Release last reference")
+    void release2() throws IOException {
+        // Given content stored by one media
+        UUID mediaId = UUID.randomUUID();
+        Path target = directory.resolve("media/" + mediaId + "/yes.png");
+        blobStorage.store(mediaId, content("content"), target);
+        Files.delete(target);
+        // When release() method called twice
+        blobStorage.release(mediaId);
+        blobStorage.release(mediaId);
+        // Then blob is deleted
+        assertEquals(0, countBlobs(), "Blob was not deleted.");
+    }
+
+    @Test
+    @DisplayName("Store content again after its blob was released")
+    void store2() throws IOException {
+        // Given released content
+        UUID mediaId = UUID.randomUUID();
+        Path target = directory.resolve("media/" + mediaId + "/yes.png");
+        blobStorage.store(mediaId, content("content"), target);
+        Files.delete(target);
+        blobStorage.release(mediaId);
+        // When store() method called
+        UUID otherId = UUID.randomUUID();
+        Path otherTarget = directory.resolve("media/" + otherId + "/yes.png");
+        blobStorage.store(otherId, content("content"), otherTarget);
+        // Then blob is stored again and no temp files are left
+        assertEquals(1, countBlobs(), "Blob was not stored.");
+        assertEquals("content", Files.readString(otherTarget), "Content is different.");
+        try (Stream<Path> tempFiles = Files.list(blobPath.resolve("tmp"))) {
+            assertFalse(tempFiles.findAny().isPresent(), "Temp file was left.");
+        }
+    }
+
+    @Test
+    @DisplayName("Link stored content")
+    void link() throws IOException {
+        // Given stored content
+        Path target = directory.resolve("media/" + UUID.randomUUID() + "/yes.png");
+        String hash = blobStorage.store(UUID.randomUUID(), content("content"), target).getHash();
+        // When link() method called
+        Path otherTarget = directory.resolve("media/" + UUID.randomUUID() + "/no.png");
+        boolean linked = blobStorage.link(UUID.randomUUID(), hash.toUpperCase(), 7, otherTarget);
+        // Then content is available without being stored again
+        assertTrue(linked, "Content was not linked.");
+        assertTrue(Files.isSameFile(target, otherTarget), "Paths are not linked to the same blob.");
+    }
+
+    @Test
+    @DisplayName("Link stored content with different size")
+    void link2() throws IOException {
+        // Given stored content
+        Path target = directory.resolve("media/" + UUID.randomUUID() + "/yes.png");
+        String hash = blobStorage.store(UUID.randomUUID(), content("content"), target).getHash();
+        // When link() method called
+        Path otherTarget = directory.resolve("media/" + UUID.randomUUID() + "/no.png");
+        boolean linked = blobStorage.link(UUID.randomUUID(), hash, 8, otherTarget);
+        // Then content is not linked
+        assertFalse(linked, "Content was linked.");
+        assertFalse(Files.exists(otherTarget), "File was created.");
+    }
+
+    @Test
+    @DisplayName("Store disk backed content")
+    void store3() throws IOException {
+        // Given content spooled to disk like multipart upload
+        Path spooledFile = directory.resolve("upload.tmp");
+        byte[] content = new byte[3 * 1024 * 1024 + 7];
+        new Random(0).nextBytes(content);
+        Files.write(spooledFile, content);
+        // When store() method called with source moving the file
+        Path target = directory.resolve("media/" + UUID.randomUUID() + "/yes.png");
+        StoredBlob storedBlob = blobStorage.store(
+                UUID.randomUUID(),
+                file -> Files.move(spooledFile, file.toPath()),
+                target
+        );
+        // Then spooled file is moved and hashes cover whole content
+        assertFalse(Files.exists(spooledFile), "Spooled file was not moved.");
+        assertArrayEquals(content, Files.readAllBytes(target), "Content is different.");
+        assertEquals(DigestUtils.sha256Hex(content), storedBlob.getHash(), "Hash is not SHA-256 of content.");
+        assertEquals(DigestUtils.md5Hex(content), storedBlob.getMd5(), "Hash is not md5 of content.");
+    }
+
+    private long countBlobs() throws IOException {
+        try (Stream<Path> files = Files.walk(blobPath)) {
+            return files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getParent().getFileName().toString().equals("tmp"))
+                    .count();
+        }
+    }
+
+    private static BlobSource content(final String content) {
+        return file -> Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+    }
+
+    private static class InMemoryBlobReferenceRepository implements BlobReferenceRepository {
+        private final List<BlobReference> references = new ArrayList<>();
+
+        @Override
+        public BlobReference save(final BlobReference reference) {
+            references.add(reference);
+
+            return reference;
+        }
+
+        @Override
+        public void delete(final BlobReference reference) {
+            references.remove(reference);
+        }
+
+        @Override
+        public Optional<BlobReference> findByReferenceId(final UUID referenceId) {
+            return references.stream()
+                    .filter(reference -> reference.getReferenceId().equals(referenceId))
+                    .findAny();
+        }
+
+        @Override
+        public long countByHash(final String hash) {
+            return references.stream()
+                    .filter(reference -> reference.getHash().equals(hash))
+                    .count();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ws.furrify.posts.blob;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ws.furrify.shared.exception.InvalidDataGivenException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadTicketSignerTest {
+
+    private final static String HASH = "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73";
+
+    private UploadTicketSigner uploadTicketSigner;
+
+    private UUID ownerId;
+    private UUID postId;
+
+    @BeforeEach
+    void setUp() {
+        uploadTicketSigner = new UploadTicketSigner("secret", Duration.ofHours(1), Clock.systemUTC());
+
+        ownerId = UUID.randomUUID();
+        postId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Verify issued ticket")
+    void verify() {
+        // Given issued ticket
+        String ticket = uploadTicketSigner.issue(ownerId, postId, HASH.toUpperCase(), 100);
+        // When verify() method called
+        UploadTicket uploadTicket = uploadTicketSigner.verify(ticket, ownerId, postId);
+        // Then ticket content is returned
+        assertEquals(HASH, uploadTicket.getHash(), "Hash is different.");
+        assertTrue(uploadTicket.isMatching(HASH, 100), "Ticket is not matching content.");
+    }
+
+    @Test
+    @DisplayName("Verify ticket issued for other post")
+    void verify2() {
+        // Given ticket issued for other post
+        String ticket = uploadTicketSigner.issue(ownerId, UUID.randomUUID(), HASH, 100);
+        // When verify() method called
+        // Then throw InvalidDataGivenException
+        assertThrows(
+                InvalidDataGivenException.class,
+                () -> uploadTicketSigner.verify(ticket, ownerId, postId),
+                "Exception was not thrown."
+        );
+    }
+
+    @Test
+    @DisplayName("Verify ticket signed with other secret")
+    void verify3() {
+        // Given ticket signed with other secret
+        String ticket = new UploadTicketSigner("other", Duration.ofHours(1), Clock.systemUTC())
+                .issue(ownerId, postId, HASH, 100);
+        // When verify() method called
+        // Then throw InvalidDataGivenException
+        assertThrows(
+                InvalidDataGivenException.class,
+                () -> uploadTicketSigner.verify(ticket, ownerId, postId),
+                "Exception was not thrown."
+        );
+    }
+
+    @Test
+    @DisplayName("Verify expired ticket")
+    void verify4() {
+        // Given ticket issued two hours ago
+        String ticket = new UploadTicketSigner(
+                "secret",
+                Duration.ofHours(1),
+                Clock.fixed(Instant.now().minus(Duration.ofHours(2)), ZoneOffset.UTC)
+        ).issue(ownerId, postId, HASH, 100);
+        // When verify() method called
+        // Then throw InvalidDataGivenException
+        assertThrows(
+                InvalidDataGivenException.class,
+                () -> uploadTicketSigner.verify(ticket, ownerId, postId),
+                "Exception was not thrown."
+        );
+    }
+
+    @Test
+    @DisplayName("Verify malformed ticket")
+    void verify5() {
+        // Given malformed ticket
+        String ticket = "not-a-ticket";
+        // When verify() method called
+        // Then throw InvalidDataGivenException
+        assertThrows(
+                InvalidDataGivenException.class,
+                () -> uploadTicketSigner.verify(ticket, ownerId, postId),
+                "Exception was not thrown."
+        );
+    }
+}
@@ -6,11 +6,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.multipart.MultipartFile;
+import ws.furrify.posts.blob.UploadNegotiation;
+import ws.furrify.posts.blob.UploadTicketSigner;
 import ws.furrify.posts.media.dto.MediaDTO;
 import ws.furrify.posts.media.dto.MediaDtoFactory;
 import ws.furrify.posts.media.strategy.MediaUploadStrategy;
 import ws.furrify.posts.post.dto.PostServiceClient;
 import ws.furrify.posts.post.dto.query.PostDetailsDTO;
+import ws.furrify.shared.exception.InvalidDataGivenException;
 import ws.furrify.shared.exception.RecordNotFoundException;
 import ws.furrify.shared.kafka.DomainEventPublisher;
 
@@ -19,14 +22,20 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -36,6 +45,9 @@ class MediaFacadeTest {
     private static MediaFacade mediaFacade;
     private static MediaUploadStrategy mediaUploadStrategy;
     private static PostServiceClient postServiceClient;
+    private static UploadTicketSigner uploadTicketSigner;
+
+    private final static String HASH = "ed7002b439e9ac845f22357d822bac1444730fbdb6016d3ec9432297b9ec9f73";
 
     private MediaDTO mediaDTO;
     private Media media;
@@ -65,6 +77,7 @@ class MediaFacadeTest {
         var mediaQueryRepository = mock(MediaQueryRepository.class);
         mediaUploadStrategy = mock(MediaUploadStrategy.class);
         postServiceClient = mock(PostServiceClient.class);
+        uploadTicketSigner = new UploadTicketSigner("secret", Duration.ofHours(1), Clock.systemUTC());
 
         var mediaFactory = new MediaFactory();
         var mediaDtoFactory = new MediaDtoFactory(mediaQueryRepository);
@@ -73,13 +86,16 @@ class MediaFacadeTest {
         var eventPublisher = (DomainEventPublisher<MediaEvent>) mock(DomainEventPublisher.class);
 
         mediaFacade = new MediaFacade(
-                new CreateMediaImpl(postServiceClient, mediaFactory, mediaUploadStrategy, eventPublisher),
+                new CreateMediaImpl(postServiceClient, mediaFactory, mediaUploadStrategy, eventPublisher, mock(MediaThumbnailQueue.class), mediaRepository, uploadTicketSigner),
                 new DeleteMediaImpl(eventPublisher, mediaRepository),
                 new UpdateMediaImpl(eventPublisher, mediaRepository),
                 new ReplaceMediaImpl(eventPublisher, mediaRepository),
                 mediaRepository,
                 mediaFactory,
-                mediaDtoFactory
+                mediaDtoFactory,
+                mediaUploadStrategy,
+                mock(MediaStorageReclaimer.class),
+                mock(MediaThumbnailQueue.class)
         );
     }
 
@@ -135,9 +151,11 @@ class MediaFacadeTest {
         };
         // When createMedia() method called
         when(postServiceClient.getUserPost(any(), any())).thenReturn(postDetailsDTO);
-        when(mediaUploadStrategy.uploadMediaWithGeneratedThumbnail(any(), any(), any())).thenReturn(new MediaUploadStrategy.UploadedMediaFile(
+        when(mediaUploadStrategy.uploadMedia(any(), any(), any(), any())).thenReturn(new MediaUploadStrategy.UploadedMediaFile(
                 new URI("/test"),
-                new URI("/test")
+                new URI("/test"),
+                HASH,
+                "9a0364b9e99bb480dd25e1f0284c8555"
         ));
         // Then return generated uuid
         assertNotNull(mediaFacade.createMedia(userId, postId, mediaDTO, mediaFile, null), "MediaId was not returned.");
@@ -295,14 +313,82 @@ class MediaFacadeTest {
         };
         // When createMedia() method called
         when(postServiceClient.getUserPost(any(), any())).thenReturn(postDetailsDTO);
-        when(mediaUploadStrategy.uploadMedia(any(), any(), any(), any())).thenReturn(new MediaUploadStrategy.UploadedMediaFile(
+        when(mediaUploadStrategy.uploadMedia(any(), any(), any(), any(), any())).thenReturn(new MediaUploadStrategy.UploadedMediaFile(
                 new URI("/test"),
-                new URI("/test")
+                new URI("/test"),
+                HASH,
+                "9a0364b9e99bb480dd25e1f0284c8555"
         ));
         // Then return generated uuid
         assertNotNull(mediaFacade.createMedia(userId, postId, mediaDTO, mediaFile, thumbnailFile), "MediaId was not returned.");
     }
 
+    @Test
+    @DisplayName("Create media with upload ticket issued for different file")
+    void createMedia4() {
+        // Given upload ticket and file with different size
+        UUID userId = UUID.randomUUID();
+        UUID postId = UUID.randomUUID();
+        String uploadTicket = uploadTicketSigner.issue(userId, postId, HASH, 100);
+
+        MultipartFile mediaFile = mock(MultipartFile.class);
+        when(mediaFile.getSize()).thenReturn(50L);
+        // When createMedia() method called
+        when(postServiceClient.getUserPost(any(), any())).thenReturn(
+                new PostDetailsDTO(null, null, null, null, null, null, null, null, null)
+        );
+        // Then throw exception
+        assertThrows(
+                InvalidDataGivenException.class,
+                () -> mediaFacade.createMedia(userId, postId, mediaDTO, mediaFile, null, uploadTicket),
+                "Exception was not thrown."
+        );
+    }
+
+    @Test
+    @DisplayName("Negotiate media with already stored content")
+    void negotiateMedia() throws URISyntaxException {
+        // Given owner media with the same content
+        UUID userId = UUID.randomUUID();
+        UUID postId = UUID.randomUUID();
+        // When negotiateMedia() method called
+        when(postServiceClient.getUserPost(any(), any())).thenReturn(
+                new PostDetailsDTO(null, null, null, null, null, null, null, null, null)
+        );
+        when(mediaRepository.findMd5ByOwnerIdAndExtensionAndBlobHash(userId, mediaDTO.getExtension(), HASH))
+                .thenReturn(Optional.of(mediaDTO.getMd5()));
+        when(mediaUploadStrategy.linkMedia(any(), any(), any(), anyLong())).thenReturn(new MediaUploadStrategy.UploadedMediaFile(
+                new URI("/test"),
+                null,
+                HASH,
+                null
+        ));
+        UploadNegotiation negotiation = mediaFacade.negotiateMedia(userId, postId, mediaDTO, HASH, 100);
+        // Then media is created without upload
+        assertTrue(negotiation.isCreated(), "Media was not created.");
+    }
+
+    @Test
+    @DisplayName("Negotiate media with not stored content")
+    void negotiateMedia2() {
+        // Given owner without media with the same content
+        UUID userId = UUID.randomUUID();
+        UUID postId = UUID.randomUUID();
+        // When negotiateMedia() method called
+        when(postServiceClient.getUserPost(any(), any())).thenReturn(
+                new PostDetailsDTO(null, null, null, null, null, null, null, null, null)
+        );
+        when(mediaRepository.findMd5ByOwnerIdAndExtensionAndBlobHash(any(), any(), any())).thenReturn(Optional.empty());
+        UploadNegotiation negotiation = mediaFacade.negotiateMedia(userId, postId, mediaDTO, HASH, 100);
+        // Then upload ticket for the content is issued
+        assertFalse(negotiation.isCreated(), "Media was created.");
+        assertEquals(
+                100,
+                uploadTicketSigner.verify(negotiation.getUploadTicket(), userId, postId).getSize(),
+                "Upload ticket was not issued for content."
+        );
+    }
+
     @Test
     @DisplayName("Replace media")
     void replaceMedia() {
@@ -0,0 +1,132 @@
+package ws.furrify.posts.media;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ws.furrify.posts.media.dto.MediaDTO;
+import ws.furrify.posts.media.vo.MediaThumbnails;
+import ws.furrify.shared.kafka.DomainEventPublisher;
+import ws.furrify.shared.storage.ShardedLayout;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MediaStorageMigrationTest {
+
+    @TempDir
+    Path directory;
+
+    private MediaRepository mediaRepository;
+    private DomainEventPublisher<MediaEvent> eventPublisher;
+    private ShardedLayout shardedLayout;
+    private MediaStorageMigration mediaStorageMigration;
+
+    private UUID ownerId;
+    private UUID mediaId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mediaRepository = mock(MediaRepository.class);
+        eventPublisher = (DomainEventPublisher<MediaEvent>) mock(DomainEventPublisher.class);
+        shardedLayout = new ShardedLayout(2);
+
+        mediaStorageMigration = new MediaStorageMigration(
+                mediaRepository, eventPublisher, shardedLayout, directory, "/media", 2, 10
+        );
+
+        ownerId = UUID.randomUUID();
+        mediaId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mediaStorageMigration.close();
+    }
+
+    @Test
+    @DisplayName("Migrate media stored in flat layout")
+    @SneakyThrows
+    void migrateAll() {
+        // Given media with thumbnails stored in flat layout
+        Files.createDirectories(directory.resolve(mediaId.toString()));
+        Files.writeString(directory.resolve(mediaId + "/yes.png"), "content");
+        Media media = mediaOf(
+                "/media/" + mediaId + "/yes.png",
+                "/media/" + mediaId + "/thumbnail_800_yes.jpg"
+        );
+        when(mediaRepository.findAllByIdGreaterThan(eq(0L), anyInt())).thenReturn(List.of(media));
+        // When migrateAll() method called
+        int migrated = mediaStorageMigration.migrateAll();
+        // Then directory is moved and media with sharded uris is published
+        String shardedPath = "/media/" + shardedLayout.pathOf(mediaId);
+        assertEquals(1, migrated, "Media was not migrated.");
+        assertTrue(Files.exists(directory.resolve(shardedLayout.pathOf(mediaId)).resolve("yes.png")), "File was not moved.");
+        assertFalse(Files.exists(directory.resolve(mediaId.toString())), "Flat directory was left.");
+        verify(eventPublisher, times(1)).publish(
+                eq(DomainEventPublisher.Topic.MEDIA),
+                eq(ownerId),
+                argThat(event -> event.getState().equals(DomainEventPublisher.MediaEventType.UPDATED.name()) &&
+                        event.getData().getFileUri().equals(shardedPath + "/yes.png") &&
+                        event.getData().getThumbnailUri().equals(shardedPath + "/thumbnail_800_yes.jpg") &&
+                        event.getData().getThumbnails().get("800").equals(shardedPath + "/thumbnail_800_yes.jpg"))
+        );
+    }
+
+    @Test
+    @DisplayName("Migrate media already stored in sharded layout")
+    void migrateAll2() {
+        // Given media stored in sharded layout
+        Media media = mediaOf(
+                "/media/" + shardedLayout.pathOf(mediaId) + "/yes.png",
+                "/media/" + shardedLayout.pathOf(mediaId) + "/thumbnail_800_yes.jpg"
+        );
+        when(mediaRepository.findAllByIdGreaterThan(eq(0L), anyInt())).thenReturn(List.of(media));
+        // When migrateAll() method called
+        int migrated = mediaStorageMigration.migrateAll();
+        // Then media is skipped
+        assertEquals(0, migrated, "Media was migrated again.");
+        verify(eventPublisher, never()).publish(any(), any(), any());
+    }
+
+    @SneakyThrows
+    private Media mediaOf(final String fileUri, final String thumbnailUri) {
+        return new MediaFactory().from(
+                MediaDTO.builder()
+                        .id(1L)
+                        .ownerId(ownerId)
+                        .postId(UUID.randomUUID())
+                        .mediaId(mediaId)
+                        .priority(0)
+                        .extension(MediaExtension.EXTENSION_PNG)
+                        .filename("yes.png")
+                        .fileUri(new URI(fileUri))
+                        .thumbnailUri(new URI(thumbnailUri))
+                        .thumbnails(MediaThumbnails.of(Map.of(800, new URI(thumbnailUri))))
+                        .md5("3c518eeb674c71b30297f072fde7eba5")
+                        .createDate(ZonedDateTime.now())
+                        .build()
+        );
+    }
+}
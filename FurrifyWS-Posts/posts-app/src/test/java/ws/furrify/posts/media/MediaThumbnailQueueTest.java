@@ -0,0 +1,235 @@
+package ws.furrify.posts.media;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ws.furrify.posts.media.dto.MediaDTO;
+import ws.furrify.posts.media.strategy.MediaUploadStrategy;
+import ws.furrify.posts.media.vo.MediaThumbnails;
+import ws.furrify.shared.exception.ServiceIsOverloadedException;
+import ws.furrify.shared.kafka.DomainEventPublisher;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MediaThumbnailQueueTest {
+
+    private MediaThumbnailJobRepository jobRepository;
+    private MediaRepository mediaRepository;
+    private MediaUploadStrategy mediaUploadStrategy;
+    private DomainEventPublisher<MediaEvent> eventPublisher;
+    private MediaThumbnailQueue mediaThumbnailQueue;
+
+    private MediaDTO mediaDTO;
+    private Media media;
+    private MediaThumbnailJob job;
+
+    @SneakyThrows
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jobRepository = mock(MediaThumbnailJobRepository.class);
+        mediaRepository = mock(MediaRepository.class);
+        mediaUploadStrategy = mock(MediaUploadStrategy.class);
+        eventPublisher = (DomainEventPublisher<MediaEvent>) mock(DomainEventPublisher.class);
+
+        mediaThumbnailQueue = new MediaThumbnailQueue(
+                jobRepository, mediaRepository, mediaUploadStrategy, eventPublisher,
+                1, 2, 2, Duration.ofSeconds(10), Duration.ofSeconds(10), Duration.ofMinutes(10)
+        );
+
+        mediaDTO = MediaDTO.builder()
+                .ownerId(UUID.randomUUID())
+                .postId(UUID.randomUUID())
+                .mediaId(UUID.randomUUID())
+                .priority(0)
+                .extension(MediaExtension.EXTENSION_PNG)
+                .filename("yes.png")
+                .fileUri(new URI("/media"))
+                .md5("3c518eeb674c71b30297f072fde7eba5")
+                .createDate(ZonedDateTime.now())
+                .build();
+
+        media = new MediaFactory().from(mediaDTO);
+        job = new MediaThumbnailJob(mediaDTO.getOwnerId(), mediaDTO.getPostId(), mediaDTO.getMediaId(), Instant.now());
+    }
+
+    @AfterEach
+    void tearDown() {
+        mediaThumbnailQueue.close();
+    }
+
+    @Test
+    @DisplayName("Process thumbnail job")
+    @SneakyThrows
+    void process() {
+        // Given stored media
+        when(mediaRepository.findByOwnerIdAndPostIdAndMediaId(job.getOwnerId(), job.getPostId(), job.getMediaId()))
+                .thenReturn(Optional.of(media));
+        when(mediaUploadStrategy.generateThumbnails(eq(job.getMediaId()), any(), any())).thenReturn(
+                new MediaUploadStrategy.GeneratedThumbnails(
+                        new URI("/thumbnail_800_yes.jpg"),
+                        MediaThumbnails.of(Map.of(
+                                160, new URI("/thumbnail_160_yes.jpg"),
+                                800, new URI("/thumbnail_800_yes.jpg")
+                        ))
+                )
+        );
+        // When process() method called
+        mediaThumbnailQueue.process(job);
+        // Then media with thumbnails is published and job is deleted
+        verify(eventPublisher, times(1)).publish(
+                eq(DomainEventPublisher.Topic.MEDIA),
+                eq(job.getOwnerId()),
+                argThat(event -> event.getState().equals(DomainEventPublisher.MediaEventType.UPDATED.name()) &&
+                        event.getData().getThumbnailUri().equals("/thumbnail_800_yes.jpg") &&
+                        event.getData().getThumbnails().get("160").equals("/thumbnail_160_yes.jpg"))
+        );
+        verify(jobRepository, times(1)).delete(job);
+    }
+
+    @Test
+    @DisplayName("Process thumbnail job before media is stored")
+    void process2() {
+        // Given media which is not stored yet
+        when(mediaRepository.findByOwnerIdAndPostIdAndMediaId(any(), any(), any())).thenReturn(Optional.empty());
+        when(jobRepository.existsById(any())).thenReturn(true);
+        // When process() method called
+        mediaThumbnailQueue.process(job);
+        // Then job is scheduled for retry
+        assertEquals(MediaThumbnailJob.Status.PENDING, job.getStatus(), "Job was not left pending.");
+        assertEquals(1, job.getAttempts(), "Attempt was not counted.");
+        assertTrue(job.getDueDate().isAfter(Instant.now()), "Retry was not delayed.");
+        verify(jobRepository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("Process thumbnail job with all attempts used")
+    void process3() {
+        // Given media which is not stored
+        when(mediaRepository.findByOwnerIdAndPostIdAndMediaId(any(), any(), any())).thenReturn(Optional.empty());
+        when(jobRepository.existsById(any())).thenReturn(true);
+        // When process() method called max attempts times
+        mediaThumbnailQueue.process(job);
+        mediaThumbnailQueue.process(job);
+        // Then job is failed
+        assertEquals(MediaThumbnailJob.Status.FAILED, job.getStatus(), "Job was not failed.");
+    }
+
+    @Test
+    @DisplayName("Process thumbnail job of media changed during generation")
+    @SneakyThrows
+    void process4() {
+        // Given stored media which priority is changed during thumbnail generation
+        Media changedMedia = new MediaFactory().from(mediaDTO.toBuilder().priority(5).build());
+        when(mediaRepository.findByOwnerIdAndPostIdAndMediaId(job.getOwnerId(), job.getPostId(), job.getMediaId()))
+                .thenReturn(Optional.of(media), Optional.of(changedMedia));
+        when(mediaUploadStrategy.generateThumbnails(eq(job.getMediaId()), any(), any())).thenReturn(
+                new MediaUploadStrategy.GeneratedThumbnails(
+                        new URI("/thumbnail_800_yes.jpg"),
+                        MediaThumbnails.of(Map.of(800, new URI("/thumbnail_800_yes.jpg")))
+                )
+        );
+        // When process() method called
+        mediaThumbnailQueue.process(job);
+        // Then changed media is published with thumbnails
+        verify(eventPublisher, times(1)).publish(
+                eq(DomainEventPublisher.Topic.MEDIA),
+                eq(job.getOwnerId()),
+                argThat(event -> event.getData().getPriority() == 5 &&
+                        event.getData().getThumbnailUri().equals("/thumbnail_800_yes.jpg"))
+        );
+    }
+
+    @Test
+    @DisplayName("Process thumbnail job of removed media")
+    void process5() {
+        // Given removed media which job was cancelled
+        when(mediaRepository.findByOwnerIdAndPostIdAndMediaId(any(), any(), any())).thenReturn(Optional.empty());
+        when(jobRepository.existsById(any())).thenReturn(false);
+        // When process() method called
+        mediaThumbnailQueue.process(job);
+        // Then job is dropped instead of being retried
+        assertEquals(0, job.getAttempts(), "Attempt was counted.");
+        verify(jobRepository, never()).save(any());
+        verify(eventPublisher, never()).publish(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Poll claimed thumbnail job")
+    void poll() {
+        // Given due job which is claimed by this instance
+        when(jobRepository.findAllDue(any(), anyInt())).thenReturn(List.of(job));
+        when(jobRepository.claim(eq(job.getId()), any())).thenReturn(true);
+        when(mediaRepository.findByOwnerIdAndPostIdAndMediaId(any(), any(), any())).thenReturn(Optional.of(media));
+        // When poll() method called
+        mediaThumbnailQueue.poll();
+        // Then expired jobs are recovered and job is processed under lease
+        verify(jobRepository, times(1)).recoverExpired(any());
+        verify(mediaUploadStrategy, timeout(1000).times(1)).generateThumbnails(eq(job.getMediaId()), any(), any());
+        assertEquals(MediaThumbnailJob.Status.RUNNING, job.getStatus(), "Job was not claimed.");
+        assertTrue(job.getDueDate().isAfter(Instant.now().plus(Duration.ofMinutes(9))), "Lease was not set.");
+    }
+
+    @Test
+    @DisplayName("Poll thumbnail job claimed by other instance")
+    void poll2() {
+        // Given due job which was claimed by other instance
+        when(jobRepository.findAllDue(any(), anyInt())).thenReturn(List.of(job));
+        when(jobRepository.claim(eq(job.getId()), any())).thenReturn(false);
+        // When poll() method called
+        mediaThumbnailQueue.poll();
+        // Then job is not processed
+        verify(mediaRepository, never()).findByOwnerIdAndPostIdAndMediaId(any(), any(), any());
+        verify(jobRepository, never()).save(any());
+        assertEquals(MediaThumbnailJob.Status.PENDING, job.getStatus(), "Job was claimed.");
+    }
+
+    @Test
+    @DisplayName("Enqueue thumbnail job")
+    void enqueue() {
+        // Given media
+        // When enqueue() method called
+        mediaThumbnailQueue.enqueue(mediaDTO.getOwnerId(), mediaDTO.getPostId(), mediaDTO.getMediaId());
+        // Then job is delayed past media event consumption
+        verify(jobRepository, times(1)).save(argThat(savedJob ->
+                savedJob.getDueDate().isAfter(Instant.now().plus(Duration.ofSeconds(5))) &&
+                        savedJob.getStatus() == MediaThumbnailJob.Status.PENDING));
+    }
+
+    @Test
+    @DisplayName("Check capacity of full queue")
+    void checkCapacity() {
+        // Given full queue
+        when(jobRepository.countUnfinished()).thenReturn(2L);
+        // When checkCapacity() method called
+        // Then throw ServiceIsOverloadedException
+        assertThrows(
+                ServiceIsOverloadedException.class,
+                () -> mediaThumbnailQueue.checkCapacity(),
+                "Exception was not thrown."
+        );
+    }
+}
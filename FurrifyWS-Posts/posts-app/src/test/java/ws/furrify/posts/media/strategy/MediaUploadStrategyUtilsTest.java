@@ -0,0 +1,176 @@
+package ws.furrify.posts.media.strategy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ws.furrify.posts.media.MediaExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class MediaUploadStrategyUtilsTest {
+
+    private final static int[] THUMBNAIL_WIDTHS = {800, 160, 1600, 320};
+    private final static float THUMBNAIL_QUALITY = 0.9f;
+
+    @Test
+    @DisplayName("Generate thumbnails for very large image")
+    void generateThumbnails() throws IOException {
+        // Given 20000x20000 image, which would take 1.6 GB decoded at full resolution
+        byte[] image = createPng(20000, 20000, true);
+        // When generateThumbnails() method called
+        SortedMap<Integer, InputStream> thumbnails = MediaUploadStrategyUtils.generateThumbnails(
+                MediaExtension.EXTENSION_PNG,
+                THUMBNAIL_WIDTHS,
+                THUMBNAIL_QUALITY,
+                Long.MAX_VALUE,
+                new ByteArrayInputStream(image),
+                mock(VideoFrameExtractor.class)
+        );
+        // Then thumbnail is scaled to every width
+        assertEquals(List.of(160, 320, 800, 1600), List.copyOf(thumbnails.keySet()), "Thumbnail widths are invalid.");
+        for (Map.Entry<Integer, InputStream> thumbnail : thumbnails.entrySet()) {
+            BufferedImage thumbnailImage = ImageIO.read(thumbnail.getValue());
+
+            assertEquals(thumbnail.getKey(), thumbnailImage.getWidth(), "Thumbnail width is invalid.");
+            assertEquals(thumbnail.getKey(), thumbnailImage.getHeight(), "Thumbnail aspect ratio was not kept.");
+        }
+    }
+
+    @Test
+    @DisplayName("Generate thumbnails for audio")
+    void generateThumbnails2() throws IOException {
+        // Given audio
+        // When generateThumbnails() method called
+        // Then no thumbnails are generated
+        assertNull(
+                MediaUploadStrategyUtils.generateThumbnails(
+                        MediaExtension.EXTENSION_MP3,
+                        THUMBNAIL_WIDTHS,
+                        THUMBNAIL_QUALITY,
+                        Long.MAX_VALUE,
+                        InputStream.nullInputStream(),
+                        mock(VideoFrameExtractor.class)
+                ),
+                "Thumbnails were generated."
+        );
+    }
+
+    @Test
+    @DisplayName("Generate thumbnails for image exceeding max pixel count")
+    void generateThumbnails3() throws IOException {
+        // Given image header with 50000x50000 dimensions and no pixel data
+        byte[] image = createPng(50000, 50000, false);
+        // When generateThumbnails() method called
+        // Then throw IOException before pixels are decoded
+        assertThrows(
+                IOException.class,
+                () -> MediaUploadStrategyUtils.generateThumbnails(
+                        MediaExtension.EXTENSION_PNG,
+                        THUMBNAIL_WIDTHS,
+                        THUMBNAIL_QUALITY,
+                        400_000_000L,
+                        new ByteArrayInputStream(image),
+                        mock(VideoFrameExtractor.class)
+                ),
+                "Exception was not thrown."
+        );
+    }
+
+    @Test
+    @DisplayName("Generate thumbnails for gif exceeding max pixel count")
+    void generateThumbnails4() throws IOException {
+        // Given gif header with 65535x65535 logical screen and no frames
+        byte[] gif = createGif(65535, 65535);
+        // When generateThumbnails() method called
+        // Then throw IOException before canvas is allocated
+        IOException exception = assertThrows(
+                IOException.class,
+                () -> MediaUploadStrategyUtils.generateThumbnails(
+                        MediaExtension.EXTENSION_GIF,
+                        THUMBNAIL_WIDTHS,
+                        THUMBNAIL_QUALITY,
+                        400_000_000L,
+                        new ByteArrayInputStream(gif),
+                        mock(VideoFrameExtractor.class)
+                ),
+                "Exception was not thrown."
+        );
+        assertTrue(exception.getMessage().contains("exceeds max pixel count"), "Image was not rejected by size.");
+    }
+
+    /**
+     * Create gif with logical screen descriptor only.
+     */
+    private static byte[] createGif(final int width, final int height) {
+        return new byte[]{
+                'G', 'I', 'F', '8', '9', 'a',
+                // Width and height are 16 bit little endian, no global color table
+                (byte) width, (byte) (width >>> 8), (byte) height, (byte) (height >>> 8), 0, 0, 0,
+                // Trailer
+                0x3B
+        };
+    }
+
+    /**
+     * Create black 8-bit grayscale png without allocating raster of its size.
+     */
+    private static byte[] createPng(final int width, final int height, final boolean withPixels) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        DataOutputStream pngOut = new DataOutputStream(png);
+        pngOut.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(width);
+        headerOut.writeInt(height);
+        // Bit depth 8, grayscale, deflate, adaptive filtering, no interlace
+        headerOut.write(new byte[]{8, 0, 0, 0, 0});
+        writeChunk(pngOut, "IHDR", header.toByteArray());
+
+        if (withPixels) {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            // Every row is filter type byte followed by pixels
+            byte[] row = new byte[width + 1];
+            try (DeflaterOutputStream dataOut = new DeflaterOutputStream(data)) {
+                for (int y = 0; y < height; y++) {
+                    dataOut.write(row);
+                }
+            }
+            writeChunk(pngOut, "IDAT", data.toByteArray());
+        }
+
+        writeChunk(pngOut, "IEND", new byte[0]);
+
+        return png.toByteArray();
+    }
+
+    private static void writeChunk(final DataOutputStream pngOut, final String type, final byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+
+        pngOut.writeInt(data.length);
+        pngOut.write(typeBytes);
+        pngOut.write(data);
+        pngOut.writeInt((int) crc.getValue());
+    }
+}
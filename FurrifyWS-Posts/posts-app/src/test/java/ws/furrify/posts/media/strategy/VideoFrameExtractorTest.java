@@ -0,0 +1,286 @@
+package ws.furrify.posts.media.strategy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.bytedeco.ffmpeg.global.avcodec;
+import org.bytedeco.javacv.FFmpegFrameRecorder;
+import org.bytedeco.javacv.Java2DFrameConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import ws.furrify.posts.media.MediaExtension;
+import ws.furrify.shared.exception.ServiceIsOverloadedException;
+import ws.furrify.shared.exception.VideoFrameExtractionFailedException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VideoFrameExtractorTest {
+
+    private final static int VIDEO_WIDTH = 64;
+    private final static int VIDEO_HEIGHT = 48;
+
+    private MeterRegistry meterRegistry;
+    private VideoFrameExtractor videoFrameExtractor;
+
+    private final List<BlockingInputStream> sources = new ArrayList<>();
+    private final List<Thread> callers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        videoFrameExtractor = new VideoFrameExtractor(1, 1, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        sources.forEach(BlockingInputStream::close);
+        for (Thread caller : callers) {
+            caller.join();
+        }
+
+        videoFrameExtractor.close();
+    }
+
+    @Test
+    @DisplayName("Extract frame when queue is full")
+    void extractFrame() throws InterruptedException {
+        // Given one running and one queued extraction
+        extractInBackground();
+        extractInBackground();
+        awaitGauge("furrify.media.frame-extraction.active", 1);
+        awaitGauge("furrify.media.frame-extraction.queue", 1);
+        // When extractFrame() method called
+        // Then throw ServiceIsOverloadedException
+        assertThrows(
+                ServiceIsOverloadedException.class,
+                () -> videoFrameExtractor.extractFrame(InputStream.nullInputStream(), MediaExtension.EXTENSION_MP4),
+                "Exception was not thrown."
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("videoFormats")
+    @DisplayName("Extract keyframe from video")
+    @SneakyThrows
+    void extractFrame2(final MediaExtension extension, final String format, final int codec) {
+        // Given seekable video
+        Path video = recordVideo(format, codec);
+        // When extractFrame() method called
+        BufferedImage frame;
+        try (InputStream source = Files.newInputStream(video)) {
+            frame = ImageIO.read(videoFrameExtractor.extractFrame(source, extension));
+        } finally {
+            Files.delete(video);
+        }
+        // Then frame is grabbed without falling back to first frame
+        assertEquals(VIDEO_WIDTH, frame.getWidth(), "Frame was not extracted.");
+        assertNull(meterRegistry.find("furrify.media.frame-extraction.fallbacks").counter(),
+                "Extraction has fallen back to first frame.");
+    }
+
+    @ParameterizedTest
+    @MethodSource("videoFormats")
+    @DisplayName("Extract keyframe from video file")
+    @SneakyThrows
+    void extractFrame3(final MediaExtension extension, final String format, final int codec) {
+        // Given video file
+        Path video = recordVideo(format, codec);
+        // When extractFrame() method called with file
+        BufferedImage frame;
+        try {
+            frame = ImageIO.read(videoFrameExtractor.extractFrame(video.toFile(), extension));
+        } finally {
+            Files.delete(video);
+        }
+        // Then frame is grabbed without falling back to first frame
+        assertEquals(VIDEO_WIDTH, frame.getWidth(), "Frame was not extracted.");
+        assertNull(meterRegistry.find("furrify.media.frame-extraction.fallbacks").counter(),
+                "Extraction has fallen back to first frame.");
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    @DisplayName("Free worker when extraction from video file times out")
+    @SneakyThrows
+    void extractFrame4(@TempDir final Path directory) {
+        // Given single worker with short timeout and video file which is never written
+        videoFrameExtractor.close();
+        videoFrameExtractor = new VideoFrameExtractor(1, 1, Duration.ofMillis(500), meterRegistry);
+
+        Path blockedVideo = directory.resolve("video.mp4");
+        assertEquals(0, new ProcessBuilder("mkfifo", blockedVideo.toString()).start().waitFor(),
+                "Named pipe was not created.");
+        Path video = recordVideo("mp4", avcodec.AV_CODEC_ID_MPEG4);
+        // Pipe opened for writing keeps reads blocked instead of returning end of file
+        try (FileChannel ignored = FileChannel.open(blockedVideo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // When extractFrame() method called with file which blocks reads
+            // Then throw VideoFrameExtractionFailedException
+            assertThrows(
+                    VideoFrameExtractionFailedException.class,
+                    () -> videoFrameExtractor.extractFrame(blockedVideo.toFile(), MediaExtension.EXTENSION_MP4),
+                    "Exception was not thrown."
+            );
+            // And worker extracts next video file
+            BufferedImage frame = ImageIO.read(videoFrameExtractor.extractFrame(video.toFile(), MediaExtension.EXTENSION_MP4));
+            assertEquals(VIDEO_WIDTH, frame.getWidth(), "Frame was not extracted.");
+        } finally {
+            Files.delete(video);
+        }
+    }
+
+    @Test
+    @DisplayName("Extract frame after waiting in queue longer than timeout")
+    @SneakyThrows
+    void extractFrame5() {
+        // Given single worker with timeout and running extraction which holds worker longer than timeout
+        videoFrameExtractor.close();
+        videoFrameExtractor = new VideoFrameExtractor(1, 1, Duration.ofSeconds(1), meterRegistry);
+
+        Path video = recordVideo("mp4", avcodec.AV_CODEC_ID_MPEG4);
+        Thread caller = new Thread(() -> {
+            try {
+                videoFrameExtractor.extractFrame(new DelayedInputStream(Duration.ofMillis(1500)), MediaExtension.EXTENSION_MP4);
+            } catch (RuntimeException ignored) {
+                // Extraction of delayed source times out
+            }
+        });
+        callers.add(caller);
+        caller.start();
+        awaitGauge("furrify.media.frame-extraction.active", 1);
+        // When extractFrame() method called and extraction waits in queue
+        BufferedImage frame;
+        try {
+            frame = ImageIO.read(videoFrameExtractor.extractFrame(video.toFile(), MediaExtension.EXTENSION_MP4));
+        } finally {
+            Files.delete(video);
+        }
+        // Then frame is extracted as timeout starts when extraction runs
+        assertEquals(VIDEO_WIDTH, frame.getWidth(), "Frame was not extracted.");
+    }
+
+    private static Stream<Arguments> videoFormats() {
+        return Stream.of(
+                Arguments.of(MediaExtension.EXTENSION_MP4, "mp4", avcodec.AV_CODEC_ID_MPEG4),
+                Arguments.of(MediaExtension.EXTENSION_MOV, "mov", avcodec.AV_CODEC_ID_MPEG4),
+                Arguments.of(MediaExtension.EXTENSION_MKV, "matroska", avcodec.AV_CODEC_ID_MPEG4),
+                Arguments.of(MediaExtension.EXTENSION_AVI, "avi", avcodec.AV_CODEC_ID_MPEG4),
+                Arguments.of(MediaExtension.EXTENSION_TS, "mpegts", avcodec.AV_CODEC_ID_MPEG2VIDEO),
+                Arguments.of(MediaExtension.EXTENSION_FLV, "flv", avcodec.AV_CODEC_ID_FLV1)
+        );
+    }
+
+    private static Path recordVideo(final String format, final int codec) throws IOException {
+        Path video = Files.createTempFile("video", "." + format);
+
+        try (FFmpegFrameRecorder recorder = new FFmpegFrameRecorder(video.toFile(), VIDEO_WIDTH, VIDEO_HEIGHT)) {
+            recorder.setFormat(format);
+            recorder.setVideoCodec(codec);
+            recorder.setFrameRate(25);
+            recorder.setGopSize(25);
+            recorder.start();
+
+            Java2DFrameConverter converter = new Java2DFrameConverter();
+            BufferedImage image = new BufferedImage(VIDEO_WIDTH, VIDEO_HEIGHT, BufferedImage.TYPE_3BYTE_BGR);
+            for (int i = 0; i < 150; i++) {
+                image.setRGB(i % VIDEO_WIDTH, i % VIDEO_HEIGHT, 0xFFFFFF);
+                recorder.record(converter.convert(image));
+            }
+        }
+
+        return video;
+    }
+
+    private void extractInBackground() {
+        BlockingInputStream source = new BlockingInputStream();
+        sources.add(source);
+
+        Thread caller = new Thread(() -> {
+            try {
+                videoFrameExtractor.extractFrame(source, MediaExtension.EXTENSION_MP4);
+            } catch (RuntimeException ignored) {
+                // Extraction of blocked source fails when test ends
+            }
+        });
+        callers.add(caller);
+        caller.start();
+    }
+
+    private void awaitGauge(final String name, final double value) throws InterruptedException {
+        for (int i = 0; i < 100 && meterRegistry.get(name).gauge().value() < value; i++) {
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * Stream blocking reads for given time even when closed or interrupted.
+     */
+    private static class DelayedInputStream extends InputStream {
+        private final long end;
+
+        private DelayedInputStream(final Duration delay) {
+            this.end = System.nanoTime() + delay.toNanos();
+        }
+
+        @Override
+        public int read() {
+            long remaining;
+            while ((remaining = end - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                } catch (InterruptedException ignored) {
+                    // Cancellation does not shorten the delay
+                }
+            }
+
+            return -1;
+        }
+    }
+
+    /**
+     * Stream blocking reads until closed.
+     */
+    private static class BlockingInputStream extends InputStream {
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public int read() {
+            try {
+                closed.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return -1;
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
+}
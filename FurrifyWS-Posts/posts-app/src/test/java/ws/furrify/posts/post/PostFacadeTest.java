@@ -1,10 +1,15 @@
 package ws.furrify.posts.post;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import ws.furrify.posts.artist.ArtistServiceClient;
+import ws.furrify.posts.attachment.AttachmentEvent;
+import ws.furrify.posts.attachment.vo.AttachmentData;
+import ws.furrify.posts.media.MediaEvent;
+import ws.furrify.posts.media.vo.MediaData;
 import ws.furrify.posts.artist.dto.query.ArtistDetailsQueryDTO;
 import ws.furrify.posts.post.dto.PostDTO;
 import ws.furrify.posts.post.dto.PostDtoFactory;
@@ -17,15 +22,21 @@ import ws.furrify.shared.kafka.DomainEventPublisher;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class PostFacadeTest {
@@ -62,7 +73,7 @@ class PostFacadeTest {
         artistDetailsQueryDTO = new ArtistDetailsQueryDTO() {
             @Override
             public UUID getArtistId() {
-                return UUID.randomUUID();
+                return postArtist.getArtistId();
             }
 
             @Override
@@ -97,13 +108,16 @@ class PostFacadeTest {
         var eventPublisher = (DomainEventPublisher<PostEvent>) mock(DomainEventPublisher.class);
 
         postFacade = new PostFacade(
-                new CreatePostImpl(postFactory, eventPublisher, tagServiceClient, artistServiceClient),
+                new CreatePostImpl(postFactory, eventPublisher, tagServiceClient, artistServiceClient, Runnable::run),
                 new DeletePostImpl(eventPublisher, postRepository),
-                new UpdatePostImpl(eventPublisher, postRepository, tagServiceClient, artistServiceClient),
-                new ReplacePostImpl(eventPublisher, postRepository, tagServiceClient, artistServiceClient),
+                new UpdatePostImpl(eventPublisher, postRepository, tagServiceClient, artistServiceClient, Runnable::run),
+                new ReplacePostImpl(eventPublisher, postRepository, tagServiceClient, artistServiceClient, Runnable::run),
                 postRepository,
                 postFactory,
-                postDTOFactory
+                postDTOFactory,
+                new PostSearchIndex(postQueryRepository, 1),
+                new PostArtistPropagator(postRepository, new SimpleMeterRegistry(), 1),
+                new PostTagReplica(postQueryRepository, tagServiceClient, 1)
         );
     }
 
@@ -113,8 +127,8 @@ class PostFacadeTest {
         // Given ownerId and postDTO
         UUID userId = UUID.randomUUID();
         // When createPost() method called
-        when(tagServiceClient.getUserTag(userId, postTag.getValue())).thenReturn(tagDetailsQueryDTO);
-        when(artistServiceClient.getUserArtist(userId, postArtist.getArtistId())).thenReturn(artistDetailsQueryDTO);
+        when(tagServiceClient.getUserTags(userId, Set.of(postTag.getValue()))).thenReturn(List.of(tagDetailsQueryDTO));
+        when(artistServiceClient.getUserArtists(userId, Set.of(postArtist.getArtistId()))).thenReturn(List.of(artistDetailsQueryDTO));
         // Then return generated uuid
         assertNotNull(postFacade.createPost(userId, postDTO), "PostId was not returned.");
     }
@@ -125,8 +139,8 @@ class PostFacadeTest {
         // Given ownerId and postDTO with non existing tag
         UUID userId = UUID.randomUUID();
         // When createPost() method called
-        when(tagServiceClient.getUserTag(userId, postTag.getValue())).thenReturn(null);
-        when(artistServiceClient.getUserArtist(userId, postArtist.getArtistId())).thenReturn(artistDetailsQueryDTO);
+        when(tagServiceClient.getUserTags(userId, Set.of(postTag.getValue()))).thenReturn(List.of());
+        when(artistServiceClient.getUserArtists(userId, Set.of(postArtist.getArtistId()))).thenReturn(List.of(artistDetailsQueryDTO));
         // Then return generated uuid
         assertThrows(
                 RecordNotFoundException.class,
@@ -141,8 +155,8 @@ class PostFacadeTest {
         // Given ownerId and postDTO with non existing artist
         UUID userId = UUID.randomUUID();
         // When createPost() method called
-        when(tagServiceClient.getUserTag(userId, postTag.getValue())).thenReturn(tagDetailsQueryDTO);
-        when(artistServiceClient.getUserArtist(userId, postArtist.getArtistId())).thenReturn(null);
+        when(tagServiceClient.getUserTags(userId, Set.of(postTag.getValue()))).thenReturn(List.of(tagDetailsQueryDTO));
+        when(artistServiceClient.getUserArtists(userId, Set.of(postArtist.getArtistId()))).thenReturn(List.of());
         // Then return generated uuid
         assertThrows(
                 RecordNotFoundException.class,
@@ -159,8 +173,8 @@ class PostFacadeTest {
         UUID userId = UUID.randomUUID();
         UUID postId = UUID.randomUUID();
         // When replacePost() method called
-        when(tagServiceClient.getUserTag(userId, postTag.getValue())).thenReturn(tagDetailsQueryDTO);
-        when(artistServiceClient.getUserArtist(userId, postArtist.getArtistId())).thenReturn(artistDetailsQueryDTO);
+        when(tagServiceClient.getUserTags(userId, Set.of(postTag.getValue()))).thenReturn(List.of(tagDetailsQueryDTO));
+        when(artistServiceClient.getUserArtists(userId, Set.of(postArtist.getArtistId()))).thenReturn(List.of(artistDetailsQueryDTO));
         when(postRepository.findByOwnerIdAndPostId(userId, postId)).thenReturn(Optional.of(post));
         // Then run successfully
         assertDoesNotThrow(() -> postFacade.replacePost(userId, postId, postDTO), "Exception was thrown");
@@ -190,8 +204,8 @@ class PostFacadeTest {
         UUID postId = UUID.randomUUID();
         // When replacePost() method called
         when(postRepository.findByOwnerIdAndPostId(userId, postId)).thenReturn(Optional.of(post));
-        when(artistServiceClient.getUserArtist(userId, postArtist.getArtistId())).thenReturn(artistDetailsQueryDTO);
-        when(tagServiceClient.getUserTag(userId, postTag.getValue())).thenReturn(null);
+        when(artistServiceClient.getUserArtists(userId, Set.of(postArtist.getArtistId()))).thenReturn(List.of(artistDetailsQueryDTO));
+        when(tagServiceClient.getUserTags(userId, Set.of(postTag.getValue()))).thenReturn(List.of());
         // Then run successfully
         assertThrows(
                 RecordNotFoundException.class,
@@ -208,8 +222,8 @@ class PostFacadeTest {
         UUID postId = UUID.randomUUID();
         // When replacePost() method called
         when(postRepository.findByOwnerIdAndPostId(userId, postId)).thenReturn(Optional.of(post));
-        when(artistServiceClient.getUserArtist(userId, postArtist.getArtistId())).thenReturn(null);
-        when(tagServiceClient.getUserTag(userId, postTag.getValue())).thenReturn(tagDetailsQueryDTO);
+        when(artistServiceClient.getUserArtists(userId, Set.of(postArtist.getArtistId()))).thenReturn(List.of());
+        when(tagServiceClient.getUserTags(userId, Set.of(postTag.getValue()))).thenReturn(List.of(tagDetailsQueryDTO));
         // Then run successfully
         assertThrows(
                 RecordNotFoundException.class,
@@ -225,8 +239,8 @@ class PostFacadeTest {
         UUID userId = UUID.randomUUID();
         UUID postId = UUID.randomUUID();
         // When updatePost() method called
-        when(tagServiceClient.getUserTag(userId, postTag.getValue())).thenReturn(tagDetailsQueryDTO);
-        when(artistServiceClient.getUserArtist(userId, postArtist.getArtistId())).thenReturn(artistDetailsQueryDTO);
+        when(tagServiceClient.getUserTags(userId, Set.of(postTag.getValue()))).thenReturn(List.of(tagDetailsQueryDTO));
+        when(artistServiceClient.getUserArtists(userId, Set.of(postArtist.getArtistId()))).thenReturn(List.of(artistDetailsQueryDTO));
         when(postRepository.findByOwnerIdAndPostId(userId, postId)).thenReturn(Optional.of(post));
         // Then run successfully
         assertDoesNotThrow(() -> postFacade.updatePost(userId, postId, postDTO), "Exception was thrown");
@@ -256,8 +270,8 @@ class PostFacadeTest {
         UUID postId = UUID.randomUUID();
         // When replacePost() method called
         when(postRepository.findByOwnerIdAndPostId(userId, postId)).thenReturn(Optional.of(post));
-        when(artistServiceClient.getUserArtist(userId, postArtist.getArtistId())).thenReturn(artistDetailsQueryDTO);
-        when(tagServiceClient.getUserTag(userId, postTag.getValue())).thenReturn(null);
+        when(artistServiceClient.getUserArtists(userId, Set.of(postArtist.getArtistId()))).thenReturn(List.of(artistDetailsQueryDTO));
+        when(tagServiceClient.getUserTags(userId, Set.of(postTag.getValue()))).thenReturn(List.of());
         // Then run successfully
         assertThrows(
                 RecordNotFoundException.class,
@@ -274,8 +288,8 @@ class PostFacadeTest {
         UUID postId = UUID.randomUUID();
         // When replacePost() method called
         when(postRepository.findByOwnerIdAndPostId(userId, postId)).thenReturn(Optional.of(post));
-        when(tagServiceClient.getUserTag(userId, postTag.getValue())).thenReturn(tagDetailsQueryDTO);
-        when(artistServiceClient.getUserArtist(userId, postArtist.getArtistId())).thenReturn(null);
+        when(tagServiceClient.getUserTags(userId, Set.of(postTag.getValue()))).thenReturn(List.of(tagDetailsQueryDTO));
+        when(artistServiceClient.getUserArtists(userId, Set.of(postArtist.getArtistId()))).thenReturn(List.of());
         // Then run successfully
         assertThrows(
                 RecordNotFoundException.class,
@@ -307,4 +321,57 @@ class PostFacadeTest {
         // Then throw record not found exception
         assertThrows(RecordNotFoundException.class, () -> postFacade.deletePost(userId, postId), "Exception was not thrown");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Handle events batch")
+    void handleEventBatch() {
+        // Given two media events and attachment event for the same post
+        UUID userId = UUID.randomUUID();
+        UUID postId = post.getSnapshot().getPostId();
+        when(postRepository.findByOwnerIdAndPostId(userId, postId)).thenReturn(Optional.of(post));
+        // When handleEventBatch() method called
+        postFacade.handleEventBatch(userId, List.of(
+                mediaEvent(postId, UUID.randomUUID()),
+                mediaEvent(postId, UUID.randomUUID()),
+                attachmentEvent(postId, UUID.randomUUID())
+        ));
+        // Then post is loaded and saved once with all changes applied
+        verify(postRepository, times(1)).findByOwnerIdAndPostId(userId, postId);
+        verify(postRepository, times(1)).save(argThat(savedPost ->
+                savedPost.getSnapshot().getPostId().equals(postId) &&
+                        savedPost.getSnapshot().getMediaSet().size() == 2 &&
+                        savedPost.getSnapshot().getAttachments().size() == 1
+        ));
+    }
+
+    private static MediaEvent mediaEvent(final UUID postId, final UUID mediaId) {
+        return MediaEvent.newBuilder()
+                .setState(DomainEventPublisher.MediaEventType.CREATED.name())
+                .setMediaId(mediaId.toString())
+                .setData(
+                        MediaData.newBuilder()
+                                .setPostId(postId.toString())
+                                .setFileUri("/test")
+                                .setExtension("PNG")
+                                .build()
+                )
+                .setOccurredOn(Instant.now())
+                .build();
+    }
+
+    private static AttachmentEvent attachmentEvent(final UUID postId, final UUID attachmentId) {
+        return AttachmentEvent.newBuilder()
+                .setState(DomainEventPublisher.AttachmentEventType.CREATED.name())
+                .setAttachmentId(attachmentId.toString())
+                .setData(
+                        AttachmentData.newBuilder()
+                                .setPostId(postId.toString())
+                                .setFileUri("/test")
+                                .setExtension("PSD")
+                                .setFilename("test.psd")
+                                .build()
+                )
+                .setOccurredOn(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,277 @@
+package ws.furrify.posts.post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import ws.furrify.posts.post.dto.query.PostArtistIndexQueryDTO;
+import ws.furrify.posts.post.dto.query.PostIndexQueryDTO;
+import ws.furrify.posts.post.dto.query.PostTagIndexQueryDTO;
+import ws.furrify.posts.post.dto.vo.PostQuerySearchDTO;
+import ws.furrify.posts.post.vo.PostArtist;
+import ws.furrify.posts.post.vo.PostTag;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostSearchIndexTest {
+
+    private final static Pageable PAGEABLE = PageRequest.of(0, 30, Sort.by(Sort.Direction.DESC, "createDate"));
+
+    private PostQueryRepository postQueryRepository;
+    private PostSearchIndex postSearchIndex;
+
+    private UUID ownerId;
+    private UUID artistId;
+    private List<PostSnapshot> postSnapshots;
+
+    @BeforeEach
+    void setUp() {
+        postQueryRepository = mock(PostQueryRepository.class);
+        postSearchIndex = new PostSearchIndex(postQueryRepository, 10);
+
+        ownerId = UUID.randomUUID();
+        artistId = UUID.randomUUID();
+        postSnapshots = new ArrayList<>(List.of(
+                postSnapshot("Walking in forest", ZonedDateTime.now().minusDays(2), Set.of("walking", "forest"), Set.of()),
+                postSnapshot("Walking in city", ZonedDateTime.now().minusDays(1), Set.of("walking", "city"), Set.of(artistId)),
+                postSnapshot("Sleeping", ZonedDateTime.now(), Set.of("sleeping"), Set.of(artistId))
+        ));
+
+        when(postQueryRepository.findAllIndexEntriesByOwnerId(ownerId)).thenAnswer(invocation ->
+                postSnapshots.stream().map(PostSearchIndexTest::indexEntry).toList()
+        );
+        when(postQueryRepository.findAllIndexTagsByOwnerId(ownerId)).thenAnswer(invocation ->
+                postSnapshots.stream()
+                        .flatMap(snapshot -> snapshot.getTags().stream()
+                                .map(tag -> indexTag(snapshot.getPostId(), tag.getValue())))
+                        .toList()
+        );
+        when(postQueryRepository.findAllIndexArtistsByOwnerId(ownerId)).thenAnswer(invocation ->
+                postSnapshots.stream()
+                        .flatMap(snapshot -> snapshot.getArtists().stream()
+                                .map(artist -> indexArtist(snapshot.getPostId(), artist)))
+                        .toList()
+        );
+        when(postQueryRepository.findAllByOwnerIdAndPostIdIn(eq(ownerId), any())).thenAnswer(invocation -> {
+            Collection<?> postIds = invocation.getArgument(1);
+
+            return postSnapshots.stream()
+                    .filter(snapshot -> postIds.contains(snapshot.getPostId()))
+                    .toList();
+        });
+    }
+
+    @Test
+    @DisplayName("Search posts with all included tags")
+    void search() {
+        // Given query with two included tags
+        PostQuerySearchDTO query = PostQuerySearchDTO.from("#walking #city");
+        // When search() method called
+        Page<PostSnapshot> result = postSearchIndex.search(ownerId, query, PAGEABLE).orElseThrow();
+        // Then return only post containing both tags
+        assertEquals(1, result.getTotalElements(), "Invalid amount of posts was found.");
+        assertEquals(postSnapshots.get(1).getPostId(), result.getContent().get(0).getPostId(), "Invalid post was found.");
+    }
+
+    @Test
+    @DisplayName("Search posts without excluded tag and artist")
+    void search2() {
+        // Given query with excluded tag and excluded artist
+        PostQuerySearchDTO query = PostQuerySearchDTO.from("-#forest -@nickname");
+        // When search() method called
+        Page<PostSnapshot> result = postSearchIndex.search(ownerId, query, PAGEABLE).orElseThrow();
+        // Then return no posts as every post is excluded
+        assertEquals(0, result.getTotalElements(), "Excluded posts were found.");
+    }
+
+    @Test
+    @DisplayName("Search posts with artist ordered by create date")
+    void search3() {
+        // Given query with included artist
+        PostQuerySearchDTO query = PostQuerySearchDTO.from("@nickname");
+        // When search() method called
+        Page<PostSnapshot> result = postSearchIndex.search(ownerId, query, PAGEABLE).orElseThrow();
+        // Then return posts with artist newest first
+        assertEquals(
+                List.of(postSnapshots.get(2).getPostId(), postSnapshots.get(1).getPostId()),
+                result.getContent().stream().map(PostSnapshot::getPostId).toList(),
+                "Invalid posts were found."
+        );
+    }
+
+    @Test
+    @DisplayName("Search posts after index was updated")
+    void search4() {
+        // Given loaded index
+        postSearchIndex.search(ownerId, PostQuerySearchDTO.from("#walking"), PAGEABLE);
+        // When post is indexed and tag is renamed
+        PostSnapshot newPost = postSnapshot("Running", ZonedDateTime.now(), Set.of("running"), Set.of());
+        postSnapshots.add(newPost);
+        postSearchIndex.index(newPost);
+        postSearchIndex.renameTag(ownerId, "walking", "strolling");
+        // Then search returns updated postings
+        assertEquals(1, postSearchIndex.search(ownerId, PostQuerySearchDTO.from("#running"), PAGEABLE)
+                .orElseThrow().getTotalElements(), "Indexed post was not found.");
+        assertEquals(0, postSearchIndex.search(ownerId, PostQuerySearchDTO.from("#walking"), PAGEABLE)
+                .orElseThrow().getTotalElements(), "Renamed tag was found.");
+        assertEquals(2, postSearchIndex.search(ownerId, PostQuerySearchDTO.from("#strolling"), PAGEABLE)
+                .orElseThrow().getTotalElements(), "Renamed tag was not found.");
+    }
+
+    @Test
+    @DisplayName("Search posts with not indexed sort")
+    void search5() {
+        // Given pageable sorted by not indexed property
+        Pageable pageable = PageRequest.of(0, 30, Sort.by(Sort.Direction.DESC, "description"));
+        // When search() method called
+        // Then return empty optional
+        assertTrue(postSearchIndex.search(ownerId, PostQuerySearchDTO.from("#walking"), pageable).isEmpty(),
+                "Index handled not indexed sort.");
+    }
+
+    @Test
+    @DisplayName("Search posts matching all word prefixes")
+    void search6() {
+        // Given query with two words where one is a prefix
+        PostQuerySearchDTO query = PostQuerySearchDTO.from("walk City");
+        // When search() method called
+        Page<PostSnapshot> result = postSearchIndex.search(ownerId, query, PAGEABLE).orElseThrow();
+        // Then return only post matching both words
+        assertEquals(1, result.getTotalElements(), "Invalid amount of posts was found.");
+        assertEquals(postSnapshots.get(1).getPostId(), result.getContent().get(0).getPostId(), "Invalid post was found.");
+    }
+
+    @Test
+    @DisplayName("Search posts with tag and artist of different case")
+    void search7() {
+        // Given query with tag and artist differing from stored ones only in case
+        // When search() method called
+        // Then no posts are found as database matches them exactly
+        assertEquals(0, postSearchIndex.search(ownerId, PostQuerySearchDTO.from("#Walking"), PAGEABLE)
+                .orElseThrow().getTotalElements(), "Tag was matched case-insensitively.");
+        assertEquals(0, postSearchIndex.search(ownerId, PostQuerySearchDTO.from("@Nickname"), PAGEABLE)
+                .orElseThrow().getTotalElements(), "Artist was matched case-insensitively.");
+    }
+
+    @Test
+    @DisplayName("Search posts indexed while owner was loaded")
+    void search8() {
+        // Given post stored and indexed after owner index was read from database
+        PostSnapshot newPost = postSnapshot("Running", ZonedDateTime.now(), Set.of("running"), Set.of());
+        when(postQueryRepository.findAllIndexEntriesByOwnerId(ownerId)).thenAnswer(invocation -> {
+            List<PostIndexQueryDTO> entries = postSnapshots.stream().map(PostSearchIndexTest::indexEntry).toList();
+
+            postSnapshots.add(newPost);
+            postSearchIndex.index(newPost);
+
+            return entries;
+        });
+        // When search() method called
+        Page<PostSnapshot> result = postSearchIndex.search(ownerId, PostQuerySearchDTO.from("#running"), PAGEABLE).orElseThrow();
+        // Then post indexed during loading is found
+        assertEquals(1, result.getTotalElements(), "Post indexed during loading was not found.");
+    }
+
+    @Test
+    @DisplayName("Search posts after index was rebuilt")
+    void rebuild() {
+        // Given owner with posts
+        when(postQueryRepository.findAllOwnerIdsOrderedByLatestPost(any())).thenReturn(List.of(ownerId));
+        // When rebuild() method called and post is removed afterwards
+        postSearchIndex.rebuild();
+        postSearchIndex.remove(ownerId, postSnapshots.get(0).getPostId());
+        // Then removed post is not found
+        assertEquals(1, postSearchIndex.search(ownerId, PostQuerySearchDTO.from("walking"), PAGEABLE)
+                .orElseThrow().getTotalElements(), "Removed post was found.");
+    }
+
+    private PostSnapshot postSnapshot(final String title,
+                                      final ZonedDateTime createDate,
+                                      final Set<String> tags,
+                                      final Set<UUID> artistIds) {
+        return PostSnapshot.builder()
+                .postId(UUID.randomUUID())
+                .ownerId(ownerId)
+                .title(title)
+                .description("")
+                .tags(tags.stream().map(tag -> new PostTag(tag, "ACTION")).collect(Collectors.toSet()))
+                .artists(artistIds.stream().map(id -> new PostArtist(id, "nickname", null)).collect(Collectors.toSet()))
+                .mediaSet(Set.of())
+                .attachments(Set.of())
+                .createDate(createDate)
+                .build();
+    }
+
+    private static PostIndexQueryDTO indexEntry(final PostSnapshot postSnapshot) {
+        return new PostIndexQueryDTO() {
+            @Override
+            public UUID getPostId() {
+                return postSnapshot.getPostId();
+            }
+
+            @Override
+            public String getTitle() {
+                return postSnapshot.getTitle();
+            }
+
+            @Override
+            public String getDescription() {
+                return postSnapshot.getDescription();
+            }
+
+            @Override
+            public ZonedDateTime getCreateDate() {
+                return postSnapshot.getCreateDate();
+            }
+        };
+    }
+
+    private static PostTagIndexQueryDTO indexTag(final UUID postId, final String value) {
+        return new PostTagIndexQueryDTO() {
+            @Override
+            public UUID getPostId() {
+                return postId;
+            }
+
+            @Override
+            public String getTagValue() {
+                return value;
+            }
+        };
+    }
+
+    private static PostArtistIndexQueryDTO indexArtist(final UUID postId, final PostArtist postArtist) {
+        return new PostArtistIndexQueryDTO() {
+            @Override
+            public UUID getPostId() {
+                return postId;
+            }
+
+            @Override
+            public UUID getArtistId() {
+                return postArtist.getArtistId();
+            }
+
+            @Override
+            public String getPreferredNickname() {
+                return postArtist.getPreferredNickname();
+            }
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package ws.furrify.posts.post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ws.furrify.posts.post.dto.query.PostTagDetailsQueryDTO;
+import ws.furrify.posts.tag.TagServiceClient;
+import ws.furrify.posts.tag.dto.query.TagDetailsQueryDTO;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PostTagReplicaTest {
+
+    private PostQueryRepository postQueryRepository;
+    private TagServiceClient tagServiceClient;
+    private PostTagReplica postTagReplica;
+
+    private UUID ownerId;
+
+    @BeforeEach
+    void setUp() {
+        postQueryRepository = mock(PostQueryRepository.class);
+        tagServiceClient = mock(TagServiceClient.class);
+        postTagReplica = new PostTagReplica(postQueryRepository, tagServiceClient, 2);
+
+        ownerId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Get user tag from loaded replica")
+    void getUserTag() {
+        // Given replica loaded with owner tag
+        when(postQueryRepository.findAllDistinctTagDetails()).thenReturn(List.of(tagDetails(ownerId, "walking", "ACTION")));
+        postTagReplica.load();
+        // When getUserTag() method called
+        TagDetailsQueryDTO tag = postTagReplica.getUserTag(ownerId, "walking");
+        // Then return tag without calling tags service
+        assertEquals("ACTION", tag.getType(), "Invalid tag type was returned.");
+        verify(tagServiceClient, never()).getUserTag(any(), any());
+    }
+
+    @Test
+    @DisplayName("Get user tag on cache miss")
+    void getUserTag2() {
+        // Given tag which is present only in tags service
+        TagDetailsQueryDTO remoteTag = new TagDetailsQueryDTO();
+        remoteTag.setValue("walking");
+        remoteTag.setType("ACTION");
+        when(tagServiceClient.getUserTag(ownerId, "walking")).thenReturn(remoteTag);
+        // When getUserTag() method called twice
+        postTagReplica.getUserTag(ownerId, "walking");
+        TagDetailsQueryDTO tag = postTagReplica.getUserTag(ownerId, "walking");
+        // Then tags service is called only once
+        assertEquals("ACTION", tag.getType(), "Invalid tag type was returned.");
+        verify(tagServiceClient, times(1)).getUserTag(ownerId, "walking");
+    }
+
+    @Test
+    @DisplayName("Get user tags with single call for cache misses")
+    void getUserTags() {
+        // Given replicated tag and tag which is present only in tags service
+        postTagReplica.put(ownerId, "walking", "ACTION");
+        TagDetailsQueryDTO remoteTag = new TagDetailsQueryDTO();
+        remoteTag.setValue("fox");
+        remoteTag.setType("SPECIES");
+        when(tagServiceClient.getUserTags(ownerId, Set.of("fox"))).thenReturn(List.of(remoteTag));
+        // When getUserTags() method called
+        List<TagDetailsQueryDTO> tags = postTagReplica.getUserTags(ownerId, Set.of("walking", "fox"));
+        // Then tags service is called only for missed tag
+        assertEquals(2, tags.size(), "Invalid amount of tags was returned.");
+        verify(tagServiceClient, times(1)).getUserTags(ownerId, Set.of("fox"));
+    }
+
+    @Test
+    @DisplayName("Get user tag after tag was replaced and removed")
+    void getUserTag3() {
+        // Given replicated tag
+        postTagReplica.put(ownerId, "walking", "ACTION");
+        // When tag is replaced and new tag is removed
+        postTagReplica.replace(ownerId, "walking", "strolling", "ACTION");
+        postTagReplica.remove(ownerId, "strolling");
+        // Then tags are resolved by tags service
+        assertNull(postTagReplica.getUserTag(ownerId, "walking"), "Replaced tag was found.");
+        assertNull(postTagReplica.getUserTag(ownerId, "strolling"), "Removed tag was found.");
+    }
+
+    @Test
+    @DisplayName("Load replica while tag events are received")
+    void load() {
+        // Given replicated tag and tag events received while replica is loading
+        postTagReplica.put(ownerId, "walking", "ACTION");
+        when(postQueryRepository.findAllDistinctTagDetails()).thenAnswer(invocation -> {
+            // Replicated tags are resolved while loading
+            assertEquals("ACTION", postTagReplica.getUserTag(ownerId, "walking").getType(),
+                    "Replicated tag was not found while loading.");
+
+            postTagReplica.put(ownerId, "fox", "SPECIES");
+            postTagReplica.remove(ownerId, "walking");
+
+            return List.of(tagDetails(ownerId, "walking", "ACTION"), tagDetails(ownerId, "running", "ACTION"));
+        });
+        // When load() method called
+        postTagReplica.load();
+        // Then loaded tags replace replicated ones without losing events
+        assertEquals("SPECIES", postTagReplica.getUserTag(ownerId, "fox").getType(), "Tag added while loading was lost.");
+        assertEquals("ACTION", postTagReplica.getUserTag(ownerId, "running").getType(), "Loaded tag was not found.");
+        assertNull(postTagReplica.getUserTag(ownerId, "walking"), "Tag removed while loading was loaded.");
+        verify(tagServiceClient, never()).getUserTag(ownerId, "fox");
+        verify(tagServiceClient, never()).getUserTag(ownerId, "running");
+    }
+
+    @Test
+    @DisplayName("Load replica with more tags than limit")
+    void load2() {
+        // Given more stored tags than replica can hold
+        when(postQueryRepository.findAllDistinctTagDetails()).thenReturn(List.of(
+                tagDetails(ownerId, "walking", "ACTION"),
+                tagDetails(ownerId, "running", "ACTION"),
+                tagDetails(ownerId, "fox", "SPECIES")
+        ));
+        // When load() method called
+        postTagReplica.load();
+        // Then tag over limit is resolved by tags service
+        postTagReplica.getUserTag(ownerId, "walking");
+        postTagReplica.getUserTag(ownerId, "running");
+        postTagReplica.getUserTag(ownerId, "fox");
+        verify(tagServiceClient, never()).getUserTag(ownerId, "walking");
+        verify(tagServiceClient, never()).getUserTag(ownerId, "running");
+        verify(tagServiceClient, times(1)).getUserTag(ownerId, "fox");
+    }
+
+    @Test
+    @DisplayName("Create replica with invalid max tags")
+    void constructor() {
+        // Given max tags lower than 1
+        // When constructor called
+        // Then throw IllegalArgumentException
+        assertThrows(IllegalArgumentException.class,
+                () -> new PostTagReplica(postQueryRepository, tagServiceClient, 0),
+                "Exception was not thrown.");
+    }
+
+    private static PostTagDetailsQueryDTO tagDetails(final UUID ownerId, final String value, final String type) {
+        return new PostTagDetailsQueryDTO() {
+            @Override
+            public UUID getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public String getValue() {
+                return value;
+            }
+
+            @Override
+            public String getType() {
+                return type;
+            }
+        };
+    }
+}
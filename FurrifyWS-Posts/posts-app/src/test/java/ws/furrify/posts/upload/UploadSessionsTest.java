@@ -0,0 +1,465 @@
+package ws.furrify.posts.upload;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ws.furrify.posts.blob.UploadTicketSigner;
+import ws.furrify.posts.post.dto.PostServiceClient;
+import ws.furrify.posts.post.dto.query.PostDetailsDTO;
+import ws.furrify.shared.exception.InvalidDataGivenException;
+import ws.furrify.shared.exception.RecordNotFoundException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UploadSessionsTest {
+
+    private final static int CHUNK_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    private InMemoryUploadSessionRepository sessionRepository;
+    private PostServiceClient postService;
+    private UploadTicketSigner uploadTicketSigner;
+    private UploadSessions uploadSessions;
+
+    private UUID userId;
+    private UUID postId;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository = new InMemoryUploadSessionRepository();
+        uploadTicketSigner = new UploadTicketSigner("secret", Duration.ofHours(1), Clock.systemUTC());
+
+        postService = mock(PostServiceClient.class);
+        when(postService.getUserPost(any(), any())).thenReturn(new PostDetailsDTO(null, null, null, null, null, null, null, null, null));
+
+        uploadSessions = new UploadSessions(
+                sessionRepository,
+                new InMemoryUploadSessionChunkRepository(),
+                postService,
+                uploadTicketSigner,
+                directory.resolve("uploads"),
+                CHUNK_SIZE,
+                10 * CHUNK_SIZE,
+                Duration.ofHours(1),
+                Duration.ofMinutes(10),
+                Clock.systemUTC()
+        );
+
+        userId = UUID.randomUUID();
+        postId = UUID.randomUUID();
+
+        content = new byte[3 * CHUNK_SIZE + 100];
+        new Random(0).nextBytes(content);
+    }
+
+    @Test
+    @DisplayName("Complete session with chunks written in parallel")
+    void completeSession() {
+        // Given session with all chunks written in parallel and out of order
+        UploadSessionDetails session = uploadSessions.createSession(userId, postId, "yes.png", DigestUtils.sha256Hex(content), content.length);
+        IntStream.of(3, 1, 0, 2).parallel().forEach(index -> writeChunk(session.getSessionId(), index, chunkHash(index)));
+        // When completeSession() method called
+        List<byte[]> completedContent = new ArrayList<>();
+        UUID createdId = UUID.randomUUID();
+        UUID returnedId = uploadSessions.completeSession(userId, postId, session.getSessionId(), (file, uploadTicket) -> {
+            try {
+                completedContent.add(file.getBytes());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            // Then ticket is issued for declared hash and size
+            assertTrue(
+                    uploadTicketSigner.verify(uploadTicket, userId, postId).isMatching(DigestUtils.sha256Hex(content), content.length),
+                    "Ticket is not matching declared file."
+            );
+            assertEquals("yes.png", file.getOriginalFilename(), "Filename is different.");
+
+            return createdId;
+        });
+        // Then completed file is handed to create flow and session is deleted
+        assertEquals(createdId, returnedId, "Created id was not returned.");
+        assertArrayEquals(content, completedContent.get(0), "Content is different.");
+        assertThrows(
+                RecordNotFoundException.class,
+                () -> uploadSessions.getSession(userId, postId, session.getSessionId()),
+                "Session was not deleted."
+        );
+    }
+
+    @Test
+    @DisplayName("Write chunk not matching its hash")
+    void writeChunk() {
+        // Given session
+        UploadSessionDetails session = uploadSessions.createSession(userId, postId, "yes.png", DigestUtils.sha256Hex(content), content.length);
+        // When writeChunk() method called with hash of other chunk
+        // Then throw InvalidDataGivenException and chunk is not marked as written
+        assertThrows(
+                InvalidDataGivenException.class,
+                () -> writeChunk(session.getSessionId(), 0, chunkHash(1)),
+                "Exception was not thrown."
+        );
+        assertTrue(
+                uploadSessions.getSession(userId, postId, session.getSessionId()).getReceivedChunks().isEmpty(),
+                "Chunk was marked as written."
+        );
+    }
+
+    @Test
+    @DisplayName("Write chunk again not matching its hash")
+    void writeChunk2() {
+        // Given session with written chunk
+        UploadSessionDetails session = uploadSessions.createSession(userId, postId, "yes.png", DigestUtils.sha256Hex(content), content.length);
+        writeChunk(session.getSessionId(), 0, chunkHash(0));
+        // When writeChunk() method called again with hash of other chunk
+        // Then throw InvalidDataGivenException and overwritten chunk is not marked as written anymore
+        assertThrows(
+                InvalidDataGivenException.class,
+                () -> writeChunk(session.getSessionId(), 0, chunkHash(1)),
+                "Exception was not thrown."
+        );
+        assertTrue(
+                uploadSessions.getSession(userId, postId, session.getSessionId()).getReceivedChunks().isEmpty(),
+                "Overwritten chunk is still marked as written."
+        );
+    }
+
+    @Test
+    @DisplayName("Complete session with missing chunks")
+    void completeSession2() {
+        // Given session with one chunk missing
+        UploadSessionDetails session = uploadSessions.createSession(userId, postId, "yes.png", DigestUtils.sha256Hex(content), content.length);
+        IntStream.of(0, 1, 3).forEach(index -> writeChunk(session.getSessionId(), index, null));
+        // When completeSession() method called
+        // Then throw InvalidDataGivenException and session can be resumed
+        assertThrows(
+                InvalidDataGivenException.class,
+                () -> uploadSessions.completeSession(userId, postId, session.getSessionId(), (file, uploadTicket) -> UUID.randomUUID()),
+                "Exception was not thrown."
+        );
+        assertEquals(
+                List.of(0, 1, 3),
+                uploadSessions.getSession(userId, postId, session.getSessionId()).getReceivedChunks(),
+                "Written chunks are different."
+        );
+    }
+
+    @Test
+    @DisplayName("Complete session while chunk is written")
+    void completeSession3() throws Exception {
+        // Given session with all chunks written and chunk being written again
+        UploadSessionDetails session = uploadSessions.createSession(userId, postId, "yes.png", DigestUtils.sha256Hex(content), content.length);
+        IntStream.range(0, 4).forEach(index -> writeChunk(session.getSessionId(), index, null));
+
+        byte[] chunk = chunkOf(0);
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        CountDownLatch writeReleased = new CountDownLatch(1);
+        AtomicBoolean writeFinished = new AtomicBoolean(false);
+        InputStream slowContent = new InputStream() {
+            private int position;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(final byte[] buffer, final int offset, final int length) {
+                if (position == chunk.length) {
+                    return -1;
+                }
+                // Half of chunk is written before write is held
+                if (position == chunk.length / 2) {
+                    writeStarted.countDown();
+                    try {
+                        writeReleased.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+
+                int read = Math.min(length, (position < chunk.length / 2 ? chunk.length / 2 : chunk.length) - position);
+                System.arraycopy(chunk, position, buffer, offset, read);
+                position += read;
+                writeFinished.set(position == chunk.length);
+
+                return read;
+            }
+        };
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() ->
+                uploadSessions.writeChunk(userId, postId, session.getSessionId(), 0, chunk.length, null, slowContent)
+        );
+        assertTrue(writeStarted.await(5, TimeUnit.SECONDS), "Write was not started.");
+        // When completeSession() method called
+        AtomicBoolean writeFinishedOnCompletion = new AtomicBoolean(false);
+        List<Class<?>> rejectedWrites = new CopyOnWriteArrayList<>();
+        CompletableFuture<UUID> completion = CompletableFuture.supplyAsync(() ->
+                uploadSessions.completeSession(userId, postId, session.getSessionId(), (file, uploadTicket) -> {
+                    writeFinishedOnCompletion.set(writeFinished.get());
+                    try {
+                        writeChunk(session.getSessionId(), 1, null);
+                    } catch (InvalidDataGivenException e) {
+                        rejectedWrites.add(e.getClass());
+                    }
+
+                    return UUID.randomUUID();
+                })
+        );
+        // Then completion waits for write in progress
+        Thread.sleep(200);
+        assertFalse(completion.isDone(), "Session was completed while chunk was written.");
+
+        writeReleased.countDown();
+        write.get(5, TimeUnit.SECONDS);
+        completion.get(5, TimeUnit.SECONDS);
+        // Then file is handed over after write and chunks written after completion started are rejected
+        assertTrue(writeFinishedOnCompletion.get(), "File was handed over before write has finished.");
+        assertEquals(List.of(InvalidDataGivenException.class), rejectedWrites, "Chunk was written after completion started.");
+    }
+
+    @Test
+    @DisplayName("Complete session twice")
+    void completeSession4() {
+        // Given session which is being completed
+        UploadSessionDetails session = uploadSessions.createSession(userId, postId, "yes.png", DigestUtils.sha256Hex(content), content.length);
+        IntStream.range(0, 4).forEach(index -> writeChunk(session.getSessionId(), index, null));
+        // When completeSession() method called during completion
+        // Then throw InvalidDataGivenException
+        uploadSessions.completeSession(userId, postId, session.getSessionId(), (file, uploadTicket) -> {
+            assertThrows(
+                    InvalidDataGivenException.class,
+                    () -> uploadSessions.completeSession(userId, postId, session.getSessionId(), (otherFile, otherTicket) -> UUID.randomUUID()),
+                    "Exception was not thrown."
+            );
+
+            return UUID.randomUUID();
+        });
+    }
+
+    @Test
+    @DisplayName("Complete session rejected by create flow")
+    void completeSession5() {
+        // Given session with all chunks written
+        UploadSessionDetails session = uploadSessions.createSession(userId, postId, "yes.png", DigestUtils.sha256Hex(content), content.length);
+        IntStream.range(0, 4).forEach(index -> writeChunk(session.getSessionId(), index, null));
+        // When completeSession() method called and create flow rejects the file
+        assertThrows(
+                InvalidDataGivenException.class,
+                () -> uploadSessions.completeSession(userId, postId, session.getSessionId(), (file, uploadTicket) -> {
+                    throw new InvalidDataGivenException("Rejected.");
+                }),
+                "Exception was not thrown."
+        );
+        // Then session is open again and can be completed
+        assertEquals(
+                List.of(0, 1, 2, 3),
+                uploadSessions.getSession(userId, postId, session.getSessionId()).getReceivedChunks(),
+                "Session was not kept."
+        );
+        UUID createdId = UUID.randomUUID();
+        assertEquals(
+                createdId,
+                uploadSessions.completeSession(userId, postId, session.getSessionId(), (file, uploadTicket) -> createdId),
+                "Session was not completed again."
+        );
+    }
+
+    @Test
+    @DisplayName("Delete expired session while it is completed")
+    void deleteExpired2() {
+        // Given session with all chunks written
+        UploadSessionDetails session = uploadSessions.createSession(userId, postId, "yes.png", DigestUtils.sha256Hex(content), content.length);
+        IntStream.range(0, 4).forEach(index -> writeChunk(session.getSessionId(), index, null));
+        // When deleteExpired() method called by cleanup while session is completed and has expired
+        List<byte[]> completedContent = new ArrayList<>();
+        uploadSessions.completeSession(userId, postId, session.getSessionId(), (file, uploadTicket) -> {
+            sessionRepository.sessions.forEach(expiredSession -> expiredSession.setExpireDate(Instant.now().minusSeconds(1)));
+            CompletableFuture.runAsync(() -> uploadSessions.deleteExpired()).join();
+            try {
+                completedContent.add(file.getBytes());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            return UUID.randomUUID();
+        });
+        // Then completing session is skipped and its file is handed over
+        assertArrayEquals(content, completedContent.get(0), "File was deleted during completion.");
+    }
+
+    @Test
+    @DisplayName("Delete expired sessions")
+    void deleteExpired() {
+        // Given session created two hours ago
+        UploadSessions pastUploadSessions = new UploadSessions(
+                sessionRepository,
+                new InMemoryUploadSessionChunkRepository(),
+                postService,
+                uploadTicketSigner,
+                directory.resolve("uploads"),
+                CHUNK_SIZE,
+                10 * CHUNK_SIZE,
+                Duration.ofHours(1),
+                Duration.ofMinutes(10),
+                Clock.fixed(Instant.now().minus(Duration.ofHours(2)), ZoneOffset.UTC)
+        );
+        UploadSessionDetails session = pastUploadSessions.createSession(userId, postId, "yes.png", DigestUtils.sha256Hex(content), content.length);
+        // When deleteExpired() method called
+        uploadSessions.deleteExpired();
+        // Then session and its file are deleted
+        assertTrue(sessionRepository.sessions.isEmpty(), "Session was not deleted.");
+        assertFalse(Files.exists(directory.resolve("uploads").resolve(session.getSessionId().toString())), "File was not deleted.");
+    }
+
+    private void writeChunk(final UUID sessionId, final int index, final String chunkHash) {
+        byte[] chunk = chunkOf(index);
+
+        uploadSessions.writeChunk(userId, postId, sessionId, index, chunk.length, chunkHash, new ByteArrayInputStream(chunk));
+    }
+
+    private String chunkHash(final int index) {
+        return DigestUtils.sha256Hex(chunkOf(index));
+    }
+
+    private byte[] chunkOf(final int index) {
+        return Arrays.copyOfRange(content, index * CHUNK_SIZE, Math.min(content.length, (index + 1) * CHUNK_SIZE));
+    }
+
+    private static class InMemoryUploadSessionRepository implements UploadSessionRepository {
+        private final List<UploadSession> sessions = new CopyOnWriteArrayList<>();
+
+        @Override
+        public UploadSession save(final UploadSession session) {
+            if (!sessions.contains(session)) {
+                sessions.add(session);
+            }
+
+            return session;
+        }
+
+        @Override
+        public void delete(final UploadSession session) {
+            sessions.remove(session);
+        }
+
+        @Override
+        public Optional<UploadSession> findByOwnerIdAndPostIdAndSessionId(final UUID ownerId, final UUID postId, final UUID sessionId) {
+            return sessions.stream()
+                    .filter(session -> session.getOwnerId().equals(ownerId))
+                    .filter(session -> session.getPostId().equals(postId))
+                    .filter(session -> session.getSessionId().equals(sessionId))
+                    .findAny();
+        }
+
+        @Override
+        public void updateExpireDateOfOpen(final UUID sessionId, final Instant expireDate) {
+            sessions.stream()
+                    .filter(session -> session.getSessionId().equals(sessionId))
+                    .filter(session -> session.getStatus() == UploadSession.Status.OPEN)
+                    .forEach(session -> session.setExpireDate(expireDate));
+        }
+
+        @Override
+        public synchronized boolean markCompleting(final UUID sessionId, final Instant expireDate) {
+            Optional<UploadSession> openSession = sessions.stream()
+                    .filter(session -> session.getSessionId().equals(sessionId))
+                    .filter(session -> session.getStatus() == UploadSession.Status.OPEN)
+                    .findAny();
+            openSession.ifPresent(session -> {
+                session.setStatus(UploadSession.Status.COMPLETING);
+                session.setExpireDate(expireDate);
+            });
+
+            return openSession.isPresent();
+        }
+
+        @Override
+        public synchronized void reopen(final UUID sessionId, final Instant expireDate) {
+            sessions.stream()
+                    .filter(session -> session.getSessionId().equals(sessionId))
+                    .filter(session -> session.getStatus() == UploadSession.Status.COMPLETING)
+                    .forEach(session -> {
+                        session.setStatus(UploadSession.Status.OPEN);
+                        session.setExpireDate(expireDate);
+                    });
+        }
+
+        @Override
+        public List<UploadSession> findAllExpired(final Instant now, final int limit) {
+            return sessions.stream()
+                    .filter(session -> !session.getExpireDate().isAfter(now))
+                    .limit(limit)
+                    .toList();
+        }
+    }
+
+    private static class InMemoryUploadSessionChunkRepository implements UploadSessionChunkRepository {
+        private final List<UploadSessionChunk> chunks = new CopyOnWriteArrayList<>();
+
+        @Override
+        public UploadSessionChunk save(final UploadSessionChunk chunk) {
+            chunks.add(chunk);
+
+            return chunk;
+        }
+
+        @Override
+        public void deleteAllBySessionId(final UUID sessionId) {
+            chunks.removeIf(chunk -> chunk.getSessionId().equals(sessionId));
+        }
+
+        @Override
+        public void deleteBySessionIdAndChunkIndex(final UUID sessionId, final int chunkIndex) {
+            chunks.removeIf(chunk -> chunk.getSessionId().equals(sessionId) && chunk.getChunkIndex() == chunkIndex);
+        }
+
+        @Override
+        public boolean existsBySessionIdAndChunkIndex(final UUID sessionId, final int chunkIndex) {
+            return chunks.stream()
+                    .anyMatch(chunk -> chunk.getSessionId().equals(sessionId) && chunk.getChunkIndex() == chunkIndex);
+        }
+
+        @Override
+        public List<Integer> findChunkIndexesBySessionId(final UUID sessionId) {
+            return chunks.stream()
+                    .filter(chunk -> chunk.getSessionId().equals(sessionId))
+                    .map(UploadSessionChunk::getChunkIndex)
+                    .distinct()
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -9,6 +9,7 @@ import lombok.extern.java.Log;
 import ws.furrify.posts.attachment.vo.AttachmentFile;
 import ws.furrify.posts.attachment.vo.AttachmentSource;
 
+import java.net.URI;
 import java.time.ZonedDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -28,7 +29,7 @@ class Attachment {
     @NonNull
     private final UUID ownerId;
     @NonNull
-    private final AttachmentFile file;
+    private AttachmentFile file;
     @NonNull
     private Set<AttachmentSource> sources;
 
@@ -66,6 +67,15 @@ class Attachment {
                 .build();
     }
 
+    void replaceFileUri(@NonNull final URI fileUri) {
+        this.file = AttachmentFile.builder()
+                .extension(file.getExtension())
+                .filename(file.getFilename())
+                .md5(file.getMd5())
+                .fileUri(fileUri)
+                .build();
+    }
+
     void addSource(@NonNull final AttachmentSource artistSource) {
         this.sources.add(artistSource);
     }
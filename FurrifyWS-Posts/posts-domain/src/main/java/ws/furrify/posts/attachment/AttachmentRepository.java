@@ -1,6 +1,8 @@
 package ws.furrify.posts.attachment;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 interface AttachmentRepository {
@@ -13,4 +15,24 @@ interface AttachmentRepository {
     Attachment save(Attachment attachment);
 
     long countAttachmentsByUserId(UUID userId);
+
+    /**
+     * Find md5 of owner attachment with given extension which content is stored as blob with given SHA-256 hash.
+     */
+    Optional<String> findMd5ByOwnerIdAndExtensionAndBlobHash(UUID ownerId, AttachmentExtension extension, String hash);
+
+    /**
+     * Find page of all attachments ordered by id.
+     */
+    List<Attachment> findAllByIdGreaterThan(long id, int limit);
+
+    /**
+     * Find which of given attachment ids are stored.
+     */
+    Set<UUID> findExistingAttachmentIds(Set<UUID> attachmentIds);
+
+    /**
+     * Find ids of all attachments of post.
+     */
+    List<UUID> findAttachmentIdsByOwnerIdAndPostId(UUID ownerId, UUID postId);
 }
@@ -9,7 +9,9 @@ import lombok.extern.java.Log;
 import ws.furrify.posts.media.vo.MediaFile;
 import ws.furrify.posts.media.vo.MediaPriority;
 import ws.furrify.posts.media.vo.MediaSource;
+import ws.furrify.posts.media.vo.MediaThumbnails;
 
+import java.net.URI;
 import java.time.ZonedDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -31,7 +33,7 @@ class Media {
     @NonNull
     private MediaPriority priority;
     @NonNull
-    private final MediaFile file;
+    private MediaFile file;
     @NonNull
     private Set<MediaSource> sources;
 
@@ -47,6 +49,7 @@ class Media {
                 MediaFile.builder()
                         .extension(mediaSnapshot.getExtension())
                         .thumbnailUri(mediaSnapshot.getThumbnailUri())
+                        .thumbnails(mediaSnapshot.getThumbnails())
                         .filename(mediaSnapshot.getFilename())
                         .md5(mediaSnapshot.getMd5())
                         .fileUri(mediaSnapshot.getFileUri())
@@ -65,6 +68,7 @@ class Media {
                 .priority(priority.getPriority())
                 .extension(file.getExtension())
                 .thumbnailUri(file.getThumbnailUri())
+                .thumbnails(file.getThumbnails())
                 .filename(file.getFilename())
                 .md5(file.getMd5())
                 .fileUri(file.getFileUri())
@@ -77,6 +81,31 @@ class Media {
         this.priority = mediaPriority;
     }
 
+    void replaceThumbnails(final URI thumbnailUri,
+                           final MediaThumbnails thumbnails) {
+        this.file = MediaFile.builder()
+                .extension(file.getExtension())
+                .thumbnailUri(thumbnailUri)
+                .thumbnails(thumbnails)
+                .filename(file.getFilename())
+                .md5(file.getMd5())
+                .fileUri(file.getFileUri())
+                .build();
+    }
+
+    void replaceFileUris(@NonNull final URI fileUri,
+                         final URI thumbnailUri,
+                         final MediaThumbnails thumbnails) {
+        this.file = MediaFile.builder()
+                .extension(file.getExtension())
+                .thumbnailUri(thumbnailUri)
+                .thumbnails(thumbnails)
+                .filename(file.getFilename())
+                .md5(file.getMd5())
+                .fileUri(fileUri)
+                .build();
+    }
+
     void addSource(@NonNull final MediaSource artistSource) {
         this.sources.add(artistSource);
     }
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import org.springframework.web.multipart.MultipartFile;
 import ws.furrify.posts.utils.FileUtils;
+import ws.furrify.posts.utils.IngestInputStream;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -76,11 +77,11 @@ public enum MediaExtension {
     }
 
     public static boolean isFileContentValid(String filename,
-                                             MultipartFile file,
+                                             IngestInputStream file,
                                              MediaExtension mediaExtension) {
         try {
-            // Get file mimetype
-            String mimeType = FileUtils.getMimeType(filename, file.getInputStream());
+            // Get file mimetype from header bytes
+            String mimeType = file.getMimeType(filename);
 
             return Arrays.asList(mediaExtension.getMimeTypes()).contains(mimeType);
         } catch (IOException e) {
@@ -1,6 +1,8 @@
 package ws.furrify.posts.media;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 interface MediaRepository {
@@ -13,4 +15,24 @@ interface MediaRepository {
     Media save(Media media);
 
     long countMediaByUserId(UUID userId);
+
+    /**
+     * Find md5 of owner media with given extension which content is stored as blob with given SHA-256 hash.
+     */
+    Optional<String> findMd5ByOwnerIdAndExtensionAndBlobHash(UUID ownerId, MediaExtension extension, String hash);
+
+    /**
+     * Find page of all media ordered by id.
+     */
+    List<Media> findAllByIdGreaterThan(long id, int limit);
+
+    /**
+     * Find which of given media ids are stored.
+     */
+    Set<UUID> findExistingMediaIds(Set<UUID> mediaIds);
+
+    /**
+     * Find ids of all media of post.
+     */
+    List<UUID> findMediaIdsByOwnerIdAndPostId(UUID ownerId, UUID postId);
 }
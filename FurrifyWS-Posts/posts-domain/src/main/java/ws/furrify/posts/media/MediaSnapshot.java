@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import ws.furrify.posts.media.vo.MediaSource;
+import ws.furrify.posts.media.vo.MediaThumbnails;
 
 import java.net.URI;
 import java.time.ZonedDateTime;
@@ -39,6 +40,7 @@ class MediaSnapshot {
 
     private URI fileUri;
     private URI thumbnailUri;
+    private MediaThumbnails thumbnails;
 
     private Set<MediaSource> sources;
 
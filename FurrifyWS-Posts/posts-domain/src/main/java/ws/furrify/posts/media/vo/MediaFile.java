@@ -32,6 +32,8 @@ public class MediaFile {
     @NonNull
     private URI thumbnailUri;
 
+    private MediaThumbnails thumbnails;
+
     @NonNull
     private String md5;
 
@@ -44,6 +46,7 @@ public class MediaFile {
                       @NonNull final MediaExtension extension,
                       @NonNull final URI fileUri,
                       final URI thumbnailUri,
+                      final MediaThumbnails thumbnails,
                       @NonNull final String md5) {
 
         // Validate given values
@@ -68,6 +71,7 @@ public class MediaFile {
         this.extension = extension;
         this.fileUri = fileUri;
         this.thumbnailUri = thumbnailUri;
+        this.thumbnails = thumbnails;
         this.md5 = md5;
     }
 }
@@ -0,0 +1,86 @@
+package ws.furrify.posts.media.vo;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.Setter;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static lombok.AccessLevel.PRIVATE;
+import static lombok.AccessLevel.PROTECTED;
+
+/**
+ * Media thumbnail uris by thumbnail width, so clients can pick the smallest one that fits.
+ *
+ * @author Skyte
+ */
+@Data
+@Setter(value = PRIVATE)
+@NoArgsConstructor(access = PROTECTED)
+@AllArgsConstructor(access = PRIVATE)
+public class MediaThumbnails {
+
+    @JsonValue
+    private SortedMap<Integer, URI> uris;
+
+    /**
+     * Create media thumbnails from uris by width.
+     * Validate given values.
+     *
+     * @param uris Thumbnail uris by thumbnail width.
+     * @return Media thumbnails instance.
+     */
+    @JsonCreator
+    public static MediaThumbnails of(@NonNull final Map<Integer, URI> uris) {
+        uris.forEach((width, uri) -> {
+            if (width == null || width <= 0) {
+                throw new IllegalStateException("Media thumbnail width [width=" + width + "] must be a positive number.");
+            }
+
+            if (uri == null) {
+                throw new IllegalStateException("Media thumbnail [width=" + width + "] must have uri.");
+            }
+        });
+
+        return new MediaThumbnails(Collections.unmodifiableSortedMap(new TreeMap<>(uris)));
+    }
+
+    /**
+     * Create media thumbnails from string uris by string width, as they are stored in events.
+     *
+     * @param uris Thumbnail uris by thumbnail width.
+     * @return Media thumbnails instance.
+     */
+    public static MediaThumbnails ofStrings(@NonNull final Map<String, String> uris) {
+        SortedMap<Integer, URI> parsedUris = new TreeMap<>();
+
+        uris.forEach((width, uri) -> {
+            try {
+                parsedUris.put(Integer.valueOf(width), new URI(uri));
+            } catch (NumberFormatException | URISyntaxException e) {
+                throw new IllegalStateException("Media thumbnail [width=" + width + "] is invalid.", e);
+            }
+        });
+
+        return of(parsedUris);
+    }
+
+    /**
+     * @return Thumbnail uris by thumbnail width as strings, as they are stored in events.
+     */
+    public Map<String, String> toStrings() {
+        Map<String, String> stringUris = new TreeMap<>();
+        uris.forEach((width, uri) -> stringUris.put(width.toString(), uri.toString()));
+
+        return stringUris;
+    }
+}
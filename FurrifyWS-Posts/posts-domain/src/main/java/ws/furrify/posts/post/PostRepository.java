@@ -1,5 +1,9 @@
 package ws.furrify.posts.post;
 
+import ws.furrify.posts.post.vo.PostTag;
+
+import java.net.URI;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -9,6 +13,10 @@ interface PostRepository {
 
     Set<Post> findAllByOwnerIdAndValueInTags(UUID ownerId, String value);
 
+    void updateTagDetailsInPostsByOwnerId(UUID ownerId, String originalValue, PostTag newTag);
+
+    void deleteTagFromPostsByOwnerId(UUID ownerId, String value);
+
     boolean existsByOwnerIdAndPostId(UUID ownerId, UUID postId);
 
     Optional<Post> findByOwnerIdAndPostId(UUID ownerId, UUID postId);
@@ -17,6 +25,18 @@ interface PostRepository {
 
     Set<Post> findAllByOwnerIdAndArtistIdInArtists(UUID ownerId, UUID artistId);
 
+    List<Long> findAllIdsByOwnerIdAndArtistIdInArtists(UUID ownerId, UUID artistId, long afterId, int limit);
+
+    List<Long> findAllIdsByOwnerIdAndArtistIdWithOtherPreferredNickname(UUID ownerId, UUID artistId, String preferredNickname, long afterId, int limit);
+
+    List<Long> findAllIdsByOwnerIdAndArtistIdWithOtherThumbnailUri(UUID ownerId, UUID artistId, URI thumbnailUri, long afterId, int limit);
+
+    int updateArtistPreferredNicknameInPosts(UUID artistId, String preferredNickname, List<Long> ids);
+
+    int updateArtistThumbnailUriInPosts(UUID artistId, URI thumbnailUri, List<Long> ids);
+
+    int deleteArtistFromPosts(UUID artistId, List<Long> ids);
+
     Optional<Post> findByOwnerIdAndPostIdAndMediaId(UUID ownerId, UUID postId, UUID mediaId);
 
     Optional<Post> findByOwnerIdAndPostIdAndAttachmentId(UUID ownerId, UUID postId, UUID attachment);
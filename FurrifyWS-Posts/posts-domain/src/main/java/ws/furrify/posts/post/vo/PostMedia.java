@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.Setter;
+import ws.furrify.posts.media.vo.MediaThumbnails;
 
 import java.net.URI;
 import java.util.UUID;
@@ -33,6 +34,8 @@ public class PostMedia {
 
     private URI thumbnailUri;
 
+    private MediaThumbnails thumbnails;
+
     @NonNull
     private String extension;
 }
\ No newline at end of file
@@ -6,12 +6,15 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import ws.furrify.posts.media.vo.MediaPriority;
 import ws.furrify.posts.media.vo.MediaSource;
+import ws.furrify.posts.media.vo.MediaThumbnails;
 
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.time.ZonedDateTime;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -83,6 +86,23 @@ class MediaTest {
         assertEquals(newPriority, media.getSnapshot().getPriority(), "Priority was not updated");
     }
 
+    @Test
+    @DisplayName("Replace thumbnails")
+    void replaceThumbnails() throws URISyntaxException {
+        // Given new thumbnail uri and thumbnails
+        URI newThumbnailUri = new URI("/thumbnail_800_test.jpg");
+        MediaThumbnails newThumbnails = MediaThumbnails.of(Map.of(
+                160, new URI("/thumbnail_160_test.jpg"),
+                800, newThumbnailUri
+        ));
+        // When replaceThumbnails() method called
+        // Then replace thumbnail uri and thumbnails
+        media.replaceThumbnails(newThumbnailUri, newThumbnails);
+
+        assertEquals(newThumbnailUri, media.getSnapshot().getThumbnailUri(), "Thumbnail uri was not updated");
+        assertEquals(newThumbnails, media.getSnapshot().getThumbnails(), "Thumbnails were not updated");
+    }
+
     @Test
     @DisplayName("Remove source")
     void removeSource() {
@@ -0,0 +1,59 @@
+package ws.furrify.posts.media.vo;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MediaThumbnailsTest {
+
+    @Test
+    @DisplayName("Create MediaThumbnails from uris by width")
+    void of() {
+        // Given thumbnail uris by width
+        Map<Integer, URI> uris = Map.of(
+                800, URI.create("/media/thumbnail_800_test.jpg"),
+                160, URI.create("/media/thumbnail_160_test.jpg")
+        );
+        // When of()
+        // Then return thumbnails sorted by width
+        assertEquals(
+                List.of(160, 800),
+                List.copyOf(MediaThumbnails.of(uris).getUris().keySet()),
+                "Thumbnails are not sorted by width."
+        );
+    }
+
+    @Test
+    @DisplayName("Create MediaThumbnails with non positive width")
+    void of2() {
+        // Given thumbnail uri with zero width
+        Map<Integer, URI> uris = Map.of(0, URI.create("/media/thumbnail_0_test.jpg"));
+        // When of()
+        // Then throw IllegalStateException
+        assertThrows(
+                IllegalStateException.class,
+                () -> MediaThumbnails.of(uris),
+                "Exception was not thrown."
+        );
+    }
+
+    @Test
+    @DisplayName("Create MediaThumbnails from strings")
+    void ofStrings() {
+        // Given thumbnails
+        MediaThumbnails thumbnails = MediaThumbnails.of(Map.of(320, URI.create("/media/thumbnail_320_test.jpg")));
+        // When ofStrings() with its strings
+        // Then return same thumbnails
+        assertEquals(
+                thumbnails,
+                MediaThumbnails.ofStrings(thumbnails.toStrings()),
+                "Thumbnails are not the same."
+        );
+    }
+}
@@ -3,9 +3,14 @@ package ws.furrify.posts.utils;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static java.lang.System.arraycopy;
@@ -481,6 +486,137 @@ public final class GifDecoder {
         return read(data);
     }
 
+    /**
+     * Streaming alternative to {@link #read(InputStream)} for callers that only
+     * need the first frame, e.g. thumbnails. Blocks are parsed one by one and
+     * reading stops at the end of the first image's data, so only the first
+     * frame's LZW data is held in memory and decoded, however long the
+     * animation is.
+     *
+     * @param is Image data as input stream. This method will read from the
+     *           input stream's current position. Reads are buffered, so the
+     *           stream may be consumed past the first frame. It won't reset
+     *           or close the stream afterwards.
+     * @return The first frame drawn on the full canvas.
+     * @throws IOException If an I/O error occurs, the image violates the GIF
+     *                     specification or ends before the first frame.
+     */
+    public static BufferedImage readFirstFrame(final InputStream is) throws IOException {
+        return readFirstFrame(is, Long.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #readFirstFrame(InputStream)}, but images whose canvas or
+     * first frame is larger than given pixel count are rejected before any
+     * pixel buffer is allocated.
+     *
+     * @param is        Image data as input stream.
+     * @param maxPixels Max width * height of canvas and first frame.
+     * @return The first frame drawn on the full canvas.
+     * @throws IOException If an I/O error occurs, the image violates the GIF
+     *                     specification, ends before the first frame or
+     *                     exceeds max pixel count.
+     */
+    public static BufferedImage readFirstFrame(final InputStream is, final long maxPixels) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        final GifDecoder decoder = new GifDecoder();
+        final GifImage img = decoder.new GifImage();
+        final GifFrame frame = new GifFrame();
+        final byte[] header = new byte[13]; // Header and logical screen descriptor
+        try {
+            in.readFully(header);
+        } catch (final EOFException e) {
+            throw new IOException("Image is truncated.", e);
+        }
+        readLogicalScreenDescriptor(img, header, readHeader(header, img));
+        checkPixels(img.w, img.h, maxPixels); // Canvas is allocated when frame is drawn
+        if (img.hasGlobColTbl) {
+            img.globalColTbl = new int[img.sizeOfGlobColTbl];
+            readColTbl(readBytes(in, img.sizeOfGlobColTbl * 3), img.globalColTbl, 0);
+        }
+        while (true) {
+            final int block = in.read();
+            switch (block) {
+                case 0x21: // Extension introducer
+                    if (in.readUnsignedByte() == 0xF9) { // Graphic control extension
+                        // Parser expects introducer and label before the block
+                        final byte[] ext = new byte[8];
+                        in.readFully(ext, 2, 6);
+                        readGraphicControlExt(frame, ext, 0);
+                    } else { // Other extensions don't affect the first frame
+                        skipSubBlocks(in);
+                    }
+                    break;
+                case 0x2C: // Image descriptor
+                    // Parser expects separator before the descriptor
+                    final byte[] descr = new byte[10];
+                    in.readFully(descr, 1, 9);
+                    readImgDescr(frame, descr, 0);
+                    checkPixels(frame.w, frame.h, maxPixels);
+                    if (frame.hasLocColTbl) {
+                        frame.localColTbl = new int[frame.sizeOfLocColTbl];
+                        readColTbl(readBytes(in, frame.sizeOfLocColTbl * 3), frame.localColTbl, 0);
+                    }
+                    readImgData(frame, in);
+                    img.frames.add(frame);
+                    return img.getFrame(0); // Found first frame, stop reading.
+                case 0x3B: // GIF Trailer
+                case -1: // End of stream
+                    throw new IOException("Image has no frames.");
+                default:
+                    throw new IOException("Unknown block before first frame.");
+            }
+        }
+    }
+
+    private static void checkPixels(final int w, final int h, final long maxPixels) throws IOException {
+        if ((long) w * h > maxPixels) {
+            throw new IOException("Image [width=" + w + ", height=" + h + "] exceeds max pixel count.");
+        }
+    }
+
+    private static byte[] readBytes(final DataInputStream in, final int length) throws IOException {
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static void skipSubBlocks(final DataInputStream in) throws IOException {
+        int subBlockSize = in.readUnsignedByte();
+        while (subBlockSize != 0) { // While sub-block size != 0
+            in.skipNBytes(subBlockSize);
+            subBlockSize = in.readUnsignedByte();
+        }
+    }
+
+    /**
+     * Streaming counterpart of {@link #readImgData(GifFrame, byte[], int)}.
+     *
+     * @param fr The GIF frame to whom this image data belongs
+     * @param in Stream positioned at the minCodeSize
+     */
+    static void readImgData(final GifFrame fr, final DataInputStream in) throws IOException {
+        final int minCodeSize = in.readUnsignedByte(); // Read code size, go to block
+        final int clearCode = 1 << minCodeSize; // CLEAR = 2^minCodeSize
+        fr.firstCodeSize = minCodeSize + 1; // Add 1 bit for CLEAR and EOI
+        fr.clearCode = clearCode;
+        fr.endOfInfoCode = clearCode + 1;
+        final ByteArrayOutputStream imgData = new ByteArrayOutputStream();
+        final byte[] subBlock = new byte[255];
+        try {
+            int subBlockSize = in.readUnsignedByte();
+            while (subBlockSize > 0) { // While block has data
+                in.readFully(subBlock, 0, subBlockSize);
+                imgData.write(subBlock, 0, subBlockSize);
+                subBlockSize = in.readUnsignedByte();
+            }
+        } catch (final EOFException ignored) {
+            // Sub-block exceeds stream end, only use bytes read so far
+        }
+        // Decoder needs 2 more 0-bytes at the end
+        fr.data = Arrays.copyOf(imgData.toByteArray(), imgData.size() + 2);
+    }
+
     /**
      * @param ext Empty application extension object
      * @param in  Raw data
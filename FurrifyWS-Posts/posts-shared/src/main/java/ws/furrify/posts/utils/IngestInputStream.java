@@ -0,0 +1,52 @@
+package ws.furrify.posts.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+
+/**
+ * Input stream which allows to ingest file in single pass.
+ * Header bytes are buffered on creation so mime type can be detected before file is consumed.
+ *
+ * @author Skyte
+ */
+public class IngestInputStream extends FilterInputStream {
+
+    /**
+     * Amount of bytes from start of the file used for mime type detection.
+     */
+    public final static int HEADER_SIZE = 64 * 1024;
+
+    private final byte[] header;
+
+    private IngestInputStream(final byte[] header,
+                              final InputStream source) {
+        super(new SequenceInputStream(new ByteArrayInputStream(header), source));
+
+        this.header = header;
+    }
+
+    /**
+     * Wrap given stream and buffer its header.
+     *
+     * @param source Stream to ingest.
+     * @return Ingest stream.
+     * @throws IOException When header could not be read.
+     */
+    public static IngestInputStream of(final InputStream source) throws IOException {
+        return new IngestInputStream(source.readNBytes(HEADER_SIZE), source);
+    }
+
+    /**
+     * Detect mime type from header bytes without consuming the stream.
+     *
+     * @param filename Filename used as detection hint.
+     * @return Detected mime type.
+     * @throws IOException When detection failed.
+     */
+    public String getMimeType(final String filename) throws IOException {
+        return FileUtils.getMimeType(filename, new ByteArrayInputStream(header));
+    }
+}
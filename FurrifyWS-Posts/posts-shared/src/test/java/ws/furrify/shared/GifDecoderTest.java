@@ -0,0 +1,69 @@
+package ws.furrify.shared;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ws.furrify.posts.utils.GifDecoder;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+class GifDecoderTest {
+
+    private final static String GIF_PATH = "ws/furrify/shared/files/example.gif";
+
+    @Test
+    @DisplayName("Read first frame from stream")
+    void readFirstFrame() throws IOException {
+        // Given gif
+        byte[] gif = readGif();
+        // When readFirstFrame() method called
+        BufferedImage frame = GifDecoder.readFirstFrame(new ByteArrayInputStream(gif));
+        // Then frame is same as first frame decoded from whole image
+        BufferedImage expectedFrame = GifDecoder.read(gif).getFrame(0);
+        Assertions.assertArrayEquals(
+                expectedFrame.getRGB(0, 0, expectedFrame.getWidth(), expectedFrame.getHeight(), null, 0, expectedFrame.getWidth()),
+                frame.getRGB(0, 0, frame.getWidth(), frame.getHeight(), null, 0, frame.getWidth()),
+                "First frame is not decoded correctly."
+        );
+    }
+
+    @Test
+    @DisplayName("Read first frame from stream without frames")
+    void readFirstFrame2() throws IOException {
+        // Given gif cut before first image descriptor
+        byte[] gif = readGif();
+        byte[] truncatedGif = Arrays.copyOf(gif, 13);
+        // When readFirstFrame() method called
+        // Then throw IOException
+        Assertions.assertThrows(
+                IOException.class,
+                () -> GifDecoder.readFirstFrame(new ByteArrayInputStream(truncatedGif)),
+                "Exception was not thrown."
+        );
+    }
+
+    @Test
+    @DisplayName("Read first frame from stream with canvas exceeding max pixel count")
+    void readFirstFrame3() throws IOException {
+        // Given gif with logical screen of 65535x65535 pixels
+        byte[] gif = readGif();
+        gif[6] = gif[7] = gif[8] = gif[9] = (byte) 0xFF;
+        // When readFirstFrame() method called with max pixel count
+        // Then throw IOException
+        Assertions.assertThrows(
+                IOException.class,
+                () -> GifDecoder.readFirstFrame(new ByteArrayInputStream(gif), 400_000_000L),
+                "Exception was not thrown."
+        );
+    }
+
+    private byte[] readGif() throws IOException {
+        try (InputStream gifIn = getClass().getClassLoader().getResourceAsStream(GIF_PATH)) {
+            return gifIn.readAllBytes();
+        }
+    }
+}
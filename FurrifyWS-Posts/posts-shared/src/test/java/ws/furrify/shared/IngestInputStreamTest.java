@@ -0,0 +1,51 @@
+package ws.furrify.shared;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvFileSource;
+import ws.furrify.posts.utils.FileUtils;
+import ws.furrify.posts.utils.IngestInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+class IngestInputStreamTest {
+
+    @DisplayName("Detect mime type from header bytes")
+    @ParameterizedTest
+    @CsvFileSource(resources = "mimeTypes.csv", numLinesToSkip = 1)
+    void getMimeType(String filePath) throws IOException {
+        // Given filePath
+        String filename = new File(filePath).getName();
+        InputStream fileIn = getClass().getClassLoader().getResourceAsStream(filePath);
+        Assertions.assertNotNull(fileIn, "File is missing from resources.");
+        // When getMimeType() on ingest stream
+        String mimeType = IngestInputStream.of(fileIn).getMimeType(filename);
+        // Then mime type is same as detected from whole file
+        Assertions.assertEquals(
+                FileUtils.getMimeType(filename, getClass().getClassLoader().getResourceAsStream(filePath)),
+                mimeType,
+                "Mime type is not detected correctly."
+        );
+    }
+
+    @Test
+    @DisplayName("Copy file with buffered header")
+    void transferTo() throws IOException {
+        // Given file larger than header
+        byte[] file = getClass().getClassLoader()
+                .getResourceAsStream("ws/furrify/shared/files/example.mp4")
+                .readAllBytes();
+        // When ingest stream is copied
+        IngestInputStream ingestInputStream = IngestInputStream.of(new ByteArrayInputStream(file));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ingestInputStream.transferTo(output);
+        // Then whole file was copied
+        Assertions.assertArrayEquals(file, output.toByteArray(), "File content was changed.");
+    }
+}
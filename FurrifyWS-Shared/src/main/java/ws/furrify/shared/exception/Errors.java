@@ -41,9 +41,20 @@ public enum Errors {
     VALIDATION_FAILED("Validation failed for [strategy={0}] with [error={1}]."),
     FILENAME_IS_INVALID("Given filename [filename={0}] is invalid."),
     VIDEO_FRAME_EXTRACTION_FAILED("Video frame extraction for thumbnail has failed."),
+    VIDEO_FRAME_EXTRACTION_IS_OVERLOADED("Too many videos are processed at the moment. Try again later."),
     EXTERNAL_PROVIDER_SERVER_SIDE_ERROR("External provider [provider={0}] has encountered a server error on their side. Try again."),
     EXTERNAL_PROVIDER_TOKEN_HAS_EXPIRED("External provider [provider={0}] token has expired. You will need to reconnect it in account options."),
+    CURSOR_IS_INVALID("Given cursor [cursor={0}] is invalid."),
+    SORT_PROPERTY_IS_INVALID("Sort property [property={0}] cannot be used for cursor pagination."),
     HARD_LIMIT_FOR_ENTITY_TYPE("Hard limit of [limit={0}] has been reached for [entity={1}], further create requests will not be accepted."),
+    TOPIC_IS_NOT_CONSUMED("Topic [topic={0}] is not consumed by this service."),
+    THUMBNAIL_QUEUE_IS_FULL("Thumbnail generation queue is full. Try again later."),
+    UPLOAD_TICKET_IS_INVALID("Given upload ticket is invalid or has expired."),
+    UPLOAD_IS_NOT_MATCHING_TICKET("Uploaded file is not matching hash and size given in upload ticket."),
+    UPLOAD_SIZE_IS_INVALID("Upload [size={0}] must be greater than 0 and not exceed max file size."),
+    UPLOAD_CHUNK_IS_INVALID("Upload chunk [index={0}] is not matching its range or hash."),
+    UPLOAD_IS_INCOMPLETE("Upload [uuid={0}] is missing chunks."),
+    UPLOAD_IS_NOT_OPEN("Upload [uuid={0}] is already being completed."),
     UNIDENTIFIED("Unknown error occurred.");
 
     private final String errorMessage;
@@ -0,0 +1,17 @@
+package ws.furrify.shared.exception;
+
+import lombok.Getter;
+
+/**
+ * @author Skyte
+ */
+public class ServiceIsOverloadedException extends RuntimeException implements RestException {
+
+    @Getter
+    private final HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+
+    public ServiceIsOverloadedException(String message) {
+        super(message);
+    }
+
+}
\ No newline at end of file
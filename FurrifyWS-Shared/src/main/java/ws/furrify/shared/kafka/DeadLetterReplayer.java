@@ -0,0 +1,121 @@
+package ws.furrify.shared.kafka;
+
+import lombok.extern.java.Log;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Replays records of dead letter topic to given handler.
+ * Replay reads records present in topic when it was started and commits offset after every handled record
+ * in its own consumer group, so already replayed records are not replayed again.
+ * When handler fails replay stops, and the failed record is the first one replayed next time.
+ * Replays run one at a time in background, so they do not hold threads of callers.
+ *
+ * @author Skyte
+ */
+@Log
+public class DeadLetterReplayer<V> implements AutoCloseable {
+
+    private final static Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<String, V> consumerFactory;
+    private final String groupId;
+
+    private final ExecutorService replayer;
+
+    /**
+     * @param consumerFactory Factory creating consumer of dead letter topics.
+     * @param groupId         Consumer group id replay progress is committed in.
+     */
+    public DeadLetterReplayer(final ConsumerFactory<String, V> consumerFactory,
+                              final String groupId) {
+        this.consumerFactory = consumerFactory;
+        this.groupId = groupId;
+
+        this.replayer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dead-letter-replayer");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Replay records of dead letter topic in background.
+     *
+     * @param topic   Dead letter topic name.
+     * @param handler Handler called for every record.
+     * @return Amount of replayed records once replay has finished.
+     */
+    public CompletableFuture<Long> replayAsync(final String topic,
+                                               final Consumer<ConsumerRecord<String, V>> handler) {
+        return CompletableFuture.supplyAsync(() -> replay(topic, handler), replayer)
+                .whenComplete((replayed, e) -> {
+                    if (e != null) {
+                        log.log(Level.WARNING, "Dead letter topic replay has failed [topic=" + topic + "].", e);
+                    }
+                });
+    }
+
+    /**
+     * Replay records of dead letter topic.
+     *
+     * @param topic   Dead letter topic name.
+     * @param handler Handler called for every record.
+     * @return Amount of replayed records.
+     */
+    public synchronized long replay(final String topic,
+                                    final Consumer<ConsumerRecord<String, V>> handler) {
+        Properties properties = new Properties();
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        try (org.apache.kafka.clients.consumer.Consumer<String, V> consumer =
+                     consumerFactory.createConsumer(groupId, null, null, properties)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                    .map(partitionInfo -> new TopicPartition(topic, partitionInfo.partition()))
+                    .toList();
+            consumer.assign(partitions);
+
+            // Replay only records present at start so records dead lettered again are not looped
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            long replayed = 0;
+            while (partitions.stream().anyMatch(partition -> consumer.position(partition) < endOffsets.get(partition))) {
+                for (ConsumerRecord<String, V> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() >= endOffsets.get(partition)) {
+                        continue;
+                    }
+
+                    handler.accept(record);
+
+                    consumer.commitSync(Map.of(partition, new OffsetAndMetadata(record.offset() + 1)));
+                    replayed++;
+                }
+            }
+
+            log.info("Dead letter topic replayed [topic=" + topic + "] [replayed=" + replayed + "].");
+
+            return replayed;
+        }
+    }
+
+    @Override
+    public void close() {
+        replayer.shutdownNow();
+    }
+}
@@ -66,7 +66,8 @@ public interface DomainEventPublisher<T> {
          * Events that can occur on Avatar entity.
          */
         CREATED,
-        REMOVED
+        REMOVED,
+        UPDATED
     }
 
     enum PostEventType {
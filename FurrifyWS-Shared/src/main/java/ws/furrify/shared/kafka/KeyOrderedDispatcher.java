@@ -0,0 +1,174 @@
+package ws.furrify.shared.kafka;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Dispatches batch of records received from kafka to worker lanes selected by record key.
+ * Records with the same key always go to the same single threaded lane, so they are handled in the order
+ * they were received, while records with different keys are handled in parallel.
+ * <p>
+ * dispatch() returns only after every record of the batch was handled, so listener container commits
+ * offsets of the batch only when all earlier records have finished.
+ * When record handling fails, remaining records with the same key are skipped to preserve key order,
+ * and the first failure is thrown after the batch has finished so the batch can be redelivered.
+ * If recoverer is given, failed and skipped records are passed to it instead, so the batch is not redelivered.
+ *
+ * @author Skyte
+ */
+public class KeyOrderedDispatcher implements AutoCloseable {
+
+    private final ExecutorService[] lanes;
+    private final Semaphore inFlight;
+
+    /**
+     * @param lanes       Amount of worker lanes records are handled in parallel by.
+     * @param maxInFlight Max amount of dispatched records that are not handled yet.
+     */
+    public KeyOrderedDispatcher(final int lanes, final int maxInFlight) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("Lanes amount must be greater than 0.");
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in flight records amount must be greater than 0.");
+        }
+
+        this.lanes = new ExecutorService[lanes];
+        for (int i = 0; i < lanes; i++) {
+            final String threadName = "kafka-lane-" + i;
+
+            this.lanes[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+
+                return thread;
+            });
+        }
+
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Handle records in lanes selected by their key and wait until all of them are finished.
+     *
+     * @param records Records in the order they were received.
+     * @param keyOf   Function returning record key.
+     * @param handler Handler called for every record.
+     */
+    public <T> void dispatch(final List<T> records,
+                             final Function<T, ?> keyOf,
+                             final Consumer<T> handler) {
+        dispatch(records, keyOf, handler, null);
+    }
+
+    /**
+     * Handle records in lanes selected by their key and wait until all of them are finished.
+     * Failed record and all later records with the same key are passed to recoverer in the order they were received.
+     *
+     * @param records   Records in the order they were received.
+     * @param keyOf     Function returning record key.
+     * @param handler   Handler called for every record.
+     * @param recoverer Recoverer called for failed and skipped records or null to throw the failure.
+     */
+    public <T> void dispatch(final List<T> records,
+                             final Function<T, ?> keyOf,
+                             final Consumer<T> handler,
+                             final BiConsumer<T, Throwable> recoverer) {
+        Set<Object> failedKeys = ConcurrentHashMap.newKeySet();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch finished = new CountDownLatch(records.size());
+
+        for (T record : records) {
+            Object key = keyOf.apply(record);
+
+            inFlight.acquireUninterruptibly();
+            try {
+                laneOf(key).execute(() -> {
+                    try {
+                        handle(record, key, handler, recoverer, failedKeys);
+                    } catch (Throwable e) {
+                        failedKeys.add(key);
+
+                        if (!failure.compareAndSet(null, e)) {
+                            failure.get().addSuppressed(e);
+                        }
+                    } finally {
+                        inFlight.release();
+                        finished.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                finished.countDown();
+
+                failedKeys.add(key);
+                failure.compareAndSet(null, e);
+            }
+        }
+
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while waiting for records to be handled.", e);
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        } else if (cause instanceof Error error) {
+            throw error;
+        } else if (cause != null) {
+            throw new IllegalStateException("Record handling failed.", cause);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private static <T> void handle(final T record,
+                                   final Object key,
+                                   final Consumer<T> handler,
+                                   final BiConsumer<T, Throwable> recoverer,
+                                   final Set<Object> failedKeys) {
+        // Skip record if earlier record with the same key failed
+        if (failedKeys.contains(key)) {
+            if (recoverer != null) {
+                recoverer.accept(record, new IllegalStateException("Record was skipped as earlier record with the same key has failed."));
+            }
+
+            return;
+        }
+
+        try {
+            handler.accept(record);
+        } catch (Throwable e) {
+            if (recoverer == null) {
+                throw e;
+            }
+
+            failedKeys.add(key);
+            recoverer.accept(record, e);
+        }
+    }
+
+    private ExecutorService laneOf(final Object key) {
+        return lanes[Math.floorMod(Objects.hashCode(key), lanes.length)];
+    }
+}
@@ -0,0 +1,233 @@
+package ws.furrify.shared.kafka;
+
+import lombok.extern.java.Log;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Routes records that failed to be handled to retry topics with increasing delays and finally to dead letter topic,
+ * so failed record does not block partition of the main topic.
+ * <p>
+ * Record failed in main topic is sent to topic-group-retry-0, record failed in topic-group-retry-N is sent to
+ * topic-group-retry-(N+1) and record failed in the last retry topic is sent to topic-group-dlt.
+ * Retry and dead letter topics carry consumer group id, so failed record is retried only by the group it failed in
+ * and groups of other services consuming the same topic do not apply it again.
+ * Every retry topic record carries time it is due at, and is not handled before that time.
+ * Partition holding record which is not due yet is paused until then, other partitions keep being handled,
+ * so records of longer tiers do not hold back records of other topics and tiers which are due.
+ * <p>
+ * Later records with the same key are not held back while failed record waits in retry topic,
+ * so order of records with the same key is kept only within a single batch.
+ *
+ * @author Skyte
+ */
+@Log
+public class RetryTopicRouter implements AutoCloseable {
+
+    public final static String ATTEMPT_HEADER = "furrify-retry-attempt";
+    public final static String DUE_HEADER = "furrify-retry-due";
+    public final static String EXCEPTION_HEADER = "furrify-retry-exception";
+
+    private final KafkaOperations<String, Object> kafkaOperations;
+    private final String groupId;
+    private final long[] delays;
+    private final Clock clock;
+
+    private final ScheduledExecutorService resumer;
+
+    /**
+     * @param kafkaOperations Kafka operations used to send records.
+     * @param groupId         Consumer group id failed records are retried in.
+     * @param delays          Delays in millis of every retry tier.
+     */
+    public RetryTopicRouter(final KafkaOperations<String, Object> kafkaOperations,
+                            final String groupId,
+                            final long[] delays) {
+        this(kafkaOperations, groupId, delays, Clock.systemUTC());
+    }
+
+    RetryTopicRouter(final KafkaOperations<String, Object> kafkaOperations,
+                     final String groupId,
+                     final long[] delays,
+                     final Clock clock) {
+        this.kafkaOperations = kafkaOperations;
+        this.groupId = groupId;
+        this.delays = delays.clone();
+        this.clock = clock;
+
+        this.resumer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "retry-topic-resumer");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * @param topic Main topic name.
+     * @return Names of retry topics of main topic ordered by tier.
+     */
+    public List<String> retryTopics(final String topic) {
+        return IntStream.range(0, delays.length)
+                .mapToObj(tier -> retryTopic(topic, tier))
+                .toList();
+    }
+
+    /**
+     * @param topics Main topic names.
+     * @return Names of retry and dead letter topics of main topics.
+     */
+    public List<String> retryAndDeadLetterTopics(final List<String> topics) {
+        List<String> result = new ArrayList<>();
+        for (String topic : topics) {
+            result.addAll(retryTopics(topic));
+            result.add(deadLetterTopic(topic));
+        }
+
+        return result;
+    }
+
+    public String retryTopic(final String topic, final int tier) {
+        return topic + "-" + groupId + "-retry-" + tier;
+    }
+
+    public String deadLetterTopic(final String topic) {
+        return topic + "-" + groupId + "-dlt";
+    }
+
+    /**
+     * @param topic Main, retry or dead letter topic name.
+     * @return Name of main topic.
+     */
+    public String mainTopic(final String topic) {
+        return topic.replaceFirst("-" + Pattern.quote(groupId) + "-(retry-\\d+|dlt)$", "");
+    }
+
+    /**
+     * Send failed record to next retry topic or to dead letter topic if all retries were used.
+     * Method returns after record was acknowledged by kafka, so offset of failed record can be committed.
+     *
+     * @param record Failed record.
+     * @param cause  Failure cause.
+     */
+    public void forward(final ConsumerRecord<String, ?> record, final Throwable cause) {
+        int attempt = (int) headerValue(record, ATTEMPT_HEADER, 0);
+        String mainTopic = mainTopic(record.topic());
+
+        ProducerRecord<String, Object> forwarded;
+        if (attempt < delays.length) {
+            forwarded = new ProducerRecord<>(retryTopic(mainTopic, attempt), record.key(), record.value());
+            forwarded.headers().add(DUE_HEADER, bytesOf(clock.millis() + delays[attempt]));
+        } else {
+            forwarded = new ProducerRecord<>(deadLetterTopic(mainTopic), record.key(), record.value());
+        }
+
+        forwarded.headers().add(ATTEMPT_HEADER, bytesOf(attempt + 1));
+        forwarded.headers().add(EXCEPTION_HEADER, String.valueOf(cause.getMessage()).getBytes(StandardCharsets.UTF_8));
+
+        try {
+            kafkaOperations.send(forwarded).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while forwarding record to [topic=" + forwarded.topic() + "].", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Forwarding record to [topic=" + forwarded.topic() + "] failed.", e.getCause());
+        }
+
+        log.warning("Event handling failed and was forwarded [topic=" + record.topic() + "] [key=" + record.key() +
+                "] [destination=" + forwarded.topic() + "] [cause=" + cause.getMessage() + "].");
+    }
+
+    /**
+     * Handle records of retry topics which are due and commit their offsets.
+     * Records of retry topic partition are due in the order they were forwarded, so when record which is not due yet
+     * is found, its partition is sought back to it and paused until it is due.
+     * Records that fail again are forwarded to next retry topic.
+     * Container of listener has to use manual acknowledgment, so it does not commit offsets of sought back records.
+     *
+     * @param records    Records received from retry topics.
+     * @param consumer   Consumer records were polled with.
+     * @param container  Container of listener, partitions are paused with it.
+     * @param dispatcher Dispatcher handling records.
+     * @param handler    Handler called for every due record.
+     */
+    public <V> void redeliver(final List<ConsumerRecord<String, V>> records,
+                              final org.apache.kafka.clients.consumer.Consumer<?, ?> consumer,
+                              final MessageListenerContainer container,
+                              final KeyOrderedDispatcher dispatcher,
+                              final Consumer<ConsumerRecord<String, V>> handler) {
+        long now = clock.millis();
+
+        List<ConsumerRecord<String, V>> dueRecords = new ArrayList<>();
+        Map<TopicPartition, ConsumerRecord<String, V>> firstNotDueRecords = new LinkedHashMap<>();
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (ConsumerRecord<String, V> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            if (firstNotDueRecords.containsKey(partition)) {
+                continue;
+            }
+
+            if (headerValue(record, DUE_HEADER, 0) > now) {
+                firstNotDueRecords.put(partition, record);
+                offsets.put(partition, new OffsetAndMetadata(record.offset()));
+            } else {
+                dueRecords.add(record);
+                offsets.put(partition, new OffsetAndMetadata(record.offset() + 1));
+            }
+        }
+
+        dispatcher.dispatch(dueRecords, ConsumerRecord::key, handler, this::forward);
+
+        consumer.commitSync(offsets);
+
+        firstNotDueRecords.forEach((partition, record) -> {
+            consumer.seek(partition, record.offset());
+            container.pausePartition(partition);
+
+            resumer.schedule(
+                    () -> container.resumePartition(partition),
+                    headerValue(record, DUE_HEADER, 0) - now,
+                    TimeUnit.MILLISECONDS
+            );
+        });
+    }
+
+    @Override
+    public void close() {
+        resumer.shutdownNow();
+    }
+
+    private static long headerValue(final ConsumerRecord<?, ?> record, final String name, final long defaultValue) {
+        Header header = record.headers().lastHeader(name);
+        if (header == null) {
+            return defaultValue;
+        }
+
+        return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytesOf(final long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,82 @@
+package ws.furrify.shared.pageable;
+
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.InvalidDataGivenException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+/**
+ * Opaque position in keyset paginated listing.
+ * It remembers sort property and direction, so next pages keep the same order,
+ * and (sort value, id) of last returned record.
+ *
+ * @author Skyte
+ */
+@Value
+public class Cursor implements Serializable {
+
+    String sort;
+
+    Sort.Direction direction;
+
+    /**
+     * Sort property value of last returned record.
+     */
+    String value;
+
+    /**
+     * Internal id of last returned record used as a tie breaker.
+     */
+    long id;
+
+    /**
+     * Encodes cursor to url safe string.
+     *
+     * @return Encoded cursor.
+     */
+    public String encode() {
+        try (var bytes = new ByteArrayOutputStream();
+             var output = new DataOutputStream(bytes)) {
+            output.writeUTF(sort);
+            output.writeUTF(direction.name());
+            output.writeBoolean(value != null);
+            if (value != null) {
+                output.writeUTF(value);
+            }
+            output.writeLong(id);
+            output.flush();
+
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes cursor from string created by encode().
+     *
+     * @param cursor Encoded cursor.
+     * @return Decoded cursor.
+     */
+    public static Cursor decode(final String cursor) {
+        try (var input = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            String sort = input.readUTF();
+            Sort.Direction direction = Sort.Direction.valueOf(input.readUTF());
+            String value = input.readBoolean() ? input.readUTF() : null;
+            long id = input.readLong();
+
+            return new Cursor(sort, direction, value, id);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidDataGivenException(Errors.CURSOR_IS_INVALID.getErrorMessage(cursor));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package ws.furrify.shared.pageable;
+
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serializable;
+
+/**
+ * Keyset page information.
+ * Records are ordered by sort property and then by internal id.
+ *
+ * @author Skyte
+ */
+@Value
+public class CursorPageable implements Serializable {
+
+    String sort;
+
+    Sort.Direction direction;
+
+    int size;
+
+    /**
+     * Position after which records should be returned or null for first page.
+     */
+    Cursor after;
+}
@@ -0,0 +1,241 @@
+package ws.furrify.shared.pageable;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.InvalidDataGivenException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Executes keyset paginated queries.
+ * Instead of offset it filters records positioned after (sort value, id) of given cursor,
+ * so deep slices are as cheap as the first one and no count query is executed.
+ * Sort property must be basic attribute of entity.
+ * Records are ordered by composite key (sort value is null, sort value, id), so records with null sort value
+ * are last in both directions regardless of database null ordering.
+ * Records with non-null and null sort value are queried separately, so both queries are range scans
+ * of index on filtered columns followed by (sort, id).
+ *
+ * @author Skyte
+ */
+public class CursorQueryExecutor {
+
+    private final static String ID_ATTRIBUTE = "id";
+
+    private final static ProjectionFactory PROJECTION_FACTORY = new SpelAwareProxyProjectionFactory();
+
+    private final EntityManager entityManager;
+
+    public CursorQueryExecutor(final EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Find slice of entities matching filter and project them to given type.
+     *
+     * @param entityClass Queried entity class.
+     * @param projection  Projection interface records are returned as.
+     * @param pageable    Keyset page information.
+     * @param filter      Filter predicate created for entity root.
+     * @return Slice of projected records.
+     */
+    public <E, R> CursorSlice<R> findAll(final Class<E> entityClass,
+                                         final Class<R> projection,
+                                         final CursorPageable pageable,
+                                         final BiFunction<CriteriaBuilder, Root<E>, Predicate> filter) {
+        Cursor after = pageable.getAfter();
+        // Fetch one more record to know if there is next slice
+        int limit = pageable.getSize() + 1;
+
+        List<Tuple> tuples = new ArrayList<>(limit);
+        // Records with non-null sort value are before all records with null one
+        if (after == null || after.getValue() != null) {
+            tuples.addAll(findSegment(entityClass, pageable, filter, false, after, limit));
+        }
+        if (tuples.size() < limit) {
+            Cursor afterNull = (after != null && after.getValue() == null) ? after : null;
+
+            tuples.addAll(findSegment(entityClass, pageable, filter, true, afterNull, limit - tuples.size()));
+        }
+
+        boolean hasNext = tuples.size() > pageable.getSize();
+        List<Tuple> content = hasNext ? tuples.subList(0, pageable.getSize()) : tuples;
+
+        Cursor next = null;
+        if (hasNext) {
+            Tuple last = content.get(content.size() - 1);
+            Object lastValue = last.get(1);
+
+            next = new Cursor(
+                    pageable.getSort(),
+                    pageable.getDirection(),
+                    (lastValue == null) ? null : lastValue.toString(),
+                    last.get(2, Long.class)
+            );
+        }
+
+        return new CursorSlice<>(
+                content.stream()
+                        .map(tuple -> PROJECTION_FACTORY.createProjection(projection, tuple.get(0)))
+                        .toList(),
+                next
+        );
+    }
+
+    /**
+     * Find records with null or non-null sort value positioned after cursor within the segment.
+     *
+     * @param nullSegment If records with null sort value are found.
+     * @param after       Cursor within the segment or null to find from its start.
+     */
+    private <E> List<Tuple> findSegment(final Class<E> entityClass,
+                                        final CursorPageable pageable,
+                                        final BiFunction<CriteriaBuilder, Root<E>, Predicate> filter,
+                                        final boolean nullSegment,
+                                        final Cursor after,
+                                        final int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<E> root = query.from(entityClass);
+
+        Path<Comparable<Object>> sortPath = sortPath(root, pageable.getSort());
+        Path<Long> idPath = root.get(ID_ATTRIBUTE);
+
+        Predicate predicate;
+        if (nullSegment) {
+            predicate = criteriaBuilder.and(filter.apply(criteriaBuilder, root), criteriaBuilder.isNull(sortPath));
+
+            if (after != null) {
+                predicate = criteriaBuilder.and(predicate, after(criteriaBuilder, idPath, after.getId(), after.getDirection()));
+            }
+
+            // Sort value is same for every record, so only id orders them
+            query.orderBy(order(criteriaBuilder, idPath, pageable.getDirection()));
+        } else {
+            predicate = criteriaBuilder.and(filter.apply(criteriaBuilder, root), criteriaBuilder.isNotNull(sortPath));
+
+            if (after != null) {
+                predicate = criteriaBuilder.and(predicate, afterCursor(criteriaBuilder, sortPath, idPath, after));
+            }
+
+            query.orderBy(
+                    order(criteriaBuilder, sortPath, pageable.getDirection()),
+                    order(criteriaBuilder, idPath, pageable.getDirection())
+            );
+        }
+
+        query.multiselect(root, sortPath, idPath)
+                .where(predicate);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Path<Comparable<Object>> sortPath(final Root<E> root, final String sort) {
+        if (sort.equals(ID_ATTRIBUTE)) {
+            throw new InvalidDataGivenException(Errors.SORT_PROPERTY_IS_INVALID.getErrorMessage(sort));
+        }
+
+        try {
+            // Only basic attributes can be compared
+            if (root.getModel().getAttribute(sort).getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+                throw new InvalidDataGivenException(Errors.SORT_PROPERTY_IS_INVALID.getErrorMessage(sort));
+            }
+
+            return root.get(sort);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataGivenException(Errors.SORT_PROPERTY_IS_INVALID.getErrorMessage(sort));
+        }
+    }
+
+    /**
+     * Predicate of records with non-null sort value positioned after cursor.
+     * Sort value bound is repeated outside of alternative, so database can start range scan of index at it.
+     */
+    private static Predicate afterCursor(final CriteriaBuilder criteriaBuilder,
+                                         final Path<Comparable<Object>> sortPath,
+                                         final Path<Long> idPath,
+                                         final Cursor cursor) {
+        Comparable<Object> value = parseValue(cursor, sortPath.getJavaType());
+
+        return criteriaBuilder.and(
+                notBefore(criteriaBuilder, sortPath, value, cursor.getDirection()),
+                criteriaBuilder.or(
+                        after(criteriaBuilder, sortPath, value, cursor.getDirection()),
+                        after(criteriaBuilder, idPath, cursor.getId(), cursor.getDirection())
+                )
+        );
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate notBefore(final CriteriaBuilder criteriaBuilder,
+                                                                         final Expression<? extends Y> expression,
+                                                                         final Y value,
+                                                                         final Sort.Direction direction) {
+        return direction.isDescending() ?
+                criteriaBuilder.lessThanOrEqualTo(expression, value) :
+                criteriaBuilder.greaterThanOrEqualTo(expression, value);
+    }
+
+    private static <Y extends Comparable<? super Y>> Predicate after(final CriteriaBuilder criteriaBuilder,
+                                                                     final Expression<? extends Y> expression,
+                                                                     final Y value,
+                                                                     final Sort.Direction direction) {
+        return direction.isDescending() ?
+                criteriaBuilder.lessThan(expression, value) :
+                criteriaBuilder.greaterThan(expression, value);
+    }
+
+    private static Order order(final CriteriaBuilder criteriaBuilder,
+                               final Expression<?> expression,
+                               final Sort.Direction direction) {
+        return direction.isDescending() ?
+                criteriaBuilder.desc(expression) :
+                criteriaBuilder.asc(expression);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparable<Object> parseValue(final Cursor cursor, final Class<?> type) {
+        try {
+            Object value;
+
+            if (type == String.class) {
+                value = cursor.getValue();
+            } else if (type == ZonedDateTime.class) {
+                value = ZonedDateTime.parse(cursor.getValue());
+            } else if (type == Long.class || type == long.class) {
+                value = Long.valueOf(cursor.getValue());
+            } else if (type == Integer.class || type == int.class) {
+                value = Integer.valueOf(cursor.getValue());
+            } else if (type == UUID.class) {
+                value = UUID.fromString(cursor.getValue());
+            } else if (type.isEnum()) {
+                value = Enum.valueOf((Class<Enum>) type, cursor.getValue());
+            } else {
+                throw new InvalidDataGivenException(Errors.SORT_PROPERTY_IS_INVALID.getErrorMessage(cursor.getSort()));
+            }
+
+            return (Comparable<Object>) value;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidDataGivenException(Errors.CURSOR_IS_INVALID.getErrorMessage(cursor.encode()));
+        }
+    }
+}
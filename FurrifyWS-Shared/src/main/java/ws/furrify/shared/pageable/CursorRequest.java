@@ -0,0 +1,61 @@
+package ws.furrify.shared.pageable;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serializable;
+
+import static ws.furrify.shared.pageable.PageableConstants.DEFAULT_PAGE_SIZE;
+import static ws.furrify.shared.pageable.PageableConstants.DEFAULT_SORT;
+import static ws.furrify.shared.pageable.PageableConstants.MAX_PAGE_SIZE;
+
+/**
+ * Cursor request that can be converted to CursorPageable.
+ * If cursor is given its sort and direction take precedence over requested ones.
+ * It uses constants from PageableConstants class in conversion.
+ *
+ * @author Skyte
+ */
+@Data
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CursorRequest implements Serializable {
+
+    private String sort;
+
+    private String order;
+
+    private Integer size;
+
+    private String after;
+
+    public CursorPageable toCursorPageable() {
+        if (size == null) {
+            size = DEFAULT_PAGE_SIZE;
+        }
+        if (size > MAX_PAGE_SIZE) {
+            size = MAX_PAGE_SIZE;
+        }
+        if (size < 1) {
+            size = 1;
+        }
+
+        if (after != null && !after.isBlank()) {
+            Cursor cursor = Cursor.decode(after);
+
+            return new CursorPageable(cursor.getSort(), cursor.getDirection(), size, cursor);
+        }
+
+        if (sort == null) {
+            sort = DEFAULT_SORT;
+        }
+
+        Sort.Direction sortDirection = Sort.Direction.fromOptionalString(order)
+                .orElse(Sort.Direction.DESC);
+
+        return new CursorPageable(sort, sortDirection, size, null);
+    }
+}
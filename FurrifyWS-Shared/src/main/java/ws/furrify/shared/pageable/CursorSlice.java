@@ -0,0 +1,31 @@
+package ws.furrify.shared.pageable;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Slice of records returned by keyset pagination.
+ * Total count is not known, only cursor of next slice if there is one.
+ *
+ * @author Skyte
+ */
+@Value
+public class CursorSlice<T> {
+
+    List<T> content;
+
+    /**
+     * Cursor of next slice or null if this is the last one.
+     */
+    Cursor next;
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    public <R> CursorSlice<R> map(final Function<? super T, ? extends R> mapper) {
+        return new CursorSlice<>(content.stream().<R>map(mapper).toList(), next);
+    }
+}
@@ -0,0 +1,126 @@
+package ws.furrify.shared.storage;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Response to conditional and range request of stored file.
+ * Evaluates {@code If-None-Match}, {@code Range} and {@code If-Range} headers against file length and strong ETag,
+ * so only requested part of file is sent and clients seeking in video do not download whole file.
+ * Request with many ranges is answered with whole file, multipart responses are not supported.
+ *
+ * @author Skyte
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class FileRangeResponse {
+
+    private final static String WEAK_ETAG_PREFIX = "W/";
+    private final static String ANY_ETAG = "*";
+
+    /**
+     * Response status, one of OK, PARTIAL_CONTENT, NOT_MODIFIED or REQUESTED_RANGE_NOT_SATISFIABLE.
+     */
+    private final HttpStatus status;
+
+    /**
+     * First byte of file to send.
+     */
+    private final long start;
+
+    /**
+     * Last byte of file to send, inclusive.
+     */
+    private final long end;
+
+    /**
+     * Length of whole file.
+     */
+    private final long length;
+
+    /**
+     * Evaluate request headers.
+     *
+     * @param length      Length of file.
+     * @param etag        Quoted strong ETag of file, null if file has none.
+     * @param ifNoneMatch Value of If-None-Match header.
+     * @param range       Value of Range header.
+     * @param ifRange     Value of If-Range header.
+     * @return Response to send.
+     */
+    public static FileRangeResponse of(final long length,
+                                       final String etag,
+                                       final String ifNoneMatch,
+                                       final String range,
+                                       final String ifRange) {
+        // Client has current file cached
+        if (etag != null && ifNoneMatch != null && matchesAny(ifNoneMatch, etag)) {
+            return new FileRangeResponse(HttpStatus.NOT_MODIFIED, 0, -1, length);
+        }
+
+        // Range of changed file is ignored, ETag is only validator sent so dates never match
+        if (range == null || (ifRange != null && !ifRange.trim().equals(etag))) {
+            return new FileRangeResponse(HttpStatus.OK, 0, length - 1, length);
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            if (ranges.size() != 1) {
+                return new FileRangeResponse(HttpStatus.OK, 0, length - 1, length);
+            }
+
+            long start = ranges.get(0).getRangeStart(length);
+            long end = ranges.get(0).getRangeEnd(length);
+
+            // Range starts after end of file
+            if (start >= length || start > end) {
+                return new FileRangeResponse(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, 0, -1, length);
+            }
+
+            return new FileRangeResponse(HttpStatus.PARTIAL_CONTENT, start, end, length);
+        } catch (IllegalArgumentException e) {
+            return new FileRangeResponse(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, 0, -1, length);
+        }
+    }
+
+    /**
+     * @return If file content is sent.
+     */
+    public boolean hasBody() {
+        return status == HttpStatus.OK || status == HttpStatus.PARTIAL_CONTENT;
+    }
+
+    /**
+     * @return Amount of bytes sent.
+     */
+    public long getContentLength() {
+        return hasBody() ? end - start + 1 : 0;
+    }
+
+    /**
+     * @return Value of Content-Range header, null if response has none.
+     */
+    public String getContentRange() {
+        return switch (status) {
+            case PARTIAL_CONTENT -> "bytes " + start + "-" + end + "/" + length;
+            case REQUESTED_RANGE_NOT_SATISFIABLE -> "bytes */" + length;
+            default -> null;
+        };
+    }
+
+    /**
+     * If-None-Match uses weak comparison, so weak tags of the same value match too.
+     */
+    private static boolean matchesAny(final String ifNoneMatch, final String etag) {
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith(WEAK_ETAG_PREFIX) ? tag.substring(WEAK_ETAG_PREFIX.length()) : tag)
+                .anyMatch(tag -> tag.equals(ANY_ETAG) || tag.equals(etag));
+    }
+}
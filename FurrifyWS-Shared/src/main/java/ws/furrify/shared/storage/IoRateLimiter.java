@@ -0,0 +1,51 @@
+package ws.furrify.shared.storage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limiter of storage operations per second shared by all threads.
+ * Every operation gets its own time slot, so background work cannot use more of the disk than given rate
+ * no matter how many threads it runs on.
+ *
+ * @author Skyte
+ */
+public class IoRateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeNanos = System.nanoTime();
+
+    /**
+     * @param operationsPerSecond Max amount of operations per second, 0 for no limit.
+     */
+    public IoRateLimiter(final int operationsPerSecond) {
+        if (operationsPerSecond < 0) {
+            throw new IllegalArgumentException("Operations per second must not be negative.");
+        }
+
+        this.intervalNanos = (operationsPerSecond == 0) ? 0 : TimeUnit.SECONDS.toNanos(1) / operationsPerSecond;
+    }
+
+    /**
+     * Wait for time slot of next operation.
+     *
+     * @throws InterruptedException Thread was interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(nextFreeNanos, now);
+
+            nextFreeNanos = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ws.furrify.shared.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Storage beans shared by services storing files, imported by their storage configuration.
+ * S3 object storage is created only when furrify.storage.strategy is s3.
+ *
+ * @author Skyte
+ */
+@Configuration
+public class ObjectStorageConfig {
+
+    @Value("${furrify.storage.local.shard-levels}")
+    private int shardLevels;
+
+    @Value("${furrify.storage.reclamation.rate}")
+    private int reclamationRate;
+
+    @Value("${furrify.storage.s3.endpoint}")
+    private String endpoint;
+
+    @Value("${furrify.storage.s3.region}")
+    private String region;
+
+    @Value("${furrify.storage.s3.bucket}")
+    private String bucket;
+
+    @Value("${furrify.storage.s3.access-key}")
+    private String accessKey;
+
+    @Value("${furrify.storage.s3.secret-key}")
+    private String secretKey;
+
+    @Value("${furrify.storage.s3.path-style-access}")
+    private boolean pathStyleAccess;
+
+    @Value("${furrify.storage.s3.public-url}")
+    private String publicUrl;
+
+    @Value("${furrify.storage.s3.part-size}")
+    private long partSize;
+
+    @Value("${furrify.storage.s3.part-upload-threads}")
+    private int partUploadThreads;
+
+    @Bean
+    ShardedLayout shardedLayout() {
+        return new ShardedLayout(shardLevels);
+    }
+
+    @Bean
+    IoRateLimiter reclamationRateLimiter() {
+        return new IoRateLimiter(reclamationRate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "furrify.storage.strategy", havingValue = "s3")
+    S3ObjectStorage s3ObjectStorage() {
+        return new S3ObjectStorage(
+                S3ObjectStorage.createClient(endpoint, region, accessKey, secretKey, pathStyleAccess),
+                bucket,
+                publicUrl,
+                partSize,
+                partUploadThreads
+        );
+    }
+}
@@ -0,0 +1,377 @@
+package ws.furrify.shared.storage;
+
+import lombok.extern.java.Log;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.FileUploadFailedException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Object storage in S3 compatible service like AWS S3 or MinIO.
+ * Files larger than part size are sent as multipart upload with parts uploaded in parallel by bounded pool of threads.
+ * Every part is streamed from its range of the file, so memory used does not depend on file size.
+ * Streams are uploaded with single request without being buffered.
+ *
+ * @author Skyte
+ */
+@Log
+public class S3ObjectStorage implements AutoCloseable {
+
+    /**
+     * Min size of every part except the last one accepted by S3.
+     */
+    public final static long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final static int MAX_PARTS = 10000;
+    private final static String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final S3Client client;
+    private final String bucket;
+    private final String publicUrl;
+    private final long partSize;
+    private final ExecutorService partUploaders;
+
+    /**
+     * @param client            Client of S3 compatible service.
+     * @param bucket            Bucket objects are stored in.
+     * @param publicUrl         Url objects are publicly available at, object key is appended to it.
+     * @param partSize          Size of multipart upload parts in bytes, files not larger than it are sent with single request.
+     * @param partUploadThreads Max amount of parts uploaded at once by all uploads.
+     */
+    public S3ObjectStorage(final S3Client client,
+                           final String bucket,
+                           final String publicUrl,
+                           final long partSize,
+                           final int partUploadThreads) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes.");
+        }
+        if (partUploadThreads < 1) {
+            throw new IllegalArgumentException("Part upload threads amount must be greater than 0.");
+        }
+
+        this.client = client;
+        this.bucket = bucket;
+        this.publicUrl = publicUrl.endsWith("/") ? publicUrl.substring(0, publicUrl.length() - 1) : publicUrl;
+        this.partSize = partSize;
+        this.partUploaders = Executors.newFixedThreadPool(partUploadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "s3-part-upload");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Create client of S3 compatible service.
+     *
+     * @param endpoint        Endpoint of service, when empty AWS endpoint of region is used. For MinIO ex. http://minio:9000.
+     * @param region          Region of bucket.
+     * @param accessKey       Access key, when empty credentials are taken from environment.
+     * @param secretKey       Secret key.
+     * @param pathStyleAccess If bucket should be part of path instead of host name, required by MinIO.
+     * @return S3 client.
+     */
+    public static S3Client createClient(final String endpoint,
+                                        final String region,
+                                        final String accessKey,
+                                        final String secretKey,
+                                        final boolean pathStyleAccess) {
+        AwsCredentialsProvider credentialsProvider = (accessKey == null || accessKey.isBlank())
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider)
+                .serviceConfiguration(
+                        S3Configuration.builder()
+                                .pathStyleAccessEnabled(pathStyleAccess)
+                                .build()
+                );
+
+        if (endpoint != null && !endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Upload file, file larger than part size is uploaded in parallel parts.
+     *
+     * @param key         Object key.
+     * @param file        File to upload.
+     * @param contentType Content type of file or null.
+     */
+    public void upload(final String key,
+                       final Path file,
+                       final String contentType) {
+        try {
+            long size = Files.size(file);
+
+            if (size <= partSize) {
+                client.putObject(
+                        builder -> builder.bucket(bucket).key(key).contentType(contentTypeOf(contentType)),
+                        RequestBody.fromFile(file)
+                );
+
+                return;
+            }
+
+            uploadMultipart(key, file, size, contentTypeOf(contentType));
+        } catch (IOException | SdkException e) {
+            log.log(Level.WARNING, "Uploading object [key=" + key + "] has failed.", e);
+
+            throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+        }
+    }
+
+    /**
+     * Upload stream with single request.
+     *
+     * @param key         Object key.
+     * @param content     Content to upload.
+     * @param size        Size of content in bytes.
+     * @param contentType Content type of content or null.
+     */
+    public void upload(final String key,
+                       final InputStream content,
+                       final long size,
+                       final String contentType) {
+        try {
+            client.putObject(
+                    builder -> builder.bucket(bucket).key(key).contentType(contentTypeOf(contentType)),
+                    RequestBody.fromInputStream(content, size)
+            );
+        } catch (SdkException e) {
+            log.log(Level.WARNING, "Uploading object [key=" + key + "] has failed.", e);
+
+            throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+        }
+    }
+
+    /**
+     * Open stream of object content.
+     *
+     * @param key Object key.
+     * @return Object content, has to be closed.
+     */
+    public InputStream download(final String key) {
+        return client.getObject(builder -> builder.bucket(bucket).key(key));
+    }
+
+    /**
+     * Delete all objects which key starts with given prefix.
+     *
+     * @param prefix Key prefix.
+     */
+    public void deleteAll(final String prefix) {
+        client.listObjectsV2Paginator(builder -> builder.bucket(bucket).prefix(prefix))
+                .forEach(page -> {
+                    // Page has at most 1000 objects, which is max amount deleted with single request
+                    if (page.contents().isEmpty()) {
+                        return;
+                    }
+
+                    List<ObjectIdentifier> objects = page.contents().stream()
+                            .map(S3Object::key)
+                            .map(key -> ObjectIdentifier.builder().key(key).build())
+                            .toList();
+
+                    client.deleteObjects(builder -> builder.bucket(bucket).delete(delete -> delete.objects(objects)));
+                });
+    }
+
+    /**
+     * Public uri of object with given key.
+     *
+     * @param key Object key.
+     * @return Uri object is available at.
+     */
+    public URI uriOf(final String key) throws URISyntaxException {
+        return new URI(publicUrl + "/" + key);
+    }
+
+    @Override
+    public void close() {
+        partUploaders.shutdownNow();
+        client.close();
+    }
+
+    private void uploadMultipart(final String key,
+                                 final Path file,
+                                 final long size,
+                                 final String contentType) {
+        // Part size grows for very large files, because upload can have limited amount of parts
+        long uploadPartSize = Math.max(partSize, (size + MAX_PARTS - 1) / MAX_PARTS);
+        int partCount = (int) ((size + uploadPartSize - 1) / uploadPartSize);
+
+        String uploadId = client.createMultipartUpload(
+                builder -> builder.bucket(bucket).key(key).contentType(contentType)
+        ).uploadId();
+
+        AtomicBoolean failed = new AtomicBoolean(false);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>(partCount);
+        try {
+            for (int i = 0; i < partCount; i++) {
+                int partNumber = i + 1;
+                long offset = i * uploadPartSize;
+                long length = Math.min(uploadPartSize, size - offset);
+
+                parts.add(CompletableFuture.supplyAsync(() -> {
+                    // Parts of failed upload waiting in queue are not sent
+                    if (failed.get()) {
+                        throw new IllegalStateException("Multipart upload has failed.");
+                    }
+
+                    return uploadPart(key, uploadId, partNumber, file, offset, length);
+                }, partUploaders));
+            }
+
+            List<CompletedPart> completedParts = new ArrayList<>(partCount);
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completedParts.add(part.join());
+            }
+
+            client.completeMultipartUpload(
+                    builder -> builder.bucket(bucket).key(key).uploadId(uploadId)
+                            .multipartUpload(upload -> upload.parts(completedParts))
+            );
+        } catch (CompletionException | SdkException e) {
+            failed.set(true);
+            // Parts still being sent would be stored after abort, so upload is aborted once every part is done
+            awaitQuietly(parts);
+            // Already uploaded parts are stored until upload is aborted
+            abortQuietly(key, uploadId);
+
+            log.log(Level.WARNING, "Multipart upload of object [key=" + key + "] has failed.", e);
+
+            throw new FileUploadFailedException(Errors.FILE_UPLOAD_FAILED.getErrorMessage());
+        }
+    }
+
+    private CompletedPart uploadPart(final String key,
+                                     final String uploadId,
+                                     final int partNumber,
+                                     final Path file,
+                                     final long offset,
+                                     final long length) {
+        String eTag = client.uploadPart(
+                builder -> builder.bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber).contentLength(length),
+                // New stream is opened for every retry of the part
+                RequestBody.fromContentProvider(() -> openRange(file, offset, length), length, DEFAULT_CONTENT_TYPE)
+        ).eTag();
+
+        return CompletedPart.builder()
+                .partNumber(partNumber)
+                .eTag(eTag)
+                .build();
+    }
+
+    private static void awaitQuietly(final List<CompletableFuture<CompletedPart>> parts) {
+        CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                .exceptionally(throwable -> null)
+                .join();
+    }
+
+    private void abortQuietly(final String key, final String uploadId) {
+        try {
+            client.abortMultipartUpload(builder -> builder.bucket(bucket).key(key).uploadId(uploadId));
+        } catch (SdkException e) {
+            log.log(Level.WARNING, "Aborting multipart upload of object [key=" + key + "] has failed.", e);
+        }
+    }
+
+    private static InputStream openRange(final Path file, final long offset, final long length) {
+        try {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            channel.position(offset);
+
+            return new RangeInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String contentTypeOf(final String contentType) {
+        return (contentType != null) ? contentType : DEFAULT_CONTENT_TYPE;
+    }
+
+    /**
+     * Stream of limited amount of bytes from start of source stream.
+     */
+    private static class RangeInputStream extends InputStream {
+
+        private final InputStream source;
+        private long remaining;
+
+        RangeInputStream(final InputStream source, final long length) {
+            this.source = source;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int read = source.read();
+            if (read != -1) {
+                remaining--;
+            }
+
+            return read;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int read = source.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read != -1) {
+                remaining -= read;
+            }
+
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
+}
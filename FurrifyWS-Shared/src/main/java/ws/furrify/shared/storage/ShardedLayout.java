@@ -0,0 +1,121 @@
+package ws.furrify.shared.storage;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Hashed fan-out layout of local storage directories.
+ * Directory of every id is nested in levels named by bytes of id hash, ex. {@code ab/cd/{id}} for two levels,
+ * so no directory holds more than 256 entries per level no matter how many ids are stored.
+ * Layout with zero levels is the flat {@code {id}} layout.
+ *
+ * @author Skyte
+ */
+public class ShardedLayout {
+
+    /**
+     * Max amount of levels, more would only add empty directories.
+     */
+    public final static int MAX_LEVELS = 4;
+
+    private final static String HASH_ALGORITHM = "SHA-256";
+
+    private final int levels;
+
+    /**
+     * @param levels Amount of directory levels above directory of id, 0 for flat layout.
+     */
+    public ShardedLayout(final int levels) {
+        if (levels < 0 || levels > MAX_LEVELS) {
+            throw new IllegalArgumentException("Levels amount must be between 0 and " + MAX_LEVELS + ".");
+        }
+
+        this.levels = levels;
+    }
+
+    /**
+     * Relative path of directory of given id.
+     *
+     * @param id Media, attachment or artist id.
+     * @return Path like {@code ab/cd/{id}}, separated with slashes so it can be used in uris.
+     */
+    public String pathOf(final UUID id) {
+        if (levels == 0) {
+            return id.toString();
+        }
+
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance(HASH_ALGORITHM).digest(id.toString().getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Hash algorithm is not supported.", e);
+        }
+
+        StringBuilder path = new StringBuilder();
+        for (int level = 0; level < levels; level++) {
+            path.append(HexFormat.of().toHexDigits(hash[level])).append('/');
+        }
+
+        return path.append(id).toString();
+    }
+
+    /**
+     * Move directory to other location, moving already moved directory does nothing.
+     * Move within the same file system is a rename, so files are not copied and hard links are preserved.
+     *
+     * @param source Directory to move.
+     * @param target New location of directory, which parents are created.
+     * @return If directory was moved, false when there was nothing to move.
+     */
+    public static boolean moveDirectory(final Path source, final Path target) throws IOException {
+        if (source.equals(target) || Files.notExists(source)) {
+            return false;
+        }
+
+        Files.createDirectories(target.getParent());
+
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+
+        return true;
+    }
+
+    /**
+     * Replace prefix of uri path.
+     *
+     * @param uri          Uri to relocate or null.
+     * @param sourcePrefix Prefix of path to replace.
+     * @param targetPrefix Prefix to replace it with.
+     * @return Relocated uri or given uri if its path does not start with source prefix.
+     */
+    public static URI relocate(final URI uri, final String sourcePrefix, final String targetPrefix) {
+        if (uri == null || uri.getPath() == null || !uri.getPath().startsWith(sourcePrefix)) {
+            return uri;
+        }
+
+        try {
+            return new URI(
+                    uri.getScheme(),
+                    uri.getAuthority(),
+                    targetPrefix + uri.getPath().substring(sourcePrefix.length()),
+                    uri.getQuery(),
+                    uri.getFragment()
+            );
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Uri [uri=" + uri + "] cannot be relocated.", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ws.furrify.shared.storage;
+
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Migration of stored files of all records to other storage layout.
+ * Records are read in pages ordered by id, so memory used does not depend on amount of records,
+ * and files of every page are migrated in parallel by bounded pool of workers.
+ * Migration of single record has to be idempotent, so interrupted migration can be started again.
+ *
+ * @param <T> Record type.
+ * @author Skyte
+ */
+@Log
+public abstract class StorageMigration<T> implements AutoCloseable {
+
+    private final String name;
+    private final int pageSize;
+
+    private final ExecutorService workers;
+    private final ExecutorService runner;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    /**
+     * @param name     Name of migration used in logs and thread names.
+     * @param workers  Amount of records migrated in parallel.
+     * @param pageSize Amount of records read at once.
+     */
+    protected StorageMigration(final String name,
+                               final int workers,
+                               final int pageSize) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers amount must be greater than 0.");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be greater than 0.");
+        }
+
+        this.name = name;
+        this.pageSize = pageSize;
+
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, name + "-migration");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-migration-runner");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Start migration of all records in background.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        runner.execute(() -> {
+            try {
+                log.info("Storage migration [name=" + name + "] started.");
+
+                int migrated = migrateAll();
+
+                log.info("Storage migration [name=" + name + "] finished. Migrated records=" + migrated);
+            } catch (RuntimeException e) {
+                log.log(Level.SEVERE, "Storage migration [name=" + name + "] has failed.", e);
+            }
+        });
+    }
+
+    /**
+     * Migrate all records page by page.
+     * Record which migration fails is logged and skipped, so it is migrated by next run.
+     *
+     * @return Amount of migrated records.
+     */
+    public int migrateAll() {
+        int migrated = 0;
+        long lastId = 0;
+
+        for (List<T> page = findPage(lastId, pageSize); !page.isEmpty(); page = findPage(lastId, pageSize)) {
+            List<CompletableFuture<Boolean>> results = page.stream()
+                    .map(record -> CompletableFuture.supplyAsync(() -> migrateQuietly(record), workers))
+                    .toList();
+
+            for (CompletableFuture<Boolean> result : results) {
+                if (result.join()) {
+                    migrated++;
+                }
+            }
+
+            lastId = idOf(page.get(page.size() - 1));
+        }
+
+        return migrated;
+    }
+
+    @Override
+    public void close() {
+        runner.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Find page of records.
+     *
+     * @param afterId Records with greater id are returned.
+     * @param limit   Max amount of records.
+     * @return Records ordered by id.
+     */
+    protected abstract List<T> findPage(long afterId, int limit);
+
+    /**
+     * @return Database id of record.
+     */
+    protected abstract long idOf(T record);
+
+    /**
+     * Move files of record and store their new location.
+     *
+     * @return If record was migrated, false when it already was.
+     */
+    protected abstract boolean migrate(T record) throws IOException;
+
+    private boolean migrateQuietly(final T record) {
+        try {
+            return migrate(record);
+        } catch (IOException | RuntimeException e) {
+            log.log(Level.WARNING, "Storage migration [name=" + name + "] of [record=" + idOf(record) + "] has failed.", e);
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,498 @@
+package ws.furrify.shared.storage;
+
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+/**
+ * Reclamation of files of removed records.
+ * Files of removed record are deleted in background by queued deletion, so event consumers do not wait for disk.
+ * Files left behind, by failed or lost deletion or by record removed without event, are found by mark and sweep:
+ * directories named by record id are read from local storage tree in parallel, ids which have no record in database
+ * are marked as orphaned and their directories are deleted.
+ * Every deletion and every directory listing waits for rate limiter, so reclamation does not starve uploads.
+ * In dry run sweep only reports orphaned directories.
+ * Sweep on demand runs in background, its report is logged and kept as status of last sweep.
+ *
+ * @author Skyte
+ */
+@Log
+public abstract class StorageReclaimer implements AutoCloseable {
+
+    /**
+     * Length of uuid in canonical form, other forms accepted by uuid parser are not directory names.
+     */
+    private final static int UUID_LENGTH = 36;
+
+    @Getter
+    private final String name;
+    private final Path storagePath;
+    private final IoRateLimiter rateLimiter;
+    private final int batchSize;
+    private final Duration minAge;
+    private final Duration sweepInterval;
+    private final boolean dryRun;
+
+    private final BlockingQueue<QueuedDeletion> deletions = new LinkedBlockingQueue<>();
+    private final ExecutorService deleter;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+
+    private volatile SweepReport lastReport;
+
+    /**
+     * @param name          Name of reclaimer used in logs, thread names and to find it.
+     * @param storagePath   Local storage directory swept for orphaned files, null when files are not stored locally.
+     * @param rateLimiter   Limiter of deletions and directory listings.
+     * @param workers       Amount of directories swept in parallel.
+     * @param batchSize     Amount of ids checked in database at once.
+     * @param minAge        Directories modified later are not swept, so files uploaded before their record is saved are kept.
+     *                      Must exceed time in which event saving record can still be retried or replayed.
+     * @param sweepInterval Interval of sweeps, zero to sweep only on demand.
+     * @param dryRun        If scheduled sweeps only report orphaned directories.
+     */
+    protected StorageReclaimer(final String name,
+                               final Path storagePath,
+                               final IoRateLimiter rateLimiter,
+                               final int workers,
+                               final int batchSize,
+                               final Duration minAge,
+                               final Duration sweepInterval,
+                               final boolean dryRun) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers amount must be greater than 0.");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than 0.");
+        }
+
+        this.name = name;
+        this.storagePath = storagePath;
+        this.rateLimiter = rateLimiter;
+        this.batchSize = batchSize;
+        this.minAge = minAge;
+        this.sweepInterval = sweepInterval;
+        this.dryRun = dryRun;
+
+        this.deleter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-reclamation");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, name + "-reclamation-sweep");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-reclamation-scheduler");
+            thread.setDaemon(true);
+
+            return thread;
+        });
+    }
+
+    /**
+     * Start deleting queued files and schedule sweeps of local storage.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        deleter.execute(this::deleteQueued);
+
+        if (storagePath != null && !sweepInterval.isZero()) {
+            scheduler.scheduleWithFixedDelay(
+                    this::sweepQuietly, sweepInterval.toMillis(), sweepInterval.toMillis(), TimeUnit.MILLISECONDS
+            );
+        }
+
+        log.info("Storage reclamation [name=" + name + "] started. Dry run=" + dryRun);
+    }
+
+    /**
+     * Queue deletion of files of removed record.
+     * Deletion lost by stopped instance is left to sweep.
+     *
+     * @param id       Id of removed record.
+     * @param deletion Deletion of all files of record.
+     */
+    public void enqueue(final UUID id, final Deletion deletion) {
+        deletions.add(new QueuedDeletion(id, deletion));
+    }
+
+    /**
+     * Sweep local storage for directories of ids which have no record.
+     *
+     * @param dryRun If orphaned directories are only reported.
+     * @return Report of sweep.
+     */
+    public SweepReport sweep(final boolean dryRun) {
+        startSweeping();
+
+        try {
+            return sweepStorage(dryRun);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * Start sweep of local storage in background.
+     * Report of sweep is logged and returned by {@link #getSweepStatus()} when sweep is finished.
+     *
+     * @param dryRun If orphaned directories are only reported.
+     */
+    public void sweepInBackground(final boolean dryRun) {
+        startSweeping();
+
+        try {
+            scheduler.execute(() -> {
+                try {
+                    sweepStorage(dryRun);
+                } catch (RuntimeException e) {
+                    log.log(Level.SEVERE, "Storage reclamation [name=" + name + "] sweep has failed.", e);
+                } finally {
+                    sweeping.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            sweeping.set(false);
+
+            throw new IllegalStateException("Storage reclamation [name=" + name + "] is closed.", e);
+        }
+    }
+
+    /**
+     * @return If sweep is running and report of last finished sweep.
+     */
+    public SweepStatus getSweepStatus() {
+        return new SweepStatus(sweeping.get(), lastReport);
+    }
+
+    private void startSweeping() {
+        if (!sweeping.compareAndSet(false, true)) {
+            throw new IllegalStateException("Storage reclamation [name=" + name + "] is already sweeping.");
+        }
+    }
+
+    private SweepReport sweepStorage(final boolean dryRun) {
+        if (storagePath == null || !Files.isDirectory(storagePath)) {
+            lastReport = new SweepReport(dryRun, 0, 0, 0, 0, 0);
+
+            return lastReport;
+        }
+
+        try {
+            log.info("Storage reclamation [name=" + name + "] sweep started. Dry run=" + dryRun);
+
+            Instant modifiedBefore = Instant.now().minus(minAge);
+
+            // Trees of top directories are swept in parallel
+            List<CompletableFuture<SweepReport>> reports = listDirectories(storagePath).stream()
+                    .map(directory -> CompletableFuture.supplyAsync(
+                            () -> new TreeSweep(modifiedBefore, dryRun).sweep(directory), workers
+                    ))
+                    .toList();
+
+            SweepReport report = new SweepReport(dryRun, 0, 0, 0, 0, 0);
+            for (CompletableFuture<SweepReport> treeReport : reports) {
+                report = report.plus(treeReport.join());
+            }
+
+            log.info("Storage reclamation [name=" + name + "] sweep finished. " + report);
+            lastReport = report;
+
+            return report;
+        } catch (IOException e) {
+            throw new IllegalStateException("Storage reclamation [name=" + name + "] cannot read storage.", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Storage reclamation [name=" + name + "] was interrupted.", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+        deleter.shutdownNow();
+    }
+
+    /**
+     * Find which of given ids have record.
+     *
+     * @param ids Ids of directories.
+     * @return Ids which have record.
+     */
+    protected abstract Set<UUID> findExisting(Set<UUID> ids);
+
+    /**
+     * Called after orphaned directory was deleted, so resources of id other than files can be released.
+     *
+     * @param id Id of deleted directory.
+     */
+    protected void reclaimed(final UUID id) {
+    }
+
+    private void deleteQueued() {
+        while (!Thread.currentThread().isInterrupted()) {
+            QueuedDeletion queuedDeletion;
+            try {
+                queuedDeletion = deletions.take();
+                rateLimiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                return;
+            }
+
+            try {
+                queuedDeletion.deletion().delete();
+            } catch (IOException | RuntimeException e) {
+                log.log(Level.WARNING, "Storage reclamation [name=" + name + "] of [id=" + queuedDeletion.id() + "] has failed. " +
+                        "Files are left to sweep.", e);
+            }
+        }
+    }
+
+    private void sweepQuietly() {
+        try {
+            sweep(dryRun);
+        } catch (RuntimeException e) {
+            log.log(Level.SEVERE, "Storage reclamation [name=" + name + "] sweep has failed.", e);
+        }
+    }
+
+    private List<Path> listDirectories(final Path directory) throws IOException, InterruptedException {
+        rateLimiter.acquire();
+
+        List<Path> directories = new ArrayList<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(
+                directory, child -> Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)
+        )) {
+            children.forEach(directories::add);
+        }
+
+        return directories;
+    }
+
+    private static UUID idOf(final Path directory) {
+        String filename = directory.getFileName().toString();
+        if (filename.length() != UUID_LENGTH) {
+            return null;
+        }
+
+        try {
+            return UUID.fromString(filename);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long sizeOf(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            long size = 0;
+            for (Path path : paths.filter(Files::isRegularFile).toList()) {
+                size += Files.size(path);
+            }
+
+            return size;
+        }
+    }
+
+    private static void deleteDirectory(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Sweep of tree of single top directory.
+     */
+    private class TreeSweep {
+        private final Instant modifiedBefore;
+        private final boolean dryRun;
+
+        private final Map<UUID, Path> batch = new HashMap<>();
+        private long scanned;
+        private long orphaned;
+        private long orphanedBytes;
+        private long reclaimed;
+        private long failed;
+
+        private TreeSweep(final Instant modifiedBefore,
+                          final boolean dryRun) {
+            this.modifiedBefore = modifiedBefore;
+            this.dryRun = dryRun;
+        }
+
+        private SweepReport sweep(final Path directory) {
+            try {
+                collect(directory);
+                sweepBatch();
+            } catch (IOException e) {
+                failed++;
+                log.log(Level.WARNING, "Storage reclamation [name=" + name + "] cannot read [directory=" + directory + "].", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return new SweepReport(dryRun, scanned, orphaned, orphanedBytes, reclaimed, failed);
+        }
+
+        /**
+         * Collect directories of ids, directory of id which contains directories of other ids is not collected.
+         *
+         * @return If directory or any directory inside is directory of id.
+         */
+        private boolean collect(final Path directory) throws IOException, InterruptedException {
+            boolean containsIds = false;
+            for (Path child : listDirectories(directory)) {
+                containsIds |= collect(child);
+            }
+
+            UUID id = idOf(directory);
+            if (id == null) {
+                return containsIds;
+            }
+
+            if (!containsIds) {
+                batch.put(id, directory);
+
+                if (batch.size() >= batchSize) {
+                    sweepBatch();
+                }
+            }
+
+            return true;
+        }
+
+        private void sweepBatch() throws InterruptedException {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            // Mark ids which still have record
+            Set<UUID> existing = findExisting(new HashSet<>(batch.keySet()));
+
+            for (Map.Entry<UUID, Path> entry : batch.entrySet()) {
+                scanned++;
+                if (existing.contains(entry.getKey())) {
+                    continue;
+                }
+
+                try {
+                    // Record of recently uploaded files may not be saved yet
+                    if (Files.getLastModifiedTime(entry.getValue()).toInstant().isAfter(modifiedBefore)) {
+                        continue;
+                    }
+
+                    long size = sizeOf(entry.getValue());
+                    orphaned++;
+                    orphanedBytes += size;
+
+                    if (dryRun) {
+                        log.info("Storage reclamation [name=" + name + "] found orphaned [directory=" + entry.getValue() + "] " +
+                                "of [size=" + size + "].");
+                        continue;
+                    }
+
+                    rateLimiter.acquire();
+                    deleteDirectory(entry.getValue());
+                    reclaimed(entry.getKey());
+                    reclaimed++;
+                } catch (IOException | RuntimeException e) {
+                    failed++;
+                    log.log(Level.WARNING, "Storage reclamation [name=" + name + "] of [directory=" + entry.getValue() + "] has failed.", e);
+                }
+            }
+
+            batch.clear();
+        }
+    }
+
+    /**
+     * Deletion of all files of record.
+     */
+    @FunctionalInterface
+    public interface Deletion {
+        void delete() throws IOException;
+    }
+
+    /**
+     * Report of sweep.
+     *
+     * @param dryRun        If orphaned directories were only reported.
+     * @param scanned       Amount of directories of ids checked in database.
+     * @param orphaned      Amount of directories of ids without record.
+     * @param orphanedBytes Size of files in orphaned directories.
+     * @param reclaimed     Amount of deleted orphaned directories.
+     * @param failed        Amount of directories which could not be read or deleted.
+     */
+    public record SweepReport(boolean dryRun,
+                              long scanned,
+                              long orphaned,
+                              long orphanedBytes,
+                              long reclaimed,
+                              long failed) {
+
+        private SweepReport plus(final SweepReport report) {
+            return new SweepReport(
+                    dryRun,
+                    scanned + report.scanned,
+                    orphaned + report.orphaned,
+                    orphanedBytes + report.orphanedBytes,
+                    reclaimed + report.reclaimed,
+                    failed + report.failed
+            );
+        }
+    }
+
+    /**
+     * Status of sweeps.
+     *
+     * @param sweeping   If sweep is running.
+     * @param lastReport Report of last finished sweep, null if storage was not swept yet.
+     */
+    public record SweepStatus(boolean sweeping,
+                              SweepReport lastReport) {
+    }
+
+    private record QueuedDeletion(UUID id, Deletion deletion) {
+    }
+}
@@ -0,0 +1,96 @@
+package ws.furrify.shared.kafka;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeyOrderedDispatcherTest {
+
+    private KeyOrderedDispatcher keyOrderedDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        keyOrderedDispatcher = new KeyOrderedDispatcher(4, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyOrderedDispatcher.close();
+    }
+
+    @Test
+    @DisplayName("Dispatch records preserving key order")
+    void dispatch() {
+        // Given records of three keys
+        List<Map.Entry<String, Integer>> records = IntStream.range(0, 300)
+                .mapToObj(i -> Map.entry("key" + (i % 3), i))
+                .toList();
+        Map<String, List<Integer>> handled = new ConcurrentHashMap<>();
+        // When dispatch() method called
+        keyOrderedDispatcher.dispatch(records, Map.Entry::getKey, record ->
+                handled.computeIfAbsent(record.getKey(), key -> new ArrayList<>()).add(record.getValue())
+        );
+        // Then every record is handled in order of its key
+        handled.forEach((key, values) -> assertEquals(
+                values.stream().sorted().toList(), values, "Records of key were handled out of order."
+        ));
+        assertEquals(300, handled.values().stream().mapToInt(List::size).sum(), "Not every record was handled.");
+    }
+
+    @Test
+    @DisplayName("Dispatch records with failing record")
+    void dispatch2() {
+        // Given records where first record of one key fails
+        List<Map.Entry<String, Integer>> records = List.of(
+                Map.entry("failing", 0),
+                Map.entry("other", 1),
+                Map.entry("failing", 2)
+        );
+        Map<String, List<Integer>> handled = new ConcurrentHashMap<>();
+        // When dispatch() method called
+        // Then throw exception after other records were handled and skip later records of failed key
+        assertThrows(IllegalStateException.class, () -> keyOrderedDispatcher.dispatch(records, Map.Entry::getKey, record -> {
+            if (record.getValue() == 0) {
+                throw new IllegalStateException("Failure.");
+            }
+
+            handled.computeIfAbsent(record.getKey(), key -> new ArrayList<>()).add(record.getValue());
+        }), "Exception was not thrown.");
+        assertEquals(Map.of("other", List.of(1)), handled, "Invalid records were handled.");
+    }
+
+    @Test
+    @DisplayName("Dispatch records with failing record and recoverer")
+    void dispatch3() {
+        // Given records where first record of one key fails
+        List<Map.Entry<String, Integer>> records = List.of(
+                Map.entry("failing", 0),
+                Map.entry("other", 1),
+                Map.entry("failing", 2)
+        );
+        Map<String, List<Integer>> handled = new ConcurrentHashMap<>();
+        List<Integer> recovered = Collections.synchronizedList(new ArrayList<>());
+        // When dispatch() method called with recoverer
+        keyOrderedDispatcher.dispatch(records, Map.Entry::getKey, record -> {
+            if (record.getValue() == 0) {
+                throw new IllegalStateException("Failure.");
+            }
+
+            handled.computeIfAbsent(record.getKey(), key -> new ArrayList<>()).add(record.getValue());
+        }, (record, e) -> recovered.add(record.getValue()));
+        // Then failed and skipped records are recovered in order and exception is not thrown
+        assertEquals(Map.of("other", List.of(1)), handled, "Invalid records were handled.");
+        assertEquals(List.of(0, 2), recovered, "Invalid records were recovered.");
+    }
+}
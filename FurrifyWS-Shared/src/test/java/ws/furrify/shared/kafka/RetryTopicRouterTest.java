@@ -0,0 +1,171 @@
+package ws.furrify.shared.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryTopicRouterTest {
+
+    private final static long NOW = 1_000_000;
+
+    private final TopicPartition longTier = new TopicPartition("post_events-posts-retry-2", 0);
+    private final TopicPartition shortTier = new TopicPartition("tag_events-posts-retry-0", 0);
+
+    private MockConsumer<String, String> consumer;
+    private PausingContainer container;
+    private KeyOrderedDispatcher keyOrderedDispatcher;
+    private RetryTopicRouter retryTopicRouter;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(longTier, shortTier));
+        consumer.updateBeginningOffsets(Map.of(longTier, 0L, shortTier, 0L));
+
+        container = new PausingContainer();
+        keyOrderedDispatcher = new KeyOrderedDispatcher(2, 8);
+        retryTopicRouter = new RetryTopicRouter(null, "posts", new long[]{10_000, 300_000}, Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyOrderedDispatcher.close();
+        retryTopicRouter.close();
+    }
+
+    @Test
+    @DisplayName("Redeliver records of partitions which are due")
+    void redeliver() {
+        // Given batch where record of long tier which is not due comes before due records of short tier
+        List<ConsumerRecord<String, String>> records = List.of(
+                record(longTier, 0, NOW - 1),
+                record(longTier, 1, NOW + 200_000),
+                record(shortTier, 0, NOW - 5),
+                record(longTier, 2, NOW - 1),
+                record(shortTier, 1, NOW)
+        );
+        List<String> handled = new CopyOnWriteArrayList<>();
+        // When redeliver() method called
+        retryTopicRouter.redeliver(records, consumer, container, keyOrderedDispatcher,
+                record -> handled.add(record.topic() + "@" + record.offset())
+        );
+        // Then due records of every partition are handled and committed
+        assertEquals(
+                Set.of("post_events-posts-retry-2@0", "tag_events-posts-retry-0@0", "tag_events-posts-retry-0@1"),
+                Set.copyOf(handled),
+                "Handled records are different."
+        );
+        assertEquals(
+                Map.of(longTier, new OffsetAndMetadata(1), shortTier, new OffsetAndMetadata(2)),
+                consumer.committed(Set.of(longTier, shortTier)),
+                "Committed offsets are different."
+        );
+        // Then only partition with record which is not due is sought back and paused
+        assertEquals(1, consumer.position(longTier), "Partition was not sought back to record which is not due.");
+        assertTrue(container.pausedPartitions.contains(longTier), "Partition with record which is not due was not paused.");
+        assertFalse(container.pausedPartitions.contains(shortTier), "Partition with due records was paused.");
+    }
+
+    @Test
+    @DisplayName("Forward failed records to topics of consumer group")
+    void forward() {
+        // Given router of consumer group and records failed in main topic, retry topic and last retry topic
+        MockProducer<String, Object> producer = new MockProducer<>(true, new StringSerializer(), (topic, value) -> value.toString().getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close(final Duration timeout) {
+                // Template closes producer after every send
+            }
+        };
+        RetryTopicRouter groupRetryTopicRouter = new RetryTopicRouter(
+                new KafkaTemplate<>(() -> producer), "posts", new long[]{10_000, 300_000}, Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC)
+        );
+        ConsumerRecord<String, String> retriedRecord = record(new TopicPartition("post_events-posts-retry-0", 0), 0, NOW);
+        retriedRecord.headers().add(RetryTopicRouter.ATTEMPT_HEADER, "1".getBytes(StandardCharsets.UTF_8));
+        ConsumerRecord<String, String> lastRetriedRecord = record(new TopicPartition("post_events-posts-retry-1", 0), 0, NOW);
+        lastRetriedRecord.headers().add(RetryTopicRouter.ATTEMPT_HEADER, "2".getBytes(StandardCharsets.UTF_8));
+        // When forward() method called
+        groupRetryTopicRouter.forward(new ConsumerRecord<>("post_events", 0, 0, "key", "value"), new IllegalStateException());
+        groupRetryTopicRouter.forward(retriedRecord, new IllegalStateException());
+        groupRetryTopicRouter.forward(lastRetriedRecord, new IllegalStateException());
+        groupRetryTopicRouter.close();
+        // Then records are sent to retry and dead letter topics of the group
+        assertEquals(
+                List.of("post_events-posts-retry-0", "post_events-posts-retry-1", "post_events-posts-dlt"),
+                producer.history().stream().map(ProducerRecord::topic).toList(),
+                "Destination topics are different."
+        );
+        assertEquals("post_events", groupRetryTopicRouter.mainTopic("post_events-posts-dlt"), "Main topic is different.");
+        assertEquals("post_events-other-dlt", groupRetryTopicRouter.mainTopic("post_events-other-dlt"), "Topic of other group was matched.");
+    }
+
+    private static ConsumerRecord<String, String> record(final TopicPartition partition, final long offset, final long due) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(partition.topic(), partition.partition(), offset, "key" + offset, "value");
+        record.headers().add(RetryTopicRouter.DUE_HEADER, Long.toString(due).getBytes(StandardCharsets.UTF_8));
+
+        return record;
+    }
+
+    private static class PausingContainer implements MessageListenerContainer {
+        private final Set<TopicPartition> pausedPartitions = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void pausePartition(final TopicPartition topicPartition) {
+            pausedPartitions.add(topicPartition);
+        }
+
+        @Override
+        public void resumePartition(final TopicPartition topicPartition) {
+            pausedPartitions.remove(topicPartition);
+        }
+
+        @Override
+        public void setupMessageListener(final Object messageListener) {
+        }
+
+        @Override
+        public Map<String, Map<MetricName, ? extends Metric>> metrics() {
+            return Map.of();
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+    }
+}
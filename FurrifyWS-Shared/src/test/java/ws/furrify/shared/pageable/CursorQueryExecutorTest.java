@@ -0,0 +1,132 @@
+package ws.furrify.shared.pageable;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.Id;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CursorQueryExecutorTest {
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private CursorQueryExecutor cursorQueryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new Configuration()
+                .setProperty(AvailableSettings.URL, "jdbc:h2:mem:" + UUID.randomUUID())
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .addAnnotatedClass(Record.class)
+                .buildSessionFactory();
+        entityManager = sessionFactory.createEntityManager();
+        cursorQueryExecutor = new CursorQueryExecutor(entityManager);
+
+        entityManager.getTransaction().begin();
+        entityManager.persist(new Record(1L, "b"));
+        entityManager.persist(new Record(2L, null));
+        entityManager.persist(new Record(3L, "a"));
+        entityManager.persist(new Record(4L, null));
+        entityManager.persist(new Record(5L, "b"));
+        entityManager.getTransaction().commit();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Find all records in ascending order across null sort values")
+    void findAll() {
+        // Given records with null and non-null sort values
+        // When findAll() method called slice after slice
+        List<Long> ids = findAllIds(Sort.Direction.ASC);
+        // Then every record is returned once with null sort values last
+        assertEquals(List.of(3L, 1L, 5L, 2L, 4L), ids, "Returned records are different.");
+    }
+
+    @Test
+    @DisplayName("Find all records in descending order across null sort values")
+    void findAll2() {
+        // Given records with null and non-null sort values
+        // When findAll() method called slice after slice in descending order
+        List<Long> ids = findAllIds(Sort.Direction.DESC);
+        // Then every record is returned once with null sort values last
+        assertEquals(List.of(5L, 1L, 3L, 4L, 2L), ids, "Returned records are different.");
+    }
+
+    @Test
+    @DisplayName("Find all records when slice ends at last non-null sort value")
+    void findAll3() {
+        // Given records with null and non-null sort values
+        // When findAll() method called slice after slice with slice ending at last non-null sort value
+        List<Long> ids = findAllIds(Sort.Direction.ASC, 3);
+        // Then every record is returned once with null sort values last
+        assertEquals(List.of(3L, 1L, 5L, 2L, 4L), ids, "Returned records are different.");
+    }
+
+    private List<Long> findAllIds(final Sort.Direction direction) {
+        return findAllIds(direction, 2);
+    }
+
+    private List<Long> findAllIds(final Sort.Direction direction, final int size) {
+        List<Long> ids = new ArrayList<>();
+
+        Cursor after = null;
+        do {
+            CursorSlice<RecordProjection> slice = cursorQueryExecutor.findAll(
+                    Record.class,
+                    RecordProjection.class,
+                    new CursorPageable("name", direction, size, after),
+                    (criteriaBuilder, root) -> criteriaBuilder.conjunction()
+            );
+
+            slice.getContent().forEach(record -> ids.add(record.getId()));
+            after = slice.getNext();
+        } while (after != null);
+
+        return ids;
+    }
+
+    interface RecordProjection {
+        Long getId();
+    }
+
+    @Entity
+    static class Record {
+        @Id
+        private Long id;
+
+        private String name;
+
+        protected Record() {
+        }
+
+        Record(final Long id, final String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
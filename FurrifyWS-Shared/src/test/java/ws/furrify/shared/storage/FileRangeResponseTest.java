@@ -0,0 +1,75 @@
+package ws.furrify.shared.storage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FileRangeResponseTest {
+
+    private final static String ETAG = "\"3c518eeb674c71b30297f072fde7eba5\"";
+
+    @Test
+    @DisplayName("Respond with whole file")
+    void of() {
+        // Given request without conditional headers
+        // When of() method called
+        FileRangeResponse response = FileRangeResponse.of(1000, ETAG, null, null, null);
+        // Then whole file is sent
+        assertEquals(HttpStatus.OK, response.getStatus(), "Status is different.");
+        assertEquals(1000, response.getContentLength(), "Content length is different.");
+        assertNull(response.getContentRange(), "Content range was set.");
+    }
+
+    @Test
+    @DisplayName("Respond with range of file")
+    void of2() {
+        // Given request with range and matching If-Range
+        // When of() method called
+        FileRangeResponse response = FileRangeResponse.of(1000, ETAG, null, "bytes=100-199", ETAG);
+        FileRangeResponse suffixResponse = FileRangeResponse.of(1000, ETAG, null, "bytes=-100", null);
+        // Then only range is sent
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatus(), "Status is different.");
+        assertEquals(100, response.getContentLength(), "Content length is different.");
+        assertEquals("bytes 100-199/1000", response.getContentRange(), "Content range is different.");
+        assertEquals("bytes 900-999/1000", suffixResponse.getContentRange(), "Suffix range is different.");
+    }
+
+    @Test
+    @DisplayName("Respond with whole file to range of changed file")
+    void of3() {
+        // Given request with range and If-Range of other file version
+        // When of() method called
+        FileRangeResponse response = FileRangeResponse.of(1000, ETAG, null, "bytes=100-199", "\"other\"");
+        FileRangeResponse weakResponse = FileRangeResponse.of(1000, ETAG, null, "bytes=100-199", "W/" + ETAG);
+        // Then whole file is sent
+        assertEquals(HttpStatus.OK, response.getStatus(), "Range of changed file was sent.");
+        assertEquals(HttpStatus.OK, weakResponse.getStatus(), "Range was sent for weak validator.");
+    }
+
+    @Test
+    @DisplayName("Respond to unsatisfiable range")
+    void of4() {
+        // Given request with range beyond file
+        // When of() method called
+        FileRangeResponse response = FileRangeResponse.of(1000, ETAG, null, "bytes=1000-", null);
+        // Then range is not satisfiable and no content is sent
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus(), "Status is different.");
+        assertEquals("bytes */1000", response.getContentRange(), "Content range is different.");
+        assertFalse(response.hasBody(), "Content is sent.");
+    }
+
+    @Test
+    @DisplayName("Respond to request of cached file")
+    void of5() {
+        // Given request with If-None-Match containing file ETag
+        // When of() method called
+        FileRangeResponse response = FileRangeResponse.of(1000, ETAG, "\"other\", W/" + ETAG, "bytes=0-99", null);
+        // Then file is not modified
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatus(), "Status is different.");
+        assertEquals(0, response.getContentLength(), "Content is sent.");
+    }
+}
@@ -0,0 +1,226 @@
+package ws.furrify.shared.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import ws.furrify.shared.exception.FileUploadFailedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class S3ObjectStorageTest {
+
+    private final static int PART_SIZE = (int) S3ObjectStorage.MIN_PART_SIZE;
+
+    @TempDir
+    Path directory;
+
+    private InMemoryS3Client client;
+    private S3ObjectStorage objectStorage;
+
+    @BeforeEach
+    void setUp() {
+        client = new InMemoryS3Client();
+        objectStorage = new S3ObjectStorage(client, "bucket", "http://localhost:9000/bucket/", PART_SIZE, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        objectStorage.close();
+    }
+
+    @Test
+    @DisplayName("Upload file larger than part size")
+    void upload() throws IOException {
+        // Given file of three and half parts
+        byte[] content = contentOf(3 * PART_SIZE + PART_SIZE / 2);
+        Path file = Files.write(directory.resolve("file"), content);
+        // When upload() method called
+        objectStorage.upload("media/file", file, "image/png");
+        // Then parts are numbered in order and completed object has file content
+        assertEquals(4, client.parts.size(), "Amount of parts is different.");
+        assertArrayEquals(content, client.objects.get("media/file"), "Content is different.");
+    }
+
+    @Test
+    @DisplayName("Upload file larger than part size with failing part")
+    void upload2() throws IOException {
+        // Given file of three parts and failing second part
+        Path file = Files.write(directory.resolve("file"), contentOf(3 * PART_SIZE));
+        client.failingPart = 2;
+        // When upload() method called
+        // Then throw FileUploadFailedException and abort upload
+        assertThrows(
+                FileUploadFailedException.class,
+                () -> objectStorage.upload("media/file", file, null),
+                "Exception was not thrown."
+        );
+        assertTrue(client.aborted.get(), "Upload was not aborted.");
+        assertTrue(client.objects.isEmpty(), "Object was created.");
+    }
+
+    @Test
+    @DisplayName("Abort upload with failing part after other parts are done")
+    void upload4() throws IOException {
+        // Given file of three parts, failing first part and slow other parts
+        Path file = Files.write(directory.resolve("file"), contentOf(3 * PART_SIZE));
+        client.failingPart = 1;
+        client.partDelay = 500;
+        // When upload() method called
+        // Then throw FileUploadFailedException and abort upload when no part is being uploaded
+        assertThrows(
+                FileUploadFailedException.class,
+                () -> objectStorage.upload("media/file", file, null),
+                "Exception was not thrown."
+        );
+        assertTrue(client.aborted.get(), "Upload was not aborted.");
+        assertEquals(0, client.partsInFlightOnAbort.get(), "Upload was aborted while parts were uploaded.");
+    }
+
+    @Test
+    @DisplayName("Upload file not larger than part size")
+    void upload3() throws IOException {
+        // Given file smaller than part size
+        byte[] content = contentOf(1024);
+        Path file = Files.write(directory.resolve("file"), content);
+        // When upload() method called
+        objectStorage.upload("media/file", file, null);
+        // Then object is created with single request
+        assertTrue(client.parts.isEmpty(), "Multipart upload was used.");
+        assertArrayEquals(content, client.objects.get("media/file"), "Content is different.");
+    }
+
+    @Test
+    @DisplayName("Get uri of object")
+    void uriOf() throws Exception {
+        // Given object key
+        // When uriOf() method called
+        // Then return key appended to public url
+        assertEquals(
+                "http://localhost:9000/bucket/media/file",
+                objectStorage.uriOf("media/file").toString(),
+                "Uri is different."
+        );
+    }
+
+    private static byte[] contentOf(final int size) {
+        byte[] content = new byte[size];
+        new Random(0).nextBytes(content);
+
+        return content;
+    }
+
+    private static byte[] read(final RequestBody body) {
+        try (InputStream inputStream = body.contentStreamProvider().newStream()) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class InMemoryS3Client implements S3Client {
+        private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        private final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+        private final AtomicBoolean aborted = new AtomicBoolean(false);
+        private final AtomicInteger partsInFlight = new AtomicInteger(0);
+        private final AtomicInteger partsInFlightOnAbort = new AtomicInteger(-1);
+        private volatile int failingPart = -1;
+        private volatile long partDelay = 0;
+
+        @Override
+        public PutObjectResponse putObject(final PutObjectRequest request, final RequestBody body) {
+            objects.put(request.key(), read(body));
+
+            return PutObjectResponse.builder().build();
+        }
+
+        @Override
+        public CreateMultipartUploadResponse createMultipartUpload(final CreateMultipartUploadRequest request) {
+            return CreateMultipartUploadResponse.builder().uploadId("upload").build();
+        }
+
+        @Override
+        public UploadPartResponse uploadPart(final UploadPartRequest request, final RequestBody body) {
+            if (request.partNumber() == failingPart) {
+                throw SdkClientException.create("Part upload has failed.");
+            }
+
+            partsInFlight.incrementAndGet();
+            try {
+                Thread.sleep(partDelay);
+
+                byte[] part = read(body);
+                assertEquals(request.contentLength(), part.length, "Part length is different.");
+                parts.put(request.partNumber(), part);
+
+                return UploadPartResponse.builder().eTag("etag" + request.partNumber()).build();
+            } catch (InterruptedException e) {
+                throw SdkClientException.create("Part upload was interrupted.", e);
+            } finally {
+                partsInFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public CompleteMultipartUploadResponse completeMultipartUpload(final CompleteMultipartUploadRequest request) {
+            ByteArrayOutputStream object = new ByteArrayOutputStream();
+            int partNumber = 1;
+            for (CompletedPart part : request.multipartUpload().parts()) {
+                assertEquals(partNumber++, part.partNumber(), "Parts are out of order.");
+                assertEquals("etag" + part.partNumber(), part.eTag(), "ETag is different.");
+
+                object.writeBytes(parts.get(part.partNumber()));
+            }
+            objects.put(request.key(), object.toByteArray());
+
+            return CompleteMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public AbortMultipartUploadResponse abortMultipartUpload(final AbortMultipartUploadRequest request) {
+            partsInFlightOnAbort.set(partsInFlight.get());
+            aborted.set(true);
+
+            return AbortMultipartUploadResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
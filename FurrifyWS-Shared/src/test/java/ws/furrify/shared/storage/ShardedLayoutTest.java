@@ -0,0 +1,117 @@
+package ws.furrify.shared.storage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedLayoutTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Get path of id")
+    void pathOf() {
+        // Given layout with two levels
+        ShardedLayout shardedLayout = new ShardedLayout(2);
+        UUID id = UUID.fromString("9b0a6f47-7b9c-4f1c-8d6a-3f3c1e2a7b10");
+        // When pathOf() method called
+        String path = shardedLayout.pathOf(id);
+        // Then path has two levels of two hex digits and is the same for the same id
+        assertTrue(path.matches("[0-9a-f]{2}/[0-9a-f]{2}/" + id), "Path is not sharded.");
+        assertEquals(path, shardedLayout.pathOf(id), "Path is not stable.");
+        assertEquals(id.toString(), new ShardedLayout(0).pathOf(id), "Flat path is different.");
+    }
+
+    @Test
+    @DisplayName("Get paths of many ids")
+    void pathOf2() {
+        // Given layout with one level
+        ShardedLayout shardedLayout = new ShardedLayout(1);
+        // When pathOf() method called for many ids
+        Set<String> firstLevels = IntStream.range(0, 10000)
+                .mapToObj(i -> shardedLayout.pathOf(UUID.randomUUID()).substring(0, 2))
+                .collect(Collectors.toSet());
+        // Then ids are spread across all directories
+        assertEquals(256, firstLevels.size(), "Ids are not spread across directories.");
+    }
+
+    @Test
+    @DisplayName("Move directory")
+    void moveDirectory() throws IOException {
+        // Given directory with file
+        Path source = directory.resolve("id");
+        Files.createDirectories(source);
+        Files.writeString(source.resolve("file.png"), "content");
+        Path target = directory.resolve("ab/cd/id");
+        // When moveDirectory() method called twice
+        boolean moved = ShardedLayout.moveDirectory(source, target);
+        boolean movedAgain = ShardedLayout.moveDirectory(source, target);
+        // Then directory is moved once
+        assertTrue(moved, "Directory was not moved.");
+        assertFalse(movedAgain, "Directory was moved again.");
+        assertEquals("content", Files.readString(target.resolve("file.png")), "Content is different.");
+        assertFalse(Files.exists(source), "Source directory was not removed.");
+    }
+
+    @Test
+    @DisplayName("Relocate uri")
+    void relocate() {
+        // Given uris in flat layout and already relocated uri
+        URI uri = URI.create("/media/id/file.png");
+        URI relocatedUri = URI.create("/media/ab/cd/id/file.png");
+        // When relocate() method called
+        // Then only uri with source prefix is relocated
+        assertEquals(relocatedUri, ShardedLayout.relocate(uri, "/media/id/", "/media/ab/cd/id/"), "Uri is different.");
+        assertEquals(relocatedUri, ShardedLayout.relocate(relocatedUri, "/media/id/", "/media/ab/cd/id/"), "Uri was relocated again.");
+    }
+
+    @Test
+    @DisplayName("Migrate all records")
+    void migrateAll() {
+        // Given records in three pages where one record fails
+        List<Long> records = IntStream.rangeClosed(1, 25).mapToObj(Long::valueOf).toList();
+        Set<Long> migrated = ConcurrentHashMap.newKeySet();
+        StorageMigration<Long> storageMigration = new StorageMigration<>("test", 4, 10) {
+            @Override
+            protected List<Long> findPage(final long afterId, final int limit) {
+                return records.stream().filter(record -> record > afterId).limit(limit).toList();
+            }
+
+            @Override
+            protected long idOf(final Long record) {
+                return record;
+            }
+
+            @Override
+            protected boolean migrate(final Long record) throws IOException {
+                if (record == 13) {
+                    throw new IOException("Move has failed.");
+                }
+
+                return migrated.add(record);
+            }
+        };
+        // When migrateAll() method called
+        int migratedCount = storageMigration.migrateAll();
+        storageMigration.close();
+        // Then every other record is migrated
+        assertEquals(24, migratedCount, "Amount of migrated records is different.");
+        assertFalse(migrated.contains(13L), "Failing record was migrated.");
+    }
+}
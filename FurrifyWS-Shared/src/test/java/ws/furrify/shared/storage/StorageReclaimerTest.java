@@ -0,0 +1,158 @@
+package ws.furrify.shared.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageReclaimerTest {
+
+    @TempDir
+    Path directory;
+
+    private ShardedLayout shardedLayout;
+    private Set<UUID> existingIds;
+    private Set<UUID> reclaimedIds;
+    private StorageReclaimer storageReclaimer;
+
+    @BeforeEach
+    void setUp() {
+        shardedLayout = new ShardedLayout(2);
+        existingIds = ConcurrentHashMap.newKeySet();
+        reclaimedIds = ConcurrentHashMap.newKeySet();
+
+        storageReclaimer = new StorageReclaimer("test", directory, new IoRateLimiter(0), 4, 2, Duration.ofHours(1), Duration.ZERO, true) {
+            @Override
+            protected Set<UUID> findExisting(final Set<UUID> ids) {
+                ids.retainAll(existingIds);
+
+                return ids;
+            }
+
+            @Override
+            protected void reclaimed(final UUID id) {
+                reclaimedIds.add(id);
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        storageReclaimer.close();
+    }
+
+    @Test
+    @DisplayName("Sweep storage in dry run")
+    void sweep() throws IOException {
+        // Given stored, orphaned and recently uploaded directories
+        Path stored = createDirectory(shardedLayout.pathOf(existing()), true);
+        Path orphaned = createDirectory(shardedLayout.pathOf(UUID.randomUUID()), true);
+        Path uploaded = createDirectory(shardedLayout.pathOf(UUID.randomUUID()), false);
+        // When sweep() method called in dry run
+        StorageReclaimer.SweepReport report = storageReclaimer.sweep(true);
+        // Then orphaned directory is reported and nothing is deleted
+        assertEquals(3, report.scanned(), "Amount of scanned directories is different.");
+        assertEquals(1, report.orphaned(), "Amount of orphaned directories is different.");
+        assertEquals(4, report.orphanedBytes(), "Size of orphaned files is different.");
+        assertEquals(0, report.reclaimed(), "Directory was reclaimed in dry run.");
+        assertTrue(Files.exists(stored) && Files.exists(orphaned) && Files.exists(uploaded), "Directory was deleted in dry run.");
+    }
+
+    @Test
+    @DisplayName("Sweep storage")
+    void sweep2() throws IOException {
+        // Given orphaned directories in sharded and flat layout and nested directory of stored id
+        UUID orphanedId = UUID.randomUUID();
+        UUID parentId = UUID.randomUUID();
+        Path stored = createDirectory(parentId + "/avatar/" + existing(), true);
+        Path orphaned = createDirectory(shardedLayout.pathOf(orphanedId), true);
+        Path flatOrphaned = createDirectory(UUID.randomUUID().toString(), true);
+        // When sweep() method called
+        StorageReclaimer.SweepReport report = storageReclaimer.sweep(false);
+        // Then only orphaned directories are deleted
+        assertEquals(2, report.reclaimed(), "Amount of reclaimed directories is different.");
+        assertTrue(Files.exists(stored), "Stored directory was deleted.");
+        assertFalse(Files.exists(orphaned), "Orphaned directory was not deleted.");
+        assertFalse(Files.exists(flatOrphaned), "Orphaned directory in flat layout was not deleted.");
+        assertTrue(reclaimedIds.contains(orphanedId), "Reclaimed id was not released.");
+        assertFalse(reclaimedIds.contains(parentId), "Directory of parent id was reclaimed.");
+    }
+
+    @Test
+    @DisplayName("Sweep storage in background")
+    void sweepInBackground() throws IOException, InterruptedException {
+        // Given orphaned directory
+        Path orphaned = createDirectory(shardedLayout.pathOf(UUID.randomUUID()), true);
+        // When sweepInBackground() method called
+        storageReclaimer.sweepInBackground(false);
+        // Then directory is deleted and report is kept as status
+        for (int i = 0; i < 100 && storageReclaimer.getSweepStatus().sweeping(); i++) {
+            Thread.sleep(50);
+        }
+        StorageReclaimer.SweepStatus status = storageReclaimer.getSweepStatus();
+        assertFalse(status.sweeping(), "Sweep has not finished.");
+        assertEquals(1, status.lastReport().reclaimed(), "Amount of reclaimed directories is different.");
+        assertFalse(Files.exists(orphaned), "Orphaned directory was not deleted.");
+    }
+
+    @Test
+    @DisplayName("Delete queued files")
+    void enqueue() throws InterruptedException {
+        // Given queued deletion
+        CountDownLatch deleted = new CountDownLatch(1);
+        storageReclaimer.enqueue(UUID.randomUUID(), deleted::countDown);
+        // When start() method called
+        storageReclaimer.start();
+        // Then files are deleted in background
+        assertTrue(deleted.await(5, TimeUnit.SECONDS), "Queued deletion was not run.");
+    }
+
+    @Test
+    @DisplayName("Limit rate of operations")
+    void acquire() throws InterruptedException {
+        // Given limiter of 100 operations per second
+        IoRateLimiter rateLimiter = new IoRateLimiter(100);
+        // When acquire() method called 21 times
+        long start = System.nanoTime();
+        for (int i = 0; i <= 20; i++) {
+            rateLimiter.acquire();
+        }
+        // Then operations are spread over 200 milliseconds
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(190), "Operations were not limited.");
+    }
+
+    private UUID existing() {
+        UUID id = UUID.randomUUID();
+        existingIds.add(id);
+
+        return id;
+    }
+
+    private Path createDirectory(final String path, final boolean old) throws IOException {
+        Path idDirectory = Files.createDirectories(directory.resolve(path));
+        Files.writeString(idDirectory.resolve("file.png"), "file");
+
+        if (old) {
+            Files.setLastModifiedTime(idDirectory, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        }
+
+        return idDirectory;
+    }
+}
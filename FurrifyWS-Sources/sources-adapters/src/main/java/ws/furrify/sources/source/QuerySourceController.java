@@ -4,7 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,6 +16,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.RecordNotFoundException;
+import ws.furrify.shared.pageable.CursorPageable;
+import ws.furrify.shared.pageable.CursorRequest;
+import ws.furrify.shared.pageable.CursorSlice;
 import ws.furrify.shared.pageable.PageableRequest;
 import ws.furrify.sources.source.dto.query.SourceDetailsQueryDTO;
 
@@ -73,6 +78,64 @@ class QuerySourceController {
         return sources;
     }
 
+    @GetMapping(params = "after")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('query_user_sources') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public CollectionModel<EntityModel<SourceDetailsQueryDTO>> getUserSourcesByCursor(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer size,
+            @RequestParam String after,
+            KeycloakAuthenticationToken keycloakAuthenticationToken) {
+
+        // Build cursor page from cursor information
+        CursorPageable pageable = CursorRequest.builder()
+                .order(order)
+                .sort(sort)
+                .size(size)
+                .after(after)
+                .build().toCursorPageable();
+
+        CursorSlice<SourceDetailsQueryDTO> sourcesSlice = sourceQueryRepository.findAllByOwnerId(userId, pageable);
+
+        CollectionModel<EntityModel<SourceDetailsQueryDTO>> sources = CollectionModel.of(
+                sourcesSlice.getContent().stream()
+                        .map(EntityModel::of)
+                        .map(this::addSourceRelations)
+                        .toList()
+        );
+
+        // Add hateoas relation
+        var sourcesRel = linkTo(methodOn(QuerySourceController.class).getUserSourcesByCursor(
+                userId,
+                null,
+                null,
+                size,
+                after,
+                null
+        )).withSelfRel();
+
+        sources.add(sourcesRel);
+
+        if (sourcesSlice.hasNext()) {
+            var nextRel = linkTo(methodOn(QuerySourceController.class).getUserSourcesByCursor(
+                    userId,
+                    null,
+                    null,
+                    size,
+                    sourcesSlice.getNext().encode(),
+                    null
+            )).withRel(IanaLinkRelations.NEXT);
+
+            sources.add(nextRel);
+        }
+
+        return sources;
+    }
+
     @GetMapping("/{sourceId}")
     @PreAuthorize(
             "hasRole('admin') ||" +
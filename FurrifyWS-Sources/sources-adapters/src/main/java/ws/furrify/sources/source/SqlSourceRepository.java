@@ -9,8 +9,13 @@ import org.springframework.data.repository.Repository;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.transaction.annotation.Transactional;
+import ws.furrify.shared.pageable.CursorPageable;
+import ws.furrify.shared.pageable.CursorQueryExecutor;
+import ws.furrify.shared.pageable.CursorSlice;
 import ws.furrify.sources.source.dto.query.SourceDetailsQueryDTO;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -30,7 +35,7 @@ interface SqlSourceRepository extends Repository<SourceSnapshot, Long> {
 }
 
 @Transactional(rollbackFor = {})
-interface SqlSourceQueryRepositoryImpl extends SourceQueryRepository, Repository<SourceSnapshot, Long> {
+interface SqlSourceQueryRepositoryImpl extends SourceQueryRepository, SourceCursorQueryRepository, Repository<SourceSnapshot, Long> {
 
     @Override
     Optional<SourceDetailsQueryDTO> findByOwnerIdAndSourceId(UUID ownerId, UUID sourceId);
@@ -55,6 +60,27 @@ interface SqlSourceQueryRepositoryImpl extends SourceQueryRepository, Repository
     Page<SourceDetailsQueryDTO> findAllByOwnerIdAndPostIdAndAttachmentId(UUID userId, UUID postId, UUID attachmentId, Pageable pageable);
 }
 
+interface SourceCursorQueryRepository {
+    CursorSlice<SourceDetailsQueryDTO> findAllByOwnerId(UUID ownerId, CursorPageable pageable);
+}
+
+@Transactional(rollbackFor = {})
+class SourceCursorQueryRepositoryImpl implements SourceCursorQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public CursorSlice<SourceDetailsQueryDTO> findAllByOwnerId(final UUID ownerId, final CursorPageable pageable) {
+        return new CursorQueryExecutor(entityManager).findAll(
+                SourceSnapshot.class,
+                SourceDetailsQueryDTO.class,
+                pageable,
+                (criteriaBuilder, source) -> criteriaBuilder.equal(source.get("ownerId"), ownerId)
+        );
+    }
+}
+
 @org.springframework.stereotype.Repository
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class SourceRepositoryImpl implements SourceRepository {
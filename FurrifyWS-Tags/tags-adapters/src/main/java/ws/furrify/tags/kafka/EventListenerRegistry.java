@@ -2,37 +2,75 @@ package ws.furrify.tags.kafka;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.stereotype.Service;
+import ws.furrify.shared.exception.Errors;
+import ws.furrify.shared.exception.InvalidDataGivenException;
+import ws.furrify.shared.kafka.DeadLetterReplayer;
+import ws.furrify.shared.kafka.KeyOrderedDispatcher;
+import ws.furrify.shared.kafka.RetryTopicRouter;
 import ws.furrify.tags.tag.TagEvent;
 import ws.furrify.tags.tag.TagFacade;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 @Log
 class EventListenerRegistry {
+    private final static String RETRY_LISTENER_ID = "retry";
+
     private final TagFacade tagFacade;
+    private final KeyOrderedDispatcher keyOrderedDispatcher;
+    private final RetryTopicRouter retryTopicRouter;
+    private final KafkaListenerEndpointRegistry kafkaListenerEndpointRegistry;
+    private final DeadLetterReplayer<TagEvent> deadLetterReplayer;
 
     @KafkaListener(topics = "tag_events")
-    @Retryable(
-            value = {Exception.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 10_000)
+    public void on(List<ConsumerRecord<String, TagEvent>> records) {
+        log.info("Events received from kafka [topic=tag_events] [size=" + records.size() + "].");
+
+        keyOrderedDispatcher.dispatch(records, ConsumerRecord::key, this::handle, retryTopicRouter::forward);
+    }
+
+    @KafkaListener(
+            topics = "#{@retryTopicRouter.retryTopics('tag_events')}",
+            containerFactory = "retryKafkaListenerContainerFactory",
+            id = RETRY_LISTENER_ID,
+            idIsGroup = false
     )
-    public void on(@Header(KafkaHeaders.RECEIVED_PARTITION_ID) int partition,
-                   @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                   @Header(KafkaHeaders.RECEIVED_MESSAGE_KEY) String key,
-                   @Payload TagEvent tagEvent) {
+    public void onRetry(List<ConsumerRecord<String, TagEvent>> records, Consumer<?, ?> consumer) {
+        log.info("Events received from kafka [topic=tag_events retry] [size=" + records.size() + "].");
 
-        log.info("Event received from kafka [topic=" + topic + "] [partition=" + partition + "].");
+        retryTopicRouter.redeliver(
+                records,
+                consumer,
+                kafkaListenerEndpointRegistry.getListenerContainer(RETRY_LISTENER_ID),
+                keyOrderedDispatcher,
+                this::handle
+        );
+    }
+
+    /**
+     * Replay events of dead letter topic of given topic.
+     *
+     * Replay runs in background.
+     *
+     * @param topic Consumed topic name.
+     */
+    void replayDeadLetters(final String topic) {
+        if (!topic.equals("tag_events")) {
+            throw new InvalidDataGivenException(Errors.TOPIC_IS_NOT_CONSUMED.getErrorMessage(topic));
+        }
+
+        deadLetterReplayer.replayAsync(retryTopicRouter.deadLetterTopic(topic), this::handle);
+    }
 
-        tagFacade.handleEvent(UUID.fromString(key), tagEvent);
+    private void handle(final ConsumerRecord<String, TagEvent> record) {
+        tagFacade.handleEvent(UUID.fromString(record.key()), record.value());
     }
 }
@@ -4,7 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.keycloak.adapters.springsecurity.token.KeycloakAuthenticationToken;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,9 +16,14 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ws.furrify.shared.exception.Errors;
 import ws.furrify.shared.exception.RecordNotFoundException;
+import ws.furrify.shared.pageable.CursorPageable;
+import ws.furrify.shared.pageable.CursorRequest;
+import ws.furrify.shared.pageable.CursorSlice;
 import ws.furrify.shared.pageable.PageableRequest;
 import ws.furrify.tags.tag.dto.query.TagDetailsQueryDTO;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.afford;
@@ -76,6 +83,86 @@ class QueryUserTagController {
         return tagResponses;
     }
 
+    @GetMapping(params = "after")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('query_user_tags') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public CollectionModel<EntityModel<TagDetailsQueryDTO>> getUserTagsByCursor(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String match,
+            @RequestParam(required = false) String order,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer size,
+            @RequestParam String after,
+            KeycloakAuthenticationToken keycloakAuthenticationToken) {
+
+        // Build cursor page from cursor information
+        CursorPageable pageable = CursorRequest.builder()
+                .order(order)
+                .sort(sort)
+                .size(size)
+                .after(after)
+                .build().toCursorPageable();
+
+        CursorSlice<TagDetailsQueryDTO> tagsSlice = tagQueryRepository.findAllByOwnerIdAndLikeMatch(userId, match, pageable);
+
+        CollectionModel<EntityModel<TagDetailsQueryDTO>> tagResponses = CollectionModel.of(
+                tagsSlice.getContent().stream()
+                        .map(EntityModel::of)
+                        .map(this::addTagRelations)
+                        .toList()
+        );
+
+        // Add hateoas relation
+        var tagsRelations = linkTo(methodOn(QueryUserTagController.class).getUserTagsByCursor(
+                userId,
+                match,
+                null,
+                null,
+                size,
+                after,
+                null
+        )).withSelfRel();
+
+        tagResponses.add(tagsRelations);
+
+        if (tagsSlice.hasNext()) {
+            var nextRel = linkTo(methodOn(QueryUserTagController.class).getUserTagsByCursor(
+                    userId,
+                    match,
+                    null,
+                    null,
+                    size,
+                    tagsSlice.getNext().encode(),
+                    null
+            )).withRel(IanaLinkRelations.NEXT);
+
+            tagResponses.add(nextRel);
+        }
+
+        return tagResponses;
+    }
+
+    /**
+     * Resolves many tags by values at once.
+     * Tags are returned without relations as plain list, missing values are omitted.
+     */
+    @GetMapping(params = "values")
+    @PreAuthorize(
+            "hasRole('admin') ||" +
+                    "(hasRole('query_user_tags') && #userId == @keycloakAuthorizationUtilsImpl.getCurrentUserId(#keycloakAuthenticationToken))"
+    )
+    public List<TagDetailsQueryDTO> getUserTagsByValues(@PathVariable UUID userId,
+                                                        @RequestParam Set<String> values,
+                                                        KeycloakAuthenticationToken keycloakAuthenticationToken) {
+        if (values.isEmpty()) {
+            return List.of();
+        }
+
+        return tagQueryRepository.findAllByOwnerIdAndValueIn(userId, values);
+    }
+
     @GetMapping("/{value}")
     @PreAuthorize(
             "hasRole('admin') ||" +
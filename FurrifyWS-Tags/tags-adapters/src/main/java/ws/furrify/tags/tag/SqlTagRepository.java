@@ -7,9 +7,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import ws.furrify.shared.pageable.CursorPageable;
+import ws.furrify.shared.pageable.CursorQueryExecutor;
+import ws.furrify.shared.pageable.CursorSlice;
 import ws.furrify.tags.tag.dto.query.TagDetailsQueryDTO;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Transactional(rollbackFor = RuntimeException.class)
@@ -27,7 +34,7 @@ interface SqlTagRepository extends Repository<TagSnapshot, Long> {
 }
 
 @Transactional(rollbackFor = {})
-interface SqlTagQueryRepositoryImpl extends TagQueryRepository, Repository<TagSnapshot, Long> {
+interface SqlTagQueryRepositoryImpl extends TagQueryRepository, TagCursorQueryRepository, Repository<TagSnapshot, Long> {
 
     @Override
     Optional<TagDetailsQueryDTO> findByOwnerIdAndValue(UUID userId, String value);
@@ -37,11 +44,42 @@ interface SqlTagQueryRepositoryImpl extends TagQueryRepository, Repository<TagSn
             "(?2 is null or tag.value like %?2%) order by tag.value desc")
     Page<TagDetailsQueryDTO> findAllByOwnerIdAndLikeMatch(UUID userId, String match, Pageable pageable);
 
+    @Override
+    List<TagDetailsQueryDTO> findAllByOwnerIdAndValueIn(UUID userId, Set<String> values);
+
     @Override
     @Query("select id from TagSnapshot where value = ?1")
     Long getIdByValue(String value);
 }
 
+interface TagCursorQueryRepository {
+    CursorSlice<TagDetailsQueryDTO> findAllByOwnerIdAndLikeMatch(UUID ownerId, String match, CursorPageable pageable);
+}
+
+@Transactional(rollbackFor = {})
+class TagCursorQueryRepositoryImpl implements TagCursorQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public CursorSlice<TagDetailsQueryDTO> findAllByOwnerIdAndLikeMatch(final UUID ownerId,
+                                                                        final String match,
+                                                                        final CursorPageable pageable) {
+        return new CursorQueryExecutor(entityManager).findAll(
+                TagSnapshot.class,
+                TagDetailsQueryDTO.class,
+                pageable,
+                (criteriaBuilder, tag) -> (match == null) ?
+                        criteriaBuilder.equal(tag.get("ownerId"), ownerId) :
+                        criteriaBuilder.and(
+                                criteriaBuilder.equal(tag.get("ownerId"), ownerId),
+                                criteriaBuilder.like(tag.get("value"), "%" + match + "%")
+                        )
+        );
+    }
+}
+
 @org.springframework.stereotype.Repository
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 class TagRepositoryImpl implements TagRepository {
@@ -4,7 +4,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import ws.furrify.tags.tag.dto.query.TagDetailsQueryDTO;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -15,5 +17,7 @@ public interface TagQueryRepository {
 
     Page<TagDetailsQueryDTO> findAllByOwnerIdAndLikeMatch(UUID userId, String match, Pageable pageable);
 
+    List<TagDetailsQueryDTO> findAllByOwnerIdAndValueIn(UUID userId, Set<String> values);
+
     Long getIdByValue(String value);
 }